@@ -22,7 +22,7 @@ fi
 
 echo "Waiting for recommender to accept connections on 127.0.0.1:5001..."
 for i in {1..60}; do
-  if curl -sS "http://127.0.0.1:5001/recommend?lyric=ping&top=1" >/dev/null 2>&1; then
+  if curl -sS "http://127.0.0.1:5001/health" >/dev/null 2>&1; then
     echo "Recommender is up"
     break
   fi
@@ -0,0 +1,59 @@
+# Sidecar for the Spring backend: encodes query phrases with the same model
+# that built the vibe index. Run with
+#   python3 -m uvicorn api_server:app --app-dir books --host 127.0.0.1 --port 5001
+#
+# The Java client coalesces concurrent phrases, so /encode always takes a list
+# and answers with one little-endian float32 matrix (base64) instead of nested
+# JSON number arrays.
+
+import base64
+import os
+import time
+from typing import List
+
+import numpy as np
+from fastapi import FastAPI, HTTPException
+from pydantic import BaseModel
+from sentence_transformers import SentenceTransformer
+
+from vibe_recommender import MODEL_NAME
+
+MAX_BATCH = int(os.environ.get("VIBE_ENCODE_MAX_BATCH", "256"))
+
+app = FastAPI(title="VibeShelf encoder")
+
+# Loaded once per process; searching happens in Java against the exported index
+model = SentenceTransformer(MODEL_NAME)
+started_at = time.time()
+
+
+class EncodeRequest(BaseModel):
+    phrases: List[str]
+
+
+@app.get("/health")
+def health():
+    return {
+        "status": "ok",
+        "model": MODEL_NAME,
+        "dim": model.get_sentence_embedding_dimension(),
+        "uptimeSeconds": round(time.time() - started_at),
+    }
+
+
+@app.post("/encode")
+def encode(req: EncodeRequest):
+    if not req.phrases:
+        raise HTTPException(status_code=400, detail="phrases is empty")
+    if len(req.phrases) > MAX_BATCH:
+        raise HTTPException(status_code=413, detail=f"at most {MAX_BATCH} phrases per request")
+    # One forward pass for the whole batch; unit vectors so cosine is a dot product
+    vectors = model.encode(req.phrases, batch_size=len(req.phrases),
+                           normalize_embeddings=True, convert_to_numpy=True)
+    matrix = np.ascontiguousarray(vectors, dtype='<f4')
+    return {
+        "count": int(matrix.shape[0]),
+        "dim": int(matrix.shape[1]),
+        "data": base64.b64encode(matrix.tobytes()).decode('ascii'),
+    }
+
@@ -3,6 +3,7 @@
 import json
 import os
 import pickle
+import struct
 from sentence_transformers import SentenceTransformer
 import time
 import numpy as np
@@ -12,8 +13,35 @@ import urllib.parse
 # --- Configuration ---
 INPUT_JSON = "book_descriptions.json"
 OUTPUT_INDEX_FILE = "book_vibe_index.pkl"
+# Exports consumed by the Java backend (VibeSearchService)
+OUTPUT_BINARY_INDEX_FILE = "book_vibe_index.bin"  # versioned, memory-mappable (see VibeIndexFile.java)
+OUTPUT_ROWS_FILE = "book_vibe_rows.json"          # per-row {id, title, author, cover_url}, no descriptions
 MODEL_NAME = 'all-MiniLM-L6-v2'
 
+# Binary index layout (little-endian): 64-byte header, int64 book id per row,
+# then float32 rows starting on a 64-byte boundary
+INDEX_MAGIC = b"VIBEIDX\0"
+INDEX_VERSION = 1
+INDEX_HEADER = struct.Struct('<8sIIqIIqq16x')
+INDEX_ALIGNMENT = 64
+FLAG_NORMALIZED = 1
+
+
+def write_binary_index(path, vectors, ids):
+    count, dim = vectors.shape
+    ids_offset = INDEX_HEADER.size
+    vectors_offset = -(-(ids_offset + 8 * count) // INDEX_ALIGNMENT) * INDEX_ALIGNMENT
+    tmp_path = path + ".tmp"
+    with open(tmp_path, 'wb') as f:
+        f.write(INDEX_HEADER.pack(INDEX_MAGIC, INDEX_VERSION, dim, count, FLAG_NORMALIZED, 0,
+                                  ids_offset, vectors_offset))
+        f.write(np.asarray(ids, dtype='<i8').tobytes())
+        f.write(b'\0' * (vectors_offset - f.tell()))
+        f.write(np.ascontiguousarray(vectors, dtype='<f4').tobytes())
+    # Atomic swap so a running server never maps a half-written file
+    os.replace(tmp_path, path)
+
+
 # --- Main execution ---
 if __name__ == "__main__":
     print("--- Day 2: Starting AI Vibe Indexing ---")
@@ -28,6 +56,14 @@ if __name__ == "__main__":
 
     print(f"Loaded {len(book_database)} book descriptions.")
 
+    # Every row must map to a books_canonical id, or the backend cannot resolve it
+    missing_ids = [i for i, rec in enumerate(book_database)
+                   if not isinstance(rec.get('id'), int) or isinstance(rec.get('id'), bool) or rec['id'] < 0]
+    if missing_ids:
+        print(f"❌ ERROR: {len(missing_ids)} of {len(book_database)} records in {INPUT_JSON} have no books_canonical id "
+              f"(first at position {missing_ids[0]}). Re-run process_descriptions.py, which reads them from the database.")
+        exit(1)
+
     # 2. Load the AI Model
     print(f"Loading AI model: {MODEL_NAME}...")
     model = SentenceTransformer(MODEL_NAME)
@@ -243,7 +279,7 @@ if __name__ == "__main__":
                 rec['cover_url'] = find_cover_for_record(rec, idx=idx)
 
     index_data = {
-        'metadata': book_database, # The list of {title, author, description, cover_url}
+        'metadata': book_database, # The list of {id, title, author, description, cover_url}
         'embeddings': np.array(embeddings) # Store as a numpy array for speed
     }
 
@@ -252,5 +288,25 @@ if __name__ == "__main__":
     with open(OUTPUT_INDEX_FILE, 'wb') as f:
         pickle.dump(index_data, f)
 
+    # 7. Export for the Java backend: binary vector index + slim row metadata
+    print(f"Exporting vectors to {OUTPUT_BINARY_INDEX_FILE} and row metadata to {OUTPUT_ROWS_FILE}...")
+    vectors = np.asarray(embeddings, dtype='<f4')
+    norms = np.linalg.norm(vectors, axis=1, keepdims=True)
+    norms[norms == 0] = 1.0
+    vectors = (vectors / norms).astype('<f4')
+    book_ids = [rec['id'] for rec in book_database]
+    write_binary_index(OUTPUT_BINARY_INDEX_FILE, vectors, book_ids)
+
+    rows = []
+    for rec, book_id in zip(book_database, book_ids):
+        rows.append({
+            'id': book_id,
+            'title': rec.get('title'),
+            'author': rec.get('author'),
+            'cover_url': rec.get('cover_url'),
+        })
+    with open(OUTPUT_ROWS_FILE, 'w', encoding='utf-8') as f:
+        json.dump(rows, f)
+
     print("\n✅ Success! Your 'Book Vibe Brain' (index) is created and saved.")
    
\ No newline at end of file
@@ -1,41 +1,55 @@
 # Save as process_descriptions.py
 
-import pandas as pd
 import json
 import os
+import pymysql
 
 # --- Configuration ---
-# Make sure this CSV file is in your BookRecommender folder
-CSV_FILE_PATH = r'C:\Users\HP\BookRecommender\books\books_1.Best_Books_Ever.csv'
+# Books are read from books_canonical so every record carries the id the
+# backend uses (create_vibe_index.py writes it into the Java index).
+# Connection settings come from the environment; nothing secret is kept here.
+DB_HOST = os.getenv('VIBESHELF_DB_HOST', 'localhost')
+DB_PORT = int(os.getenv('VIBESHELF_DB_PORT', '3306'))
+DB_NAME = os.getenv('VIBESHELF_DB_NAME', 'books_db')
+DB_USER = os.getenv('VIBESHELF_DB_USER', 'root')
+DB_PASSWORD = os.getenv('VIBESHELF_DB_PASSWORD', '')
 OUTPUT_JSON = 'book_descriptions.json'
 
+QUERY = """
+    SELECT id, title, author, description, image
+    FROM books_canonical
+    WHERE title IS NOT NULL AND author IS NOT NULL
+      AND description IS NOT NULL AND description <> ''
+    ORDER BY id
+"""
+
 # --- Main execution ---
 if __name__ == "__main__":
     print("--- Day 1: Starting Book Description Processing ---")
     
     book_database = []
 
-    if not os.path.exists(CSV_FILE_PATH):
-        print(f"❌ ERROR: File not found: {CSV_FILE_PATH}")
-        print("Please make sure 'books_1.Best_Books_Ever.csv' is in the same folder as this script.")
-        exit()
-
     try:
-        print(f"Reading {CSV_FILE_PATH}...")
-        # This CSV is complex. We'll specify the encoding and use 'on_bad_lines'
-        # to skip any broken rows.
-        df = pd.read_csv(CSV_FILE_PATH, encoding='utf-8', on_bad_lines='skip')
-
-        # Check for the columns we need
-        if 'title' not in df.columns or 'author' not in df.columns or 'description' not in df.columns:
-            print("❌ ERROR: CSV file must have 'title', 'author', and 'description' columns.")
-            exit()
-            
-        # Get just the columns we need and drop any rows with missing data
-        df_clean = df[['title', 'author', 'description']].dropna()
-        
-        # Convert to a list of dictionaries
-        book_database = df_clean.to_dict('records')
+        print(f"Reading books_canonical from {DB_USER}@{DB_HOST}:{DB_PORT}/{DB_NAME}...")
+        connection = pymysql.connect(host=DB_HOST, port=DB_PORT, user=DB_USER, password=DB_PASSWORD,
+                                     database=DB_NAME, charset='utf8mb4')
+        try:
+            # Unbuffered cursor: the catalog is streamed, not loaded twice
+            with connection.cursor(pymysql.cursors.SSDictCursor) as cursor:
+                cursor.execute(QUERY)
+                for row in cursor:
+                    record = {
+                        'id': int(row['id']),
+                        'title': row['title'],
+                        'author': row['author'],
+                        'description': row['description'],
+                    }
+                    # Reuse the stored cover so create_vibe_index.py skips the lookup
+                    if row['image']:
+                        record['cover_url'] = row['image']
+                    book_database.append(record)
+        finally:
+            connection.close()
                 
         if book_database:
             # Save the extracted data to a JSON file
@@ -45,7 +59,7 @@ if __name__ == "__main__":
             print(f"\n✅ Success! Extracted {len(book_database)} book descriptions.")
             print(f"All data saved to {OUTPUT_JSON}")
         else:
-            print("\n❌ Error: No book data was processed from the CSV.")
+            print("\n❌ Error: books_canonical has no books with a description.")
 
     except Exception as e:
         print(f"An unexpected error occurred: {e}")
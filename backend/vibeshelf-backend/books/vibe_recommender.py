@@ -1,6 +1,9 @@
 # Save as vibe_recommender.py
 
+import json
+import os
 import pickle
+import struct
 from sentence_transformers import SentenceTransformer
 import numpy as np
 from sklearn.metrics.pairwise import cosine_similarity
@@ -8,15 +11,35 @@ import time
 
 # --- Configuration ---
 INDEX_FILE = "book_vibe_index.pkl"
+# Written by create_vibe_index.py; mapped instead of unpickled when present
+BINARY_INDEX_FILE = "book_vibe_index.bin"
+DESCRIPTIONS_FILE = "book_descriptions.json"
 MODEL_NAME = 'all-MiniLM-L6-v2'
 
 # --- Main App Functions ---
 
+def load_binary_index(path):
+    """Maps the embedding block of the binary index (no copy, pages load lazily)."""
+    with open(path, 'rb') as f:
+        magic, version, dim, count, _flags, _, _ids_offset, vectors_offset = \
+            struct.unpack('<8sIIqIIqq16x', f.read(64))
+    if magic != b"VIBEIDX\0" or version != 1:
+        raise ValueError(f"{path} is not a version 1 vibe index")
+    return np.memmap(path, dtype='<f4', mode='r', offset=vectors_offset, shape=(count, dim))
+
+
 def load_data(model_name, index_file):
     """Loads the AI model and the book vibe index."""
     print("Loading AI model...")
     model = SentenceTransformer(model_name)
     
+    if os.path.exists(BINARY_INDEX_FILE) and os.path.exists(DESCRIPTIONS_FILE):
+        print(f"Mapping book vibe index from {BINARY_INDEX_FILE}...")
+        embeddings = load_binary_index(BINARY_INDEX_FILE)
+        with open(DESCRIPTIONS_FILE, 'r', encoding='utf-8') as f:
+            metadata = json.load(f)[:len(embeddings)]
+        return model, embeddings, metadata
+
     print(f"Loading book vibe index from {index_file}...")
     try:
         with open(index_file, 'rb') as f:
@@ -0,0 +1,165 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.utils.AdaptiveConcurrencyLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.regex.Pattern;
+
+/**
+ * Load shedding for the endpoints that sit on BookRepository. When MySQL
+ * slows down, the adaptive limit shrinks and excess requests get an
+ * immediate 503 instead of holding a Tomcat thread, so admitted requests
+ * keep bounded latency and unrelated endpoints (health, auth) still have
+ * threads. Book detail may use the whole limit, searches and listings
+ * part of it, and deep offset pagination the least.
+ */
+@Configuration
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    /** Request classes, highest priority first. */
+    enum Priority { DETAIL, SEARCH, DEEP_PAGE }
+
+    private static final String START_ATTRIBUTE = ConcurrencyLimitConfig.class.getName() + ".start";
+    private static final Pattern DETAIL_PATH = Pattern.compile("^/api/(v2/)?books/\\d+$");
+    private static final String[] IN_MEMORY_PATHS = {
+        "/api/books/recommendations/health",
+        "/api/books/recommendations/encoder",
+        "/api/books/recommendations/cache",
+        "/api/books/recommendations/text-index",
+        "/api/v2/books/*/similar",
+        "/api/v2/books/similar/status",
+        "/api/v2/books/recommendations/sessions/status"
+    };
+
+    @Value("${app.concurrency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.concurrency.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${app.concurrency.min-limit:4}")
+    private int minLimit;
+
+    @Value("${app.concurrency.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${app.concurrency.share.detail:1.0}")
+    private double detailShare;
+
+    @Value("${app.concurrency.share.search:0.8}")
+    private double searchShare;
+
+    @Value("${app.concurrency.share.deep-page:0.5}")
+    private double deepPageShare;
+
+    @Value("${app.concurrency.deep-page-offset:2400}")
+    private long deepPageOffset;
+
+    @Bean
+    public AdaptiveConcurrencyLimiter bookQueryLimiter() {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!enabled) return;
+        // Runs after the rate limiter so over-quota clients never take a slot
+        registry.addInterceptor(new SheddingInterceptor(bookQueryLimiter()))
+                .addPathPatterns("/api/books/**", "/api/v2/books/**", "/api/genres/**")
+                // In-memory status and neighbour lookups never touch MySQL
+                .excludePathPatterns(IN_MEMORY_PATHS)
+                .order(1);
+    }
+
+    Priority classify(HttpServletRequest request) {
+        if (DETAIL_PATH.matcher(request.getRequestURI()).matches()) {
+            return Priority.DETAIL;
+        }
+        // Keyset (cursor) pages cost the same at any depth
+        String page = request.getParameter("page");
+        if (page != null && request.getParameter("cursor") == null) {
+            long offset = parse(page, 0) * parse(request.getParameter("limit"), 24);
+            if (offset >= deepPageOffset) {
+                return Priority.DEEP_PAGE;
+            }
+        }
+        return Priority.SEARCH;
+    }
+
+    private double share(Priority priority) {
+        switch (priority) {
+            case DETAIL: return detailShare;
+            case DEEP_PAGE: return deepPageShare;
+            default: return searchShare;
+        }
+    }
+
+    /*
+     * Only errors and timeouts say the database is struggling. A 503 here is
+     * always our own fast refusal (an index still loading, the encoder down),
+     * and counting it would shrink the limit for requests MySQL could serve.
+     */
+    static boolean countsAsFailure(int status, Exception ex) {
+        return ex != null || (status >= 500 && status != HttpStatus.SERVICE_UNAVAILABLE.value());
+    }
+
+    private static long parse(String value, long fallback) {
+        if (value == null) return fallback;
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private class SheddingInterceptor implements HandlerInterceptor {
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        SheddingInterceptor(AdaptiveConcurrencyLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+            if ("OPTIONS".equals(request.getMethod())) {
+                return true;
+            }
+            if (limiter.tryAcquire(share(classify(request)))) {
+                request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+                return true;
+            }
+
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ApiResponse<Object> body = ApiResponse.builder()
+                    .error("Server busy, please retry shortly")
+                    .build();
+            mapper.writeValue(response.getOutputStream(), body);
+            return false;
+        }
+
+        @Override
+        public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+            Object start = request.getAttribute(START_ATTRIBUTE);
+            if (start == null) {
+                return;
+            }
+            request.removeAttribute(START_ATTRIBUTE);
+            limiter.release(System.nanoTime() - (Long) start, countsAsFailure(response.getStatus(), ex));
+        }
+    }
+}
@@ -52,8 +52,9 @@ public class DataLoader implements CommandLineRunner {
         return values[i];
     }
 
-    // Very small CSV parser that handles commas and quoted fields (double quotes)
-    private String[] parseCsvLineComma(String line) {
+    // Very small CSV parser that handles commas and quoted fields (double quotes).
+    // Public and static so vibeshelf-benchmarks can measure it.
+    public static String[] parseCsvLineComma(String line) {
         if (line == null || line.isEmpty()) return new String[0];
         java.util.List<String> out = new java.util.ArrayList<>();
         StringBuilder cur = new StringBuilder();
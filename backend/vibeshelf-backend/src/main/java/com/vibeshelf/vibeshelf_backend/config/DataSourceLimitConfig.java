@@ -0,0 +1,41 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * In virtual execution mode, wraps the DataSource in a LimitedDataSource so
+ * the number of concurrent requests no longer bounds the queries MySQL sees.
+ * Permits default to Hikari's maximum pool size. Platform mode leaves the
+ * DataSource alone: Tomcat's pool already caps concurrency.
+ */
+@Configuration
+public class DataSourceLimitConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceLimiter(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof LimitedDataSource
+                        || !ExecutionModeEnvironmentPostProcessor.isVirtual(
+                            environment.getProperty(ExecutionModeEnvironmentPostProcessor.MODE_PROPERTY))) {
+                    return bean;
+                }
+                int permits = environment.getProperty("app.execution.db-permits", Integer.class, 0);
+                if (permits <= 0 && bean instanceof HikariDataSource) {
+                    permits = ((HikariDataSource) bean).getMaximumPoolSize();
+                }
+                // Hikari's own default when maximum-pool-size is unset
+                if (permits <= 0) permits = 10;
+                long timeoutMs = environment.getProperty("app.execution.db-acquire-timeout-ms", Long.class, 2000L);
+                return new LimitedDataSource((DataSource) bean, permits, timeoutMs);
+            }
+        };
+    }
+}
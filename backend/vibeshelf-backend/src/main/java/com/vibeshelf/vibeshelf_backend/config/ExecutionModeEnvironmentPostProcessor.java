@@ -0,0 +1,46 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns app.execution.mode into Spring Boot's virtual-thread switch before
+ * any bean is created. In virtual mode Tomcat runs each request on its own
+ * virtual thread and applicationTaskExecutor (@Async, the signup and
+ * password-reset continuations) and the @Scheduled scheduler use virtual
+ * threads too, so requests blocked on slow queries no longer use up a
+ * fixed pool. The fixed CPU pools (password hashing, hybrid search legs,
+ * recommendation warm-up) stay as they are. Virtual mode needs Java 21;
+ * on an older runtime startup fails instead of quietly staying on platform
+ * threads. Registered in META-INF/spring.factories.
+ */
+public class ExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String MODE_PROPERTY = "app.execution.mode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String mode = environment.getProperty(MODE_PROPERTY, "platform").trim().toLowerCase(Locale.ROOT);
+        boolean virtual;
+        switch (mode) {
+            case "platform": virtual = false; break;
+            case "virtual": virtual = true; break;
+            default: throw new IllegalStateException(MODE_PROPERTY + " must be platform or virtual, not " + mode);
+        }
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException(MODE_PROPERTY + "=virtual needs Java 21 or later (running "
+                + Runtime.version() + "); build with -Pjdk21");
+        }
+        environment.getPropertySources().addFirst(new MapPropertySource("executionMode",
+            Map.of("spring.threads.virtual.enabled", Boolean.toString(virtual))));
+    }
+
+    static boolean isVirtual(String mode) {
+        return "virtual".equalsIgnoreCase(mode == null ? null : mode.trim());
+    }
+}
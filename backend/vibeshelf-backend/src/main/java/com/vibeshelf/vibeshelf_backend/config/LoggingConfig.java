@@ -0,0 +1,31 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import com.vibeshelf.vibeshelf_backend.utils.SampledLogger;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Sample rates and error limits for the hot-path log categories
+ * (see SampledLogger). Output goes through the async RingBufferAppender
+ * configured in logback-spring.xml.
+ */
+@Configuration
+public class LoggingConfig {
+
+    @Value("${app.logging.request.sample-rate:0.01}")
+    private double requestSampleRate;
+
+    @Value("${app.logging.auth.sample-rate:0.0}")
+    private double authSampleRate;
+
+    @Value("${app.logging.errors-per-second:10}")
+    private int errorsPerSecond;
+
+    @PostConstruct
+    void configureCategories() {
+        SampledLogger.configure("request", requestSampleRate, errorsPerSecond);
+        SampledLogger.configure("auth", authSampleRate, errorsPerSecond);
+        SampledLogger.configure("errors", 1.0, errorsPerSecond);
+    }
+}
@@ -1,34 +1,74 @@
 package com.vibeshelf.vibeshelf_backend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.service.RateLimitService;
+import com.vibeshelf.vibeshelf_backend.utils.TokenBucketLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Simplified rate-limit configuration — the original project used Bucket4j.
- * For a minimal run (and because the external dependency was missing),
- * this configuration registers a no-op interceptor that allows all requests.
- *
- * If you want real rate limiting, we can re-add Bucket4j and its config later.
+ * Token-bucket rate limiting for /api (see RateLimitService). Requests over
+ * the limit get 429 with Retry-After; every limited response carries
+ * X-RateLimit-Limit and X-RateLimit-Remaining.
  */
 @Configuration
 public class RateLimitConfig implements WebMvcConfigurer {
 
+    @Autowired
+    private RateLimitService rateLimitService;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(new NoOpRateLimitInterceptor())
+        registry.addInterceptor(new TokenBucketInterceptor(rateLimitService))
                 .addPathPatterns("/api/**");
     }
 
-    private static class NoOpRateLimitInterceptor implements HandlerInterceptor {
+    private static class TokenBucketInterceptor implements HandlerInterceptor {
+        private final RateLimitService rateLimitService;
+        private final ObjectMapper mapper = new ObjectMapper();
+
+        TokenBucketInterceptor(RateLimitService rateLimitService) {
+            this.rateLimitService = rateLimitService;
+        }
+
         @Override
-        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
-            // Allow all requests through (no rate limiting)
-            return true;
+        public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+            // CORS preflights carry no credentials and must not use up the client's bucket;
+            // async results come back through a second dispatch that was already counted
+            if (!rateLimitService.isEnabled() || "OPTIONS".equals(request.getMethod())
+                    || request.getDispatcherType() == DispatcherType.ASYNC) {
+                return true;
+            }
+            RateLimitService.Outcome outcome = rateLimitService.check(request);
+            TokenBucketLimiter.Decision decision = outcome.getDecision();
+            response.setHeader("X-RateLimit-Limit", Integer.toString(outcome.getRule().getRequestsPerMinute()));
+            response.setHeader("X-RateLimit-Remaining", Integer.toString(decision.getRemaining()));
+            if (decision.isAllowed()) {
+                return true;
+            }
+
+            long retryAfterSeconds = Math.max(1, (decision.getRetryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ApiResponse<Object> body = ApiResponse.builder()
+                    .error("Rate limit exceeded, retry in " + retryAfterSeconds + "s")
+                    .build();
+            mapper.writeValue(response.getOutputStream(), body);
+            return false;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import com.vibeshelf.vibeshelf_backend.utils.SampledLogger;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * One structured line per request (method, path, status, duration). Server
+ * errors and slow requests are always logged (errors rate-limited); the rest
+ * are sampled at app.logging.request.sample-rate. Async requests (login,
+ * signup) are logged once, when the async dispatch writes the response.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final SampledLogger log = SampledLogger.forCategory("request");
+    private static final String START_ATTRIBUTE = RequestLoggingFilter.class.getName() + ".start";
+
+    @Value("${app.logging.request.slow-ms:1000}")
+    private long slowMs;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Object started = request.getAttribute(START_ATTRIBUTE);
+        long start = started != null ? (Long) started : System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (isAsyncStarted(request)) {
+                request.setAttribute(START_ATTRIBUTE, start);
+                return;
+            }
+            long ms = (System.nanoTime() - start) / 1_000_000;
+            int status = response.getStatus();
+            // Sampled-out requests skip the call entirely, so status and ms are never boxed for them
+            if (status >= 500) {
+                log.warn("request method={} path={} status={} ms={}", request.getMethod(), request.getRequestURI(), status, ms);
+            } else if (ms >= slowMs || log.shouldLogInfo()) {
+                log.infoAlways("request method={} path={} status={} ms={}", request.getMethod(), request.getRequestURI(), status, ms);
+            }
+        }
+    }
+}
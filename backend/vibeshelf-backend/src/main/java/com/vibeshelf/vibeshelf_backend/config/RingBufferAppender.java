@@ -0,0 +1,143 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+import com.vibeshelf.vibeshelf_backend.utils.RingBuffer;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Logback appender that hands events to a lock-free ring buffer and writes
+ * them to the attached appenders (normally CONSOLE) from one background
+ * thread, so request threads never contend on the console stream. When the
+ * buffer is full the event is dropped and counted instead of blocking; the
+ * count is reported once the writer catches up. Configured in
+ * logback-spring.xml.
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final int DRAIN_BATCH = 256;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedErrors = new LongAdder();
+    private int bufferSize = 8192;
+    private long idleParkMicros = 1000;
+    private volatile RingBuffer<ILoggingEvent> buffer;
+    private volatile Thread writer;
+    private volatile boolean running;
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public void setIdleParkMicros(long idleParkMicros) {
+        this.idleParkMicros = idleParkMicros;
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) return;
+        buffer = new RingBuffer<>(Math.max(2, bufferSize));
+        running = true;
+        Thread t = new Thread(this::writeLoop, "log-writer");
+        t.setDaemon(true);
+        writer = t;
+        super.start();
+        t.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) return;
+        super.stop();
+        running = false;
+        Thread t = writer;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        // Capture thread name, MDC and the formatted message before crossing threads
+        event.prepareForDeferredProcessing();
+        if (!buffer.offer(event)) {
+            dropped.increment();
+            if (event.getLevel().isGreaterOrEqual(Level.ERROR)) droppedErrors.increment();
+        }
+    }
+
+    private void writeLoop() {
+        RingBuffer<ILoggingEvent> b = buffer;
+        while (running || b.size() > 0) {
+            int n = b.drain(appenders::appendLoopOnAppenders, DRAIN_BATCH);
+            if (n == 0) {
+                reportDropped();
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(idleParkMicros));
+            }
+        }
+        reportDropped();
+    }
+
+    private void reportDropped() {
+        long n = dropped.sumThenReset();
+        if (n > 0) {
+            addWarn("Log buffer full: dropped " + n + " events (" + droppedErrors.sumThenReset() + " errors)");
+        }
+    }
+
+    /** Events dropped since the last report. */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
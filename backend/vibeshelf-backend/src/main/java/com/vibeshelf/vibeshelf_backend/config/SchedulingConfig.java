@@ -0,0 +1,12 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (change-feed polling, compaction, ...).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
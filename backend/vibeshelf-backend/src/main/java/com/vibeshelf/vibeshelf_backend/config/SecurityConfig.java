@@ -1,7 +1,10 @@
 package com.vibeshelf.vibeshelf_backend.config;
 
-import com.vibeshelf.vibeshelf_backend.repository.UserRepository;
 import com.vibeshelf.vibeshelf_backend.security.JwtAuthFilter;
+import com.vibeshelf.vibeshelf_backend.security.JwtTokenCache;
+import com.vibeshelf.vibeshelf_backend.service.TokenRevocationService;
+import com.vibeshelf.vibeshelf_backend.service.UserCache;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -20,10 +23,15 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final JwtTokenCache jwtTokenCache;
+    private final TokenRevocationService tokenRevocationService;
 
-    public SecurityConfig(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public SecurityConfig(UserCache userCache, JwtTokenCache jwtTokenCache,
+                          TokenRevocationService tokenRevocationService) {
+        this.userCache = userCache;
+        this.jwtTokenCache = jwtTokenCache;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Bean
@@ -33,7 +41,7 @@ public class SecurityConfig {
 
     @Bean
     public UserDetailsService userDetailsService() {
-        return email -> userRepository.findByEmail(email)
+        return email -> userCache.findByEmail(email)
                 .map(user -> org.springframework.security.core.userdetails.User.builder()
                         .username(user.getEmail())
                         .password(user.getPassword())
@@ -57,7 +65,7 @@ public class SecurityConfig {
 
     @Bean
     public JwtAuthFilter jwtAuthFilter(UserDetailsService userDetailsService) {
-        return new JwtAuthFilter(userDetailsService);
+        return new JwtAuthFilter(userDetailsService, jwtTokenCache, tokenRevocationService);
     }
 
     @Bean
@@ -65,6 +73,8 @@ public class SecurityConfig {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                // Async results (login, signup) are written on a second dispatch; the request itself was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Allow anonymous GET access to recommender proxy endpoints explicitly
                 .requestMatchers(HttpMethod.GET, "/api/recommendations/**").permitAll()
                 .requestMatchers(
@@ -79,6 +89,8 @@ public class SecurityConfig {
                     "/api/recommendations/**", // allow public access to recommender proxy endpoints
                     "/api/reviews/**",
                     "/api/v2/books/**", // Also allow v2 optimized endpoints
+                    "/api/lyrics/search",
+                    "/api/lyrics/rules",
                     "/h2-console/**"
                 ).permitAll()
                 .requestMatchers("/api/**").authenticated()
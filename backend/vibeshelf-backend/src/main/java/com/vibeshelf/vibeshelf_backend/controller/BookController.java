@@ -2,6 +2,7 @@ package com.vibeshelf.vibeshelf_backend.controller;
 
 import com.vibeshelf.vibeshelf_backend.model.Book;
 import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.GenreQueryParser;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.PageRequest;
@@ -44,22 +45,7 @@ public class BookController {
             // Support multi-select genres from the frontend without changing frontend code.
             // Parse the incoming genre string into tokens (split on common separators) and
             // build a regex for OR-matching. Example: "Thriller,Mystery" -> "thriller|mystery".
-            String genreStr = genre.trim();
-            List<String> tokens = new ArrayList<>();
-            // Handle JSON-array-like strings (e.g. ["Thriller","Mystery"]) by stripping [] and quotes
-            if ((genreStr.startsWith("[") && genreStr.endsWith("]")) || genreStr.contains("\"")) {
-                    String cleaned = genreStr.replaceAll("^[\\[\\]\"]+|[\\[\\]\"]+$", "");
-                // split on comma
-                for (String s : cleaned.split(",")) {
-                        String t = s.replaceAll("^\\\"|\\\"$", "").trim();
-                    if (!t.isEmpty()) tokens.add(t.toLowerCase());
-                }
-            } else {
-                for (String s : genreStr.split("\\s*[,/\\\\;|]\\s*")) {
-                    String t = s.trim();
-                    if (!t.isEmpty()) tokens.add(t.toLowerCase());
-                }
-            }
+            List<String> tokens = GenreQueryParser.tokens(genre);
 
             if (tokens.isEmpty()) {
                 resultPage = bookRepository.findAll(PageRequest.of(pageIndex, limit));
@@ -68,7 +54,7 @@ public class BookController {
                 resultPage = bookRepository.findAllByGenreToken(tokens.get(0), PageRequest.of(pageIndex, limit));
             } else {
                 // multiple tokens: build regex joined by | and delegate to regex-based repository method
-                    String regex = String.join("|", tokens).replaceAll("\\s+", "");
+                String regex = GenreQueryParser.regex(tokens);
                 resultPage = bookRepository.findAllByGenreRegex(regex, PageRequest.of(pageIndex, limit));
             }
         }
@@ -116,27 +102,14 @@ public class BookController {
         if (genre == null || genre.isBlank()) {
             resultPage = bookRepository.findByTitleOrAuthorLike(qtrim, PageRequest.of(pageIndex, limit));
         } else {
-            String genreStr = genre.trim();
-            List<String> tokens = new ArrayList<>();
-            if ((genreStr.startsWith("[") && genreStr.endsWith("]")) || genreStr.contains("\"")) {
-                    String cleaned = genreStr.replaceAll("^[\\[\\]\"]+|[\\[\\]\"]+$", "");
-                for (String s : cleaned.split(",")) {
-                    String t = s.replaceAll("^\\\"|\\\"$", "").trim();
-                    if (!t.isEmpty()) tokens.add(t.toLowerCase());
-                }
-            } else {
-                for (String s : genreStr.split("\\s*[,/\\\\;|]\\s*")) {
-                    String t = s.trim();
-                    if (!t.isEmpty()) tokens.add(t.toLowerCase());
-                }
-            }
+            List<String> tokens = GenreQueryParser.tokens(genre);
 
             if (tokens.isEmpty()) {
                 resultPage = bookRepository.findByTitleOrAuthorLike(qtrim, PageRequest.of(pageIndex, limit));
             } else if (tokens.size() == 1) {
                 resultPage = bookRepository.findByTitleOrAuthorLikeAndGenreToken(qtrim, tokens.get(0), PageRequest.of(pageIndex, limit));
             } else {
-                String regex = String.join("|", tokens).replaceAll("\\s+", "");
+                String regex = GenreQueryParser.regex(tokens);
                 resultPage = bookRepository.findByTitleOrAuthorLikeAndGenreRegex(qtrim, regex, PageRequest.of(pageIndex, limit));
             }
         }
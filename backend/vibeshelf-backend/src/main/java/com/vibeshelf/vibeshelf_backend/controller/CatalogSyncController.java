@@ -0,0 +1,99 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.CatalogDelta;
+import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
+import com.vibeshelf.vibeshelf_backend.service.CatalogChangeService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.Map;
+
+/**
+ * Delta sync for client-side caches and other backend nodes: fetch the
+ * catalog version once, then poll `changes?since=`.
+ */
+@RestController
+@RequestMapping("/api/v2/books")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+@Validated
+public class CatalogSyncController {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSyncController.class);
+
+    private final CatalogChangeService catalogChangeService;
+
+    public CatalogSyncController(CatalogChangeService catalogChangeService) {
+        this.catalogChangeService = catalogChangeService;
+    }
+
+    /**
+     * Current catalog version
+     */
+    @GetMapping("/version")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> getVersion() {
+        try {
+            long version = catalogChangeService.getCurrentVersion();
+            return ResponseEntity.ok(ApiResponse.<Map<String, Long>>builder()
+                .data(Map.of("version", version))
+                .meta(ApiResponse.Meta.builder()
+                    .cached(false)
+                    .source("database")
+                    .build())
+                .build());
+        } catch (Exception e) {
+            logger.error("Failed to fetch catalog version", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.<Map<String, Long>>builder()
+                    .error("Failed to fetch catalog version")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+    }
+
+    /**
+     * Changes after `since` in version order. `since=0` replays the compacted
+     * snapshot of the whole catalog. The next cursor is returned both as
+     * data.toVersion and pagination.cursor.
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<ApiResponse<CatalogDelta>> getChanges(
+            @RequestParam(defaultValue = "0") @Min(0) long since,
+            @RequestParam(defaultValue = "500") @Min(1) @Max(CatalogChangeService.MAX_PAGE_SIZE) int limit) {
+        try {
+            long startTime = System.currentTimeMillis();
+            CatalogDelta delta = catalogChangeService.getChangesSince(since, limit);
+            long processingTime = System.currentTimeMillis() - startTime;
+
+            PaginationInfo pagination = PaginationInfo.builder()
+                .limit(limit)
+                .hasNext(delta.getHasMore())
+                .cursor(String.valueOf(delta.getToVersion()))
+                .build();
+
+            return ResponseEntity.ok(ApiResponse.<CatalogDelta>builder()
+                .data(delta)
+                .pagination(pagination)
+                .meta(ApiResponse.Meta.builder()
+                    .cached(false)
+                    .source("database")
+                    .processingTime(processingTime)
+                    .build())
+                .build());
+        } catch (Exception e) {
+            logger.error("Failed to fetch catalog changes", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.<CatalogDelta>builder()
+                    .error("Failed to fetch catalog changes")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.service.HybridSearchService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import java.util.List;
+
+/**
+ * Hybrid search: title/author and vibe retrieval fused into one ranking.
+ */
+@RestController
+@RequestMapping("/api/v2/books/search")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+@Validated
+public class HybridSearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridSearchController.class);
+
+    private final HybridSearchService hybridSearchService;
+
+    public HybridSearchController(HybridSearchService hybridSearchService) {
+        this.hybridSearchService = hybridSearchService;
+    }
+
+    /**
+     * Lexical + vector search merged with reciprocal-rank fusion. Per-leg
+     * status and timings are returned in the X-Search-Legs header.
+     */
+    @GetMapping("/hybrid")
+    public ResponseEntity<ApiResponse<List<BookSuggestion>>> hybridSearch(
+            @RequestParam @NotBlank String q,
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        long startTime = System.currentTimeMillis();
+        try {
+            HybridSearchService.HybridPage result = hybridSearchService.search(q, page, limit);
+            int totalPages = (result.getTotal() + limit - 1) / limit;
+            PaginationInfo pagination = PaginationInfo.builder()
+                .page(page)
+                .limit(limit)
+                .total((long) result.getTotal())
+                .totalPages(totalPages)
+                .hasNext((long) page + 1 < totalPages)
+                .hasPrev(page > 0)
+                .build();
+            return ResponseEntity.ok()
+                .header("X-Search-Legs", result.getLegs().toString())
+                .body(ApiResponse.<List<BookSuggestion>>builder()
+                    .data(result.getItems())
+                    .pagination(pagination)
+                    .meta(ApiResponse.Meta.builder()
+                        .cached(false)
+                        .source("hybrid")
+                        .processingTime(System.currentTimeMillis() - startTime)
+                        .build())
+                    .build());
+        } catch (Exception e) {
+            logger.error("Hybrid search failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.<List<BookSuggestion>>builder()
+                    .error("Search failed")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+    }
+}
@@ -1,14 +1,100 @@
 package com.vibeshelf.vibeshelf_backend.controller;
 
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.LyricMatchResult;
+import com.vibeshelf.vibeshelf_backend.service.RecommenderLyricService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
 /**
- * LyricSearchController removed — replaced by the Python KNN recommender and Java proxy.
- *
- * NOTE: This class is intentionally retained as a harmless, deprecated stub to avoid
- * accidental compile-time or packaging issues during an incremental cleanup. If you
- * prefer the file to be deleted from the repository entirely, let me know and I will
- * remove it (and run a full build). For now it will not handle requests.
+ * Lyric / mood search: paste lyrics (or any phrase), get the genres and moods
+ * they evoke and books to match.
  */
-@Deprecated
-public final class LyricSearchController {
-    private LyricSearchController() { /* intentionally non-instantiable */ }
+@RestController
+@RequestMapping("/api/lyrics")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+public class LyricSearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(LyricSearchController.class);
+
+    private static final int MAX_LIMIT = 100;
+
+    private final RecommenderLyricService lyricService;
+
+    public LyricSearchController(RecommenderLyricService lyricService) {
+        this.lyricService = lyricService;
+    }
+
+    /**
+     * Body: {"lyrics": "...", "limit": 20}
+     */
+    @PostMapping("/search")
+    public ResponseEntity<ApiResponse<LyricMatchResult>> search(@RequestBody Map<String, Object> body) {
+        Object lyrics = body.get("lyrics");
+        if (!(lyrics instanceof String) || ((String) lyrics).isBlank()) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.<LyricMatchResult>builder()
+                    .error("lyrics is required")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+        int limit = 20;
+        if (body.get("limit") instanceof Number) {
+            limit = Math.max(1, Math.min(MAX_LIMIT, ((Number) body.get("limit")).intValue()));
+        }
+        return match((String) lyrics, limit);
+    }
+
+    /**
+     * GET variant for short phrases: /api/lyrics/search?q=...
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<LyricMatchResult>> searchGet(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return match(q, Math.max(1, Math.min(MAX_LIMIT, limit)));
+    }
+
+    private ResponseEntity<ApiResponse<LyricMatchResult>> match(String lyrics, int limit) {
+        if (!lyricService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.<LyricMatchResult>builder()
+                    .error("Lyric rules are not loaded")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+        try {
+            long startTime = System.currentTimeMillis();
+            LyricMatchResult result = lyricService.match(lyrics, limit);
+            return ResponseEntity.ok(ApiResponse.<LyricMatchResult>builder()
+                .data(result)
+                .meta(ApiResponse.Meta.builder()
+                    .cached(false)
+                    .source("lyric-rules")
+                    .processingTime(System.currentTimeMillis() - startTime)
+                    .build())
+                .build());
+        } catch (Exception e) {
+            logger.error("Lyric search failed", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.<LyricMatchResult>builder()
+                    .error("Lyric search failed")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+    }
+
+    /**
+     * Loaded rule set (version, source, moods)
+     */
+    @GetMapping("/rules")
+    public ResponseEntity<Map<String, Object>> getRules() {
+        return ResponseEntity.ok(lyricService.getRulesSummary());
+    }
 }
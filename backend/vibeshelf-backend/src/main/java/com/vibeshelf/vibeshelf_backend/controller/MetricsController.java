@@ -1,11 +1,21 @@
 package com.vibeshelf.vibeshelf_backend.controller;
 
+import com.vibeshelf.vibeshelf_backend.config.LimitedDataSource;
+import com.vibeshelf.vibeshelf_backend.service.EmailDispatcher;
+import com.vibeshelf.vibeshelf_backend.service.OtpStore;
+import com.vibeshelf.vibeshelf_backend.service.PasswordHashingService;
+import com.vibeshelf.vibeshelf_backend.service.RateLimitService;
+import com.vibeshelf.vibeshelf_backend.service.UserCache;
+import com.vibeshelf.vibeshelf_backend.service.VibeQueryService;
+import com.vibeshelf.vibeshelf_backend.utils.AdaptiveConcurrencyLimiter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -20,6 +30,33 @@ public class MetricsController {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private VibeQueryService vibeQueryService;
+
+    @Autowired
+    private RateLimitService rateLimitService;
+
+    @Autowired
+    private AdaptiveConcurrencyLimiter bookQueryLimiter;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private EmailDispatcher emailDispatcher;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired(required = false)
+    private DataSource dataSource;
+
+    @Value("${app.execution.mode:platform}")
+    private String executionMode;
+
     /**
      * Get basic application metrics
      */
@@ -70,6 +107,8 @@ public class MetricsController {
                 fallbackInfo.put("status", "Active");
                 cacheInfo.put("fallback", fallbackInfo);
             }
+
+            cacheInfo.put("vibeQueries", vibeQueryService.getStats());
             
         } catch (Exception e) {
             cacheInfo.put("error", e.getMessage());
@@ -89,6 +128,10 @@ public class MetricsController {
         
         system.put("processors", runtime.availableProcessors());
         system.put("javaVersion", System.getProperty("java.version"));
+        system.put("executionMode", executionMode);
+        if (dataSource instanceof LimitedDataSource) {
+            system.put("dbPermits", ((LimitedDataSource) dataSource).getStats());
+        }
         system.put("memoryUsed", formatBytes(usedMemory));
         system.put("memoryMax", formatBytes(maxMemory));
         system.put("memoryUsagePercent", Math.round((double) usedMemory / maxMemory * 100));
@@ -104,7 +147,22 @@ public class MetricsController {
         app.put("optimizationLevel", "Enterprise");
         app.put("datasetCapacity", "90K+ books");
         app.put("cacheStrategy", "Multi-level (Redis + Caffeine)");
-        app.put("rateLimitingStatus", "Active");
+        app.put("rateLimitingStatus", rateLimitService.isEnabled() ? "Active" : "Disabled");
+        app.put("rateLimiting", rateLimitService.getStats());
+
+        Map<String, Object> concurrency = new HashMap<>();
+        concurrency.put("limit", bookQueryLimiter.getLimit());
+        concurrency.put("inFlight", bookQueryLimiter.getInFlight());
+        concurrency.put("admitted", bookQueryLimiter.getAdmitted());
+        concurrency.put("shed", bookQueryLimiter.getShed());
+        concurrency.put("failed", bookQueryLimiter.getFailed());
+        concurrency.put("baselineLatencyMs", Math.round(bookQueryLimiter.getBaselineLatencyMillis()));
+        concurrency.put("recentLatencyMs", Math.round(bookQueryLimiter.getRecentLatencyMillis()));
+        app.put("concurrencyLimiting", concurrency);
+        app.put("passwordHashing", passwordHashingService.getStats());
+        app.put("email", emailDispatcher.getStats());
+        app.put("otp", otpStore.getStats());
+        app.put("userCache", userCache.getStats());
         
         return app;
     }
@@ -5,6 +5,7 @@ import com.vibeshelf.vibeshelf_backend.service.OptimizedBookService;
 import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
 import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
 import com.vibeshelf.vibeshelf_backend.dto.BulkBookRequest;
+import com.vibeshelf.vibeshelf_backend.utils.SampledLogger;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -26,6 +27,9 @@ import java.util.Map;
 @Validated
 public class OptimizedBookController {
 
+    // Rate-limited so a failing dependency cannot flood the log with stack traces
+    private static final SampledLogger errorLog = SampledLogger.forCategory("errors");
+
     @Autowired
     private OptimizedBookService bookService;
 
@@ -347,8 +351,7 @@ public class OptimizedBookController {
 
     private ResponseEntity<ApiResponse<BookDetailed>> handleBookDetailedError(String message, Exception e) {
         // Log the error
-        System.err.println(message + ": " + e.getMessage());
-        e.printStackTrace();
+        errorLog.error(message, e);
         
         ApiResponse<BookDetailed> errorResponse = ApiResponse.<BookDetailed>builder()
             .error(message)
@@ -364,8 +367,7 @@ public class OptimizedBookController {
 
     private ResponseEntity<ApiResponse<List<BookDetailed>>> handleBookListError(String message, Exception e) {
         // Log the error
-        System.err.println(message + ": " + e.getMessage());
-        e.printStackTrace();
+        errorLog.error(message, e);
         
         ApiResponse<List<BookDetailed>> errorResponse = ApiResponse.<List<BookDetailed>>builder()
             .error(message)
@@ -381,8 +383,7 @@ public class OptimizedBookController {
 
     private ResponseEntity<ApiResponse<Map<String, List<String>>>> handleMapError(String message, Exception e) {
         // Log the error
-        System.err.println(message + ": " + e.getMessage());
-        e.printStackTrace();
+        errorLog.error(message, e);
         
         ApiResponse<Map<String, List<String>>> errorResponse = ApiResponse.<Map<String, List<String>>>builder()
             .error(message)
@@ -398,8 +399,7 @@ public class OptimizedBookController {
 
     private ResponseEntity<ApiResponse<Long>> handleLongError(String message, Exception e) {
         // Log the error
-        System.err.println(message + ": " + e.getMessage());
-        e.printStackTrace();
+        errorLog.error(message, e);
         
         ApiResponse<Long> errorResponse = ApiResponse.<Long>builder()
             .error(message)
@@ -415,8 +415,7 @@ public class OptimizedBookController {
 
     private ResponseEntity<ApiResponse<?>> handleGenericError(String message, Exception e) {
         // Log the error
-        System.err.println(message + ": " + e.getMessage());
-        e.printStackTrace();
+        errorLog.error(message, e);
         
         ApiResponse<?> errorResponse = ApiResponse.builder()
             .error(message)
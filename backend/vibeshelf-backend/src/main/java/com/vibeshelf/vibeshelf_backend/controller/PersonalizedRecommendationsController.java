@@ -0,0 +1,109 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.model.User;
+import com.vibeshelf.vibeshelf_backend.service.PersonalizedRecommendationService;
+import com.vibeshelf.vibeshelf_backend.service.UserCache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "Picked for you" for the signed-in reader, built from their reviews and
+ * shelf. Requires authentication (not under the public /api/v2/books paths).
+ */
+@RestController
+@RequestMapping("/api/v2/recommendations")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+@Validated
+public class PersonalizedRecommendationsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonalizedRecommendationsController.class);
+
+    private final PersonalizedRecommendationService personalizedRecommendationService;
+    private final UserCache userCache;
+
+    public PersonalizedRecommendationsController(PersonalizedRecommendationService personalizedRecommendationService,
+                                                 UserCache userCache) {
+        this.personalizedRecommendationService = personalizedRecommendationService;
+        this.userCache = userCache;
+    }
+
+    /**
+     * Page of personalised recommendations; page is 0-based like the other
+     * v2 endpoints. shelf is the reader's shelf book ids (kept client-side);
+     * omit it to reuse the last shelf sent.
+     */
+    @GetMapping("/personalized")
+    public ResponseEntity<ApiResponse<List<BookSuggestion>>> getPersonalized(
+            @RequestParam(defaultValue = "0") @Min(0) int page,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit,
+            @RequestParam(required = false) List<Long> shelf) {
+        long startTime = System.currentTimeMillis();
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        User user = auth == null ? null : userCache.findByEmail(auth.getName()).orElse(null);
+        if (user == null) {
+            return error(HttpStatus.UNAUTHORIZED, "Sign in to see recommendations");
+        }
+
+        try {
+            long[] shelfIds = shelf == null ? null : shelf.stream().filter(id -> id != null).mapToLong(Long::longValue).toArray();
+            PersonalizedRecommendationService.RankedPage result =
+                personalizedRecommendationService.page(user.getId(), shelfIds, page, limit);
+            if (result == null) {
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "Recommendations are not available yet");
+            }
+            int totalPages = (result.getTotal() + limit - 1) / limit;
+            PaginationInfo pagination = PaginationInfo.builder()
+                .page(page)
+                .limit(limit)
+                .total((long) result.getTotal())
+                .totalPages(totalPages)
+                .hasNext((long) page + 1 < totalPages)
+                .hasPrev(page > 0)
+                .build();
+            return ResponseEntity.ok(ApiResponse.<List<BookSuggestion>>builder()
+                .data(result.getItems())
+                .pagination(pagination)
+                .meta(ApiResponse.Meta.builder()
+                    .cached(result.isCached())
+                    .cacheAge(result.getAgeSeconds())
+                    .source(result.isCached() ? "cache" : "vibe-index")
+                    .processingTime(System.currentTimeMillis() - startTime)
+                    .build())
+                .build());
+        } catch (Exception e) {
+            logger.error("Failed to build personalized recommendations", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to build recommendations");
+        }
+    }
+
+    /**
+     * Cache and warm-up counters
+     */
+    @GetMapping("/personalized/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(personalizedRecommendationService.getStatus());
+    }
+
+    private ResponseEntity<ApiResponse<List<BookSuggestion>>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+            .body(ApiResponse.<List<BookSuggestion>>builder()
+                .error(message)
+                .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                .build());
+    }
+}
@@ -0,0 +1,113 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.service.RecommendationSessionService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cursor-paged vibe recommendations: the first call ranks once and returns a
+ * cursor, later calls pass the cursor back and get the next slice.
+ */
+@RestController
+@RequestMapping("/api/v2/books/recommendations")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+@Validated
+public class RecommendationSessionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationSessionController.class);
+
+    private final RecommendationSessionService recommendationSessionService;
+
+    public RecommendationSessionController(RecommendationSessionService recommendationSessionService) {
+        this.recommendationSessionService = recommendationSessionService;
+    }
+
+    /**
+     * Start a session with title or phrase (exclude: book ids already shown),
+     * or continue one with the cursor from the previous page. An expired
+     * cursor returns 410 and the client starts over.
+     */
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<BookSuggestion>>> getRecommendations(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String phrase,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) List<Long> exclude,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        long startTime = System.currentTimeMillis();
+        boolean hasQuery = (title != null && !title.isBlank()) || (phrase != null && !phrase.isBlank());
+        if (cursor == null && !hasQuery) {
+            return error(HttpStatus.BAD_REQUEST, "Pass a title, a phrase or a cursor");
+        }
+
+        try {
+            RecommendationSessionService.SessionPage result;
+            if (cursor != null) {
+                result = recommendationSessionService.next(cursor, limit);
+                if (result == null) {
+                    return error(HttpStatus.GONE, "Recommendation session expired");
+                }
+            } else {
+                Set<Long> seen = new HashSet<>();
+                if (exclude != null) exclude.stream().filter(id -> id != null).forEach(seen::add);
+                result = recommendationSessionService.start(title, phrase, seen, limit);
+            }
+
+            int totalPages = (result.getTotal() + limit - 1) / limit;
+            PaginationInfo pagination = PaginationInfo.builder()
+                .page(result.getOffset() / limit)
+                .limit(limit)
+                .total((long) result.getTotal())
+                .totalPages(totalPages)
+                .hasNext(result.getNextCursor() != null)
+                .hasPrev(result.getOffset() > 0)
+                .cursor(result.getNextCursor())
+                .build();
+            return ResponseEntity.ok(ApiResponse.<List<BookSuggestion>>builder()
+                .data(result.getItems())
+                .pagination(pagination)
+                .meta(ApiResponse.Meta.builder()
+                    .cached(cursor != null)
+                    .source(result.getSource())
+                    .processingTime(System.currentTimeMillis() - startTime)
+                    .build())
+                .build());
+        } catch (IllegalArgumentException e) {
+            return error(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Recommendation session failed", e);
+            return error(HttpStatus.INTERNAL_SERVER_ERROR, "Recommendations failed");
+        }
+    }
+
+    /**
+     * Live sessions and page counters
+     */
+    @GetMapping("/sessions/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(recommendationSessionService.getStats());
+    }
+
+    private static ResponseEntity<ApiResponse<List<BookSuggestion>>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+            .body(ApiResponse.<List<BookSuggestion>>builder()
+                .error(message)
+                .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                .build());
+    }
+}
@@ -1,4 +1,4 @@
-/* package com.vibeshelf.vibeshelf_backend.controller;
+package com.vibeshelf.vibeshelf_backend.controller;
 
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
@@ -14,9 +14,18 @@ import org.slf4j.LoggerFactory;
 
 import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
 import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.service.CollaborativeFilteringService;
+import com.vibeshelf.vibeshelf_backend.service.TextSimilarityService;
+import com.vibeshelf.vibeshelf_backend.service.UserCache;
+import com.vibeshelf.vibeshelf_backend.service.VibeEncoderService;
+import com.vibeshelf.vibeshelf_backend.service.VibeQueryService;
+import com.vibeshelf.vibeshelf_backend.service.VibeSearchService;
 import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 
 
@@ -25,10 +34,28 @@ import org.springframework.data.domain.PageRequest;
 public class RecommendationsController {
 
     private final BookRepository bookRepository;
+    private final VibeSearchService vibeSearchService;
+    private final CollaborativeFilteringService collaborativeFilteringService;
+    private final UserCache userCache;
+    private final VibeEncoderService vibeEncoderService;
+    private final VibeQueryService vibeQueryService;
+    private final TextSimilarityService textSimilarityService;
     private static final org.slf4j.Logger logger = LoggerFactory.getLogger(RecommendationsController.class);
 
-    public RecommendationsController(BookRepository bookRepository) {
+    // Largest page any endpoint here returns
+    private static final int MAX_LIMIT = 100;
+
+    public RecommendationsController(BookRepository bookRepository, VibeSearchService vibeSearchService,
+                                     CollaborativeFilteringService collaborativeFilteringService,
+                                     UserCache userCache, VibeEncoderService vibeEncoderService,
+                                     VibeQueryService vibeQueryService, TextSimilarityService textSimilarityService) {
         this.bookRepository = bookRepository;
+        this.vibeSearchService = vibeSearchService;
+        this.collaborativeFilteringService = collaborativeFilteringService;
+        this.userCache = userCache;
+        this.vibeEncoderService = vibeEncoderService;
+        this.vibeQueryService = vibeQueryService;
+        this.textSimilarityService = textSimilarityService;
     }
 
     // Deprecated lyric-based endpoint: removed dependency on the old local recommender.
@@ -42,51 +69,38 @@ public class RecommendationsController {
         return ResponseEntity.status(410).body(new ArrayList<>());
     }
 
-    // New endpoint: proxy to the Python KNN recommender.
+    // Books with the closest description embedding, served from the in-process vibe index.
     @GetMapping("/api/recommendations/book")
     public ResponseEntity<List<BookSuggestion>> getBookRecommendations(
             @RequestParam(name = "title") String title,
             @RequestParam(name = "start", defaultValue = "0") int start,
             @RequestParam(name = "limit", defaultValue = "10") int limit) {
 
+        if (title == null || title.isBlank()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        start = Math.max(0, Math.min(VibeQueryService.MAX_DEPTH, start));
+        int limitVal = Math.max(1, Math.min(MAX_LIMIT, limit));
+
         try {
-            if (title == null || title.isBlank()) {
-                return ResponseEntity.ok(new ArrayList<>());
+            // Pages are slices of one cached ranking per title
+            List<BookSuggestion> results = vibeQueryService.byTitle(title, start, limitVal);
+            if (results != null) {
+                return ResponseEntity.ok(results);
             }
-
-            // Python recommender disabled — use DB-based fallback directly
-            int limitVal = Math.max(1, limit);
-            List<BookSuggestion> results = new ArrayList<>();
-            Page<Book> page = bookRepository.searchBooks(title, PageRequest.of(0, limitVal));
-            for (Book b : page.getContent()) {
-                String cover = (b.getImageUrl() != null && !b.getImageUrl().isEmpty()) ? b.getImageUrl() : null;
-                results.add(new BookSuggestion(b.getTitle(), b.getAuthor(), b.getDescription(), cover));
+            // Index not loaded or title not indexed — try the TF-IDF index, then the DB
+            List<BookSuggestion> lexical = textSimilarityService.similarToTitle(title, start + limitVal);
+            if (lexical != null) {
+                return ResponseEntity.ok(page(lexical, start, limitVal));
             }
-
-            if (start < 0) start = 0;
-            if (start >= results.size()) return ResponseEntity.ok(new ArrayList<>());
-
-            int end = Math.min(start + Math.max(1, limit), results.size());
-            return ResponseEntity.ok(results.subList(start, end));
+            return ResponseEntity.ok(page(searchDatabase(title, start + limitVal), start, limitVal));
 
         } catch (Exception e) {
-            logger.error("Error while fetching/parsing recommendations from Python recommender", e);
+            logger.error("Vibe search failed for title '{}'", title, e);
 
             // On failure, fall back to a DB search
             try {
-                int limitVal = Math.max(1, limit);
-                List<BookSuggestion> results = new ArrayList<>();
-                Page<Book> page = bookRepository.searchBooks(title, PageRequest.of(0, limitVal));
-
-                for (Book b : page.getContent()) {
-                    String cover = (b.getImageUrl() != null && !b.getImageUrl().isEmpty()) ? b.getImageUrl() : null;
-                    results.add(new BookSuggestion(b.getTitle(), b.getAuthor(), b.getDescription(), cover));
-                }
-
-                if (start >= results.size()) return ResponseEntity.ok(new ArrayList<>());
-                int end = Math.min(start + Math.max(1, limit), results.size());
-                return ResponseEntity.ok(results.subList(start, end));
-
+                return ResponseEntity.ok(page(searchDatabase(title, start + limitVal), start, limitVal));
             } catch (Exception ex) {
                 logger.error("Fallback DB search failed", ex);
                 return ResponseEntity.status(500).body(new ArrayList<>());
@@ -104,12 +118,93 @@ public class RecommendationsController {
         return getBookRecommendations(title, start, limit);
     }
 
-    // Health proxy for Python recommender
+    // Free-text vibe search: the phrase is embedded by the encoder sidecar, then matched in-process.
+    // Falls back to the TF-IDF index, then a title/author DB search, when the sidecar or the index is unavailable.
+    @GetMapping("/api/recommendations/vibe")
+    public ResponseEntity<List<BookSuggestion>> getVibeRecommendations(
+            @RequestParam(name = "phrase") String phrase,
+            @RequestParam(name = "start", defaultValue = "0") int start,
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+
+        if (phrase == null || phrase.isBlank()) {
+            return ResponseEntity.ok(new ArrayList<>());
+        }
+        start = Math.max(0, Math.min(VibeQueryService.MAX_DEPTH, start));
+        int limitVal = Math.max(1, Math.min(MAX_LIMIT, limit));
+        String q = phrase.trim();
+
+        try {
+            // Repeated phrases and later pages are served from the query cache
+            List<BookSuggestion> results = vibeQueryService.byPhrase(q, start, limitVal);
+            if (results != null) {
+                return ResponseEntity.ok(results);
+            }
+            List<BookSuggestion> lexical = textSimilarityService.search(q, start + limitVal);
+            if (lexical != null) {
+                return ResponseEntity.ok(page(lexical, start, limitVal));
+            }
+            return ResponseEntity.ok(page(searchDatabase(q, start + limitVal), start, limitVal));
+        } catch (Exception e) {
+            logger.error("Vibe phrase search failed", e);
+            return ResponseEntity.status(500).body(new ArrayList<>());
+        }
+    }
+
+    // State of the encoder sidecar client (batching, circuit breaker, supervised process)
+    @GetMapping("/api/books/recommendations/encoder")
+    public ResponseEntity<Map<String, Object>> encoderStatus() {
+        return ResponseEntity.ok(vibeEncoderService.getStatus());
+    }
+
+    // Hit/miss counters and size of the vibe query cache
+    @GetMapping("/api/books/recommendations/cache")
+    public ResponseEntity<Map<String, Object>> queryCacheStats() {
+        return ResponseEntity.ok(vibeQueryService.getStats());
+    }
+
+    // Build state of the TF-IDF fallback index
+    @GetMapping("/api/books/recommendations/text-index")
+    public ResponseEntity<Map<String, Object>> textIndexStatus() {
+        return ResponseEntity.ok(textSimilarityService.getStatus());
+    }
+
+    // Health of the in-process vibe index
     @GetMapping("/api/books/recommendations/health")
     public ResponseEntity<Object> recommenderHealth() {
-        // Recommender disabled — always return unavailable
-        logger.info("Recommender health endpoint called but recommender is disabled");
-        return ResponseEntity.status(503).body(Map.of("status", "disabled"));
+        Map<String, Object> status = vibeSearchService.getStatus();
+        return ResponseEntity.status(vibeSearchService.isReady() ? 200 : 503).body(status);
+    }
+
+    // Item-item collaborative filtering over the signed-in user's reviews
+    @GetMapping("/api/recommendations/for-user")
+    public ResponseEntity<List<BookSuggestion>> getRecommendationsForUser(
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+
+        // GETs under /api/recommendations are public; this one needs a user
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || "anonymousUser".equals(auth.getName())) {
+            return ResponseEntity.status(401).body(new ArrayList<>());
+        }
+        try {
+            User user = userCache.findByEmail(auth.getName()).orElse(null);
+            if (user == null) {
+                return ResponseEntity.status(401).body(new ArrayList<>());
+            }
+            if (!collaborativeFilteringService.isReady()) {
+                return ResponseEntity.status(503).body(new ArrayList<>());
+            }
+            int limitVal = Math.max(1, Math.min(MAX_LIMIT, limit));
+            return ResponseEntity.ok(collaborativeFilteringService.recommendForUser(user.getId(), limitVal));
+        } catch (Exception e) {
+            logger.error("Collaborative recommendations failed", e);
+            return ResponseEntity.status(500).body(new ArrayList<>());
+        }
+    }
+
+    // State of the review-based item-item model
+    @GetMapping("/api/recommendations/for-user/status")
+    public ResponseEntity<Map<String, Object>> collaborativeFilteringStatus() {
+        return ResponseEntity.ok(collaborativeFilteringService.getStatus());
     }
 
     // MySQL-only recommendations endpoint
@@ -120,40 +215,48 @@ public class RecommendationsController {
             @RequestParam(name = "limit", defaultValue = "10") int limit) {
 
         try {
-            int limitVal = Math.max(1, limit);
+            start = Math.max(0, Math.min(VibeQueryService.MAX_DEPTH, start));
+            int limitVal = Math.max(1, Math.min(MAX_LIMIT, limit));
             List<BookSuggestion> results = new ArrayList<>();
 
             if (lyric != null && !lyric.isBlank()) {
-                // Search in repository (title/author/description/genre)
-                Page<Book> page = bookRepository.searchBooks(lyric, PageRequest.of(0, limitVal));
-                for (Book b : page.getContent()) {
-                    if (b.getImageUrl() != null && !b.getImageUrl().isEmpty()) {
-                        results.add(new BookSuggestion(b.getTitle(), b.getAuthor(), b.getDescription(), b.getImageUrl()));
-                    }
-                }
+                results = searchDatabase(lyric.trim(), start + limitVal);
             }
 
-            // If no matches, fall back to popular books
+            // If no matches, fall back to the first catalog page
             if (results.isEmpty()) {
-                List<Book> popular = bookRepository.findPopularBooks(PageRequest.of(0, limitVal));
-                for (Book b : popular) {
-                    if (b.getImageUrl() != null && !b.getImageUrl().isEmpty()) {
-                        results.add(new BookSuggestion(b.getTitle(), b.getAuthor(), b.getDescription(), b.getImageUrl()));
-                    }
+                for (Book b : bookRepository.findAll(PageRequest.of(0, start + limitVal))) {
+                    results.add(toSuggestion(b));
                 }
             }
 
-            // Apply pagination
-            if (start < 0) start = 0;
-            if (start >= results.size()) return ResponseEntity.ok(new ArrayList<>());
-
-            int end = Math.min(start + limitVal, results.size());
-            return ResponseEntity.ok(results.subList(start, end));
+            return ResponseEntity.ok(page(results, start, limitVal));
 
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.error("MySQL recommendations failed", e);
             return ResponseEntity.status(500).body(new ArrayList<>());
         }
     }
+
+    private List<BookSuggestion> searchDatabase(String q, int limit) {
+        List<BookSuggestion> results = new ArrayList<>();
+        Page<Book> page = bookRepository.findByTitleOrAuthorLike(q, PageRequest.of(0, Math.max(1, limit)));
+        for (Book b : page.getContent()) {
+            results.add(toSuggestion(b));
+        }
+        return results;
+    }
+
+    private BookSuggestion toSuggestion(Book b) {
+        String cover = (b.getImage() != null && !b.getImage().isEmpty()) ? b.getImage() : null;
+        BookSuggestion s = new BookSuggestion(b.getTitle(), b.getAuthor(), b.getDescription(), cover);
+        s.setId(b.getId());
+        return s;
+    }
+
+    private List<BookSuggestion> page(List<BookSuggestion> results, int start, int limit) {
+        if (start >= results.size()) return new ArrayList<>();
+        int end = Math.min(start + limit, results.size());
+        return results.subList(start, end);
+    }
 }
-*/
\ No newline at end of file
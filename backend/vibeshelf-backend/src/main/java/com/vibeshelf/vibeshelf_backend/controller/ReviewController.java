@@ -2,8 +2,10 @@ package com.vibeshelf.vibeshelf_backend.controller;
 
 import com.vibeshelf.vibeshelf_backend.model.Review;
 import com.vibeshelf.vibeshelf_backend.repository.ReviewRepository;
-import com.vibeshelf.vibeshelf_backend.repository.UserRepository;
 import com.vibeshelf.vibeshelf_backend.model.User;
+import com.vibeshelf.vibeshelf_backend.service.CollaborativeFilteringService;
+import com.vibeshelf.vibeshelf_backend.service.PersonalizedRecommendationService;
+import com.vibeshelf.vibeshelf_backend.service.UserCache;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
@@ -18,11 +20,17 @@ import java.util.*;
 public class ReviewController {
 
     private final ReviewRepository reviewRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final CollaborativeFilteringService collaborativeFilteringService;
+    private final PersonalizedRecommendationService personalizedRecommendationService;
 
-    public ReviewController(ReviewRepository reviewRepository, UserRepository userRepository) {
+    public ReviewController(ReviewRepository reviewRepository, UserCache userCache,
+                            CollaborativeFilteringService collaborativeFilteringService,
+                            PersonalizedRecommendationService personalizedRecommendationService) {
         this.reviewRepository = reviewRepository;
-        this.userRepository = userRepository;
+        this.userCache = userCache;
+        this.collaborativeFilteringService = collaborativeFilteringService;
+        this.personalizedRecommendationService = personalizedRecommendationService;
     }
 
     @GetMapping("/{bookId}")
@@ -58,7 +66,7 @@ public class ReviewController {
         }
 
         String email = auth.getName();
-        Optional<User> u = userRepository.findByEmail(email);
+        Optional<User> u = userCache.findByEmail(email);
         if (u.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not found");
         }
@@ -78,6 +86,8 @@ public class ReviewController {
                 .build();
 
         Review saved = reviewRepository.save(r);
+        collaborativeFilteringService.onReviewSaved(saved);
+        personalizedRecommendationService.onActivity(user.getId());
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("id", saved.getId());
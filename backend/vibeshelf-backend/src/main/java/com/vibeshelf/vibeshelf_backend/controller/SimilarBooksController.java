@@ -0,0 +1,75 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.service.SimilarBooksService;
+import com.vibeshelf.vibeshelf_backend.service.TextSimilarityService;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "More like this" for book detail pages, served from the precomputed
+ * neighbour lists, or from the TF-IDF index while those are unavailable.
+ */
+@RestController
+@RequestMapping("/api/v2/books")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:5173", "http://localhost:5174", "http://localhost:5175"})
+@Validated
+public class SimilarBooksController {
+
+    private final SimilarBooksService similarBooksService;
+    private final TextSimilarityService textSimilarityService;
+
+    public SimilarBooksController(SimilarBooksService similarBooksService,
+                                  TextSimilarityService textSimilarityService) {
+        this.similarBooksService = similarBooksService;
+        this.textSimilarityService = textSimilarityService;
+    }
+
+    /**
+     * Books with the closest description vibe to book {id}
+     */
+    @GetMapping("/{id}/similar")
+    public ResponseEntity<ApiResponse<List<BookSuggestion>>> getSimilar(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) int limit) {
+        long startTime = System.currentTimeMillis();
+        List<BookSuggestion> similar = similarBooksService.similarTo(id, limit);
+        String source = "neighbor-lists";
+        if (similar == null) {
+            similar = textSimilarityService.similarTo(id, limit);
+            source = "tfidf";
+        }
+        if (similar == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.<List<BookSuggestion>>builder()
+                    .error("Similar books are not available yet")
+                    .meta(ApiResponse.Meta.builder().source("error").processingTime(0L).build())
+                    .build());
+        }
+        return ResponseEntity.ok(ApiResponse.<List<BookSuggestion>>builder()
+            .data(similar)
+            .meta(ApiResponse.Meta.builder()
+                .cached(true)
+                .source(source)
+                .processingTime(System.currentTimeMillis() - startTime)
+                .build())
+            .build());
+    }
+
+    /**
+     * Build state of the neighbour lists
+     */
+    @GetMapping("/similar/status")
+    public ResponseEntity<Map<String, Object>> getStatus() {
+        return ResponseEntity.ok(similarBooksService.getStatus());
+    }
+}
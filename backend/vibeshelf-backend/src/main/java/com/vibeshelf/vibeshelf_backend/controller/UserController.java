@@ -2,9 +2,13 @@ package com.vibeshelf.vibeshelf_backend.controller;
 
 import com.vibeshelf.vibeshelf_backend.model.User;
 import com.vibeshelf.vibeshelf_backend.service.UserService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,15 +21,12 @@ public class UserController {
         this.userService = userService;
     }
 
-    // ✅ Signup (register & send OTP)
+    // ✅ Signup (register & send OTP); the request thread is released while the password is hashed
     @PostMapping("/signup")
-    public ResponseEntity<?> signup(@RequestBody User user) {
-        try {
-            userService.signup(user); // generates OTP + sends email
-            return ResponseEntity.ok("Signup successful! Please check your email for OTP.");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Signup failed: " + e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> signup(@RequestBody User user) {
+        return userService.signup(user) // generates OTP + sends email
+                .<ResponseEntity<?>>thenApply(done -> ResponseEntity.ok("Signup successful! Please check your email for OTP."))
+                .exceptionally(e -> failure("Signup failed: ", e));
     }
 
     // ✅ Verify OTP after signup
@@ -47,23 +48,25 @@ public class UserController {
 
     // ✅ Login (only allowed if verified)
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User loginRequest) {
-        return userService.login(loginRequest);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User loginRequest) {
+        return userService.login(loginRequest)
+                .exceptionally(e -> failure("Login failed: ", e));
     }
     
     // 🔧 Simple login endpoint that returns just the token (for frontend compatibility)
     @PostMapping("/login-simple")
-    public ResponseEntity<?> loginSimple(@RequestBody User loginRequest) {
-        ResponseEntity<?> response = userService.login(loginRequest);
-        if (response.getStatusCode().is2xxSuccessful()) {
-            @SuppressWarnings("unchecked")
-            Map<String, Object> body = (Map<String, Object>) response.getBody();
-            if (body != null && body.containsKey("token")) {
-                // Return just the token string directly
-                return ResponseEntity.ok(body.get("token").toString());
+    public CompletableFuture<ResponseEntity<?>> loginSimple(@RequestBody User loginRequest) {
+        return userService.login(loginRequest).<ResponseEntity<?>>thenApply(response -> {
+            if (response.getStatusCode().is2xxSuccessful()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> body = (Map<String, Object>) response.getBody();
+                if (body != null && body.containsKey("token")) {
+                    // Return just the token string directly
+                    return ResponseEntity.ok(body.get("token").toString());
+                }
             }
-        }
-        return response;
+            return response;
+        }).exceptionally(e -> failure("Login failed: ", e));
     }
 
     // 🔄 Password Reset Request
@@ -79,20 +82,17 @@ public class UserController {
 
     // 🔄 Reset Password with OTP
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(
+    public CompletableFuture<ResponseEntity<?>> resetPassword(
             @RequestParam String email,
             @RequestParam String otp,
             @RequestParam String newPassword) {
-        try {
-            boolean reset = userService.resetPassword(email, otp, newPassword);
+        return userService.resetPassword(email, otp, newPassword).<ResponseEntity<?>>thenApply(reset -> {
             if (reset) {
                 return ResponseEntity.ok("✅ Password reset successful!");
             } else {
                 return ResponseEntity.badRequest().body("❌ Invalid OTP or email.");
             }
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Reset failed: " + e.getMessage());
-        }
+        }).exceptionally(e -> failure("Reset failed: ", e));
     }
 
     // 👤 Get User Profile (requires authentication)
@@ -115,11 +115,10 @@ public class UserController {
         }
     }
 
-    // 🚪 Logout (optional - for token blacklisting)
+    // 🚪 Logout (revokes the token on every node)
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
-        // In a full implementation, you might blacklist the token
-        return ResponseEntity.ok("✅ Logged out successfully!");
+        return userService.logout(token);
     }
     
     // 🔧 Test endpoint to manually verify a user (for development only)
@@ -131,4 +130,15 @@ public class UserController {
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
+
+    // A full hashing queue means the server is busy, not that the request was wrong
+    private static ResponseEntity<?> failure(String prefix, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .body("Server busy, please retry shortly.");
+        }
+        return ResponseEntity.badRequest().body(prefix + cause.getMessage());
+    }
 }
@@ -0,0 +1,51 @@
+package com.vibeshelf.vibeshelf_backend.dto;
+
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the catalog change feed. Clients store `toVersion` and pass it
+ * back as `since` on the next call; when `resetRequired` is true the cursor is
+ * older than the retained tombstones and the client must drop its cache and
+ * resync from `since=0` (which replays the compacted snapshot).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogDelta {
+    private Long fromVersion;
+    private Long toVersion;
+    private Long currentVersion;
+    private Boolean hasMore;
+    private Boolean resetRequired;
+    private List<Change> changes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Change {
+        private Long version;
+        private Long bookId;
+        private String op; // "upsert" or "delete"
+        private Book book; // null for deletes
+    }
+
+    // Same fields the list endpoints expose, so clients can write straight into their cache
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Book {
+        private Long id;
+        private String title;
+        private String author;
+        private String imageUrl;
+        private String genre;
+    }
+}
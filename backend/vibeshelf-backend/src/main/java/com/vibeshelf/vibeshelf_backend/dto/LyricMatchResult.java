@@ -0,0 +1,39 @@
+package com.vibeshelf.vibeshelf_backend.dto;
+
+import com.vibeshelf.vibeshelf_backend.model.BookDetailed;
+import lombok.Data;
+import lombok.Builder;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of matching pasted lyrics against the phrase and mood rules: which
+ * rules fired, the resulting genre and mood weights (highest first), and books
+ * drawn from the genre index in proportion to those weights.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LyricMatchResult {
+    private Integer rulesVersion;
+    private List<Match> matches;
+    private Map<String, Double> genres;
+    private Map<String, Double> moods;
+    private List<BookDetailed> books;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Match {
+        private String phrase;
+        // "phrase" (maps to a genre) or "mood"
+        private String kind;
+        private String target;
+        private Integer count;
+    }
+}
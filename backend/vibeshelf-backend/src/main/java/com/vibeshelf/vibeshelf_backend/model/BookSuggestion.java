@@ -1,10 +1,12 @@
 package com.vibeshelf.vibeshelf_backend.model;
 
 public class BookSuggestion {
+    private Long id;     // books_canonical.id when known
     private String title;
     private String author;
     private String reason;
     private String coverUrl;
+    private Double score; // similarity score when produced by the vibe index
 
     public BookSuggestion() {}
 
@@ -15,6 +17,9 @@ public class BookSuggestion {
         this.coverUrl = coverUrl;
     }
 
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
@@ -26,4 +31,7 @@ public class BookSuggestion {
 
     public String getCoverUrl() { return coverUrl; }
     public void setCoverUrl(String coverUrl) { this.coverUrl = coverUrl; }
+
+    public Double getScore() { return score; }
+    public void setScore(Double score) { this.score = score; }
 }
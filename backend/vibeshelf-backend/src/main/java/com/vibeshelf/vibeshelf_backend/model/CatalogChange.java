@@ -0,0 +1,43 @@
+package com.vibeshelf.vibeshelf_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only mapping to catalog_change_log. Rows are appended by triggers on
+ * books_canonical (see V5 migration); the application only reads and compacts.
+ */
+@Entity
+@Table(name = "catalog_change_log")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChange {
+
+    public static final String OP_UPSERT = "U";
+    public static final String OP_DELETE = "D";
+
+    // Monotonic catalog version
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long version;
+
+    @Column(name = "book_id", nullable = false)
+    private Long bookId;
+
+    @Column(name = "op", length = 1, nullable = false)
+    private String op;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+
+    public boolean isDelete() {
+        return OP_DELETE.equals(op);
+    }
+}
@@ -0,0 +1,30 @@
+package com.vibeshelf.vibeshelf_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Single-row bookkeeping for change-log compaction (id is always 1).
+ */
+@Entity
+@Table(name = "catalog_sync_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogSyncState {
+
+    public static final int SINGLETON_ID = 1;
+
+    @Id
+    private Integer id;
+
+    // Versions <= compactedThrough only keep the latest row per book
+    @Column(name = "compacted_through", nullable = false)
+    private long compactedThrough;
+
+    // Tombstones <= purgedThrough were dropped; cursors older than this must resync
+    @Column(name = "purged_through", nullable = false)
+    private long purgedThrough;
+}
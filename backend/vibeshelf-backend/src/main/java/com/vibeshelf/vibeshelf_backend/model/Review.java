@@ -12,7 +12,8 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reviews", indexes = {
-    @Index(name = "idx_reviews_book_id", columnList = "book_id")
+    @Index(name = "idx_reviews_book_id", columnList = "book_id"),
+    @Index(name = "idx_reviews_user_id", columnList = "user_id")
 })
 @Data
 @NoArgsConstructor
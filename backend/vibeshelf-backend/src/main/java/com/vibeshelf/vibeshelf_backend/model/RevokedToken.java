@@ -0,0 +1,39 @@
+package com.vibeshelf.vibeshelf_backend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revoked JWT (see V7 migration). Written on logout, mirrored in memory by
+ * TokenRevocationService.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // jti claim, or "sha256:<hash>" for tokens without one
+    @Column(name = "token_id", length = 64, nullable = false, unique = true)
+    private String tokenId;
+
+    @Column(name = "user_email")
+    private String userEmail;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", insertable = false, updatable = false)
+    private LocalDateTime revokedAt;
+}
@@ -41,5 +41,13 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     org.springframework.data.domain.Page<Book> findByTitleOrAuthorLikeAndGenreRegex(@org.springframework.data.repository.query.Param("q") String q,
                                                @org.springframework.data.repository.query.Param("regex") String regex,
                                                org.springframework.data.domain.Pageable pageable);
+
+    // Keyset page of the text columns (id, title, author, image, genre, description) for in-memory indexing
+    @org.springframework.data.jpa.repository.Query("SELECT b.id, b.title, b.author, b.image, b.genre, b.description FROM Book b WHERE b.id > :afterId ORDER BY b.id")
+    java.util.List<Object[]> findTextColumnsAfter(@org.springframework.data.repository.query.Param("afterId") Long afterId, org.springframework.data.domain.Pageable pageable);
+
+    // Same columns for just the given ids (books changed since the index was built)
+    @org.springframework.data.jpa.repository.Query("SELECT b.id, b.title, b.author, b.image, b.genre, b.description FROM Book b WHERE b.id IN :ids")
+    java.util.List<Object[]> findTextColumnsByIds(@org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
 }
  
\ No newline at end of file
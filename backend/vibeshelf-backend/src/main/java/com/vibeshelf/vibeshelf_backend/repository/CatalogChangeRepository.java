@@ -0,0 +1,43 @@
+package com.vibeshelf.vibeshelf_backend.repository;
+
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    @Query("SELECT COALESCE(MAX(c.version), 0) FROM CatalogChange c")
+    long findCurrentVersion();
+
+    // Ordered page of changes after `since`. Rows younger than `settleMs` (by the DB
+    // clock) are held back so a transaction that committed a lower version late is
+    // not skipped by a cursor that already moved past it.
+    @Query(value = "SELECT * FROM catalog_change_log c WHERE c.version > :since AND c.changed_at <= TIMESTAMPADD(MICROSECOND, -1000 * :settleMs, NOW(3)) ORDER BY c.version LIMIT :limit",
+        nativeQuery = true)
+    List<CatalogChange> findChangesSince(@Param("since") long since,
+                                         @Param("settleMs") long settleMs,
+                                         @Param("limit") int limit);
+
+    // Keep only the latest row per book for versions <= :through.
+    @Modifying
+    @Query(value = "DELETE c FROM catalog_change_log c JOIN catalog_change_log n ON n.book_id = c.book_id AND n.version > c.version WHERE c.version <= :through",
+        nativeQuery = true)
+    int compactThrough(@Param("through") long through);
+
+    // Drop tombstones that every reasonable client has already seen.
+    @Modifying
+    @Query(value = "DELETE FROM catalog_change_log WHERE op = 'D' AND version <= :through",
+        nativeQuery = true)
+    int purgeTombstones(@Param("through") long through);
+
+    // Highest version at least `ageMs` old by the DB clock
+    @Query(value = "SELECT COALESCE(MAX(version), 0) FROM catalog_change_log WHERE changed_at <= TIMESTAMPADD(MICROSECOND, -1000 * :ageMs, NOW(3))",
+        nativeQuery = true)
+    long findVersionOlderThan(@Param("ageMs") long ageMs);
+}
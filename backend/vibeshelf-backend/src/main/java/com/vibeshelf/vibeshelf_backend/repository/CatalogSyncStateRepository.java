@@ -0,0 +1,9 @@
+package com.vibeshelf.vibeshelf_backend.repository;
+
+import com.vibeshelf.vibeshelf_backend.model.CatalogSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogSyncStateRepository extends JpaRepository<CatalogSyncState, Integer> {
+}
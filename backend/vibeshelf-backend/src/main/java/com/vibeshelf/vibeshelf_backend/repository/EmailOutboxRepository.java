@@ -0,0 +1,47 @@
+package com.vibeshelf.vibeshelf_backend.repository;
+
+import com.vibeshelf.vibeshelf_backend.model.EmailOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Due rows, locked for the caller's transaction. SKIP LOCKED lets several nodes
+    // claim disjoint batches instead of queueing behind each other (MySQL 8+).
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= NOW(3) ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+        nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("limit") int limit);
+
+    // Claim: count the attempt and hide the rows until the lease runs out. Clears the
+    // persistence context so the locked rows are detached and never flushed over this
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE email_outbox SET attempts = attempts + 1, next_attempt_at = TIMESTAMPADD(MICROSECOND, 1000 * :leaseMs, NOW(3)) WHERE id IN (:ids)",
+        nativeQuery = true)
+    int lease(@Param("ids") List<Long> ids, @Param("leaseMs") long leaseMs);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'SENT', sent_at = NOW(3), last_error = NULL WHERE id IN (:ids)", nativeQuery = true)
+    int markSent(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET next_attempt_at = TIMESTAMPADD(MICROSECOND, 1000 * :delayMs, NOW(3)), last_error = :error WHERE id = :id",
+        nativeQuery = true)
+    int reschedule(@Param("id") long id, @Param("delayMs") long delayMs, @Param("error") String error);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'FAILED', last_error = :error WHERE id = :id", nativeQuery = true)
+    int markFailed(@Param("id") long id, @Param("error") String error);
+
+    @Query(value = "SELECT status, COUNT(*) FROM email_outbox GROUP BY status", nativeQuery = true)
+    List<Object[]> countByStatus();
+
+    @Modifying
+    @Query(value = "DELETE FROM email_outbox WHERE status = 'SENT' AND sent_at < TIMESTAMPADD(DAY, -:days, NOW(3))", nativeQuery = true)
+    int purgeSent(@Param("days") int days);
+}
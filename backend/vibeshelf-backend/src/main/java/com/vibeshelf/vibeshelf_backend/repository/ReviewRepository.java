@@ -2,8 +2,15 @@ package com.vibeshelf.vibeshelf_backend.repository;
 
 import com.vibeshelf.vibeshelf_backend.model.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByBookIdOrderByCreatedAtDesc(Long bookId);
+
+    List<Review> findByUserId(Long userId);
+
+    // (userId, bookId, rating) for every attributed review; feeds the item-item model
+    @Query("SELECT r.userId, r.bookId, r.rating FROM Review r WHERE r.userId IS NOT NULL ORDER BY r.id")
+    List<Object[]> findAllRatings();
 }
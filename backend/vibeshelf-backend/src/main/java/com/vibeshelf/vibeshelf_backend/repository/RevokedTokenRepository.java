@@ -0,0 +1,33 @@
+package com.vibeshelf.vibeshelf_backend.repository;
+
+import com.vibeshelf.vibeshelf_backend.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    boolean existsByTokenId(String tokenId);
+
+    // Ordered page of unexpired revocations after id `since`. Rows younger than
+    // `settleMs` (by the DB clock) are held back so a revocation that committed a
+    // lower id late is not skipped by a node that already polled past it.
+    @Query(value = "SELECT * FROM revoked_tokens r WHERE r.id > :since AND r.expires_at > NOW() AND r.revoked_at <= TIMESTAMPADD(MICROSECOND, -1000 * :settleMs, NOW(3)) ORDER BY r.id LIMIT :limit",
+        nativeQuery = true)
+    List<RevokedToken> findRevokedSince(@Param("since") long since,
+                                        @Param("settleMs") long settleMs,
+                                        @Param("limit") int limit);
+
+    @Query(value = "SELECT COUNT(*) FROM revoked_tokens WHERE expires_at > NOW()", nativeQuery = true)
+    long countUnexpired();
+
+    // Expired tokens fail validation on their own; their rows are no longer needed.
+    @Modifying
+    @Query(value = "DELETE FROM revoked_tokens WHERE expires_at <= NOW()", nativeQuery = true)
+    int purgeExpired();
+}
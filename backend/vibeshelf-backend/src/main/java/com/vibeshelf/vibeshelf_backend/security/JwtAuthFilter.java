@@ -1,10 +1,14 @@
 package com.vibeshelf.vibeshelf_backend.security;
 
+import com.vibeshelf.vibeshelf_backend.service.TokenRevocationService;
+import com.vibeshelf.vibeshelf_backend.utils.SampledLogger;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,10 +20,22 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Authenticates bearer tokens from their claims alone: one signature check
+ * per token (cached by JwtTokenCache afterwards) and no user lookup. Tokens
+ * issued before roles/verified were added to the claims fall back to loading
+ * the user once. Revoked tokens are rejected from an in-memory filter, also
+ * without touching the database.
+ */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final UserDetailsService userDetailsService;
+    private final JwtTokenCache tokenCache;
+    private final TokenRevocationService revocationService;
+
+    // Sampled debug lines and rate-limited warnings; never the token itself
+    private static final SampledLogger log = SampledLogger.forCategory("auth");
 
     // ✅ Define public paths that this filter should COMPLETELY IGNORE
     private static final List<String> PUBLIC_API_PREFIXES = Arrays.asList(
@@ -31,8 +47,11 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     // (Legacy lyric endpoint removed; any lyric-related handling moved/removed.)
 
 
-    public JwtAuthFilter(UserDetailsService userDetailsService) {
+    public JwtAuthFilter(UserDetailsService userDetailsService, JwtTokenCache tokenCache,
+                         TokenRevocationService revocationService) {
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.revocationService = revocationService;
     }
 
     // ✅ Helper method to check if a request URI should be ignored by this filter
@@ -54,46 +73,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         // ✅ FIX: If it's a designated public path, skip JWT processing entirely and pass to next filter.
         if (shouldFilterIgnore(requestURI)) {
-            System.out.println("DEBUG: JwtAuthFilter - Skipping filter for public path: " + requestURI);
+            log.debug("Skipping JWT filter for public path {}", requestURI);
             filterChain.doFilter(request, response);
             return; // IMPORTANT: Exit the filter
         }
 
-        System.out.println("DEBUG: JwtAuthFilter - Processing request for URI: " + requestURI);
 
         final String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String userEmail = null;
 
         // 1. Extract Token from Header (only for non-public paths)
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            System.out.println("DEBUG: JwtAuthFilter - Found Bearer token in header.");
-            try {
-                userEmail = JwtUtil.extractEmail(token);
-                System.out.println("DEBUG: JwtAuthFilter - Extracted email from token: " + userEmail);
-            } catch (Exception e) {
-                System.err.println("ERROR: JwtAuthFilter - Failed to extract email from token for URI " + requestURI + ": " + e.getMessage());
-                // Don't set authentication, let it fall through to be denied later if needed
-            }
-        } else {
-            System.out.println("DEBUG: JwtAuthFilter - No Bearer token found for URI: " + requestURI);
-            // For authenticated paths without a token, SecurityContextHolder will be null, leading to denial later.
-        }
-
-        // 2. Authenticate if userEmail is found AND no existing authentication
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = null;
-            try {
-                userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                System.out.println("DEBUG: JwtAuthFilter - UserDetails loaded for: " + userEmail + ". Verified: " + userDetails.isEnabled());
-
-            } catch (Exception e) {
-                System.err.println("ERROR: JwtAuthFilter - UserDetailsService failed to load user '" + userEmail + "' for URI " + requestURI + ": " + e.getMessage());
-            }
-
-            if (userDetails != null) {
-                if (JwtUtil.validateToken(token)) {
+            String token = authHeader.substring(7);
+
+            // 2. Authenticate from the cached or freshly verified claims if no existing authentication
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtTokenCache.VerifiedToken verified = tokenCache.get(token);
+                if (verified == null) {
+                    verified = verify(token, requestURI);
+                    if (verified != null) tokenCache.put(token, verified);
+                }
+                if (verified != null && revocationService.isRevoked(verified.getTokenId())) {
+                    log.warn("Revoked token for user {} on {}", verified.getPrincipal().getUsername(), requestURI);
+                    verified = null;
+                }
+                if (verified != null) {
+                    UserDetails userDetails = verified.getPrincipal();
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -101,16 +105,53 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     );
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                    System.out.println("DEBUG: JwtAuthFilter - Authentication set for user: " + userEmail + " for URI: " + requestURI);
-                } else {
-                    System.err.println("ERROR: JwtAuthFilter - JWT validation failed for user: " + userEmail + " for URI " + requestURI + ". Token: " + token);
+                    log.debug("Authenticated {} for {}", userDetails.getUsername(), requestURI);
                 }
             }
-        } else if (userEmail != null) {
-            System.out.println("DEBUG: JwtAuthFilter - User email found for " + requestURI + ", but already authenticated or email is null. Skipping authentication.");
+        } else {
+            log.debug("No bearer token for {}", requestURI);
+            // For authenticated paths without a token, SecurityContextHolder will be null, leading to denial later.
         }
 
         // Proceed with the rest of the filter chain (e.g., authorization rules defined in SecurityConfig)
         filterChain.doFilter(request, response);
     }
+
+    // Single parse: signature and expiry checked once, principal built from the claims
+    private JwtTokenCache.VerifiedToken verify(String token, String requestURI) {
+        Claims claims = JwtUtil.parseClaims(token);
+        if (claims == null || claims.getSubject() == null || claims.getExpiration() == null) {
+            log.warn("JWT rejected for {}: {}", requestURI, "invalid signature, malformed or expired");
+            return null;
+        }
+        String email = claims.getSubject();
+        UserDetails principal;
+        Object roles = claims.get(JwtUtil.CLAIM_ROLES);
+        Boolean verified = claims.get(JwtUtil.CLAIM_VERIFIED, Boolean.class);
+        if (roles instanceof List<?> roleList && verified != null) {
+            principal = User.withUsername(email)
+                    .password("")
+                    .authorities(roleList.stream().map(String::valueOf).toArray(String[]::new))
+                    .accountExpired(!verified)
+                    .build();
+        } else {
+            // Legacy token without roles/verified claims: load the user once, then it is cached like the rest
+            try {
+                UserDetails loaded = this.userDetailsService.loadUserByUsername(email);
+                // Same password-less principal as above; the cache never holds the hash
+                principal = User.withUsername(email)
+                        .password("")
+                        .authorities(loaded.getAuthorities())
+                        .accountExpired(!loaded.isAccountNonExpired())
+                        .accountLocked(!loaded.isAccountNonLocked())
+                        .credentialsExpired(!loaded.isCredentialsNonExpired())
+                        .disabled(!loaded.isEnabled())
+                        .build();
+            } catch (Exception e) {
+                log.warn("Could not load user {} for legacy token: {}", email, e.getMessage());
+                return null;
+            }
+        }
+        return new JwtTokenCache.VerifiedToken(principal, JwtUtil.tokenId(claims, token), claims.getExpiration().getTime());
+    }
 }
\ No newline at end of file
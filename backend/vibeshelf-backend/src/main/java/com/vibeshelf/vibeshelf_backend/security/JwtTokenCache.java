@@ -0,0 +1,107 @@
+package com.vibeshelf.vibeshelf_backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Short-lived cache of already-verified bearer tokens, so a client sending
+ * the same token on every request pays for signature checking and claim
+ * parsing once per TTL. Keyed by a SHA-256 of the token so raw tokens are not
+ * kept in memory; entries never outlive the token's own expiry.
+ */
+@Component
+public class JwtTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    /** A verified token: the principal built from its claims and when it stops being valid. */
+    public static final class VerifiedToken {
+        private final UserDetails principal;
+        private final String tokenId;
+        private final long expiresAtMillis;
+
+        public VerifiedToken(UserDetails principal, String tokenId, long expiresAtMillis) {
+            this.principal = principal;
+            this.tokenId = tokenId;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public UserDetails getPrincipal() {
+            return principal;
+        }
+
+        public String getTokenId() {
+            return tokenId;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public JwtTokenCache(@Value("${app.auth.token-cache.ttl-seconds:300}") long ttlSeconds,
+                         @Value("${app.auth.token-cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+    }
+
+    /** Cached verification of token, or null when absent or past the token's expiry. */
+    public VerifiedToken get(String token) {
+        String key = key(token);
+        VerifiedToken verified = cache.getIfPresent(key);
+        if (verified != null && verified.expiresAtMillis <= System.currentTimeMillis()) {
+            cache.invalidate(key);
+            return null;
+        }
+        return verified;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        cache.put(key(token), verified);
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(key(token));
+    }
+
+    /** Drop every cached token, e.g. after roles or verification status change. */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("entries", cache.estimatedSize());
+        out.put("hitRate", Math.round(cache.stats().hitRate() * 10000.0) / 10000.0);
+        out.put("hits", cache.stats().hitCount());
+        out.put("misses", cache.stats().missCount());
+        return out;
+    }
+
+    private static String key(String token) {
+        byte[] digest = SHA256.get().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+}
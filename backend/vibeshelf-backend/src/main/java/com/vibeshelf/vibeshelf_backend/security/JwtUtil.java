@@ -2,12 +2,19 @@
 package com.vibeshelf.vibeshelf_backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -21,48 +28,68 @@ public class JwtUtil {
     // ✅ Token validity: 365 days (for "forever" until logout)
     private static final long EXPIRATION_TIME = 365L * 24 * 60 * 60 * 1000; // 365 days in milliseconds
 
-    private static Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY_STRING.getBytes());
-    }
+    // Claims that let the auth filter build the principal without loading the user
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_VERIFIED = "verified";
+
+    // Key and parser are immutable and thread-safe: build them once, not per call
+    private static final Key SIGNING_KEY = Keys.hmacShaKeyFor(SECRET_KEY_STRING.getBytes());
+    private static final JwtParser PARSER = Jwts.parserBuilder().setSigningKey(SIGNING_KEY).build();
 
     public static String generateToken(String email, String userId) {
+        return generateToken(email, userId, List.of("USER"), true);
+    }
+
+    public static String generateToken(String email, String userId, List<String> roles, boolean verified) {
         return Jwts.builder()
                 .setSubject(email)
-                .claim("userId", userId)
+                .setId(UUID.randomUUID().toString())
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_VERIFIED, verified)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(SIGNING_KEY, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public static boolean validateToken(String token) {
+    /**
+     * Verify the signature and expiry and return the claims in a single parse,
+     * or null if the token is invalid or expired.
+     */
+    public static Claims parseClaims(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getExpiration().after(new Date());
+            return PARSER.parseClaimsJws(token).getBody();
         } catch (Exception e) {
-            return false;
+            return null;
+        }
+    }
+
+    /**
+     * Identifier used to revoke a token: its jti, or a hash of the token
+     * itself for tokens issued before jti was added.
+     */
+    public static String tokenId(Claims claims, String token) {
+        if (claims.getId() != null) return claims.getId();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
+    public static boolean validateToken(String token) {
+        Claims claims = parseClaims(token);
+        return claims != null && claims.getExpiration() != null && claims.getExpiration().after(new Date());
+    }
+
     public static String extractEmail(String token) {
-         Claims claims = Jwts.parserBuilder()
-                 .setSigningKey(getSigningKey())
-                 .build()
-                 .parseClaimsJws(token)
-                 .getBody();
-         return claims.getSubject();
+         return PARSER.parseClaimsJws(token).getBody().getSubject();
      }
 
      public static String extractUserId(String token) {
-         Claims claims = Jwts.parserBuilder()
-                 .setSigningKey(getSigningKey())
-                 .build()
-                 .parseClaimsJws(token)
-                 .getBody();
-         return claims.get("userId", String.class);
+         return PARSER.parseClaimsJws(token).getBody().get(CLAIM_USER_ID, String.class);
      }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+
+import java.util.List;
+
+/**
+ * Implemented by in-process indexes that want to follow the catalog change
+ * feed instead of rebuilding from scratch. Beans implementing this interface
+ * are picked up by {@link CatalogChangeService} and receive batches in version
+ * order from the poller thread; implementations should return quickly.
+ */
+public interface CatalogChangeListener {
+
+    void onCatalogChanges(List<CatalogChange> changes);
+}
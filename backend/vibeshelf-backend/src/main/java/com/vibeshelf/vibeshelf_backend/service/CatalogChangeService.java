@@ -0,0 +1,210 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.dto.CatalogDelta;
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+import com.vibeshelf.vibeshelf_backend.model.CatalogSyncState;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.repository.CatalogChangeRepository;
+import com.vibeshelf.vibeshelf_backend.repository.CatalogSyncStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog change feed: serves `changes?since=` pages from catalog_change_log,
+ * compacts the log in the background and pushes new changes to in-process
+ * {@link CatalogChangeListener}s.
+ */
+@Service
+public class CatalogChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final CatalogChangeRepository changeRepository;
+    private final CatalogSyncStateRepository syncStateRepository;
+    private final BookRepository bookRepository;
+    private final List<CatalogChangeListener> listeners;
+
+    // Changes younger than this are not served yet (see findChangesSince)
+    @Value("${app.catalog.feed.settle-ms:2000}")
+    private long settleMs;
+
+    // Tombstones are kept this long before clients with older cursors must resync
+    @Value("${app.catalog.feed.tombstone-retention-hours:168}")
+    private long tombstoneRetentionHours;
+
+    // Highest version already pushed to listeners; -1 until the first poll
+    private volatile long dispatchedVersion = -1;
+
+    public CatalogChangeService(CatalogChangeRepository changeRepository,
+                                CatalogSyncStateRepository syncStateRepository,
+                                BookRepository bookRepository,
+                                List<CatalogChangeListener> listeners) {
+        this.changeRepository = changeRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.bookRepository = bookRepository;
+        this.listeners = listeners;
+    }
+
+    public long getCurrentVersion() {
+        return changeRepository.findCurrentVersion();
+    }
+
+    /**
+     * Return the changes after `since`, collapsed to the latest change per book
+     * within the page. Upserts carry the current book row so clients can apply
+     * them without a follow-up request.
+     */
+    @Transactional(readOnly = true)
+    public CatalogDelta getChangesSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long current = changeRepository.findCurrentVersion();
+
+        CatalogSyncState state = syncStateRepository.findById(CatalogSyncState.SINGLETON_ID).orElse(null);
+        if (since > 0 && state != null && since < state.getPurgedThrough()) {
+            return CatalogDelta.builder()
+                .fromVersion(since)
+                .toVersion(since)
+                .currentVersion(current)
+                .hasMore(false)
+                .resetRequired(true)
+                .changes(new ArrayList<>())
+                .build();
+        }
+
+        List<CatalogChange> rows = changeRepository.findChangesSince(Math.max(0, since), settleMs, pageSize);
+        long toVersion = rows.isEmpty() ? since : rows.get(rows.size() - 1).getVersion();
+
+        // Latest change per book wins; LinkedHashMap keeps version order of first appearance
+        Map<Long, CatalogChange> latest = new LinkedHashMap<>();
+        for (CatalogChange c : rows) {
+            latest.remove(c.getBookId());
+            latest.put(c.getBookId(), c);
+        }
+
+        List<Long> upsertIds = new ArrayList<>();
+        for (CatalogChange c : latest.values()) {
+            if (!c.isDelete()) upsertIds.add(c.getBookId());
+        }
+        Map<Long, Book> books = new HashMap<>();
+        if (!upsertIds.isEmpty()) {
+            for (Book b : bookRepository.findAllById(upsertIds)) {
+                books.put(b.getId(), b);
+            }
+        }
+
+        List<CatalogDelta.Change> changes = new ArrayList<>(latest.size());
+        for (CatalogChange c : latest.values()) {
+            Book b = c.isDelete() ? null : books.get(c.getBookId());
+            // An upsert whose row is gone was deleted after the page horizon; the
+            // tombstone follows in a later page, so report it as a delete now.
+            boolean deleted = c.isDelete() || b == null;
+            changes.add(CatalogDelta.Change.builder()
+                .version(c.getVersion())
+                .bookId(c.getBookId())
+                .op(deleted ? "delete" : "upsert")
+                .book(deleted ? null : toDeltaBook(b))
+                .build());
+        }
+
+        return CatalogDelta.builder()
+            .fromVersion(since)
+            .toVersion(toVersion)
+            .currentVersion(current)
+            .hasMore(rows.size() == pageSize)
+            .resetRequired(false)
+            .changes(changes)
+            .build();
+    }
+
+    /**
+     * Push new changes to in-process listeners. The first run only records the
+     * current version: listeners build their initial state themselves.
+     */
+    @Scheduled(initialDelayString = "${app.catalog.feed.poll-initial-delay-ms:30000}",
+               fixedDelayString = "${app.catalog.feed.poll-ms:5000}")
+    public void pollAndDispatch() {
+        if (listeners.isEmpty()) return;
+        try {
+            if (dispatchedVersion < 0) {
+                dispatchedVersion = changeRepository.findCurrentVersion();
+                return;
+            }
+            List<CatalogChange> rows;
+            do {
+                rows = changeRepository.findChangesSince(dispatchedVersion, settleMs, MAX_PAGE_SIZE);
+                if (rows.isEmpty()) break;
+                for (CatalogChangeListener listener : listeners) {
+                    try {
+                        listener.onCatalogChanges(rows);
+                    } catch (Exception e) {
+                        logger.warn("Catalog change listener {} failed: {}", listener.getClass().getSimpleName(), e.getMessage());
+                    }
+                }
+                dispatchedVersion = rows.get(rows.size() - 1).getVersion();
+            } while (rows.size() == MAX_PAGE_SIZE);
+        } catch (Exception e) {
+            logger.debug("Catalog change poll skipped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compact the log so it stays proportional to the catalog size: everything
+     * older than the settle horizon keeps only its latest row per book, and
+     * tombstones past the retention window are dropped.
+     */
+    @Scheduled(initialDelayString = "${app.catalog.feed.compact-initial-delay-ms:600000}",
+               fixedDelayString = "${app.catalog.feed.compact-ms:3600000}")
+    @Transactional
+    public void compact() {
+        try {
+            CatalogSyncState state = syncStateRepository.findById(CatalogSyncState.SINGLETON_ID)
+                .orElseGet(() -> new CatalogSyncState(CatalogSyncState.SINGLETON_ID, 0L, 0L));
+
+            long compactThrough = changeRepository.findVersionOlderThan(settleMs);
+            int compacted = 0;
+            if (compactThrough > state.getCompactedThrough()) {
+                compacted = changeRepository.compactThrough(compactThrough);
+                state.setCompactedThrough(compactThrough);
+            }
+
+            long purgeThrough = changeRepository.findVersionOlderThan(
+                Duration.ofHours(tombstoneRetentionHours).toMillis());
+            int purged = 0;
+            if (purgeThrough > state.getPurgedThrough()) {
+                purged = changeRepository.purgeTombstones(purgeThrough);
+                state.setPurgedThrough(purgeThrough);
+            }
+
+            syncStateRepository.save(state);
+            if (compacted > 0 || purged > 0) {
+                logger.info("Catalog change log compacted: {} superseded rows, {} tombstones removed", compacted, purged);
+            }
+        } catch (Exception e) {
+            logger.debug("Catalog change log compaction skipped: {}", e.getMessage());
+        }
+    }
+
+    private CatalogDelta.Book toDeltaBook(Book b) {
+        return CatalogDelta.Book.builder()
+            .id(b.getId())
+            .title(b.getTitle())
+            .author(b.getAuthor())
+            .imageUrl(b.getImage())
+            .genre(b.getGenre())
+            .build();
+    }
+}
@@ -0,0 +1,187 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.model.Review;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.repository.ReviewRepository;
+import com.vibeshelf.vibeshelf_backend.utils.ItemItemModel;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * "Readers who liked this also liked" recommendations from the reviews table.
+ * Keeps an {@link ItemItemModel} (top-K co-rated neighbours per book) in
+ * memory: built from all reviews at startup and periodically, and updated
+ * incrementally as reviews are submitted. All writes go through a single
+ * background thread so review submission never waits on the model.
+ */
+@Service
+public class CollaborativeFilteringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CollaborativeFilteringService.class);
+
+    // Reviews without a star rating still show interest; treat them as neutral
+    private static final int DEFAULT_RATING = 3;
+
+    private final ReviewRepository reviewRepository;
+    private final BookRepository bookRepository;
+    private final ItemItemModel model;
+
+    private final ExecutorService updater = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "cf-model-updater");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile String status = "building";
+    private volatile long lastBuildMs;
+    private volatile long lastBuildAt;
+
+    public CollaborativeFilteringService(ReviewRepository reviewRepository, BookRepository bookRepository,
+                                         @Value("${app.cf.neighbors:50}") int neighbors,
+                                         @Value("${app.cf.shrink:10}") float shrink) {
+        this.reviewRepository = reviewRepository;
+        this.bookRepository = bookRepository;
+        this.model = new ItemItemModel(neighbors, shrink);
+    }
+
+    @PostConstruct
+    void init() {
+        updater.execute(this::rebuildNow);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updater.shutdownNow();
+    }
+
+    /** Full recompute to clear drift from incremental updates. */
+    @Scheduled(initialDelayString = "${app.cf.rebuild-interval-ms:21600000}",
+               fixedDelayString = "${app.cf.rebuild-interval-ms:21600000}")
+    public void scheduledRebuild() {
+        updater.execute(this::rebuildNow);
+    }
+
+    private void rebuildNow() {
+        try {
+            long start = System.currentTimeMillis();
+            List<Object[]> rows = reviewRepository.findAllRatings();
+            int n = rows.size();
+            long[] users = new long[n];
+            long[] books = new long[n];
+            byte[] ratings = new byte[n];
+            for (int i = 0; i < n; i++) {
+                Object[] row = rows.get(i);
+                users[i] = ((Number) row[0]).longValue();
+                books[i] = ((Number) row[1]).longValue();
+                ratings[i] = (byte) clamp(row[2] == null ? null : ((Number) row[2]).intValue());
+            }
+            model.rebuild(users, books, ratings, n, ForkJoinPool.commonPool());
+            lastBuildMs = System.currentTimeMillis() - start;
+            lastBuildAt = System.currentTimeMillis();
+            status = "ready";
+            logger.info("Item-item model built from {} reviews: {} books, {} users in {} ms",
+                n, model.items(), model.users(), lastBuildMs);
+        } catch (Exception e) {
+            if (!"ready".equals(status)) status = "unavailable";
+            logger.warn("Item-item model rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    private static int clamp(Integer rating) {
+        if (rating == null) return DEFAULT_RATING;
+        return Math.max(1, Math.min(5, rating));
+    }
+
+    /** Hook for newly saved reviews; applied asynchronously, in order. */
+    public void onReviewSaved(Review review) {
+        if (review == null || review.getUserId() == null || review.getBookId() == null) return;
+        long userId = review.getUserId();
+        long bookId = review.getBookId();
+        int rating = clamp(review.getRating());
+        updater.execute(() -> {
+            try {
+                model.rate(userId, bookId, rating);
+            } catch (Exception e) {
+                logger.warn("Incremental item-item update failed for book {}: {}", bookId, e.getMessage());
+            }
+        });
+    }
+
+    public boolean isReady() {
+        return "ready".equals(status);
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("status", status);
+        out.put("books", model.items());
+        out.put("users", model.users());
+        out.put("ratings", model.ratings());
+        out.put("approxBytes", model.sizeBytes());
+        out.put("lastBuildMs", lastBuildMs);
+        out.put("lastBuildAt", lastBuildAt);
+        return out;
+    }
+
+    /**
+     * Top books for a user from the neighbour lists of everything they have
+     * reviewed, excluding books they already reviewed. Returns an empty list
+     * for users without reviews.
+     */
+    public List<BookSuggestion> recommendForUser(long userId, int limit) {
+        List<Review> reviews = reviewRepository.findByUserId(userId);
+        if (reviews.isEmpty()) return List.of();
+        long[] rated = new long[reviews.size()];
+        int[] values = new int[reviews.size()];
+        for (int i = 0; i < rated.length; i++) {
+            rated[i] = reviews.get(i).getBookId();
+            values[i] = clamp(reviews.get(i).getRating());
+        }
+        float[] scores = new float[limit];
+        long[] because = new long[limit];
+        long[] picks = model.recommend(rated, values, limit, scores, because);
+        if (picks.length == 0) return List.of();
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < picks.length; i++) {
+            ids.add(picks[i]);
+            ids.add(because[i]);
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book b : bookRepository.findAllById(ids)) books.put(b.getId(), b);
+
+        List<BookSuggestion> out = new ArrayList<>(picks.length);
+        for (int i = 0; i < picks.length; i++) {
+            Book b = books.get(picks[i]);
+            if (b == null) continue;
+            Book source = books.get(because[i]);
+            String reason = source != null && source.getTitle() != null
+                ? "Readers who liked " + source.getTitle() + " also liked this"
+                : "Readers with similar taste liked this";
+            BookSuggestion s = new BookSuggestion(b.getTitle(), b.getAuthor(), reason,
+                b.getImage() != null && !b.getImage().isEmpty() ? b.getImage() : null);
+            s.setId(b.getId());
+            s.setScore((double) scores[i]);
+            out.add(s);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,100 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.EmailOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the email outbox: claims due rows in batches and sends each batch
+ * over one SMTP connection, so request threads never wait on SMTP. Keeps
+ * going while batches come back full, then waits for the next poll.
+ */
+@Service
+public class EmailDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailDispatcher.class);
+    private static final int MAX_BATCHES_PER_POLL = 20;
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailService emailService;
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private volatile long lastBatchMillis;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    public EmailDispatcher(EmailOutboxService emailOutboxService, EmailService emailService) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailService = emailService;
+    }
+
+    @Scheduled(initialDelayString = "${app.email.outbox.poll-ms:1000}",
+               fixedDelayString = "${app.email.outbox.poll-ms:1000}")
+    public void dispatch() {
+        // Without SMTP, leave rows pending (and their attempts untouched) rather than burning retries
+        if (!emailService.isConfigured()) return;
+        try {
+            for (int i = 0; i < MAX_BATCHES_PER_POLL; i++) {
+                if (dispatchBatch() < batchSize) break;
+            }
+        } catch (Exception e) {
+            logger.debug("Email dispatch skipped: {}", e.getMessage());
+        }
+    }
+
+    /** Send one claimed batch; returns how many rows it held. */
+    int dispatchBatch() {
+        List<EmailOutbox> rows = emailOutboxService.claimDue(batchSize);
+        if (rows.isEmpty()) return 0;
+
+        long start = System.currentTimeMillis();
+        List<SimpleMailMessage> messages = new ArrayList<>(rows.size());
+        for (EmailOutbox row : rows) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(row.getRecipient());
+            message.setSubject(row.getSubject());
+            message.setText(row.getBody());
+            messages.add(message);
+        }
+        Map<Integer, String> errors = emailService.sendBatch(messages);
+
+        List<Long> sentIds = new ArrayList<>(rows.size());
+        Map<EmailOutbox, String> failed = new IdentityHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            String error = errors.get(i);
+            if (error == null) sentIds.add(rows.get(i).getId());
+            else failed.put(rows.get(i), error);
+        }
+        // If this fails the lease runs out and the batch is sent again: delivery is at least once
+        emailOutboxService.recordResults(sentIds, failed);
+
+        sent.addAndGet(sentIds.size());
+        failedAttempts.addAndGet(failed.size());
+        lastBatchMillis = System.currentTimeMillis() - start;
+        if (!failed.isEmpty()) {
+            logger.warn("Email batch: {} sent, {} failed (will retry with backoff)", sentIds.size(), failed.size());
+        }
+        return rows.size();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sent", sent.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("lastBatchMs", lastBatchMillis);
+        stats.put("outbox", emailOutboxService.getStats());
+        return stats;
+    }
+}
@@ -0,0 +1,130 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.EmailOutbox;
+import com.vibeshelf.vibeshelf_backend.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The email outbox table (see V8 migration). enqueue joins the caller's
+ * transaction, so an email exists exactly when the change that triggered it
+ * committed; EmailDispatcher claims and delivers rows in batches and reports
+ * back here, where failures are rescheduled with exponential backoff.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${app.email.outbox.lease-ms:120000}")
+    private long leaseMs;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.base-backoff-ms:30000}")
+    private long baseBackoffMs;
+
+    @Value("${app.email.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${app.email.outbox.retain-sent-days:7}")
+    private int retainSentDays;
+
+    public EmailOutboxService(EmailOutboxRepository emailOutboxRepository) {
+        this.emailOutboxRepository = emailOutboxRepository;
+    }
+
+    @Transactional
+    public void enqueue(String recipient, String subject, String body) {
+        emailOutboxRepository.save(EmailOutbox.builder()
+                .recipient(recipient)
+                .subject(subject)
+                .body(body)
+                .build());
+    }
+
+    /**
+     * Lock up to limit due rows, count the attempt and lease them so no other
+     * dispatcher picks them up while they are being sent.
+     */
+    @Transactional
+    public List<EmailOutbox> claimDue(int limit) {
+        List<EmailOutbox> rows = emailOutboxRepository.lockDue(limit);
+        if (rows.isEmpty()) return rows;
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (EmailOutbox row : rows) {
+            ids.add(row.getId());
+        }
+        // The lease is the only write; the detached copies just mirror its increment for recordResults
+        emailOutboxRepository.lease(ids, leaseMs);
+        for (EmailOutbox row : rows) {
+            row.setAttempts(row.getAttempts() + 1);
+        }
+        return rows;
+    }
+
+    /** Mark sent rows and reschedule (or give up on) the failed ones. */
+    @Transactional
+    public void recordResults(List<Long> sentIds, Map<EmailOutbox, String> failed) {
+        if (!sentIds.isEmpty()) {
+            emailOutboxRepository.markSent(sentIds);
+        }
+        failed.forEach((row, error) -> {
+            String message = truncate(error);
+            if (row.getAttempts() >= maxAttempts) {
+                emailOutboxRepository.markFailed(row.getId(), message);
+                logger.warn("Giving up on email {} to {} after {} attempts: {}", row.getId(), row.getRecipient(), row.getAttempts(), message);
+            } else {
+                emailOutboxRepository.reschedule(row.getId(), backoffMillis(row.getAttempts(), baseBackoffMs, maxBackoffMs), message);
+            }
+        });
+    }
+
+    /** Delay before the next try after the given number of attempts: base, 2 x base, 4 x base, ... up to max. */
+    static long backoffMillis(int attempts, long baseMs, long maxMs) {
+        int doublings = Math.max(0, Math.min(30, attempts - 1));
+        return Math.min(maxMs, baseMs << doublings);
+    }
+
+    private static String truncate(String error) {
+        if (error == null) return "unknown error";
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Scheduled(initialDelayString = "${app.email.outbox.purge-ms:3600000}",
+               fixedDelayString = "${app.email.outbox.purge-ms:3600000}")
+    @Transactional
+    public void purgeSent() {
+        try {
+            int purged = emailOutboxRepository.purgeSent(retainSentDays);
+            if (purged > 0) logger.info("Purged {} sent emails from the outbox", purged);
+        } catch (Exception e) {
+            logger.debug("Email outbox purge skipped: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        try {
+            for (Object[] row : emailOutboxRepository.countByStatus()) {
+                stats.put(String.valueOf(row[0]).toLowerCase(), ((Number) row[1]).longValue());
+            }
+        } catch (Exception e) {
+            stats.put("error", e.getMessage());
+        }
+        return stats;
+    }
+}
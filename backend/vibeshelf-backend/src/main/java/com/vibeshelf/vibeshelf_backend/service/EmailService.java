@@ -1,12 +1,26 @@
 package com.vibeshelf.vibeshelf_backend.service;
 
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     // JavaMailSender is optional — some environments (local dev) may not configure SMTP.
     // Allow the application to start even when no JavaMailSender bean is available.
     private JavaMailSender mailSender;
@@ -14,22 +28,62 @@ public class EmailService {
     public EmailService(@org.springframework.beans.factory.annotation.Autowired(required = false) JavaMailSender mailSender) {
         this.mailSender = mailSender;
         if (this.mailSender == null) {
-            System.out.println("EmailService: JavaMailSender not configured — emails will be no-ops.");
+            logger.warn("JavaMailSender not configured; queued emails stay pending in the outbox");
         }
     }
 
-    public void sendEmail(String to, String subject, String text) {
+    /** False when no SMTP sender is configured, so nothing can be delivered. */
+    public boolean isConfigured() {
+        return mailSender != null;
+    }
+
+    /**
+     * Send several messages over a single SMTP connection (JavaMailSender
+     * connects once per send call). Returns the error for each message that
+     * was not accepted, keyed by its index; empty when all were sent. Without a
+     * configured sender every message fails, so nothing is recorded as sent.
+     */
+    public Map<Integer, String> sendBatch(List<SimpleMailMessage> messages) {
+        Map<Integer, String> failures = new HashMap<>();
+        if (messages.isEmpty()) {
+            return failures;
+        }
         if (mailSender == null) {
-            // Mail sender not configured; log and skip sending to avoid startup failure.
-            System.out.println("EmailService: skipping sendEmail because JavaMailSender is not configured. recipient=" + to);
-            return;
+            for (int i = 0; i < messages.size(); i++) failures.put(i, "JavaMailSender is not configured");
+            return failures;
         }
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
-        System.out.println("Email sent to " + to);
+        List<MimeMessage> batch = new ArrayList<>(messages.size());
+        Map<Object, Integer> indexOf = new IdentityHashMap<>();
+        for (int i = 0; i < messages.size(); i++) {
+            try {
+                MimeMessage mime = mailSender.createMimeMessage();
+                messages.get(i).copyTo(new MimeMailMessage(mime));
+                batch.add(mime);
+                indexOf.put(mime, i);
+            } catch (MailException e) {
+                // Malformed address and the like: retrying will not help, but it should not sink the batch
+                failures.put(i, e.getMessage());
+            }
+        }
+        if (batch.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(batch.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, error) -> {
+                Integer i = indexOf.get(message);
+                if (i != null) failures.put(i, error.getMessage());
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                indexOf.values().forEach(i -> failures.put(i, e.getMessage()));
+            }
+        } catch (MailException e) {
+            // Connection or authentication failure: nothing in the batch went out
+            indexOf.values().forEach(i -> failures.put(i, e.getMessage()));
+        }
+        return failures;
     }
 }
@@ -0,0 +1,244 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.RankFusion;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * One search box over both retrieval paths: the title/author LIKE search and
+ * the vibe (embedding) search run in parallel and their rankings are merged
+ * with reciprocal-rank fusion, so "dark academia boarding school" gets vibe
+ * matches while an exact title still lands on top. Each leg has its own
+ * timeout inside the overall budget; a leg that is slow, failing or
+ * unavailable is dropped from the fusion rather than failing the request.
+ */
+@Service
+public class HybridSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HybridSearchService.class);
+
+    private static final int MAX_DEPTH = 200;
+
+    private final BookRepository bookRepository;
+    private final VibeQueryService vibeQueryService;
+    private final TextSimilarityService textSimilarityService;
+    private final ThreadPoolExecutor legs;
+
+    @Value("${app.search.hybrid.lexical-timeout-ms:300}")
+    private long lexicalTimeoutMs;
+
+    @Value("${app.search.hybrid.vector-timeout-ms:400}")
+    private long vectorTimeoutMs;
+
+    @Value("${app.search.hybrid.budget-ms:500}")
+    private long budgetMs;
+
+    @Value("${app.search.hybrid.depth:50}")
+    private int depth;
+
+    @Value("${app.search.hybrid.rrf-k:60}")
+    private int rrfK;
+
+    @Value("${app.search.hybrid.lexical-weight:1.0}")
+    private double lexicalWeight;
+
+    @Value("${app.search.hybrid.vector-weight:1.0}")
+    private double vectorWeight;
+
+    public HybridSearchService(BookRepository bookRepository, VibeQueryService vibeQueryService,
+                               TextSimilarityService textSimilarityService,
+                               @Value("${app.search.hybrid.threads:8}") int threads) {
+        this.bookRepository = bookRepository;
+        this.vibeQueryService = vibeQueryService;
+        this.textSimilarityService = textSimilarityService;
+        AtomicInteger threadId = new AtomicInteger();
+        int n = Math.max(2, threads);
+        this.legs = new ThreadPoolExecutor(n, n, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(256), r -> {
+            Thread t = new Thread(r, "hybrid-search-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.legs.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        legs.shutdownNow();
+    }
+
+    /** Outcome of one retrieval leg. */
+    private static final class Leg {
+        final String status;
+        final List<BookSuggestion> results;
+        final long millis;
+
+        Leg(String status, List<BookSuggestion> results, long millis) {
+            this.status = status;
+            this.results = results;
+            this.millis = millis;
+        }
+    }
+
+    /** One fused page plus per-leg diagnostics. */
+    public static final class HybridPage {
+        private final List<BookSuggestion> items;
+        private final int total;
+        private final Map<String, Object> legs;
+
+        HybridPage(List<BookSuggestion> items, int total, Map<String, Object> legs) {
+            this.items = items;
+            this.total = total;
+            this.legs = legs;
+        }
+
+        public List<BookSuggestion> getItems() {
+            return items;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Object> getLegs() {
+            return legs;
+        }
+    }
+
+    /** Page (0-based) of fused results for q; pages past the fused depth are empty. */
+    public HybridPage search(String q, int page, int limit) {
+        String query = q.trim();
+        page = Math.max(0, page);
+        limit = Math.max(1, limit);
+        // long: page * limit overflows int for large page numbers
+        long offset = (long) page * limit;
+        int want = (int) Math.min(MAX_DEPTH, Math.max(depth, offset + limit));
+
+        CompletableFuture<Leg> lexical = run(() -> lexical(query, want), Math.min(lexicalTimeoutMs, budgetMs));
+        CompletableFuture<Leg> vector = run(() -> vector(query, want), Math.min(vectorTimeoutMs, budgetMs));
+        // Both futures complete by their own timeouts, so this join is bounded by the budget
+        Leg lex = lexical.join();
+        Leg vec = vector.join();
+
+        Map<String, BookSuggestion> byKey = new HashMap<>();
+        List<String> lexKeys = keys(lex.results, byKey);
+        Map<String, BookSuggestion> vecByKey = new HashMap<>();
+        List<String> vecKeys = keys(vec.results, vecByKey);
+        vecByKey.forEach(byKey::putIfAbsent);
+
+        Map<String, Double> fusedScores = new HashMap<>();
+        List<String> fused = RankFusion.reciprocalRank(List.of(lexKeys, vecKeys),
+            new double[]{lexicalWeight, vectorWeight}, rrfK, fusedScores);
+
+        Set<String> lexicalHits = new HashSet<>(lexKeys);
+        int from = (int) Math.min(offset, fused.size());
+        int to = (int) Math.min((long) from + limit, fused.size());
+        List<BookSuggestion> items = new ArrayList<>(to - from);
+        for (String key : fused.subList(from, to)) {
+            BookSuggestion base = byKey.get(key);
+            BookSuggestion vibe = vecByKey.get(key);
+            boolean lexicalHit = lexicalHits.contains(key);
+            String reason = lexicalHit && vibe != null ? "Title/author match · " + vibe.getReason()
+                : lexicalHit ? "Title/author match" : vibe.getReason();
+            BookSuggestion s = new BookSuggestion(base.getTitle(), base.getAuthor(), reason, base.getCoverUrl());
+            s.setId(base.getId());
+            s.setScore(fusedScores.get(key));
+            items.add(s);
+        }
+
+        Map<String, Object> legInfo = new LinkedHashMap<>();
+        legInfo.put("lexical", Map.of("status", lex.status, "results", lexKeys.size(), "ms", lex.millis));
+        legInfo.put("vector", Map.of("status", vec.status, "results", vecKeys.size(), "ms", vec.millis));
+        return new HybridPage(items, fused.size(), legInfo);
+    }
+
+    /*
+     * LIKE matches come back in table order; rank them so an exact title beats
+     * a title prefix, which beats a title substring, which beats an author hit.
+     */
+    private List<BookSuggestion> lexical(String query, int limit) {
+        String q = query.toLowerCase(Locale.ROOT);
+        List<Book> books = new ArrayList<>(bookRepository.findByTitleOrAuthorLike(query, PageRequest.of(0, limit)).getContent());
+        books.sort(Comparator.comparingInt(b -> lexicalTier(b, q)));
+        List<BookSuggestion> out = new ArrayList<>(books.size());
+        for (Book b : books) {
+            BookSuggestion s = new BookSuggestion(b.getTitle(), b.getAuthor(), null,
+                b.getImage() != null && !b.getImage().isEmpty() ? b.getImage() : null);
+            s.setId(b.getId());
+            out.add(s);
+        }
+        return out;
+    }
+
+    // Embedding search, or the TF-IDF index when the encoder or embeddings are unavailable
+    private List<BookSuggestion> vector(String query, int limit) {
+        List<BookSuggestion> results = vibeQueryService.byPhrase(query, 0, limit);
+        return results != null ? results : textSimilarityService.search(query, limit);
+    }
+
+    private static int lexicalTier(Book b, String q) {
+        String title = b.getTitle() == null ? "" : b.getTitle().toLowerCase(Locale.ROOT).trim();
+        if (title.equals(q)) return 0;
+        if (title.startsWith(q)) return 1;
+        if (title.contains(q)) return 2;
+        return 3;
+    }
+
+    private CompletableFuture<Leg> run(Supplier<List<BookSuggestion>> work, long timeoutMs) {
+        long start = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                    List<BookSuggestion> r = work.get();
+                    return new Leg(r == null ? "unavailable" : "ok", r, elapsedMs(start));
+                }, legs)
+                .exceptionally(t -> {
+                    logger.debug("Hybrid search leg failed: {}", t.getMessage());
+                    return new Leg("error", null, elapsedMs(start));
+                })
+                .completeOnTimeout(new Leg("timeout", null, timeoutMs), timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(new Leg("rejected", null, 0));
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // Same book from both legs shares a key: books_canonical id, else title + author
+    private static List<String> keys(List<BookSuggestion> results, Map<String, BookSuggestion> byKey) {
+        if (results == null) return List.of();
+        List<String> keys = new ArrayList<>(results.size());
+        for (BookSuggestion s : results) {
+            String key = s.getId() != null ? "id:" + s.getId()
+                : "t:" + VibeIndex.normalizeTitle(String.valueOf(s.getTitle())) + "|" + String.valueOf(s.getAuthor()).toLowerCase(Locale.ROOT);
+            byKey.putIfAbsent(key, s);
+            keys.add(key);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,96 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.utils.TimerWheel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * OTPs in a map on this node. Expired entries are refused on read and
+ * removed by a timer wheel swept every second, so memory follows the codes
+ * actually outstanding. Codes are not shared between nodes; run with
+ * app.otp.store=redis behind a load balancer.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final class Entry {
+        final String code;
+        final long expiresAtMillis;
+        final AtomicInteger failures = new AtomicInteger();
+
+        Entry(String code, long expiresAtMillis) {
+            this.code = code;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final TimerWheel<String> expiries;
+    private final int maxAttempts;
+    private final LongSupplier clock;
+
+    @Autowired
+    public InMemoryOtpStore(@Value("${app.otp.max-attempts:5}") int maxAttempts) {
+        this(maxAttempts, System::currentTimeMillis);
+    }
+
+    InMemoryOtpStore(int maxAttempts, LongSupplier clock) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.clock = clock;
+        // One-second ticks over an hour; longer TTLs just take extra rounds
+        this.expiries = new TimerWheel<>(1000, 3600, clock.getAsLong());
+    }
+
+    @Override
+    public void put(Purpose purpose, String email, String code, Duration ttl) {
+        String key = OtpStore.key(purpose, email);
+        long expiresAt = clock.getAsLong() + ttl.toMillis();
+        entries.put(key, new Entry(code, expiresAt));
+        expiries.schedule(key, expiresAt);
+    }
+
+    @Override
+    public Result check(Purpose purpose, String email, String code) {
+        Entry entry = entries.get(OtpStore.key(purpose, email));
+        if (entry == null || entry.expiresAtMillis <= clock.getAsLong()) return Result.MISSING;
+        if (entry.failures.get() >= maxAttempts) return Result.LOCKED;
+        if (entry.code.equals(code)) return Result.MATCH;
+        return entry.failures.incrementAndGet() >= maxAttempts ? Result.LOCKED : Result.MISMATCH;
+    }
+
+    @Override
+    public void remove(Purpose purpose, String email) {
+        entries.remove(OtpStore.key(purpose, email));
+    }
+
+    @Scheduled(fixedDelayString = "${app.otp.sweep-ms:1000}")
+    public void sweep() {
+        long now = clock.getAsLong();
+        // A key re-issued since it was scheduled has a later expiry and is kept
+        expiries.advance(now, key -> entries.computeIfPresent(key, (k, e) -> e.expiresAtMillis <= now ? null : e));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "memory");
+        stats.put("outstanding", entries.size());
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+}
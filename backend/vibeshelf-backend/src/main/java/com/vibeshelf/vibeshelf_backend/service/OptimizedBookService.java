@@ -219,7 +219,7 @@ public class OptimizedBookService {
     }
 
     // Map minimal Book -> BookDetailed safely
-    private BookDetailed toDetailedSafe(Book b) {
+    public BookDetailed toDetailedSafe(Book b) {
         BookDetailed d = BookDetailed.builder().build();
         if (b == null) return d;
         d.setId(b.getId());
@@ -0,0 +1,39 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * One-time codes (signup verification, password reset) kept outside the
+ * users table with a TTL and a wrong-attempt counter, so issuing and
+ * checking a code writes nothing to users until it succeeds.
+ * app.otp.store selects the implementation: memory (single node) or redis.
+ */
+public interface OtpStore {
+
+    enum Purpose { SIGNUP, PASSWORD_RESET }
+
+    enum Result {
+        /** The code is right; call {@link #remove} once it has been used. */
+        MATCH,
+        /** Wrong code; counted against the attempt limit. */
+        MISMATCH,
+        /** Too many wrong codes; the entry refuses everything until it expires. */
+        LOCKED,
+        /** No code issued, or it expired. */
+        MISSING
+    }
+
+    /** Issue code for email, replacing any earlier code and its attempt count. */
+    void put(Purpose purpose, String email, String code, Duration ttl);
+
+    Result check(Purpose purpose, String email, String code);
+
+    void remove(Purpose purpose, String email);
+
+    Map<String, Object> getStats();
+
+    static String key(Purpose purpose, String email) {
+        return purpose.name().toLowerCase() + ":" + (email == null ? "" : email.trim().toLowerCase());
+    }
+}
@@ -0,0 +1,114 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.utils.TokenBucketLimiter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt off the request threads. Each hash is ~100 ms of CPU, so hashing
+ * runs on a fixed pool (half the cores by default) with a bounded queue:
+ * a login burst can use at most that many cores, and once the queue is full
+ * further attempts fail fast with RejectedExecutionException instead of
+ * piling up. Attempts are also throttled per account, before any hashing,
+ * so one account cannot keep the pool busy.
+ */
+@Service
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor hashers;
+    private final TokenBucketLimiter attempts = new TokenBucketLimiter();
+    private final long attemptIntervalNanos;
+    private final int attemptBurst;
+    private final LongAdder hashed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  @Value("${app.auth.hashing.threads:0}") int threads,
+                                  @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.auth.attempts.per-minute:10}") int attemptsPerMinute,
+                                  @Value("${app.auth.attempts.burst:5}") int attemptBurst) {
+        this.passwordEncoder = passwordEncoder;
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadId = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(n, n, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread t = new Thread(r, "password-hash-" + threadId.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.hashers.allowCoreThreadTimeOut(true);
+        this.attemptIntervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, attemptsPerMinute);
+        this.attemptBurst = Math.max(1, attemptBurst);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashers.shutdownNow();
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Take one attempt from the account's allowance (login, password reset).
+     * Denied decisions carry the time until the next attempt is allowed.
+     */
+    public TokenBucketLimiter.Decision tryAttempt(String account) {
+        String key = account == null ? "" : account.trim().toLowerCase(Locale.ROOT);
+        TokenBucketLimiter.Decision decision = attempts.tryAcquire(key, attemptIntervalNanos, attemptBurst, System.nanoTime());
+        if (!decision.isAllowed()) throttled.increment();
+        return decision;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> hash) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                T result = hash.get();
+                hashed.increment();
+                return result;
+            }, hashers);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.ratelimit.evict-interval-ms:60000}",
+               fixedDelayString = "${app.ratelimit.evict-interval-ms:60000}")
+    public void evictIdleAttempts() {
+        attempts.evictIdle(System.nanoTime());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("threads", hashers.getMaximumPoolSize());
+        stats.put("active", hashers.getActiveCount());
+        stats.put("queued", hashers.getQueue().size());
+        stats.put("hashed", hashed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("throttledAttempts", throttled.sum());
+        stats.put("trackedAccounts", attempts.size());
+        return stats;
+    }
+}
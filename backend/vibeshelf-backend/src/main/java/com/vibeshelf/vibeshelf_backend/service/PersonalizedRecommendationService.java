@@ -0,0 +1,341 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.model.Review;
+import com.vibeshelf.vibeshelf_backend.repository.ReviewRepository;
+import com.vibeshelf.vibeshelf_backend.utils.TopK;
+import com.vibeshelf.vibeshelf_backend.utils.VectorStore;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * "Picked for you" recommendations. A reader's reviews and shelf books are
+ * folded into one profile vector (mean of their vibe embeddings, weighted by
+ * rating); candidates come from a vibe search with that profile plus the
+ * precomputed neighbour lists of the books they liked, and are ranked by
+ * similarity to the profile.
+ *
+ * The ranked candidates (index rows + scores, a few KB) are cached per user so
+ * paging is a slice; a new review drops and rebuilds the entry, and a changed
+ * shelf or vibe index makes it stale. Login schedules the build on a small
+ * background pool so the first page is usually ready before it is requested.
+ */
+@Service
+public class PersonalizedRecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonalizedRecommendationService.class);
+
+    // Shelf books are intent rather than a verdict; weigh them like a mild like
+    private static final float SHELF_WEIGHT = 0.5f;
+    private static final int ACTIVITY_STRIPES = 1024;
+
+    private final ReviewRepository reviewRepository;
+    private final VibeSearchService vibeSearchService;
+    private final SimilarBooksService similarBooksService;
+
+    private final int maxCandidates;
+    private final float neighborBoost;
+
+    private final Cache<Long, Ranking> rankings;
+    // Last shelf each reader sent, so warm-ups after login build for the same shelf
+    private final Cache<Long, long[]> shelves;
+    private final ThreadPoolExecutor warmer;
+    // Bumped (striped by user id) on every activity, so a build that raced a new review is not cached
+    private final AtomicLongArray activity = new AtomicLongArray(ACTIVITY_STRIPES);
+
+    private final AtomicInteger builds = new AtomicInteger();
+    private final AtomicInteger warmups = new AtomicInteger();
+
+    public PersonalizedRecommendationService(ReviewRepository reviewRepository,
+                                             VibeSearchService vibeSearchService,
+                                             SimilarBooksService similarBooksService,
+                                             @Value("${app.personal.max-candidates:200}") int maxCandidates,
+                                             @Value("${app.personal.neighbor-boost:0.1}") float neighborBoost,
+                                             @Value("${app.personal.cache-size:10000}") long cacheSize,
+                                             @Value("${app.personal.cache-ttl-minutes:30}") long cacheTtlMinutes,
+                                             @Value("${app.personal.warmup-threads:2}") int warmupThreads) {
+        this.reviewRepository = reviewRepository;
+        this.vibeSearchService = vibeSearchService;
+        this.similarBooksService = similarBooksService;
+        this.maxCandidates = Math.max(1, maxCandidates);
+        this.neighborBoost = neighborBoost;
+        this.rankings = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+            .recordStats()
+            .build();
+        this.shelves = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterAccess(Duration.ofDays(7))
+            .build();
+        // Bounded queue: a login burst drops warm-ups (the page then builds on demand)
+        AtomicInteger threadId = new AtomicInteger();
+        int threads = Math.max(1, warmupThreads);
+        this.warmer = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(256), r -> {
+                Thread t = new Thread(r, "personal-recs-warmup-" + threadId.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+        this.warmer.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        warmer.shutdownNow();
+    }
+
+    /** Ranked candidates for one reader, valid for one index and shelf. */
+    private static final class Ranking {
+        final int[] rows;
+        final float[] scores;
+        final long indexFingerprint;
+        final long graphVersion;
+        final long shelfKey;
+        final long builtAt = System.currentTimeMillis();
+
+        Ranking(int[] rows, float[] scores, long indexFingerprint, long graphVersion, long shelfKey) {
+            this.rows = rows;
+            this.scores = scores;
+            this.indexFingerprint = indexFingerprint;
+            this.graphVersion = graphVersion;
+            this.shelfKey = shelfKey;
+        }
+
+        boolean matches(long fingerprint, long version, long shelf) {
+            return indexFingerprint == fingerprint && graphVersion == version && shelfKey == shelf;
+        }
+    }
+
+    /** One page of a reader's recommendations. */
+    public static final class RankedPage {
+        private final List<BookSuggestion> items;
+        private final int total;
+        private final boolean cached;
+        private final long ageSeconds;
+
+        RankedPage(List<BookSuggestion> items, int total, boolean cached, long ageSeconds) {
+            this.items = items;
+            this.total = total;
+            this.cached = cached;
+            this.ageSeconds = ageSeconds;
+        }
+
+        public List<BookSuggestion> getItems() {
+            return items;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isCached() {
+            return cached;
+        }
+
+        public long getAgeSeconds() {
+            return ageSeconds;
+        }
+    }
+
+    public boolean isReady() {
+        return vibeSearchService.isReady();
+    }
+
+    /**
+     * Page (0-based) of recommendations for a reader. shelf is the reader's
+     * shelf book ids, or null to reuse the last shelf they sent. Returns null
+     * while the vibe index is not loaded; readers with no reviews or shelf
+     * books in the index get an empty page.
+     */
+    public RankedPage page(long userId, long[] shelf, int page, int size) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        if (idx == null) return null;
+        if (shelf != null) {
+            shelves.put(userId, shelf);
+        } else {
+            shelf = shelves.getIfPresent(userId);
+        }
+        long fingerprint = vibeSearchService.getIndexFingerprint();
+        long version = vibeSearchService.getGraphVersion();
+        long shelfKey = shelfKey(shelf);
+
+        Ranking ranking = rankings.getIfPresent(userId);
+        boolean cached = ranking != null && ranking.matches(fingerprint, version, shelfKey);
+        if (!cached) {
+            ranking = compute(userId, shelf, idx, fingerprint, version, shelfKey);
+            if (ranking == null) return null;
+        }
+
+        int total = ranking.rows.length;
+        int from = (int) Math.min((long) page * size, total);
+        int to = Math.min(from + size, total);
+        List<BookSuggestion> items = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            items.add(vibeSearchService.toSuggestion(idx, ranking.rows[i], ranking.scores[i]));
+        }
+        long age = (System.currentTimeMillis() - ranking.builtAt) / 1000;
+        return new RankedPage(items, total, cached, age);
+    }
+
+    /**
+     * Builds the reader's ranking in the background if it is not cached (called
+     * after login, and after their reviews change).
+     */
+    public void warmUp(long userId) {
+        if (!vibeSearchService.isReady()) return;
+        warmer.execute(() -> {
+            try {
+                VibeIndex idx = vibeSearchService.getIndex();
+                if (idx == null) return;
+                long[] shelf = shelves.getIfPresent(userId);
+                long fingerprint = vibeSearchService.getIndexFingerprint();
+                long version = vibeSearchService.getGraphVersion();
+                Ranking current = rankings.getIfPresent(userId);
+                if (current != null && current.matches(fingerprint, version, shelfKey(shelf))) return;
+                compute(userId, shelf, idx, fingerprint, version, shelfKey(shelf));
+                warmups.incrementAndGet();
+            } catch (Exception e) {
+                logger.warn("Recommendation warm-up failed for user {}: {}", userId, e.getMessage());
+            }
+        });
+    }
+
+    /** Drops the reader's cached ranking after new activity and rebuilds it in the background. */
+    public void onActivity(long userId) {
+        activity.incrementAndGet(stripe(userId));
+        rankings.invalidate(userId);
+        warmUp(userId);
+    }
+
+    public Map<String, Object> getStatus() {
+        CacheStats stats = rankings.stats();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("ready", isReady());
+        out.put("cachedUsers", rankings.estimatedSize());
+        out.put("hitRate", stats.hitRate());
+        out.put("evictions", stats.evictionCount());
+        out.put("builds", builds.get());
+        out.put("warmups", warmups.get());
+        out.put("warmupQueue", warmer.getQueue().size());
+        out.put("maxCandidates", maxCandidates);
+        return out;
+    }
+
+    /*
+     * Built outside the cache so the review query never runs under a map lock.
+     * The result is cached only if the reader had no activity meanwhile;
+     * otherwise it could overwrite the invalidation with a ranking that missed
+     * the new review. onActivity bumps the stamp before invalidating, so
+     * either this sees the bump or the invalidation runs after the put.
+     */
+    private Ranking compute(long userId, long[] shelf, VibeIndex idx, long fingerprint, long version, long shelfKey) {
+        int stripe = stripe(userId);
+        long stamp = activity.get(stripe);
+        Ranking built = build(userId, shelf, idx, fingerprint, version, shelfKey);
+        rankings.asMap().compute(userId, (id, existing) -> activity.get(stripe) == stamp ? built : existing);
+        return built;
+    }
+
+    private static int stripe(long userId) {
+        return Long.hashCode(userId) & (ACTIVITY_STRIPES - 1);
+    }
+
+    private Ranking build(long userId, long[] shelf, VibeIndex idx, long fingerprint, long version, long shelfKey) {
+        builds.incrementAndGet();
+        // Seed weight per index row: rating 5 -> 1.0, 3 -> 0.2, 1 -> -0.6
+        Map<Integer, Float> seeds = new HashMap<>();
+        for (Review r : reviewRepository.findByUserId(userId)) {
+            if (r.getBookId() == null) continue;
+            int row = idx.findRowByBookId(r.getBookId());
+            if (row < 0) continue;
+            float weight = r.getRating() == null ? SHELF_WEIGHT
+                : (Math.max(1, Math.min(5, r.getRating())) - 2.5f) / 2.5f;
+            seeds.put(row, weight);
+        }
+        if (shelf != null) {
+            for (long bookId : shelf) {
+                int row = idx.findRowByBookId(bookId);
+                if (row >= 0) seeds.putIfAbsent(row, SHELF_WEIGHT);
+            }
+        }
+
+        VectorStore store = idx.vectors();
+        int dim = store.dim();
+        float[] profile = new float[dim];
+        float[] v = new float[dim];
+        boolean anyLiked = false;
+        for (Map.Entry<Integer, Float> e : seeds.entrySet()) {
+            float w = e.getValue();
+            if (w > 0) anyLiked = true;
+            store.get(e.getKey(), v);
+            for (int i = 0; i < dim; i++) profile[i] += w * v[i];
+        }
+        float norm = (float) Math.sqrt(VectorStore.dot(profile, 0, profile, 0, dim));
+        if (!anyLiked || norm == 0f) {
+            return new Ranking(new int[0], new float[0], fingerprint, version, shelfKey);
+        }
+        for (int i = 0; i < dim; i++) profile[i] /= norm;
+
+        // Candidates: profile search plus the neighbour lists of liked books, which
+        // keep a reader with two distinct tastes from being averaged into neither
+        int want = maxCandidates + seeds.size();
+        int[] searchRows = new int[want];
+        float[] searchScores = new float[want];
+        int found = vibeSearchService.searchRows(profile, want, searchRows, searchScores);
+        Map<Integer, Float> candidates = new HashMap<>(found * 2);
+        for (int i = 0; i < found; i++) {
+            candidates.put(searchRows[i], searchScores[i]);
+        }
+        int[] nbrs = new int[64];
+        for (Map.Entry<Integer, Float> e : seeds.entrySet()) {
+            if (e.getValue() <= 0) continue;
+            int n = similarBooksService.neighborRows(e.getKey(), nbrs);
+            for (int i = 0; i < n; i++) {
+                Float base = candidates.get(nbrs[i]);
+                if (base == null) {
+                    store.get(nbrs[i], v);
+                    base = VectorStore.dot(profile, 0, v, 0, dim);
+                }
+                candidates.put(nbrs[i], base + neighborBoost * e.getValue());
+            }
+        }
+
+        TopK top = new TopK(maxCandidates);
+        for (Map.Entry<Integer, Float> e : candidates.entrySet()) {
+            if (seeds.containsKey(e.getKey())) continue;
+            top.offer(e.getKey(), e.getValue());
+        }
+        int[] rows = new int[top.size()];
+        float[] scores = new float[top.size()];
+        int n = top.drainSorted(rows, scores);
+        return new Ranking(Arrays.copyOf(rows, n), Arrays.copyOf(scores, n), fingerprint, version, shelfKey);
+    }
+
+    private static long shelfKey(long[] shelf) {
+        if (shelf == null || shelf.length == 0) return 0L;
+        long[] sorted = shelf.clone();
+        Arrays.sort(sorted);
+        return Arrays.hashCode(sorted) * 31L + sorted.length;
+    }
+}
@@ -0,0 +1,293 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.utils.SampledLogger;
+import com.vibeshelf.vibeshelf_backend.utils.TokenBucketLimiter;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token buckets for /api requests: one bucket per client for all
+ * of /api, plus a tighter bucket per client for each configured endpoint
+ * pattern (first match wins). Clients are the authenticated user, else the
+ * remote address.
+ *
+ * In local mode buckets live in this instance (TokenBucketLimiter). In redis
+ * mode the same GCRA check runs as a Lua script so every node shares the
+ * buckets; if Redis fails, the request is decided locally instead of being
+ * rejected.
+ */
+@Service
+public class RateLimitService {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
+    private static final SampledLogger errorLog = SampledLogger.forCategory("errors");
+
+    /** A bucket shape: requestsPerMinute refill, up to burst at once. */
+    public static final class Rule {
+        private final String name;
+        private final String pattern;
+        private final int requestsPerMinute;
+        private final int burst;
+        private final long intervalNanos;
+
+        Rule(String name, String pattern, int requestsPerMinute, int burst) {
+            if (requestsPerMinute <= 0 || burst <= 0) {
+                throw new IllegalArgumentException("Rate limit for " + name + " must be positive: "
+                        + requestsPerMinute + "/" + burst);
+            }
+            this.name = name;
+            this.pattern = pattern;
+            this.requestsPerMinute = requestsPerMinute;
+            this.burst = burst;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRequestsPerMinute() {
+            return requestsPerMinute;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+    }
+
+    /** The decision for a request and the rule that produced it. */
+    public static final class Outcome {
+        private final Rule rule;
+        private final TokenBucketLimiter.Decision decision;
+
+        Outcome(Rule rule, TokenBucketLimiter.Decision decision) {
+            this.rule = rule;
+            this.decision = decision;
+        }
+
+        public Rule getRule() {
+            return rule;
+        }
+
+        public TokenBucketLimiter.Decision getDecision() {
+            return decision;
+        }
+    }
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplates;
+    private final TokenBucketLimiter local = new TokenBucketLimiter();
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder denied = new LongAdder();
+    private final LongAdder redisFallbacks = new LongAdder();
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.ratelimit.mode:local}")
+    private String mode;
+
+    @Value("${app.ratelimit.default.per-minute:300}")
+    private int defaultPerMinute;
+
+    @Value("${app.ratelimit.default.burst:100}")
+    private int defaultBurst;
+
+    @Value("${app.ratelimit.endpoints:}")
+    private String endpointSpec;
+
+    @Value("${app.ratelimit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    // Proxies in front of the app that append to X-Forwarded-For; the client is that many entries from the right
+    @Value("${app.ratelimit.trusted-proxy-hops:1}")
+    private int trustedProxyHops;
+
+    @Value("${app.ratelimit.redis.key-prefix:rl:}")
+    private String redisKeyPrefix;
+
+    private Rule defaultRule;
+    private List<Rule> endpointRules = List.of();
+    private StringRedisTemplate redis;
+    private DefaultRedisScript<List<Long>> script;
+
+    public RateLimitService(ObjectProvider<StringRedisTemplate> redisTemplates) {
+        this.redisTemplates = redisTemplates;
+    }
+
+    @PostConstruct
+    void init() {
+        defaultRule = new Rule("default", "/api/**", defaultPerMinute, defaultBurst);
+        endpointRules = parseRules(endpointSpec);
+        if ("redis".equalsIgnoreCase(mode)) {
+            redis = redisTemplates.getIfAvailable();
+            if (redis == null) {
+                log.warn("app.ratelimit.mode=redis but no Redis connection is configured; using local buckets");
+            } else {
+                script = gcraScript();
+            }
+        }
+        log.info("Rate limiting {} ({} mode): default {}/min burst {}, {} endpoint rules",
+                enabled ? "enabled" : "disabled", redis != null ? "redis" : "local",
+                defaultPerMinute, defaultBurst, endpointRules.size());
+    }
+
+    /** The shared GCRA check; replies {allowed 0/1, remaining, retry-after micros} as Lua integers. */
+    @SuppressWarnings("unchecked")
+    public static DefaultRedisScript<List<Long>> gcraScript() {
+        DefaultRedisScript<List<Long>> gcra = new DefaultRedisScript<>();
+        gcra.setLocation(new ClassPathResource("redis/gcra_rate_limit.lua"));
+        // Lua integers come back as Long; the cast only names the element type erasure drops
+        gcra.setResultType((Class<List<Long>>) (Class<?>) List.class);
+        return gcra;
+    }
+
+    /** "pattern=perMinute/burst,..." */
+    static List<Rule> parseRules(String spec) {
+        List<Rule> rules = new ArrayList<>();
+        if (spec == null || spec.isBlank()) return rules;
+        for (String entry : spec.split(",")) {
+            entry = entry.trim();
+            if (entry.isEmpty()) continue;
+            int eq = entry.lastIndexOf('=');
+            int slash = entry.lastIndexOf('/');
+            if (eq <= 0 || slash < eq) {
+                throw new IllegalArgumentException("Bad rate limit rule '" + entry + "', expected pattern=perMinute/burst");
+            }
+            String pattern = entry.substring(0, eq).trim();
+            int perMinute = Integer.parseInt(entry.substring(eq + 1, slash).trim());
+            int burst = Integer.parseInt(entry.substring(slash + 1).trim());
+            rules.add(new Rule(pattern, pattern, perMinute, burst));
+        }
+        return rules;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a token from the client's /api bucket and from the matching
+     * endpoint bucket, if any. Returns the denying outcome, or the allowed
+     * outcome with the fewest remaining tokens.
+     */
+    public Outcome check(HttpServletRequest request) {
+        String client = clientKey(request);
+        Rule endpoint = null;
+        String path = request.getRequestURI();
+        for (Rule rule : endpointRules) {
+            if (matcher.match(rule.pattern, path)) {
+                endpoint = rule;
+                break;
+            }
+        }
+
+        // Endpoint buckets are tighter, so check them first and leave the /api bucket untouched on a deny
+        Outcome result = null;
+        if (endpoint != null) {
+            result = new Outcome(endpoint, acquire(endpoint, client));
+            if (!result.decision.isAllowed()) {
+                denied.increment();
+                return result;
+            }
+        }
+        Outcome general = new Outcome(defaultRule, acquire(defaultRule, client));
+        if (!general.decision.isAllowed()) {
+            denied.increment();
+            return general;
+        }
+        allowed.increment();
+        if (result == null || general.decision.getRemaining() < result.decision.getRemaining()) {
+            return general;
+        }
+        return result;
+    }
+
+    private TokenBucketLimiter.Decision acquire(Rule rule, String client) {
+        String key = rule.name + "|" + client;
+        if (redis != null) {
+            try {
+                List<Long> reply = redis.execute(script, List.of(redisKeyPrefix + key),
+                        Long.toString(rule.intervalNanos / 1000), Integer.toString(rule.burst));
+                if (reply != null && reply.size() == 3) {
+                    return new TokenBucketLimiter.Decision(reply.get(0) == 1L,
+                            reply.get(1).intValue(), reply.get(2) * 1000);
+                }
+            } catch (RuntimeException e) {
+                errorLog.warn("Redis rate limit check failed for {}, deciding locally: {}", rule.name, e.getMessage());
+            }
+            redisFallbacks.increment();
+        }
+        return local.tryAcquire(key, rule.intervalNanos, rule.burst, System.nanoTime());
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        if (trustForwardedFor) {
+            String client = forwardedClient(request.getHeader("X-Forwarded-For"), trustedProxyHops);
+            if (client != null) {
+                return "ip:" + client;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    /*
+     * Entries left of what our proxies appended are whatever the client sent,
+     * so only the one the outermost trusted proxy added identifies the caller.
+     * A shorter header than expected means every entry came from our proxies.
+     */
+    static String forwardedClient(String header, int trustedHops) {
+        if (header == null || header.isBlank()) return null;
+        String[] entries = header.split(",");
+        String client = entries[Math.max(0, entries.length - Math.max(1, trustedHops))].trim();
+        return client.isEmpty() ? null : client;
+    }
+
+    /** Full buckets carry no state, so dropping them keeps memory bounded by active clients. */
+    @Scheduled(initialDelayString = "${app.ratelimit.evict-interval-ms:60000}",
+               fixedDelayString = "${app.ratelimit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        int removed = local.evictIdle(System.nanoTime());
+        if (removed > 0) {
+            log.debug("Evicted {} idle rate limit buckets, {} active", removed, local.size());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("mode", redis != null ? "redis" : "local");
+        stats.put("defaultPerMinute", defaultRule.requestsPerMinute);
+        stats.put("defaultBurst", defaultRule.burst);
+        stats.put("endpointRules", endpointRules.size());
+        stats.put("localBuckets", local.size());
+        stats.put("allowed", allowed.sum());
+        stats.put("denied", denied.sum());
+        stats.put("redisFallbacks", redisFallbacks.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,272 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.LongIntHashMap;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cursor-paged recommendation sessions. The first request ranks once (vibe
+ * index, then TF-IDF, then a title/author LIKE search) and keeps the whole
+ * ranking server-side as a compact id/score array; the returned cursor points
+ * into it, so every later page is a slice rather than another search. Rankings
+ * are deduplicated when stored (same id, or another edition with the same
+ * title and author), so pages never repeat a book, and ids the client has
+ * already seen can be excluded up front.
+ */
+@Service
+public class RecommendationSessionService {
+
+    private static final int SESSION_OVERHEAD_BYTES = 96;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final VibeQueryService vibeQueryService;
+    private final VibeSearchService vibeSearchService;
+    private final TextSimilarityService textSimilarityService;
+    private final BookRepository bookRepository;
+    private final int depth;
+    private final Cache<String, Session> sessions;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder pagesServed = new LongAdder();
+    private final LongAdder expiredCursors = new LongAdder();
+
+    public RecommendationSessionService(VibeQueryService vibeQueryService, VibeSearchService vibeSearchService,
+                                        TextSimilarityService textSimilarityService, BookRepository bookRepository,
+                                        @Value("${app.recommendations.session.depth:200}") int depth,
+                                        @Value("${app.recommendations.session.max-bytes:16777216}") long maxBytes,
+                                        @Value("${app.recommendations.session.ttl-minutes:30}") long ttlMinutes) {
+        this.vibeQueryService = vibeQueryService;
+        this.vibeSearchService = vibeSearchService;
+        this.textSimilarityService = textSimilarityService;
+        this.bookRepository = bookRepository;
+        this.depth = Math.max(1, depth);
+        this.sessions = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Session s) -> SESSION_OVERHEAD_BYTES + s.ids.length * (Long.BYTES + Float.BYTES))
+            .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+            .build();
+    }
+
+    /** Where a session's ranking came from; decides the reason shown per book. */
+    private enum Source {
+        VIBE("vibe-index", "% vibe match"),
+        TEXT("tfidf", "% text match"),
+        DATABASE("database", null);
+
+        final String label;
+        final String reasonSuffix;
+
+        Source(String label, String reasonSuffix) {
+            this.label = label;
+            this.reasonSuffix = reasonSuffix;
+        }
+    }
+
+    /** One stored ranking: books_canonical ids best first, with their scores. */
+    private static final class Session {
+        final long[] ids;
+        final float[] scores;
+        final Source source;
+
+        Session(long[] ids, float[] scores, Source source) {
+            this.ids = ids;
+            this.scores = scores;
+            this.source = source;
+        }
+    }
+
+    /** One page of a session plus the cursor for the next one (null at the end). */
+    public static final class SessionPage {
+        private final List<BookSuggestion> items;
+        private final int offset;
+        private final int total;
+        private final String nextCursor;
+        private final String source;
+
+        SessionPage(List<BookSuggestion> items, int offset, int total, String nextCursor, String source) {
+            this.items = items;
+            this.offset = offset;
+            this.total = total;
+            this.nextCursor = nextCursor;
+            this.source = source;
+        }
+
+        public List<BookSuggestion> getItems() {
+            return items;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public String getSource() {
+            return source;
+        }
+    }
+
+    /**
+     * Rank books for a title ("more like this") or a free-text phrase, store
+     * the ranking and return its first page. Exactly one of title and phrase
+     * should be set; exclude holds ids the client has already shown.
+     */
+    public SessionPage start(String title, String phrase, Set<Long> exclude, int limit) {
+        boolean byTitle = title != null && !title.isBlank();
+        String q = byTitle ? title.trim() : phrase == null ? "" : phrase.trim();
+        if (q.isEmpty()) return new SessionPage(List.of(), 0, 0, null, Source.DATABASE.label);
+
+        Source source = Source.VIBE;
+        List<BookSuggestion> ranked = byTitle ? vibeQueryService.byTitle(q, 0, depth) : vibeQueryService.byPhrase(q, 0, depth);
+        if (ranked == null) {
+            source = Source.TEXT;
+            ranked = byTitle ? textSimilarityService.similarToTitle(q, depth) : textSimilarityService.search(q, depth);
+        }
+        if (ranked == null) {
+            source = Source.DATABASE;
+            ranked = new ArrayList<>();
+            for (Book b : bookRepository.findByTitleOrAuthorLike(q, PageRequest.of(0, depth)).getContent()) {
+                BookSuggestion s = new BookSuggestion(b.getTitle(), b.getAuthor(), null, null);
+                s.setId(b.getId());
+                ranked.add(s);
+            }
+        }
+
+        Session session = compact(ranked, exclude == null ? Set.of() : exclude, source);
+        String id = newSessionId();
+        sessions.put(id, session);
+        created.increment();
+        return slice(id, session, 0, limit);
+    }
+
+    /** Next page for a cursor from an earlier response; null when the session has expired. */
+    public SessionPage next(String cursor, int limit) {
+        int dot = cursor == null ? -1 : cursor.lastIndexOf('.');
+        if (dot <= 0) throw new IllegalArgumentException("Malformed cursor");
+        String id = cursor.substring(0, dot);
+        int offset;
+        try {
+            offset = Integer.parseInt(cursor.substring(dot + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        if (offset < 0) throw new IllegalArgumentException("Malformed cursor");
+        Session session = sessions.getIfPresent(id);
+        if (session == null) {
+            expiredCursors.increment();
+            return null;
+        }
+        return slice(id, session, offset, limit);
+    }
+
+    // Ids only (books without a books_canonical id cannot be resolved later), first of each id and edition kept
+    private static Session compact(List<BookSuggestion> ranked, Set<Long> exclude, Source source) {
+        long[] ids = new long[ranked.size()];
+        float[] scores = new float[ranked.size()];
+        LongIntHashMap seenIds = new LongIntHashMap(ranked.size());
+        Set<String> seenEditions = new HashSet<>();
+        int n = 0;
+        for (BookSuggestion s : ranked) {
+            Long id = s.getId();
+            if (id == null || exclude.contains(id) || !seenIds.putIfAbsent(id, n)) continue;
+            if (s.getTitle() != null && !seenEditions.add(VibeIndex.normalizeTitle(s.getTitle()) + "|"
+                + String.valueOf(s.getAuthor()).toLowerCase(Locale.ROOT))) continue;
+            ids[n] = id;
+            scores[n++] = s.getScore() == null ? 0f : s.getScore().floatValue();
+        }
+        return new Session(Arrays.copyOf(ids, n), Arrays.copyOf(scores, n), source);
+    }
+
+    private SessionPage slice(String id, Session session, int offset, int limit) {
+        int from = Math.min(offset, session.ids.length);
+        int to = Math.min(from + Math.max(1, limit), session.ids.length);
+        pagesServed.increment();
+        String nextCursor = to < session.ids.length ? id + "." + to : null;
+        return new SessionPage(resolve(session, from, to), from, session.ids.length, nextCursor, session.source.label);
+    }
+
+    /*
+     * Display fields come from the in-memory vibe index when it has the book,
+     * otherwise from one primary-key batch against books_canonical.
+     */
+    private List<BookSuggestion> resolve(Session session, int from, int to) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        BookSuggestion[] out = new BookSuggestion[to - from];
+        List<Long> missing = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            int row = idx == null ? -1 : idx.findRowByBookId(session.ids[i]);
+            if (row >= 0) {
+                out[i - from] = suggestion(session, i, idx.title(row), idx.author(row), idx.cover(row));
+            } else {
+                missing.add(session.ids[i]);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<Long, Book> books = new HashMap<>();
+            for (Book b : bookRepository.findAllById(missing)) books.put(b.getId(), b);
+            for (int i = from; i < to; i++) {
+                if (out[i - from] != null) continue;
+                Book b = books.get(session.ids[i]);
+                if (b != null) out[i - from] = suggestion(session, i, b.getTitle(), b.getAuthor(), b.getImage());
+            }
+        }
+        List<BookSuggestion> items = new ArrayList<>(out.length);
+        for (BookSuggestion s : out) {
+            if (s != null) items.add(s);
+        }
+        return items;
+    }
+
+    private static BookSuggestion suggestion(Session session, int i, String title, String author, String cover) {
+        float score = session.scores[i];
+        String reason = session.source.reasonSuffix == null ? null
+            : Math.round(Math.min(1f, Math.max(0f, score)) * 100) + session.source.reasonSuffix;
+        BookSuggestion s = new BookSuggestion(title, author, reason, cover != null && !cover.isEmpty() ? cover : null);
+        s.setId(session.ids[i]);
+        if (session.source != Source.DATABASE) s.setScore((double) score);
+        return s;
+    }
+
+    private static String newSessionId() {
+        byte[] bytes = new byte[12];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("sessions", sessions.estimatedSize());
+        out.put("weightBytes", sessions.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        out.put("created", created.sum());
+        out.put("pagesServed", pagesServed.sum());
+        out.put("expiredCursors", expiredCursors.sum());
+        return out;
+    }
+}
@@ -1,12 +1,347 @@
 package com.vibeshelf.vibeshelf_backend.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vibeshelf.vibeshelf_backend.dto.LyricMatchResult;
+import com.vibeshelf.vibeshelf_backend.model.BookDetailed;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.AhoCorasick;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
 /**
- * RecommenderLyricService removed — replaced by the Python KNN recommender.
+ * Lyric / mood matcher. The phrase -> genre rules and mood -> genres map
+ * (formerly lyricKeywordMap.js and moodMapping.js in the frontend) are
+ * compiled into one Aho-Corasick automaton, so pasted lyrics are scanned in a
+ * single linear pass regardless of the number of rules. Matched genres and
+ * moods are weighted and answered from the genre index, with per-genre and
+ * per-mood book lists cached.
  *
- * Kept as a deprecated, empty stub to avoid accidental runtime or build issues while
- * other cleanup or repo-level removals are coordinated. This class performs no work.
+ * Rules come from classpath:lyrics/lyric-rules.json, or from app.lyrics.rules-path
+ * when set; that file is watched and recompiled on change without a redeploy.
  */
-@Deprecated
-public final class RecommenderLyricService {
-    private RecommenderLyricService() { }
+@Service
+public class RecommenderLyricService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommenderLyricService.class);
+
+    private static final String CLASSPATH_RULES = "lyrics/lyric-rules.json";
+    private static final String KIND_PHRASE = "phrase";
+    private static final String KIND_MOOD = "mood";
+
+    private final BookRepository bookRepository;
+    private final OptimizedBookService optimizedBookService;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // External rules file; empty = bundled rules only
+    @Value("${app.lyrics.rules-path:}")
+    private String rulesPath;
+
+    @Value("${app.lyrics.books-per-genre:40}")
+    private int booksPerGenre;
+
+    @Value("${app.lyrics.cache-ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    @Value("${app.lyrics.max-input-chars:20000}")
+    private int maxInputChars;
+
+    private volatile Rules rules;
+    private volatile long rulesModified = -1;
+    private Cache<String, List<BookDetailed>> genreBooks;
+    private Cache<String, List<BookDetailed>> moodBooks;
+
+    public RecommenderLyricService(BookRepository bookRepository, OptimizedBookService optimizedBookService) {
+        this.bookRepository = bookRepository;
+        this.optimizedBookService = optimizedBookService;
+    }
+
+    /** Compiled, immutable snapshot of the rules; swapped atomically on reload. */
+    private static final class Rules {
+        final int version;
+        final String source;
+        final AhoCorasick automaton;
+        final String[] patterns;
+        final String[] kinds;
+        final String[] targets;
+        final int[] weights;
+        final Map<String, List<String>> moods;
+
+        Rules(int version, String source, List<String> patterns, List<String> kinds, List<String> targets,
+              Map<String, List<String>> moods) {
+            this.version = version;
+            this.source = source;
+            this.automaton = new AhoCorasick(patterns);
+            this.patterns = patterns.toArray(new String[0]);
+            this.kinds = kinds.toArray(new String[0]);
+            this.targets = targets.toArray(new String[0]);
+            this.weights = new int[this.patterns.length];
+            // Longer phrases are more specific, so each word counts
+            for (int i = 0; i < this.patterns.length; i++) {
+                weights[i] = Math.max(1, this.patterns[i].trim().split("\\s+").length);
+            }
+            this.moods = moods;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        Duration ttl = Duration.ofMinutes(cacheTtlMinutes);
+        genreBooks = Caffeine.newBuilder().maximumSize(500).expireAfterWrite(ttl).build();
+        moodBooks = Caffeine.newBuilder().maximumSize(200).expireAfterWrite(ttl).build();
+        try {
+            reload();
+        } catch (Exception e) {
+            logger.error("Failed to load lyric rules; lyric search disabled until they load", e);
+        }
+    }
+
+    /** Recompiles the external rules file when its modification time changes. */
+    @Scheduled(initialDelayString = "${app.lyrics.reload-check-ms:10000}",
+               fixedDelayString = "${app.lyrics.reload-check-ms:10000}")
+    public void reloadIfChanged() {
+        if (rulesPath == null || rulesPath.isBlank()) return;
+        try {
+            Path file = Paths.get(rulesPath);
+            if (!Files.isReadable(file)) return;
+            if (Files.getLastModifiedTime(file).toMillis() != rulesModified) reload();
+        } catch (Exception e) {
+            // Keep serving the previous rules
+            logger.warn("Failed to reload lyric rules from {}: {}", rulesPath, e.getMessage());
+        }
+    }
+
+    /**
+     * Loads and compiles the rules, then swaps them in and drops cached mood
+     * lists (a mood's genres may have changed). Returns a short summary.
+     */
+    public synchronized Map<String, Object> reload() throws Exception {
+        JsonNode root;
+        String source;
+        long modified = -1;
+        Path file = rulesPath == null || rulesPath.isBlank() ? null : Paths.get(rulesPath);
+        if (file != null && Files.isReadable(file)) {
+            modified = Files.getLastModifiedTime(file).toMillis();
+            root = mapper.readTree(file.toFile());
+            source = file.toString();
+        } else {
+            try (InputStream in = new ClassPathResource(CLASSPATH_RULES).getInputStream()) {
+                root = mapper.readTree(in);
+            }
+            source = "classpath:" + CLASSPATH_RULES;
+        }
+
+        List<String> patterns = new ArrayList<>();
+        List<String> kinds = new ArrayList<>();
+        List<String> targets = new ArrayList<>();
+        Map<String, List<String>> moods = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> moodFields = root.path("moods").fields();
+        while (moodFields.hasNext()) {
+            Map.Entry<String, JsonNode> e = moodFields.next();
+            List<String> genres = new ArrayList<>();
+            e.getValue().forEach(g -> genres.add(g.asText().toLowerCase()));
+            String mood = e.getKey().toLowerCase();
+            moods.put(mood, Collections.unmodifiableList(genres));
+            patterns.add(mood);
+            kinds.add(KIND_MOOD);
+            targets.add(mood);
+        }
+        Iterator<Map.Entry<String, JsonNode>> phraseFields = root.path("phrases").fields();
+        while (phraseFields.hasNext()) {
+            Map.Entry<String, JsonNode> e = phraseFields.next();
+            patterns.add(e.getKey());
+            kinds.add(KIND_PHRASE);
+            targets.add(e.getValue().asText().toLowerCase());
+        }
+        if (patterns.isEmpty()) throw new IllegalStateException("No lyric rules in " + source);
+
+        Rules compiled = new Rules(root.path("version").asInt(0), source, patterns, kinds, targets,
+            Collections.unmodifiableMap(moods));
+        this.rules = compiled;
+        this.rulesModified = modified;
+        moodBooks.invalidateAll();
+        logger.info("Loaded {} lyric rules ({} moods, {} automaton states) from {}",
+            patterns.size(), moods.size(), compiled.automaton.states(), source);
+        return getRulesSummary();
+    }
+
+    public Map<String, Object> getRulesSummary() {
+        Rules r = rules;
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (r == null) {
+            out.put("loaded", false);
+            return out;
+        }
+        out.put("loaded", true);
+        out.put("version", r.version);
+        out.put("source", r.source);
+        out.put("rules", r.patterns.length);
+        out.put("moods", r.moods.keySet());
+        out.put("states", r.automaton.states());
+        return out;
+    }
+
+    public boolean isReady() {
+        return rules != null;
+    }
+
+    /**
+     * Scans the lyrics once, weights matched genres and moods, and picks up to
+     * limit books across them in proportion to their weights.
+     */
+    public LyricMatchResult match(String lyrics, int limit) {
+        Rules r = rules;
+        if (r == null) throw new IllegalStateException("Lyric rules are not loaded");
+        String text = lyrics == null ? "" : lyrics;
+        if (text.length() > maxInputChars) text = text.substring(0, maxInputChars);
+
+        int[] counts = new int[r.patterns.length];
+        r.automaton.scan(AhoCorasick.normalize(text), (p, end) -> counts[p]++);
+
+        Map<String, Double> genreWeights = new HashMap<>();
+        Map<String, Double> moodWeights = new HashMap<>();
+        List<LyricMatchResult.Match> matches = new ArrayList<>();
+        for (int p = 0; p < counts.length; p++) {
+            if (counts[p] == 0) continue;
+            double w = (double) counts[p] * r.weights[p];
+            String target = r.targets[p];
+            if (KIND_MOOD.equals(r.kinds[p])) {
+                moodWeights.merge(target, w, Double::sum);
+            } else {
+                genreWeights.merge(target, w, Double::sum);
+                // Several phrase targets ("cozy", "heartbreak", ...) are moods as well
+                if (r.moods.containsKey(target)) moodWeights.merge(target, w, Double::sum);
+            }
+            matches.add(LyricMatchResult.Match.builder()
+                .phrase(r.patterns[p]).kind(r.kinds[p]).target(target).count(counts[p]).build());
+        }
+        // A mood lends its weight to its genres, earlier genres more
+        moodWeights.forEach((mood, w) -> {
+            List<String> genres = r.moods.get(mood);
+            for (int i = 0; i < genres.size(); i++) {
+                genreWeights.merge(genres.get(i), w / (i + 1), Double::sum);
+            }
+        });
+        matches.sort((a, b) -> Integer.compare(b.getCount(), a.getCount()));
+
+        Map<String, Double> genres = sortByWeight(genreWeights);
+        Map<String, Double> moods = sortByWeight(moodWeights);
+        return LyricMatchResult.builder()
+            .rulesVersion(r.version)
+            .matches(matches)
+            .genres(genres)
+            .moods(moods)
+            .books(pickBooks(r, genres, moods, limit))
+            .build();
+    }
+
+    private static Map<String, Double> sortByWeight(Map<String, Double> weights) {
+        return weights.entrySet().stream()
+            .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> Math.round(e.getValue() * 100) / 100.0,
+                (a, b) -> a, LinkedHashMap::new));
+    }
+
+    /**
+     * Moods are answered from their cached list; genres that were matched
+     * directly (not only through a mood) from their own cached list. Each
+     * source gets a share of the slots proportional to its weight.
+     */
+    private List<BookDetailed> pickBooks(Rules r, Map<String, Double> genres, Map<String, Double> moods, int limit) {
+        Map<String, Double> sources = new LinkedHashMap<>();
+        moods.forEach((mood, w) -> sources.put(KIND_MOOD + ":" + mood, w));
+        Set<String> moodGenres = new HashSet<>();
+        moods.keySet().forEach(m -> moodGenres.addAll(r.moods.get(m)));
+        genres.forEach((genre, w) -> {
+            if (!moodGenres.contains(genre)) sources.put("genre:" + genre, w);
+        });
+        if (sources.isEmpty() || limit <= 0) return List.of();
+        double total = sources.values().stream().mapToDouble(Double::doubleValue).sum();
+
+        List<BookDetailed> out = new ArrayList<>(limit);
+        Set<Long> seen = new HashSet<>();
+        List<List<BookDetailed>> leftovers = new ArrayList<>();
+        for (Map.Entry<String, Double> source : sources.entrySet()) {
+            if (out.size() >= limit) break;
+            List<BookDetailed> books = booksFor(r, source.getKey());
+            int quota = (int) Math.ceil(limit * source.getValue() / total);
+            int taken = 0;
+            int i = 0;
+            for (; i < books.size() && taken < quota && out.size() < limit; i++) {
+                if (seen.add(books.get(i).getId())) {
+                    out.add(books.get(i));
+                    taken++;
+                }
+            }
+            if (i < books.size()) leftovers.add(books.subList(i, books.size()));
+        }
+        // Fill any remaining slots from what the quotas cut off
+        for (List<BookDetailed> books : leftovers) {
+            for (BookDetailed b : books) {
+                if (out.size() >= limit) return out;
+                if (seen.add(b.getId())) out.add(b);
+            }
+        }
+        return out;
+    }
+
+    private List<BookDetailed> booksFor(Rules r, String source) {
+        if (source.startsWith(KIND_MOOD + ":")) {
+            String mood = source.substring(KIND_MOOD.length() + 1);
+            return moodBooks.get(mood, m -> moodList(r.moods.get(m)));
+        }
+        return genreList(source.substring("genre:".length()));
+    }
+
+    // Round-robin over the mood's genres so the first genre does not crowd out the rest
+    private List<BookDetailed> moodList(List<String> genres) {
+        List<List<BookDetailed>> perGenre = genres.stream().map(this::genreList).collect(Collectors.toList());
+        List<BookDetailed> out = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (int i = 0; i < booksPerGenre; i++) {
+            for (List<BookDetailed> books : perGenre) {
+                if (i < books.size() && seen.add(books.get(i).getId())) out.add(books.get(i));
+            }
+        }
+        return Collections.unmodifiableList(out);
+    }
+
+    private List<BookDetailed> genreList(String genre) {
+        // A null from the loader is not cached, so a failed lookup is retried next time
+        List<BookDetailed> books = genreBooks.get(genre, g -> {
+            try {
+                return bookRepository.findAllByGenreToken(g, PageRequest.of(0, booksPerGenre)).getContent().stream()
+                    .map(optimizedBookService::toDetailedSafe)
+                    .collect(Collectors.toUnmodifiableList());
+            } catch (Exception e) {
+                logger.warn("Genre lookup failed for '{}': {}", g, e.getMessage());
+                return null;
+            }
+        });
+        return books != null ? books : List.of();
+    }
 }
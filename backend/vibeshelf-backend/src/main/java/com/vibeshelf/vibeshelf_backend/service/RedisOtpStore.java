@@ -0,0 +1,70 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OTPs as Redis hashes (code, failures) expiring with the code's TTL, so
+ * every node sees the same codes and attempt counts. Issue and check are
+ * Lua scripts, making the attempt counter exact under concurrent guesses.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "redis")
+public class RedisOtpStore implements OtpStore {
+
+    private static final Result[] RESULTS = { Result.MISSING, Result.MATCH, Result.MISMATCH, Result.LOCKED };
+
+    private final StringRedisTemplate redis;
+    private final DefaultRedisScript<Long> putScript;
+    private final DefaultRedisScript<Long> checkScript;
+
+    @Value("${app.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.otp.redis.key-prefix:otp:}")
+    private String keyPrefix;
+
+    public RedisOtpStore(StringRedisTemplate redis) {
+        this.redis = redis;
+        this.putScript = new DefaultRedisScript<>();
+        this.putScript.setLocation(new ClassPathResource("redis/otp_put.lua"));
+        this.putScript.setResultType(Long.class);
+        this.checkScript = new DefaultRedisScript<>();
+        this.checkScript.setLocation(new ClassPathResource("redis/otp_check.lua"));
+        this.checkScript.setResultType(Long.class);
+    }
+
+    @Override
+    public void put(Purpose purpose, String email, String code, Duration ttl) {
+        redis.execute(putScript, List.of(keyPrefix + OtpStore.key(purpose, email)), code, Long.toString(ttl.toMillis()));
+    }
+
+    @Override
+    public Result check(Purpose purpose, String email, String code) {
+        Long result = redis.execute(checkScript, List.of(keyPrefix + OtpStore.key(purpose, email)),
+                code, Integer.toString(maxAttempts));
+        return result == null ? Result.MISSING : RESULTS[result.intValue()];
+    }
+
+    @Override
+    public void remove(Purpose purpose, String email) {
+        redis.delete(keyPrefix + OtpStore.key(purpose, email));
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("store", "redis");
+        stats.put("maxAttempts", maxAttempts);
+        return stats;
+    }
+}
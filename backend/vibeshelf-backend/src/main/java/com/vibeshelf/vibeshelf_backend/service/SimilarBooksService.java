@@ -0,0 +1,174 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.utils.HnswIndex;
+import com.vibeshelf.vibeshelf_backend.utils.NeighborLists;
+import com.vibeshelf.vibeshelf_backend.utils.VectorStore;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "More like this" lists for book detail pages. Rather than searching per
+ * view, a batch job computes the top-k vibe neighbours of every indexed book
+ * once (fork/join over all cores) and writes them to a mapped file, so
+ * serving a list is one id -> row lookup plus one slice read. The lists are
+ * recomputed when a different vibe index export is loaded.
+ */
+@Service
+public class SimilarBooksService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarBooksService.class);
+
+    private final VibeSearchService vibeSearchService;
+
+    @Value("${app.vibe.neighbors.path:books/book_vibe_neighbors.bin}")
+    private String neighborsPath;
+
+    @Value("${app.vibe.neighbors.k:20}")
+    private int k;
+
+    @Value("${app.vibe.neighbors.build-enabled:true}")
+    private boolean buildEnabled;
+
+    // Above this many books the job walks the HNSW graph instead of an exact O(n^2) pass
+    @Value("${app.vibe.neighbors.exact-max-rows:200000}")
+    private int exactMaxRows;
+
+    private final AtomicBoolean building = new AtomicBoolean();
+    private volatile NeighborLists lists;
+    private volatile Map<String, Object> lastBuild = Map.of("status", "not built");
+
+    public SimilarBooksService(VibeSearchService vibeSearchService) {
+        this.vibeSearchService = vibeSearchService;
+    }
+
+    /**
+     * Picks up (or recomputes) the lists for the currently loaded vibe index.
+     * Cheap when nothing changed.
+     */
+    @Scheduled(initialDelayString = "${app.vibe.neighbors.check-interval-ms:30000}",
+               fixedDelayString = "${app.vibe.neighbors.check-interval-ms:30000}")
+    public void refresh() {
+        VibeIndex idx = vibeSearchService.getIndex();
+        if (idx == null) return;
+        long fingerprint = vibeSearchService.getIndexFingerprint();
+        NeighborLists current = lists;
+        if (current != null && current.fingerprint() == fingerprint) return;
+        if (!building.compareAndSet(false, true)) return;
+        try {
+            Path file = Paths.get(neighborsPath);
+            if (Files.isReadable(file)) {
+                NeighborLists onDisk = NeighborLists.open(file);
+                if (onDisk.fingerprint() == fingerprint && onDisk.count() == idx.size()) {
+                    lists = onDisk;
+                    logger.info("Loaded {} neighbour lists (k={}) from {}", onDisk.count(), onDisk.k(), file);
+                    return;
+                }
+            }
+            if (buildEnabled) build(idx, fingerprint, file);
+        } catch (Exception e) {
+            lastBuild = Map.of("status", "failed", "error", String.valueOf(e.getMessage()));
+            logger.error("Failed to prepare neighbour lists", e);
+        } finally {
+            building.set(false);
+        }
+    }
+
+    private void build(VibeIndex idx, long fingerprint, Path file) throws Exception {
+        VectorStore store = idx.vectors();
+        HnswIndex graph = vibeSearchService.getHnsw();
+        boolean exact = store.count() <= exactMaxRows;
+        if (!exact && graph == null) {
+            logger.info("Waiting for the HNSW graph before computing neighbours for {} books", store.count());
+            return;
+        }
+        lastBuild = Map.of("status", "building");
+        long start = System.currentTimeMillis();
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        int[] neighbors;
+        try {
+            neighbors = exact
+                ? NeighborLists.computeExact(store, k, pool)
+                : NeighborLists.computeApproximate(store, graph, k, pool);
+        } finally {
+            pool.shutdown();
+        }
+        NeighborLists.write(file, k, fingerprint, neighbors);
+        lists = NeighborLists.open(file);
+
+        long elapsed = System.currentTimeMillis() - start;
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("status", "ready");
+        report.put("method", exact ? "exact" : "hnsw");
+        report.put("books", store.count());
+        report.put("k", k);
+        report.put("buildMs", elapsed);
+        report.put("fileBytes", Files.size(file));
+        lastBuild = report;
+        logger.info("Computed neighbour lists: {}", report);
+    }
+
+    public boolean isReady() {
+        NeighborLists current = lists;
+        return current != null && current.fingerprint() == vibeSearchService.getIndexFingerprint();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>(lastBuild);
+        out.put("ready", isReady());
+        return out;
+    }
+
+    /**
+     * Precomputed neighbour rows of an index row into dst, best first.
+     * Returns -1 when the lists do not match the loaded index.
+     */
+    public int neighborRows(int row, int[] dst) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        NeighborLists current = lists;
+        if (idx == null || current == null || current.count() != idx.size()
+            || current.fingerprint() != vibeSearchService.getIndexFingerprint()) return -1;
+        return current.neighbors(row, dst);
+    }
+
+    /**
+     * Precomputed neighbours of a books_canonical id, best first. Returns null
+     * when the lists are not ready or the book is not in the vibe index (e.g.
+     * added after the export), so callers can fall back to the text index.
+     */
+    public List<BookSuggestion> similarTo(long bookId, int limit) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        NeighborLists current = lists;
+        if (idx == null || current == null || current.count() != idx.size()
+            || current.fingerprint() != vibeSearchService.getIndexFingerprint()) return null;
+        int row = idx.findRowByBookId(bookId);
+        if (row < 0) return null;
+        int[] rows = new int[Math.min(limit, current.k())];
+        int n = current.neighbors(row, rows);
+
+        VectorStore store = idx.vectors();
+        float[] query = new float[store.dim()];
+        float[] v = new float[store.dim()];
+        store.get(row, query);
+        List<BookSuggestion> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            store.get(rows[i], v);
+            out.add(vibeSearchService.toSuggestion(idx, rows[i], VectorStore.dot(query, 0, v, 0, v.length)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,414 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.LongIntHashMap;
+import com.vibeshelf.vibeshelf_backend.utils.TfIdfIndex;
+import com.vibeshelf.vibeshelf_backend.utils.TopK;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Python-free fallback for vibe recommendations: hashed TF-IDF vectors over
+ * each book's title, genre and description, built in parallel at startup from
+ * books_canonical. Used when the embedding index or the encoder sidecar is
+ * unavailable, so degraded mode is still "books that read alike" rather than
+ * a LIKE match on the title. Follows the catalog change feed incrementally:
+ * changed books are re-read by id and vectorised with the built idf into a
+ * small overlay, and their old rows are masked, so added, edited and deleted
+ * books show up without a restart or a full reload. Once the overlay grows
+ * past a fraction of the index, a full rebuild folds it in (at most once per
+ * app.tfidf.min-rebuild-interval-ms).
+ */
+@Service
+public class TextSimilarityService implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TextSimilarityService.class);
+
+    // Terms of the source book used for "more like this"
+    private static final int MORE_LIKE_THIS_TERMS = 48;
+
+    private final BookRepository bookRepository;
+
+    @Value("${app.tfidf.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.tfidf.hash-bits:18}")
+    private int hashBits;
+
+    @Value("${app.tfidf.page-size:5000}")
+    private int pageSize;
+
+    // Characters of description indexed per book; blurbs rarely need more
+    @Value("${app.tfidf.max-description-chars:4000}")
+    private int maxDescriptionChars;
+
+    // Overlay rows + masked rows, as a fraction of the index, that trigger a full rebuild
+    @Value("${app.tfidf.rebuild-fraction:0.05}")
+    private double rebuildFraction;
+
+    @Value("${app.tfidf.min-rebuild-interval-ms:600000}")
+    private long minRebuildIntervalMs;
+
+    private static final int MIN_OVERLAY_BEFORE_REBUILD = 1000;
+    private static final int FETCH_CHUNK = 1000;
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "tfidf-builder");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** A book changed since the build, vectorised with the built idf. */
+    private static final class Added {
+        final long id;
+        final String title;
+        final String author;
+        final String cover;
+        final TfIdfIndex.SparseVector vector;
+
+        Added(long id, String title, String author, String cover, TfIdfIndex.SparseVector vector) {
+            this.id = id;
+            this.title = title;
+            this.author = author;
+            this.cover = cover;
+            this.vector = vector;
+        }
+    }
+
+    /**
+     * Index plus per-row display metadata, swapped in as one reference. Rows
+     * 0..index.count()-1 are the built rows (minus those set in dead); rows
+     * from index.count() on are the overlay.
+     */
+    private static final class Snapshot {
+        final TfIdfIndex index;
+        final long[] ids;
+        final String[] titles;
+        final String[] authors;
+        final String[] covers;
+        final LongIntHashMap rowById;
+        final Map<String, Integer> rowByTitle;
+        final BitSet dead;
+        final List<Added> added;
+        final Map<Long, Integer> addedById;
+        final Map<String, Integer> addedByTitle;
+
+        Snapshot(TfIdfIndex index, long[] ids, String[] titles, String[] authors, String[] covers) {
+            this.index = index;
+            this.ids = ids;
+            this.titles = titles;
+            this.authors = authors;
+            this.covers = covers;
+            this.rowById = new LongIntHashMap(ids.length);
+            this.rowByTitle = new HashMap<>(ids.length * 2);
+            for (int r = 0; r < ids.length; r++) {
+                rowById.putIfAbsent(ids[r], r);
+                if (titles[r] != null) rowByTitle.putIfAbsent(VibeIndex.normalizeTitle(titles[r]), r);
+            }
+            this.dead = new BitSet();
+            this.added = List.of();
+            this.addedById = Map.of();
+            this.addedByTitle = Map.of();
+        }
+
+        // Shares the built arrays; only the mask and the overlay are new
+        private Snapshot(Snapshot base, BitSet dead, List<Added> added) {
+            this.index = base.index;
+            this.ids = base.ids;
+            this.titles = base.titles;
+            this.authors = base.authors;
+            this.covers = base.covers;
+            this.rowById = base.rowById;
+            this.rowByTitle = base.rowByTitle;
+            this.dead = dead;
+            this.added = added;
+            this.addedById = new HashMap<>(added.size() * 2);
+            this.addedByTitle = new HashMap<>(added.size() * 2);
+            for (int i = 0; i < added.size(); i++) {
+                Added a = added.get(i);
+                addedById.put(a.id, i);
+                if (a.title != null) addedByTitle.putIfAbsent(VibeIndex.normalizeTitle(a.title), i);
+            }
+        }
+
+        /** Masks every built or overlay row of the changed ids and appends their current versions. */
+        Snapshot withChanges(Set<Long> changedIds, List<Added> upserts) {
+            BitSet nextDead = (BitSet) dead.clone();
+            for (long id : changedIds) {
+                int row = rowById.get(id);
+                if (row >= 0) nextDead.set(row);
+            }
+            List<Added> nextAdded = new ArrayList<>(added.size() + upserts.size());
+            for (Added a : added) {
+                if (!changedIds.contains(a.id)) nextAdded.add(a);
+            }
+            nextAdded.addAll(upserts);
+            return new Snapshot(this, nextDead, nextAdded);
+        }
+
+        int overlaySize() {
+            return added.size() + dead.cardinality();
+        }
+
+        /** Rows best matching q: the built index without masked rows, plus the overlay. */
+        TopK search(TfIdfIndex.SparseVector q, int k, int excludeRow) {
+            TopK top = new TopK(Math.max(1, k));
+            top.addAll(index.search(q, k, excludeRow, dead.isEmpty() ? null : dead));
+            int base = index.count();
+            for (int i = 0; i < added.size(); i++) {
+                if (base + i == excludeRow) continue;
+                float score = q.dot(added.get(i).vector);
+                if (score > 0f) top.offer(base + i, score);
+            }
+            return top;
+        }
+
+        /** Row of a live book by id, or -1. */
+        int liveRow(long id) {
+            Integer a = addedById.get(id);
+            if (a != null) return index.count() + a;
+            int row = rowById.get(id);
+            return row >= 0 && !dead.get(row) ? row : -1;
+        }
+
+        int liveRowByTitle(String normalizedTitle) {
+            Integer a = addedByTitle.get(normalizedTitle);
+            if (a != null) return index.count() + a;
+            Integer row = rowByTitle.get(normalizedTitle);
+            return row != null && !dead.get(row) ? row : -1;
+        }
+
+        TfIdfIndex.SparseVector moreLikeThis(int row, int maxTerms) {
+            int base = index.count();
+            return row < base ? index.rowVector(row, maxTerms) : added.get(row - base).vector.heaviest(maxTerms);
+        }
+    }
+
+    // Ids changed since the last apply; a burst of changes costs one fetch
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean applyQueued = new AtomicBoolean();
+
+    private volatile Snapshot snapshot;
+    private volatile String status = "not built";
+    private volatile long buildMs;
+    private volatile long builtAt;
+
+    public TextSimilarityService(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        if (enabled) builder.execute(this::rebuild);
+        else status = "disabled";
+    }
+
+    @PreDestroy
+    void shutdown() {
+        builder.shutdownNow();
+    }
+
+    @Override
+    public void onCatalogChanges(List<CatalogChange> changes) {
+        if (!enabled || changes.isEmpty()) return;
+        for (CatalogChange c : changes) pendingIds.add(c.getBookId());
+        if (!applyQueued.compareAndSet(false, true)) return;
+        builder.execute(() -> {
+            applyQueued.set(false);
+            Set<Long> ids = new LinkedHashSet<>();
+            for (Iterator<Long> it = pendingIds.iterator(); it.hasNext(); ) {
+                ids.add(it.next());
+                it.remove();
+            }
+            applyChanges(ids);
+        });
+    }
+
+    /*
+     * Re-reads the changed books and swaps in a snapshot that masks their old
+     * rows and carries their current text (runs on the builder thread). Ids no
+     * longer in books_canonical were deleted and are only masked.
+     */
+    void applyChanges(Set<Long> ids) {
+        Snapshot s = snapshot;
+        // Before the first build finishes there is nothing to patch; that build reads the new rows
+        if (s == null || ids.isEmpty()) return;
+        try {
+            List<Long> idList = new ArrayList<>(ids);
+            List<Added> upserts = new ArrayList<>();
+            for (int from = 0; from < idList.size(); from += FETCH_CHUNK) {
+                List<Long> chunk = idList.subList(from, Math.min(idList.size(), from + FETCH_CHUNK));
+                for (Object[] row : bookRepository.findTextColumnsByIds(chunk)) {
+                    String image = (String) row[3];
+                    upserts.add(new Added(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        image != null && !image.isEmpty() ? image : null, s.index.vectorize(indexText(row))));
+                }
+            }
+            Snapshot next = s.withChanges(ids, upserts);
+            snapshot = next;
+            logger.debug("TF-IDF index patched: {} changed books, overlay {}", ids.size(), next.overlaySize());
+            if (next.overlaySize() > Math.max(MIN_OVERLAY_BEFORE_REBUILD, (long) (rebuildFraction * next.index.count()))
+                    && System.currentTimeMillis() - builtAt >= minRebuildIntervalMs) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            logger.warn("TF-IDF incremental update failed ({} books wait for the next rebuild): {}", ids.size(), e.getMessage());
+        }
+    }
+
+    /** Reload all books and rebuild the index (runs on the caller's thread). */
+    public void rebuild() {
+        try {
+            status = "building";
+            long start = System.currentTimeMillis();
+            List<Long> ids = new ArrayList<>();
+            List<String> titles = new ArrayList<>();
+            List<String> authors = new ArrayList<>();
+            List<String> covers = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
+            long after = 0;
+            while (true) {
+                List<Object[]> rows = bookRepository.findTextColumnsAfter(after, PageRequest.of(0, pageSize));
+                for (Object[] row : rows) {
+                    long id = ((Number) row[0]).longValue();
+                    ids.add(id);
+                    titles.add((String) row[1]);
+                    authors.add((String) row[2]);
+                    String image = (String) row[3];
+                    covers.add(image != null && !image.isEmpty() ? image : null);
+                    texts.add(indexText(row));
+                    after = id;
+                }
+                if (rows.size() < pageSize) break;
+            }
+
+            ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            TfIdfIndex index;
+            try {
+                index = TfIdfIndex.build(texts.toArray(new String[0]), hashBits, pool);
+            } finally {
+                pool.shutdown();
+            }
+            long[] idArray = new long[ids.size()];
+            for (int i = 0; i < idArray.length; i++) idArray[i] = ids.get(i);
+            snapshot = new Snapshot(index, idArray, titles.toArray(new String[0]),
+                authors.toArray(new String[0]), covers.toArray(new String[0]));
+            buildMs = System.currentTimeMillis() - start;
+            builtAt = System.currentTimeMillis();
+            status = "ready";
+            logger.info("TF-IDF index built: {} books, {} non-zeros, {} MB in {} ms",
+                index.count(), index.nonZeros(), index.sizeBytes() / (1024 * 1024), buildMs);
+        } catch (Exception e) {
+            status = snapshot != null ? "ready" : "unavailable";
+            logger.warn("TF-IDF index build failed: {}", e.getMessage());
+        }
+    }
+
+    // (id, title, author, image, genre, description) -> indexed text
+    private String indexText(Object[] row) {
+        String title = (String) row[1];
+        String genre = (String) row[4];
+        String description = (String) row[5];
+        if (description != null && description.length() > maxDescriptionChars) {
+            description = description.substring(0, maxDescriptionChars);
+        }
+        // Genre tokens twice: short, but the strongest signal of a book's vibe
+        return nz(title) + ' ' + nz(genre) + ' ' + nz(genre) + ' ' + nz(description);
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("status", status);
+        Snapshot s = snapshot;
+        if (s != null) {
+            out.put("books", s.index.count());
+            out.put("nonZeros", s.index.nonZeros());
+            out.put("approxBytes", s.index.sizeBytes());
+            out.put("changedSinceBuild", s.added.size());
+            out.put("maskedRows", s.dead.cardinality());
+        }
+        out.put("hashBits", hashBits);
+        out.put("buildMs", buildMs);
+        return out;
+    }
+
+    /** Books whose text best matches a phrase; null when the index is not built. */
+    public List<BookSuggestion> search(String phrase, int limit) {
+        Snapshot s = snapshot;
+        if (s == null) return null;
+        return toSuggestions(s, s.search(s.index.queryVector(phrase), limit, -1));
+    }
+
+    /** Books that read most like books_canonical id bookId; null when not built, empty when unknown. */
+    public List<BookSuggestion> similarTo(long bookId, int limit) {
+        Snapshot s = snapshot;
+        if (s == null) return null;
+        int row = s.liveRow(bookId);
+        if (row < 0) return List.of();
+        return toSuggestions(s, s.search(s.moreLikeThis(row, MORE_LIKE_THIS_TERMS), limit, row));
+    }
+
+    /** Books that read most like the book with this title; null when not built or the title is unknown. */
+    public List<BookSuggestion> similarToTitle(String title, int limit) {
+        Snapshot s = snapshot;
+        if (s == null || title == null) return null;
+        int row = s.liveRowByTitle(VibeIndex.normalizeTitle(title));
+        if (row < 0) return null;
+        return toSuggestions(s, s.search(s.moreLikeThis(row, MORE_LIKE_THIS_TERMS), limit, row));
+    }
+
+    private static List<BookSuggestion> toSuggestions(Snapshot s, TopK top) {
+        int[] rows = new int[top.size()];
+        float[] scores = new float[top.size()];
+        int n = top.drainSorted(rows, scores);
+        List<BookSuggestion> out = new ArrayList<>(n);
+        int base = s.index.count();
+        for (int i = 0; i < n; i++) {
+            int r = rows[i];
+            String reason = Math.round(Math.min(1f, scores[i]) * 100) + "% text match";
+            BookSuggestion b;
+            if (r < base) {
+                b = new BookSuggestion(s.titles[r], s.authors[r], reason, s.covers[r]);
+                b.setId(s.ids[r]);
+            } else {
+                Added a = s.added.get(r - base);
+                b = new BookSuggestion(a.title, a.author, reason, a.cover);
+                b.setId(a.id);
+            }
+            b.setScore((double) scores[i]);
+            out.add(b);
+        }
+        return out;
+    }
+}
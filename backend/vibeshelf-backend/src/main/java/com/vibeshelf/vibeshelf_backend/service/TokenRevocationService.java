@@ -0,0 +1,206 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.RevokedToken;
+import com.vibeshelf.vibeshelf_backend.repository.RevokedTokenRepository;
+import com.vibeshelf.vibeshelf_backend.utils.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * JWT revocation without a database lookup per request. Revoked token ids
+ * are stored in revoked_tokens and mirrored in memory as a Bloom filter plus
+ * an exact set: a token that was never revoked (nearly every request) is
+ * rejected by the filter after a few bit probes, and only filter positives
+ * consult the exact set. The mirror is loaded at startup, polled for
+ * revocations made on other nodes, and rebuilt when expired rows are purged
+ * (Bloom filters cannot forget keys).
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final int PAGE_SIZE = 5000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+
+    @Value("${app.auth.revocation.settle-ms:2000}")
+    private long settleMs;
+
+    // Swapped together on rebuild; the lock serialises rebuilds with local adds
+    private volatile BloomFilter filter;
+    private volatile Set<String> revoked;
+    // Revocations whose row could not be written, kept across rebuilds until they expire
+    private final Map<String, Long> unpersisted = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private volatile long syncedThroughId;
+    private volatile long lastRebuildAt;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterPositives = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${app.auth.revocation.expected-tokens:100000}") long expectedTokens,
+                                  @Value("${app.auth.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+        this.revoked = ConcurrentHashMap.newKeySet();
+    }
+
+    // Loaded before the first request so a restarted node does not accept revoked tokens
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /** True if tokenId (jti) has been revoked. Lock-free; no I/O. */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) return false;
+        checks.increment();
+        if (!filter.mightContain(tokenId)) return false;
+        filterPositives.increment();
+        boolean hit = revoked.contains(tokenId);
+        if (hit) rejected.increment();
+        return hit;
+    }
+
+    /**
+     * Revoke a token until it expires. The in-memory mirror is updated even if
+     * the database write fails, so this node stops accepting the token
+     * regardless; other nodes pick it up on their next poll.
+     */
+    public void revoke(String tokenId, String userEmail, long expiresAtMillis) {
+        if (tokenId == null) return;
+        try {
+            revokedTokenRepository.save(RevokedToken.builder()
+                .tokenId(tokenId)
+                .userEmail(userEmail)
+                .expiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(expiresAtMillis), ZoneId.systemDefault()))
+                .build());
+        } catch (DataIntegrityViolationException e) {
+            // Already revoked (e.g. logout sent twice)
+        } catch (Exception e) {
+            logger.warn("Could not persist token revocation: {}", e.getMessage());
+            unpersisted.put(tokenId, expiresAtMillis);
+        }
+        synchronized (lock) {
+            revoked.add(tokenId);
+            filter.put(tokenId);
+        }
+    }
+
+    /** Pull revocations made on other nodes since the last poll. */
+    @Scheduled(initialDelayString = "${app.auth.revocation.sync-ms:5000}",
+               fixedDelayString = "${app.auth.revocation.sync-ms:5000}")
+    public void sync() {
+        try {
+            List<RevokedToken> rows;
+            do {
+                rows = revokedTokenRepository.findRevokedSince(syncedThroughId, settleMs, PAGE_SIZE);
+                if (rows.isEmpty()) break;
+                synchronized (lock) {
+                    for (RevokedToken row : rows) {
+                        revoked.add(row.getTokenId());
+                        filter.put(row.getTokenId());
+                    }
+                    syncedThroughId = Math.max(syncedThroughId, rows.get(rows.size() - 1).getId());
+                }
+            } while (rows.size() == PAGE_SIZE);
+        } catch (Exception e) {
+            logger.debug("Token revocation sync skipped: {}", e.getMessage());
+        }
+    }
+
+    /** Drop expired revocations from the table, then rebuild the mirror without them. */
+    @Scheduled(initialDelayString = "${app.auth.revocation.purge-ms:3600000}",
+               fixedDelayString = "${app.auth.revocation.purge-ms:3600000}")
+    @Transactional
+    public void purgeAndRebuild() {
+        try {
+            int purged = revokedTokenRepository.purgeExpired();
+            if (purged > 0) logger.info("Purged {} expired token revocations", purged);
+        } catch (Exception e) {
+            logger.debug("Token revocation purge skipped: {}", e.getMessage());
+        }
+        rebuild();
+    }
+
+    /*
+     * Full reload. Holds the lock for the whole load so a concurrent local
+     * revoke lands in the new mirror rather than the discarded one. The sync
+     * cursor only moves past settled rows; newer rows are loaded too but
+     * re-polled by sync(), so one that commits a lower id late is not skipped.
+     */
+    private void rebuild() {
+        synchronized (lock) {
+            try {
+                long count = revokedTokenRepository.countUnexpired();
+                BloomFilter fresh = new BloomFilter(Math.max(expectedTokens, 2 * count), falsePositiveRate);
+                Set<String> exact = ConcurrentHashMap.newKeySet((int) Math.min(Integer.MAX_VALUE, count + 16));
+                long through = load(0, settleMs, exact, fresh);
+                load(through, 0, exact, fresh);
+                unpersisted.values().removeIf(expiresAt -> expiresAt <= System.currentTimeMillis());
+                for (String tokenId : unpersisted.keySet()) {
+                    if (exact.add(tokenId)) fresh.put(tokenId);
+                }
+                filter = fresh;
+                revoked = exact;
+                syncedThroughId = through;
+                lastRebuildAt = System.currentTimeMillis();
+                logger.info("Token revocation filter loaded: {} revoked tokens", exact.size());
+            } catch (Exception e) {
+                logger.warn("Token revocation filter load failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Pages every unexpired row after `since` into the new mirror; returns the last id read
+    private long load(long since, long settle, Set<String> exact, BloomFilter fresh) {
+        long through = since;
+        List<RevokedToken> rows;
+        do {
+            rows = revokedTokenRepository.findRevokedSince(through, settle, PAGE_SIZE);
+            for (RevokedToken row : rows) {
+                exact.add(row.getTokenId());
+                fresh.put(row.getTokenId());
+            }
+            if (!rows.isEmpty()) through = rows.get(rows.size() - 1).getId();
+        } while (rows.size() == PAGE_SIZE);
+        return through;
+    }
+
+    public Map<String, Object> getStats() {
+        BloomFilter f = filter;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("revoked", revoked.size());
+        out.put("filterBits", f.bitCount());
+        out.put("filterHashes", f.hashCount());
+        out.put("checks", checks.sum());
+        out.put("filterPositives", filterPositives.sum());
+        out.put("rejected", rejected.sum());
+        out.put("syncedThroughId", syncedThroughId);
+        out.put("lastRebuildAt", lastRebuildAt);
+        return out;
+    }
+}
@@ -0,0 +1,128 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.vibeshelf.vibeshelf_backend.model.User;
+import com.vibeshelf.vibeshelf_backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Read-through cache of users by email and by id, shared by login, the
+ * profile endpoints, review submission and the UserDetailsService bean, so
+ * a warm user costs no query and a cold one costs one. Only found users are
+ * cached (a signup must be visible at once). Callers get a copy, never the
+ * cached instance; to change a user, load it from UserRepository, save it,
+ * then call {@link #evict}. The TTL bounds how stale another node's writes
+ * can look.
+ */
+@Service
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> byEmail;
+    private final Cache<Long, User> byId;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${app.auth.user-cache.ttl-seconds:300}") long ttlSeconds,
+                     @Value("${app.auth.user-cache.max-size:10000}") long maxSize) {
+        this.userRepository = userRepository;
+        this.byEmail = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+        this.byId = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .recordStats()
+            .build();
+    }
+
+    public Optional<User> findByEmail(String email) {
+        if (email == null) return Optional.empty();
+        // users.email uses a case-insensitive collation, so the key does too
+        User user = byEmail.get(key(email), k -> {
+            User loaded = userRepository.findByEmail(email).orElse(null);
+            if (loaded != null) byId.put(loaded.getId(), loaded);
+            return loaded;
+        });
+        return Optional.ofNullable(copy(user));
+    }
+
+    public Optional<User> findById(Long id) {
+        if (id == null) return Optional.empty();
+        User user = byId.get(id, k -> {
+            User loaded = userRepository.findById(id).orElse(null);
+            if (loaded != null && loaded.getEmail() != null) byEmail.put(key(loaded.getEmail()), loaded);
+            return loaded;
+        });
+        return Optional.ofNullable(copy(user));
+    }
+
+    /**
+     * Drop a user after it was saved. Inside a transaction the entry is
+     * dropped again after commit, so a read racing the commit cannot leave
+     * the old row cached.
+     */
+    public void evict(User user) {
+        if (user == null) return;
+        invalidate(user.getId(), user.getEmail());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Long id = user.getId();
+            String email = user.getEmail();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id, email);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long id, String email) {
+        if (id != null) {
+            User cached = byId.getIfPresent(id);
+            byId.invalidate(id);
+            // The email may have been the old one
+            if (cached != null && cached.getEmail() != null) byEmail.invalidate(key(cached.getEmail()));
+        }
+        if (email != null) byEmail.invalidate(key(email));
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats email = byEmail.stats();
+        CacheStats id = byId.stats();
+        long hits = email.hitCount() + id.hitCount();
+        long requests = email.requestCount() + id.requestCount();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("entries", byEmail.estimatedSize());
+        out.put("hitRate", requests == 0 ? 0.0 : Math.round(hits * 10000.0 / requests) / 10000.0);
+        out.put("hits", hits);
+        out.put("misses", email.missCount() + id.missCount());
+        return out;
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static User copy(User user) {
+        if (user == null) return null;
+        User copy = new User(user.getUsername(), user.getEmail(), user.getPassword());
+        copy.setId(user.getId());
+        copy.setVerified(user.isVerified());
+        copy.setOtp(user.getOtp());
+        copy.setOtpExpiry(user.getOtpExpiry());
+        return copy;
+    }
+}
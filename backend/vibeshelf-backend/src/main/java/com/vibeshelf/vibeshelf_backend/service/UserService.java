@@ -3,81 +3,160 @@ package com.vibeshelf.vibeshelf_backend.service;
 
 import com.vibeshelf.vibeshelf_backend.model.User;
 import com.vibeshelf.vibeshelf_backend.repository.UserRepository;
+import com.vibeshelf.vibeshelf_backend.security.JwtTokenCache;
 import com.vibeshelf.vibeshelf_backend.security.JwtUtil;
+import com.vibeshelf.vibeshelf_backend.utils.TokenBucketLimiter;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UserService {
 
+    // OTPs guard account takeover, so they come from a CSPRNG rather than java.util.Random
+    private static final SecureRandom OTP_RANDOM = new SecureRandom();
+
     private final UserRepository userRepository;
-    private final EmailService emailService;
-    private final PasswordEncoder passwordEncoder;
+    private final EmailOutboxService emailOutboxService;
+    private final PersonalizedRecommendationService personalizedRecommendationService;
+    private final TokenRevocationService tokenRevocationService;
+    private final JwtTokenCache jwtTokenCache;
+    private final PasswordHashingService passwordHashingService;
+    private final Executor taskExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final OtpStore otpStore;
+    private final UserCache userCache;
+
+    @Value("${app.otp.signup-ttl-minutes:5}")
+    private long signupOtpTtlMinutes;
+
+    @Value("${app.otp.reset-ttl-minutes:10}")
+    private long resetOtpTtlMinutes;
 
-    public UserService(UserRepository userRepository, EmailService emailService, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, UserCache userCache,
+                       EmailOutboxService emailOutboxService, OtpStore otpStore,
+                       PersonalizedRecommendationService personalizedRecommendationService,
+                       TokenRevocationService tokenRevocationService, JwtTokenCache jwtTokenCache,
+                       PasswordHashingService passwordHashingService,
+                       @Qualifier("applicationTaskExecutor") Executor taskExecutor,
+                       PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.emailService = emailService;
-        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.emailOutboxService = emailOutboxService;
+        this.otpStore = otpStore;
+        this.personalizedRecommendationService = personalizedRecommendationService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtTokenCache = jwtTokenCache;
+        this.passwordHashingService = passwordHashingService;
+        this.taskExecutor = taskExecutor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    public void signup(User user) {
-        Optional<User> existingUser = userRepository.findByEmail(user.getEmail());
+    // Password hashing runs on PasswordHashingService's pool; the save and email that follow
+    // go back to a regular worker so the hashing threads only ever hash
+    public CompletableFuture<Void> signup(User user) {
+        Optional<User> existingUser = userCache.findByEmail(user.getEmail());
         if (existingUser.isPresent()) {
-            throw new RuntimeException("Email already registered!");
+            return CompletableFuture.failedFuture(new RuntimeException("Email already registered!"));
+        }
+        // users.username is unique too; catch it here rather than as a failed insert
+        if (user.getUsername() != null && userRepository.findByUsername(user.getUsername()).isPresent()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Username already taken!"));
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        // The user row and its OTP email commit together; the email goes out from the outbox
+        return passwordHashingService.encode(user.getPassword())
+                .thenAcceptAsync(hash -> transactionTemplate.executeWithoutResult(tx -> completeSignup(user, hash)), taskExecutor);
+    }
 
-        String otp = String.format("%06d", new Random().nextInt(999999));
-        user.setOtp(otp);
+    private void completeSignup(User user, String passwordHash) {
+        user.setPassword(passwordHash);
+
+        String otp = newOtp();
         
         // For testing purposes, auto-verify users with specific test emails
         if (user.getEmail().equals("test@test.com")) {
             user.setVerified(true);
-            user.setOtp(null); // Clear OTP since we're auto-verifying
         } else {
             user.setVerified(false);
+            otpStore.put(OtpStore.Purpose.SIGNUP, user.getEmail(), otp, Duration.ofMinutes(signupOtpTtlMinutes));
         }
 
-        userRepository.save(user);
+        saveUser(user);
 
         String subject = "Your VibeShelf OTP Code";
-        String body = "Hello " + user.getUsername() + ",\n\nYour OTP is: " + otp + "\n\nIt will expire in 5 minutes.";
-        emailService.sendEmail(user.getEmail(), subject, body);
-
-        System.out.println("✅ OTP sent to email: " + otp);
+        String body = "Hello " + user.getUsername() + ",\n\nYour OTP is: " + otp + "\n\nIt will expire in " + signupOtpTtlMinutes + " minutes.";
+        emailOutboxService.enqueue(user.getEmail(), subject, body);
     }
 
+    // Wrong and expired codes are settled by the OTP store; users is only written on success
     public boolean verifyOtp(String email, String otp) {
+        if (otpStore.check(OtpStore.Purpose.SIGNUP, email, otp) != OtpStore.Result.MATCH) {
+            return false;
+        }
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (user.getOtp() != null && user.getOtp().equals(otp)) {
-                user.setVerified(true);
-                user.setOtp(null);
-                userRepository.save(user);
-                return true;
-            }
+            user.setVerified(true);
+            user.setOtp(null); // Clear any legacy OTP
+            saveUser(user);
+            otpStore.remove(OtpStore.Purpose.SIGNUP, email);
+            return true;
         }
         return false;
     }
 
-    public ResponseEntity<?> login(User loginRequest) {
+    // Every write to users goes through here so UserCache never serves a row older than its last save
+    private User saveUser(User user) {
+        User saved = userRepository.save(user);
+        userCache.evict(saved);
+        return saved;
+    }
+
+    // Six digits, 000000-999999
+    private static String newOtp() {
+        return String.format("%06d", OTP_RANDOM.nextInt(1_000_000));
+    }
+
+    public CompletableFuture<ResponseEntity<?>> login(User loginRequest) {
         Map<String, Object> response = new HashMap<>();
+
+        // Throttled before the lookup and the hash, so repeated guesses cost nothing
+        TokenBucketLimiter.Decision attempt = passwordHashingService.tryAttempt(loginRequest.getEmail());
+        if (!attempt.isAllowed()) {
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(attempt.getRetryAfterNanos() + TimeUnit.SECONDS.toNanos(1) - 1));
+            response.put("success", false);
+            response.put("message", "❌ Too many login attempts. Try again in " + seconds + "s.");
+            response.put("errorCode", "TOO_MANY_ATTEMPTS");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                    .body(response));
+        }
         
-        Optional<User> userOpt = userRepository.findByEmail(loginRequest.getEmail());
+        Optional<User> userOpt = userCache.findByEmail(loginRequest.getEmail());
         if (userOpt.isEmpty()) {
             response.put("success", false);
             response.put("message", "❌ User not found.");
             response.put("errorCode", "USER_NOT_FOUND");
-            return ResponseEntity.badRequest().body(response);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
         }
 
         User user = userOpt.get();
@@ -86,19 +165,28 @@ public class UserService {
             response.put("success", false);
             response.put("message", "❌ Please verify your email before login.");
             response.put("errorCode", "EMAIL_NOT_VERIFIED");
-            return ResponseEntity.badRequest().body(response);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
         }
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            response.put("success", false);
-            response.put("message", "❌ Invalid password.");
-            response.put("errorCode", "INVALID_PASSWORD");
-            return ResponseEntity.badRequest().body(response);
-        }
+        return passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())
+                .thenApplyAsync(matches -> matches ? loginSucceeded(user, response) : loginFailed(response), taskExecutor);
+    }
+
+    private ResponseEntity<?> loginFailed(Map<String, Object> response) {
+        response.put("success", false);
+        response.put("message", "❌ Invalid password.");
+        response.put("errorCode", "INVALID_PASSWORD");
+        return ResponseEntity.badRequest().body(response);
+    }
+
+    private ResponseEntity<?> loginSucceeded(User user, Map<String, Object> response) {
+        // Start building the "picked for you" list while the client loads the home page
+        personalizedRecommendationService.warmUp(user.getId());
 
         // ✅ Successful login - Return token in multiple formats for maximum frontend compatibility
         String userIdString = String.valueOf(user.getId());
-        String token = JwtUtil.generateToken(user.getEmail(), userIdString);
+        // Roles and verification travel in the token so requests authenticate without a user lookup
+        String token = JwtUtil.generateToken(user.getEmail(), userIdString, List.of("USER"), user.isVerified());
         
         // Create response with token in multiple locations for frontend compatibility
         response.put("success", true);
@@ -124,7 +212,21 @@ public class UserService {
         return ResponseEntity.ok(response);
     }
 
-    // 🔄 Send Password Reset OTP
+    // 🚪 Logout: revoke the token until it would have expired
+    public ResponseEntity<?> logout(String token) {
+        String cleanToken = token.startsWith("Bearer ") ? token.substring(7) : token;
+        Claims claims = JwtUtil.parseClaims(cleanToken);
+        if (claims == null) {
+            return ResponseEntity.badRequest().body("Invalid or expired token.");
+        }
+        tokenRevocationService.revoke(JwtUtil.tokenId(claims, cleanToken), claims.getSubject(),
+                claims.getExpiration().getTime());
+        jwtTokenCache.invalidate(cleanToken);
+        return ResponseEntity.ok("✅ Logged out successfully!");
+    }
+
+    // 🔄 Send Password Reset OTP (code in the OTP store, email queued in the outbox)
+    @Transactional
     public void sendPasswordResetOtp(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isEmpty()) {
@@ -132,31 +234,37 @@ public class UserService {
         }
 
         User user = userOpt.get();
-        String otp = String.format("%06d", new Random().nextInt(999999));
-        user.setOtp(otp);
-        userRepository.save(user);
+        String otp = newOtp();
+        otpStore.put(OtpStore.Purpose.PASSWORD_RESET, user.getEmail(), otp, Duration.ofMinutes(resetOtpTtlMinutes));
 
         String subject = "Password Reset - VibeShelf";
         String body = "Hello " + user.getUsername() + ",\n\n" +
                      "Your password reset OTP is: " + otp + "\n\n" +
-                     "This OTP will expire in 10 minutes.\n" +
+                     "This OTP will expire in " + resetOtpTtlMinutes + " minutes.\n" +
                      "If you didn't request this, please ignore this email.";
-        emailService.sendEmail(user.getEmail(), subject, body);
+        emailOutboxService.enqueue(user.getEmail(), subject, body);
     }
 
-    // 🔄 Reset Password with OTP
-    public boolean resetPassword(String email, String otp, String newPassword) {
+    // 🔄 Reset Password with OTP (the OTP is checked first, so wrong guesses never reach the hasher)
+    public CompletableFuture<Boolean> resetPassword(String email, String otp, String newPassword) {
+        if (!passwordHashingService.tryAttempt(email).isAllowed()) {
+            return CompletableFuture.failedFuture(new RuntimeException("Too many attempts, please try again later."));
+        }
+        if (otpStore.check(OtpStore.Purpose.PASSWORD_RESET, email, otp) != OtpStore.Result.MATCH) {
+            return CompletableFuture.completedFuture(false);
+        }
         Optional<User> userOpt = userRepository.findByEmail(email);
         if (userOpt.isPresent()) {
             User user = userOpt.get();
-            if (user.getOtp() != null && user.getOtp().equals(otp)) {
-                user.setPassword(passwordEncoder.encode(newPassword));
-                user.setOtp(null); // Clear OTP
-                userRepository.save(user);
+            return passwordHashingService.encode(newPassword).thenApplyAsync(hash -> {
+                user.setPassword(hash);
+                user.setOtp(null); // Clear any legacy OTP
+                saveUser(user);
+                otpStore.remove(OtpStore.Purpose.PASSWORD_RESET, email);
                 return true;
-            }
+            }, taskExecutor);
         }
-        return false;
+        return CompletableFuture.completedFuture(false);
     }
 
     // 👤 Get User Profile
@@ -170,7 +278,7 @@ public class UserService {
             }
             
             String email = JwtUtil.extractEmail(cleanToken);
-            Optional<User> userOpt = userRepository.findByEmail(email);
+            Optional<User> userOpt = userCache.findByEmail(email);
             
             if (userOpt.isPresent()) {
                 User user = userOpt.get();
@@ -209,7 +317,7 @@ public class UserService {
                     user.setUsername(updates.getUsername());
                 }
                 
-                userRepository.save(user);
+                saveUser(user);
                 
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
@@ -236,7 +344,7 @@ public class UserService {
             User user = userOpt.get();
             user.setVerified(true);
             user.setOtp(null);
-            userRepository.save(user);
+            saveUser(user);
             return "✅ User " + email + " has been manually verified for testing!";
         } else {
             throw new RuntimeException("User not found: " + email);
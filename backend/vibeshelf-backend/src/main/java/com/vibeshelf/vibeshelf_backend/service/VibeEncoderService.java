@@ -0,0 +1,145 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.utils.BatchingEncoderClient;
+import com.vibeshelf.vibeshelf_backend.utils.CircuitBreaker;
+import com.vibeshelf.vibeshelf_backend.utils.RecommenderProcessManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Turns free-text phrases into vibe embeddings via the Python encoder sidecar
+ * (books/api_server.py), which runs the same sentence-transformer that built
+ * the index. Requests are micro-batched by {@link BatchingEncoderClient}.
+ * When app.encoder.process.enabled is set the sidecar is also started and
+ * supervised from here; otherwise it is expected to be running already and
+ * is only health-checked.
+ */
+@Service
+public class VibeEncoderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VibeEncoderService.class);
+
+    @Value("${app.encoder.url:http://127.0.0.1:5001}")
+    private String url;
+
+    @Value("${app.encoder.batch-size:32}")
+    private int batchSize;
+
+    @Value("${app.encoder.batch-window-ms:5}")
+    private long batchWindowMs;
+
+    @Value("${app.encoder.max-in-flight:4}")
+    private int maxInFlight;
+
+    @Value("${app.encoder.max-queue:1024}")
+    private int maxQueue;
+
+    @Value("${app.encoder.timeout-ms:2000}")
+    private long timeoutMs;
+
+    @Value("${app.encoder.breaker.failures:5}")
+    private int breakerFailures;
+
+    @Value("${app.encoder.breaker.open-ms:30000}")
+    private long breakerOpenMs;
+
+    @Value("${app.encoder.process.enabled:false}")
+    private boolean processEnabled;
+
+    @Value("${app.encoder.process.command:python3 -m uvicorn api_server:app --host 127.0.0.1 --port 5001}")
+    private String processCommand;
+
+    @Value("${app.encoder.process.workdir:books}")
+    private String processWorkdir;
+
+    @Value("${app.encoder.process.max-failures:3}")
+    private int processMaxFailures;
+
+    @Value("${app.encoder.process.startup-grace-ms:120000}")
+    private long startupGraceMs;
+
+    private BatchingEncoderClient client;
+    private RecommenderProcessManager processManager;
+    private volatile boolean healthy;
+
+    @PostConstruct
+    void init() {
+        client = new BatchingEncoderClient(url, batchSize, batchWindowMs, maxInFlight, maxQueue,
+            Duration.ofMillis(timeoutMs), new CircuitBreaker(breakerFailures, breakerOpenMs));
+        if (processEnabled) {
+            List<String> command = Arrays.asList(processCommand.trim().split("\\s+"));
+            File workDir = new File(processWorkdir);
+            processManager = new RecommenderProcessManager(command, workDir, new File(workDir, "recommender.log"),
+                client::ping, processMaxFailures, startupGraceMs);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        client.close();
+        if (processManager != null) processManager.stop();
+    }
+
+    /** Starts / restarts the supervised sidecar, or just pings an external one. */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.encoder.health-interval-ms:10000}")
+    public void checkHealth() {
+        try {
+            if (processManager != null) {
+                processManager.supervise();
+                healthy = processManager.isHealthy();
+            } else {
+                healthy = client.ping();
+            }
+        } catch (Exception e) {
+            healthy = false;
+            logger.warn("Encoder health check failed: {}", e.getMessage());
+        }
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * Unit-length embedding of phrase, or null when the sidecar is down, the
+     * circuit is open or it does not answer within the timeout, so callers
+     * can fall back.
+     */
+    public float[] encode(String phrase) {
+        try {
+            return client.encode(phrase).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            logger.debug("Encoder timed out for phrase of {} chars", phrase.length());
+            return null;
+        } catch (Exception e) {
+            logger.debug("Encoder unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("url", url);
+        out.put("healthy", healthy);
+        out.putAll(client.getStats());
+        if (processManager != null) out.put("process", processManager.getStatus());
+        return out;
+    }
+}
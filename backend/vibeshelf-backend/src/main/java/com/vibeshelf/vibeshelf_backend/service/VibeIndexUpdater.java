@@ -0,0 +1,82 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Follows the catalog change feed so books added after the vibe index was
+ * exported can be recommended without re-running create_vibe_index.py: each
+ * new book's description is embedded by the encoder sidecar (the model the
+ * export used) and inserted into the HNSW graph. Edits to indexed books and
+ * deletes wait for the next export.
+ */
+@Service
+public class VibeIndexUpdater implements CatalogChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(VibeIndexUpdater.class);
+
+    private final VibeSearchService vibeSearchService;
+    private final VibeEncoderService vibeEncoderService;
+    private final BookRepository bookRepository;
+
+    @Value("${app.vibe.live-updates.enabled:true}")
+    private boolean enabled;
+
+    // Encoder calls block, so they run here rather than on the feed poller
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "vibe-index-updater");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public VibeIndexUpdater(VibeSearchService vibeSearchService, VibeEncoderService vibeEncoderService,
+                            BookRepository bookRepository) {
+        this.vibeSearchService = vibeSearchService;
+        this.vibeEncoderService = vibeEncoderService;
+        this.bookRepository = bookRepository;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        worker.shutdownNow();
+    }
+
+    @Override
+    public void onCatalogChanges(List<CatalogChange> changes) {
+        if (!enabled || !vibeSearchService.acceptsNewBooks()) return;
+        Set<Long> ids = new LinkedHashSet<>();
+        for (CatalogChange c : changes) {
+            if (!c.isDelete() && !vibeSearchService.contains(c.getBookId())) ids.add(c.getBookId());
+        }
+        if (!ids.isEmpty()) worker.execute(() -> embedAndAdd(ids));
+    }
+
+    void embedAndAdd(Set<Long> ids) {
+        int added = 0;
+        int skipped = 0;
+        for (Book b : bookRepository.findAllById(ids)) {
+            String description = b.getDescription();
+            float[] embedding = description == null || description.isBlank() ? null : vibeEncoderService.encode(description);
+            // Keep only what suggestions display, not the description
+            Book row = Book.builder().id(b.getId()).title(b.getTitle()).author(b.getAuthor()).image(b.getImage()).build();
+            if (embedding != null && vibeSearchService.addBook(row, embedding)) added++;
+            else skipped++;
+        }
+        if (added > 0 || skipped > 0) {
+            logger.info("Vibe index follow-up: {} new books added, {} skipped (no description, encoder down or index full)",
+                added, skipped);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.utils.AhoCorasick;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache in front of vibe searches. The same lyrics and phrases get pasted
+ * over and over, so each normalised query keeps its embedding and its ranked
+ * top rows; a repeat is a cache lookup, and paging slices the stored ranking.
+ * Paging past the stored ranking re-searches deeper with the cached embedding
+ * (no encoder call). Rankings are tied to the loaded index and to the books
+ * added to it since, and are recomputed when either changes. The cache is bounded by estimated bytes, not entry count, since
+ * a pasted song can be a hundred times longer than a title.
+ */
+@Service
+public class VibeQueryService {
+
+    /** Deepest row ever ranked or served; bounds what one request can allocate. */
+    public static final int MAX_DEPTH = 1000;
+
+    // Rough per-entry cost of the entry object, array headers and map node
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final VibeSearchService vibeSearchService;
+    private final VibeEncoderService vibeEncoderService;
+    private final int rankingSize;
+    private final long maxBytes;
+    private final Cache<String, CachedQuery> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder deeperSearches = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VibeQueryService(VibeSearchService vibeSearchService, VibeEncoderService vibeEncoderService,
+                            @Value("${app.vibe.query-cache.ranking-size:100}") int rankingSize,
+                            @Value("${app.vibe.query-cache.max-bytes:33554432}") long maxBytes,
+                            @Value("${app.vibe.query-cache.ttl-minutes:360}") long ttlMinutes) {
+        this.vibeSearchService = vibeSearchService;
+        this.vibeEncoderService = vibeEncoderService;
+        this.rankingSize = Math.max(1, rankingSize);
+        this.maxBytes = maxBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, CachedQuery q) -> q.weight(key))
+            .expireAfterAccess(Duration.ofMinutes(ttlMinutes))
+            .recordStats()
+            .build();
+    }
+
+    /** Embedding plus the ranking it produced against one index. */
+    private static final class CachedQuery {
+        final float[] embedding;
+        final int excludeRow;
+        final long fingerprint;
+        final long graphVersion;
+        final int searchedK;
+        final int[] rows;
+        final float[] scores;
+
+        CachedQuery(float[] embedding, int excludeRow, long fingerprint, long graphVersion, int searchedK,
+                    int[] rows, float[] scores) {
+            this.embedding = embedding;
+            this.excludeRow = excludeRow;
+            this.fingerprint = fingerprint;
+            this.graphVersion = graphVersion;
+            this.searchedK = searchedK;
+            this.rows = rows;
+            this.scores = scores;
+        }
+
+        /** True when rows [0, end) can be served from this ranking. */
+        boolean covers(long currentFingerprint, long currentGraphVersion, int end) {
+            // Fewer rows than searched means the index had no more to give
+            return fingerprint == currentFingerprint && graphVersion == currentGraphVersion
+                && (rows.length >= end || rows.length < searchedK);
+        }
+
+        int weight(String key) {
+            long bytes = ENTRY_OVERHEAD_BYTES + 2L * key.length()
+                + (long) embedding.length * Float.BYTES + (long) rows.length * (Integer.BYTES + Float.BYTES);
+            return (int) Math.min(Integer.MAX_VALUE, bytes);
+        }
+    }
+
+    /**
+     * Books matching a free-text phrase (or pasted lyrics), rows [start,
+     * start+limit) of the ranking, cut off at {@link #MAX_DEPTH}. Returns null
+     * when the index is not loaded or the encoder is unavailable, so callers
+     * can fall back.
+     */
+    public List<BookSuggestion> byPhrase(String phrase, int start, int limit) {
+        String normalized = AhoCorasick.normalize(phrase);
+        if (normalized.isEmpty()) return List.of();
+        String key = "p:" + normalized;
+        return page(key, start, limit, cached -> {
+            if (cached != null) return cached.embedding;
+            float[] embedding = vibeEncoderService.encode(normalized);
+            return embedding == null ? null : unit(embedding);
+        }, -1);
+    }
+
+    /**
+     * Books closest to the indexed book with this title. Returns null when the
+     * index is not loaded or the title is not indexed.
+     */
+    public List<BookSuggestion> byTitle(String title, int start, int limit) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        if (idx == null) return null;
+        int row = idx.findRowByTitle(title);
+        if (row < 0) return null;
+        String key = "t:" + VibeIndex.normalizeTitle(title);
+        return page(key, start, limit, cached -> {
+            float[] v = new float[idx.vectors().dim()];
+            idx.vectors().get(row, v);
+            return v;
+        }, row);
+    }
+
+    private interface EmbeddingSource {
+        float[] embedding(CachedQuery cached);
+    }
+
+    private List<BookSuggestion> page(String key, int start, int limit, EmbeddingSource source, int excludeRow) {
+        VibeIndex idx = vibeSearchService.getIndex();
+        if (idx == null) return null;
+        long fingerprint = vibeSearchService.getIndexFingerprint();
+        long graphVersion = vibeSearchService.getGraphVersion();
+        start = Math.max(0, Math.min(MAX_DEPTH, start));
+        int end = (int) Math.min(MAX_DEPTH, (long) start + Math.max(1, limit));
+
+        CachedQuery cached = cache.getIfPresent(key);
+        if (cached != null && cached.excludeRow == excludeRow && cached.covers(fingerprint, graphVersion, end)) {
+            hits.increment();
+            return slice(cached, start, end);
+        }
+        // Same index: the embedding still holds, whether the ranking is too shallow or missing added books
+        boolean sameIndex = cached != null && cached.excludeRow == excludeRow && cached.fingerprint == fingerprint;
+        boolean deeper = sameIndex && cached.graphVersion == graphVersion;
+        float[] embedding = source.embedding(sameIndex ? cached : null);
+        if (embedding == null || embedding.length != idx.vectors().dim()) return null;
+        if (deeper) deeperSearches.increment();
+        else misses.increment();
+
+        int k = Math.max(rankingSize, deeper ? Math.min(MAX_DEPTH, Math.max(end, 2 * cached.searchedK)) : end);
+        int[] rows = new int[k];
+        float[] scores = new float[k];
+        int n = vibeSearchService.rankRows(embedding, k, excludeRow, rows, scores);
+        CachedQuery fresh = new CachedQuery(embedding, excludeRow, fingerprint, graphVersion, k,
+            Arrays.copyOf(rows, n), Arrays.copyOf(scores, n));
+        cache.put(key, fresh);
+        return slice(fresh, start, end);
+    }
+
+    private List<BookSuggestion> slice(CachedQuery q, int start, int end) {
+        int from = Math.min(start, q.rows.length);
+        int to = Math.min(end, q.rows.length);
+        return vibeSearchService.suggestionsFor(q.rows, q.scores, from, to);
+    }
+
+    private static float[] unit(float[] v) {
+        double sum = 0;
+        for (float x : v) sum += x * x;
+        if (sum == 0) return v;
+        float inv = (float) (1.0 / Math.sqrt(sum));
+        float[] out = new float[v.length];
+        for (int i = 0; i < v.length; i++) out[i] = v[i] * inv;
+        return out;
+    }
+
+    public Map<String, Object> getStats() {
+        long h = hits.sum();
+        long d = deeperSearches.sum();
+        long m = misses.sum();
+        long total = h + d + m;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("entries", cache.estimatedSize());
+        out.put("weightBytes", cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L));
+        out.put("maxBytes", maxBytes);
+        out.put("hits", h);
+        out.put("deeperSearches", d);
+        out.put("misses", m);
+        out.put("hitRate", total == 0 ? 0.0 : Math.round(h * 10000.0 / total) / 10000.0);
+        out.put("evictions", cache.stats().evictionCount());
+        return out;
+    }
+}
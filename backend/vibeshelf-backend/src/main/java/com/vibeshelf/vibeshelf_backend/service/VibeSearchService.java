@@ -0,0 +1,546 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.utils.BruteForceVectorSearch;
+import com.vibeshelf.vibeshelf_backend.utils.HnswIndex;
+import com.vibeshelf.vibeshelf_backend.utils.Int8Vectors;
+import com.vibeshelf.vibeshelf_backend.utils.ProductQuantizer;
+import com.vibeshelf.vibeshelf_backend.utils.QuantizedVectorSearch;
+import com.vibeshelf.vibeshelf_backend.utils.QuantizedVectors;
+import com.vibeshelf.vibeshelf_backend.utils.TopK;
+import com.vibeshelf.vibeshelf_backend.utils.VectorStore;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndexFile;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process vibe recommender. Maps the binary index written by
+ * books/create_vibe_index.py (all-MiniLM-L6-v2, 384 dims; see
+ * {@link VibeIndexFile}), or loads the older raw float32 export, and answers
+ * "more like this" queries, so the Python process is only needed to build the
+ * index. app.vibe.search-mode picks one search structure: hnsw (a graph
+ * built in parallel in the background), quantized (the float32 file is
+ * memory-mapped rather than copied, the scan runs over int8 or
+ * product-quantised codes and only the best candidates are rescored at full
+ * precision) or exact. The exact fork/join cosine scan also answers until the
+ * chosen structure is built.
+ */
+@Service
+public class VibeSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VibeSearchService.class);
+
+    // Versioned binary index; preferred over the raw vectors file when present
+    @Value("${app.vibe.index-path:books/book_vibe_index.bin}")
+    private String indexPath;
+
+    @Value("${app.vibe.vectors-path:books/book_vibe_vectors.f32}")
+    private String vectorsPath;
+
+    @Value("${app.vibe.rows-path:books/book_vibe_rows.json}")
+    private String rowsPath;
+
+    @Value("${app.vibe.dim:384}")
+    private int dim;
+
+    // 0 = one worker per core
+    @Value("${app.vibe.search-parallelism:0}")
+    private int parallelism;
+
+    // exact | quantized | hnsw
+    @Value("${app.vibe.search-mode:hnsw}")
+    private String searchMode;
+
+    @Value("${app.vibe.hnsw.m:16}")
+    private int hnswM;
+
+    @Value("${app.vibe.hnsw.ef-construction:200}")
+    private int hnswEfConstruction;
+
+    @Value("${app.vibe.hnsw.ef-search:64}")
+    private int hnswEfSearch;
+
+    // Room for books added after the index file was built
+    @Value("${app.vibe.hnsw.extra-capacity:10000}")
+    private int hnswExtraCapacity;
+
+    // Sampled queries used to report HNSW recall@10 against brute force
+    @Value("${app.vibe.hnsw.recall-sample:200}")
+    private int recallSample;
+
+    // Codes scanned in quantized mode: int8 | pq
+    @Value("${app.vibe.quant.codec:int8}")
+    private String quantCodec;
+
+    // Quantised candidates kept per requested result for the full-precision rerank
+    @Value("${app.vibe.quant.rerank-factor:8}")
+    private int rerankFactor;
+
+    @Value("${app.vibe.quant.pq-subspaces:96}")
+    private int pqSubspaces;
+
+    @Value("${app.vibe.quant.pq-train-sample:20000}")
+    private int pqTrainSample;
+
+    @Value("${app.vibe.quant.pq-iterations:10}")
+    private int pqIterations;
+
+    private enum SearchMode { EXACT, QUANTIZED, HNSW }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private SearchMode mode;
+
+    private ForkJoinPool searchPool;
+    private volatile VibeIndex index;
+    private volatile BruteForceVectorSearch bruteForce;
+    private volatile HnswIndex hnsw;
+    private volatile QuantizedVectorSearch quantized;
+    private volatile String status = "loading";
+    private volatile String format = "none";
+    private volatile long indexFingerprint;
+    private volatile Map<String, Object> hnswReport = Map.of("status", "not built");
+    private volatile Map<String, Object> quantReport = Map.of("status", "disabled");
+
+    // Books inserted into the HNSW graph after startup (see VibeIndexUpdater), by node id and by book id
+    private final Map<Integer, Book> addedBooks = new ConcurrentHashMap<>();
+    private final Set<Long> addedBookIds = ConcurrentHashMap.newKeySet();
+    // Bumped after each insert, so rankings cached before it can tell they miss the new book
+    private final AtomicLong graphVersion = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        mode = parseMode(searchMode, quantCodec);
+        logger.info("Vibe search mode: {}", mode == SearchMode.QUANTIZED
+            ? "quantized (" + quantCodec.trim().toLowerCase(Locale.ROOT) + ")" : mode.name().toLowerCase(Locale.ROOT));
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        searchPool = new ForkJoinPool(workers);
+        Thread loader = new Thread(this::load, "vibe-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (searchPool != null) searchPool.shutdownNow();
+    }
+
+    private static SearchMode parseMode(String mode, String codec) {
+        SearchMode parsed;
+        try {
+            parsed = SearchMode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("app.vibe.search-mode must be exact, quantized or hnsw, not " + mode);
+        }
+        if (parsed == SearchMode.QUANTIZED && !"int8".equalsIgnoreCase(codec.trim()) && !"pq".equalsIgnoreCase(codec.trim())) {
+            throw new IllegalStateException("app.vibe.quant.codec must be int8 or pq, not " + codec);
+        }
+        return parsed;
+    }
+
+    private void load() {
+        Path binary = Paths.get(indexPath);
+        Path vectors = Paths.get(vectorsPath);
+        Path rows = Paths.get(rowsPath);
+        boolean useBinary = Files.isReadable(binary);
+        if (!Files.isReadable(rows) || (!useBinary && !Files.isReadable(vectors))) {
+            status = "unavailable";
+            logger.info("Vibe index not found ({} or {}, {}); vibe search disabled", binary, vectors, rows);
+            return;
+        }
+        Path source = useBinary ? binary : vectors;
+        try {
+            long start = System.currentTimeMillis();
+            VibeIndex loaded;
+            VectorStore store;
+            if (useBinary) {
+                VibeIndexFile file = VibeIndexFile.open(binary);
+                store = file.vectors();
+                loaded = readRows(rows.toFile(), store, file.bookIds());
+                format = "binary-v" + file.version();
+            } else {
+                store = mode == SearchMode.QUANTIZED ? openMapped(vectors) : VectorStore.loadRawFloat32(vectors, dim);
+                loaded = readRows(rows.toFile(), store, null);
+                format = "raw-f32";
+            }
+            this.indexFingerprint = fingerprint(source, store);
+            this.bruteForce = new BruteForceVectorSearch(store, searchPool);
+            this.index = loaded;
+            status = "ready";
+            logger.info("Vibe index loaded: {} vectors x {} dims ({} MB {}) in {} ms",
+                store.count(), store.dim(), store.sizeBytes() >> 20, store.isMapped() ? "mapped" : "off-heap",
+                System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            status = "failed";
+            logger.error("Failed to load vibe index from {}", source, e);
+            return;
+        }
+        if (mode == SearchMode.QUANTIZED) buildQuantized(index);
+        else if (mode == SearchMode.HNSW) buildHnsw(index);
+    }
+
+    // Changes whenever a different export is loaded, so derived data can be invalidated
+    private static long fingerprint(Path source, VectorStore store) throws IOException {
+        long h = Files.size(source);
+        h = h * 31 + Files.getLastModifiedTime(source).toMillis();
+        h = h * 31 + store.count();
+        return h * 31 + store.dim();
+    }
+
+    private VectorStore openMapped(Path vectors) throws IOException {
+        try {
+            return VectorStore.mapRawFloat32(vectors, dim);
+        } catch (IOException e) {
+            logger.warn("Cannot map {} ({}); copying it off-heap instead", vectors, e.getMessage());
+            return VectorStore.loadRawFloat32(vectors, dim);
+        }
+    }
+
+    private void buildQuantized(VibeIndex idx) {
+        try {
+            quantReport = Map.of("status", "building");
+            long start = System.currentTimeMillis();
+            VectorStore store = idx.vectors();
+            QuantizedVectors codes = "pq".equalsIgnoreCase(quantCodec.trim())
+                ? ProductQuantizer.train(store, pqSubspaces, pqTrainSample, pqIterations, searchPool, 42)
+                : Int8Vectors.encode(store, searchPool);
+            QuantizedVectorSearch search = new QuantizedVectorSearch(codes, store, searchPool, rerankFactor);
+            long buildMs = System.currentTimeMillis() - start;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("status", "ready");
+            report.put("kind", codes.kind());
+            report.put("buildMs", buildMs);
+            report.put("codeBytes", codes.sizeBytes());
+            report.put("fullPrecisionBytes", store.sizeBytes());
+            report.put("compression", Math.round(10.0 * store.sizeBytes() / Math.max(1, codes.sizeBytes())) / 10.0);
+            report.put("rerankFactor", rerankFactor);
+            report.putAll(compareToExact(idx, search::searchApproximate, 10, "noRerank"));
+            report.putAll(compareToExact(idx, search::search, 10, ""));
+            this.quantized = search;
+            this.quantReport = report;
+            logger.info("Quantized vibe vectors built in {} ms: {}", buildMs, report);
+        } catch (Exception e) {
+            quantReport = Map.of("status", "failed", "error", String.valueOf(e.getMessage()));
+            logger.error("Failed to quantize vibe vectors; staying on full-precision scan", e);
+        }
+    }
+
+    private void buildHnsw(VibeIndex idx) {
+        try {
+            hnswReport = Map.of("status", "building");
+            long start = System.currentTimeMillis();
+            HnswIndex graph = new HnswIndex(idx.vectors(), hnswM, hnswEfConstruction, hnswEfSearch, hnswExtraCapacity);
+            graph.buildParallel(searchPool);
+            long buildMs = System.currentTimeMillis() - start;
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("status", "ready");
+            report.put("nodes", graph.size());
+            report.put("m", graph.m());
+            report.put("efConstruction", graph.efConstruction());
+            report.put("efSearch", graph.getEfSearch());
+            report.put("buildMs", buildMs);
+            report.put("graphBytes", graph.graphBytes());
+            report.putAll(compareToExact(idx, graph::search, 10, ""));
+            this.hnsw = graph;
+            this.hnswReport = report;
+            logger.info("HNSW index built in {} ms: {}", buildMs, report);
+        } catch (Exception e) {
+            hnswReport = Map.of("status", "failed", "error", String.valueOf(e.getMessage()));
+            logger.error("Failed to build HNSW index; staying on brute force", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Searcher {
+        TopK search(float[] query, int k, int excludeRow);
+    }
+
+    /**
+     * Recall@k of an approximate searcher against the exact scan on a sample of
+     * indexed rows used as queries, plus per-query latency percentiles for both
+     * paths. Keys are prefixed with {@code prefix} when it is not empty.
+     */
+    private Map<String, Object> compareToExact(VibeIndex idx, Searcher approx, int k, String prefix) {
+        int n = Math.min(recallSample, idx.size());
+        Map<String, Object> out = new LinkedHashMap<>();
+        if (n == 0) return out;
+        Random rnd = new Random(42);
+        float[] q = new float[idx.vectors().dim()];
+        long[] approxNs = new long[n];
+        long[] exactNs = new long[n];
+        int[] exactRows = new int[k];
+        int[] approxRows = new int[k];
+        float[] scores = new float[k];
+        long hits = 0;
+        long total = 0;
+        for (int i = 0; i < n; i++) {
+            int row = rnd.nextInt(idx.size());
+            idx.vectors().get(row, q);
+            long t0 = System.nanoTime();
+            int ne = bruteForce.search(q, k, row).drainSorted(exactRows, scores);
+            long t1 = System.nanoTime();
+            int na = approx.search(q, k, row).drainSorted(approxRows, scores);
+            long t2 = System.nanoTime();
+            exactNs[i] = t1 - t0;
+            approxNs[i] = t2 - t1;
+            for (int a = 0; a < na; a++) {
+                for (int e = 0; e < ne; e++) {
+                    if (approxRows[a] == exactRows[e]) {
+                        hits++;
+                        break;
+                    }
+                }
+            }
+            total += ne;
+        }
+        Arrays.sort(approxNs);
+        Arrays.sort(exactNs);
+        out.put(key(prefix, "recallAt" + k), total == 0 ? 0.0 : (double) hits / total);
+        out.put(key(prefix, "sampleQueries"), n);
+        out.put(key(prefix, "p50Micros"), approxNs[n / 2] / 1000);
+        out.put(key(prefix, "p99Micros"), approxNs[Math.min(n - 1, (int) (n * 0.99))] / 1000);
+        out.put(key(prefix, "exactP50Micros"), exactNs[n / 2] / 1000);
+        out.put(key(prefix, "exactP99Micros"), exactNs[Math.min(n - 1, (int) (n * 0.99))] / 1000);
+        return out;
+    }
+
+    private static String key(String prefix, String name) {
+        return prefix.isEmpty() ? name : prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Display metadata from the rows file. When the binary index supplies the
+     * row -> book id table, the ids in the JSON are ignored.
+     */
+    private VibeIndex readRows(File file, VectorStore store, long[] bookIds) throws Exception {
+        JsonNode root = mapper.readTree(file);
+        int n = root.size();
+        if (bookIds != null && bookIds.length != n) {
+            throw new IOException(file + " has " + n + " rows but the index has " + bookIds.length);
+        }
+        long[] ids = bookIds != null ? bookIds : new long[n];
+        String[] titles = new String[n];
+        String[] authors = new String[n];
+        String[] covers = new String[n];
+        for (int i = 0; i < n; i++) {
+            JsonNode row = root.get(i);
+            if (bookIds == null) ids[i] = row.path("id").asLong(-1);
+            titles[i] = row.path("title").asText(null);
+            authors[i] = row.path("author").asText(null);
+            covers[i] = row.path("cover_url").asText(null);
+        }
+        return new VibeIndex(store, ids, titles, authors, covers);
+    }
+
+    public boolean isReady() {
+        return index != null;
+    }
+
+    /** The loaded index, or null while loading / when unavailable. */
+    public VibeIndex getIndex() {
+        return index;
+    }
+
+    /** The HNSW graph once built, else null. */
+    public HnswIndex getHnsw() {
+        return hnsw;
+    }
+
+    /** Identifies the loaded export (size, mtime and shape of the source file). */
+    public long getIndexFingerprint() {
+        return indexFingerprint;
+    }
+
+    /**
+     * Changes whenever {@link #addBook} inserts a book, which leaves the
+     * fingerprint alone. Read it before ranking; a ranking cached under an
+     * older version may be missing books.
+     */
+    public long getGraphVersion() {
+        return graphVersion.get();
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("status", status);
+        out.put("format", format);
+        VibeIndex idx = index;
+        if (idx != null) {
+            out.put("vectors", idx.size());
+            out.put("dim", idx.vectors().dim());
+            out.put(idx.vectors().isMapped() ? "mappedBytes" : "offHeapBytes", idx.vectors().sizeBytes());
+        }
+        out.put("searchMode", activeSearch());
+        out.put("parallelism", searchPool == null ? 0 : searchPool.getParallelism());
+        out.put("quantization", quantReport);
+        out.put("hnsw", hnswReport);
+        out.put("addedBooks", addedBooks.size());
+        return out;
+    }
+
+    /** True when the book is in the exported index or was added since. */
+    public boolean contains(long bookId) {
+        VibeIndex idx = index;
+        return addedBookIds.contains(bookId) || (idx != null && idx.findRowByBookId(bookId) >= 0);
+    }
+
+    /**
+     * Insert a book that is not in the exported index (e.g. imported after the
+     * index was built) so it can be recommended without a rebuild. The
+     * embedding must come from the same model. Returns false if the graph is
+     * not built, the book is already indexed or the spare capacity is used up.
+     */
+    public boolean addBook(Book book, float[] embedding) {
+        HnswIndex graph = hnsw;
+        VibeIndex idx = index;
+        if (graph == null || idx == null || book == null || book.getId() == null) return false;
+        if (embedding.length != idx.vectors().dim() || idx.findRowByBookId(book.getId()) >= 0) return false;
+        float[] v = embedding.clone();
+        float norm = (float) Math.sqrt(VectorStore.dot(v, 0, v, 0, v.length));
+        if (norm == 0f || !addedBookIds.add(book.getId())) return false;
+        for (int i = 0; i < v.length; i++) v[i] /= norm;
+        int node = graph.add(v);
+        if (node < 0) {
+            addedBookIds.remove(book.getId());
+            return false;
+        }
+        addedBooks.put(node, book);
+        graphVersion.incrementAndGet();
+        return true;
+    }
+
+    /** True once the HNSW graph is built, i.e. {@link #addBook} can succeed. */
+    public boolean acceptsNewBooks() {
+        return hnsw != null;
+    }
+
+    /** Top-k rows for a unit query vector from the configured search structure, or the exact scan until it is built. */
+    private TopK searchVector(float[] query, int k, int excludeRow) {
+        HnswIndex graph = hnsw;
+        if (mode == SearchMode.HNSW && graph != null) return graph.search(query, k, excludeRow);
+        QuantizedVectorSearch quant = quantized;
+        if (mode == SearchMode.QUANTIZED && quant != null) return quant.search(query, k, excludeRow);
+        return bruteForce.search(query, k, excludeRow);
+    }
+
+    /** The structure answering queries right now, e.g. "hnsw" or "exact (hnsw building)". */
+    private String activeSearch() {
+        if (mode == null) return "exact";
+        String configured = mode.name().toLowerCase(Locale.ROOT);
+        boolean built = mode == SearchMode.EXACT || (mode == SearchMode.HNSW ? hnsw != null : quantized != null);
+        return built ? configured : "exact (" + configured + " not built yet)";
+    }
+
+    /**
+     * Best-first rows of the loaded index for a unit query vector such as a
+     * reader profile. Books added after the export are skipped. Returns the
+     * number of rows written to outRows/outScores (at most k).
+     */
+    public int searchRows(float[] query, int k, int[] outRows, float[] outScores) {
+        VibeIndex idx = index;
+        if (idx == null) return 0;
+        TopK top = searchVector(query, Math.max(1, k), -1);
+        int[] rows = new int[top.size()];
+        float[] scores = new float[top.size()];
+        int n = top.drainSorted(rows, scores);
+        int out = 0;
+        for (int i = 0; i < n && out < outRows.length; i++) {
+            if (rows[i] >= idx.size()) continue;
+            outRows[out] = rows[i];
+            outScores[out++] = scores[i];
+        }
+        return out;
+    }
+
+    /**
+     * Books whose description embedding is closest to the given title's.
+     * Returns null when the index is not loaded or the title is not indexed, so
+     * callers can fall back to a lexical search.
+     */
+    public List<BookSuggestion> recommendByTitle(String title, int limit) {
+        VibeIndex idx = index;
+        if (idx == null) return null;
+        int row = idx.findRowByTitle(title);
+        if (row < 0) return null;
+        float[] query = new float[idx.vectors().dim()];
+        idx.vectors().get(row, query);
+        return toSuggestions(idx, searchVector(query, Math.max(1, limit), row));
+    }
+
+    /**
+     * Best-first ranking for a unit query vector, including books added since
+     * the export, for callers that cache rankings and page through them with
+     * {@link #suggestionsFor}. Returns the number of rows written (at most k).
+     */
+    public int rankRows(float[] query, int k, int excludeRow, int[] outRows, float[] outScores) {
+        if (index == null) return 0;
+        return searchVector(query, Math.max(1, k), excludeRow).drainSorted(outRows, outScores);
+    }
+
+    /** Suggestions for rows[from..to) of a ranking from {@link #rankRows}; null if the index is gone. */
+    public List<BookSuggestion> suggestionsFor(int[] rows, float[] scores, int from, int to) {
+        VibeIndex idx = index;
+        return idx == null ? null : toSuggestions(idx, rows, scores, from, to);
+    }
+
+    private List<BookSuggestion> toSuggestions(VibeIndex idx, TopK top) {
+        int[] rows = new int[top.size()];
+        float[] scores = new float[top.size()];
+        int n = top.drainSorted(rows, scores);
+        return toSuggestions(idx, rows, scores, 0, n);
+    }
+
+    private List<BookSuggestion> toSuggestions(VibeIndex idx, int[] rows, float[] scores, int from, int to) {
+        List<BookSuggestion> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            int r = rows[i];
+            if (r >= idx.size()) {
+                Book b = addedBooks.get(r);
+                if (b != null) out.add(suggestion(b.getId(), b.getTitle(), b.getAuthor(), b.getImage(), scores[i]));
+                continue;
+            }
+            out.add(toSuggestion(idx, r, scores[i]));
+        }
+        return out;
+    }
+
+    /** Suggestion for an indexed row, using the row metadata from the export. */
+    public BookSuggestion toSuggestion(VibeIndex idx, int row, float score) {
+        long id = idx.bookId(row);
+        return suggestion(id >= 0 ? id : null, idx.title(row), idx.author(row), idx.cover(row), score);
+    }
+
+    private BookSuggestion suggestion(Long id, String title, String author, String cover, float score) {
+        BookSuggestion s = new BookSuggestion(title, author, Math.round(Math.max(0f, score) * 100) + "% vibe match", cover);
+        s.setId(id);
+        s.setScore((double) score);
+        return s;
+    }
+}
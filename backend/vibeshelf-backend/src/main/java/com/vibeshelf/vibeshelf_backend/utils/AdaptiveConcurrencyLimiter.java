@@ -0,0 +1,138 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limit on in-flight requests that adapts to observed latency (TCP Vegas,
+ * as in Netflix's concurrency-limits). The lowest latency seen is taken as
+ * the no-queueing time; limit x (1 - noLoad / latency) then estimates how
+ * many admitted requests are waiting rather than being served. The limit
+ * grows while that queue is short and shrinks once it passes a few
+ * requests, so it settles just above what the database can serve at once.
+ * The baseline is re-measured every 30 x limit samples, so a lasting change
+ * in the database is eventually taken as the new normal. Failed requests
+ * (timeouts, 5xx) back the limit off by 10%.
+ *
+ * Callers ask for a share of the limit, so lower-priority work is shed
+ * first: with share 0.5 a request is refused once half the limit is in use.
+ * Admission is a CAS on the in-flight count; only the limit update after
+ * each completed request takes a lock.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final int PROBE_MULTIPLIER = 30;
+    private static final double BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile double limit;
+    // Guarded by this
+    private long noLoadRttNanos;
+    private long lastRttNanos;
+    private long samplesSinceProbe;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Bad limits: min " + minLimit + ", max " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Admit a request if fewer than share x limit are in flight. Every true
+     * must be followed by exactly one {@link #release}.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                shed.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /** Record a finished request and adjust the limit. */
+    public void release(long rttNanos, boolean failedRequest) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        if (failedRequest) failed.increment();
+        update(Math.max(1, rttNanos), inFlightBefore, failedRequest);
+    }
+
+    private synchronized void update(long rttNanos, int inFlightBefore, boolean failedRequest) {
+        if (failedRequest) {
+            limit = Math.max(minLimit, limit * BACKOFF);
+            return;
+        }
+        lastRttNanos = rttNanos;
+        double current = limit;
+        if (++samplesSinceProbe >= PROBE_MULTIPLIER * (long) current) {
+            samplesSinceProbe = 0;
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+            noLoadRttNanos = rttNanos;
+            return;
+        }
+        // Lightly loaded: latency says nothing about the limit, and growing it would only overshoot
+        if (inFlightBefore * 2 < current) {
+            return;
+        }
+
+        double queue = Math.ceil(current * (1 - (double) noLoadRttNanos / rttNanos));
+        double log = Math.max(1, Math.log10(current));
+        double next = current;
+        if (queue <= log) {
+            next = current + 6 * log;
+        } else if (queue < 3 * log) {
+            next = current + log;
+        } else if (queue > 6 * log) {
+            next = current - log;
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getShed() {
+        return shed.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /** No-queueing latency estimate in milliseconds. */
+    public synchronized double getBaselineLatencyMillis() {
+        return noLoadRttNanos / 1_000_000.0;
+    }
+
+    /** Latency of the last completed request in milliseconds. */
+    public synchronized double getRecentLatencyMillis() {
+        return lastRttNanos / 1_000_000.0;
+    }
+}
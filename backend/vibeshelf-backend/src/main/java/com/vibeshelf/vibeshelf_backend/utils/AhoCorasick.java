@@ -0,0 +1,152 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Aho-Corasick automaton over a fixed set of phrases: one left-to-right pass
+ * over the text reports every occurrence of every phrase, independent of the
+ * number of phrases. Matching is case-insensitive, treats curly apostrophes
+ * like straight ones and any whitespace run like a single space, and only
+ * reports whole-word matches ("love" does not match inside "glove").
+ *
+ * After construction the automaton is immutable; each state keeps its
+ * outgoing edges as a sorted char array searched by binary search.
+ */
+public final class AhoCorasick {
+
+    @FunctionalInterface
+    public interface MatchListener {
+        /** Phrase patternId ends at (exclusive) end of the normalised text. */
+        void onMatch(int patternId, int end);
+    }
+
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] fail;
+    // Pattern ids ending at each state, including those reached via fail links
+    private final int[][] outputs;
+    private final int[] patternLengths;
+
+    public AhoCorasick(List<String> patterns) {
+        List<Map<Character, Integer>> trie = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        trie.add(new HashMap<>());
+        out.add(new ArrayList<>());
+        patternLengths = new int[patterns.size()];
+        for (int p = 0; p < patterns.size(); p++) {
+            String norm = normalize(patterns.get(p)).trim();
+            patternLengths[p] = norm.length();
+            if (norm.isEmpty()) continue;
+            int state = 0;
+            for (int i = 0; i < norm.length(); i++) {
+                Integer next = trie.get(state).get(norm.charAt(i));
+                if (next == null) {
+                    next = trie.size();
+                    trie.get(state).put(norm.charAt(i), next);
+                    trie.add(new HashMap<>());
+                    out.add(new ArrayList<>());
+                }
+                state = next;
+            }
+            out.get(state).add(p);
+        }
+
+        int n = trie.size();
+        edgeChars = new char[n][];
+        edgeTargets = new int[n][];
+        for (int s = 0; s < n; s++) {
+            Map<Character, Integer> edges = trie.get(s);
+            char[] chars = new char[edges.size()];
+            int i = 0;
+            for (char c : edges.keySet()) chars[i++] = c;
+            Arrays.sort(chars);
+            int[] targets = new int[chars.length];
+            for (int j = 0; j < chars.length; j++) targets[j] = edges.get(chars[j]);
+            edgeChars[s] = chars;
+            edgeTargets[s] = targets;
+        }
+
+        // Breadth-first: a state's fail link is the longest proper suffix that is also in the trie
+        fail = new int[n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int t : edgeTargets[0]) queue.add(t);
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            for (int j = 0; j < edgeChars[s].length; j++) {
+                char c = edgeChars[s][j];
+                int t = edgeTargets[s][j];
+                int f = fail[s];
+                while (f != 0 && edge(f, c) < 0) f = fail[f];
+                int target = edge(f, c);
+                fail[t] = target >= 0 && target != t ? target : 0;
+                out.get(t).addAll(out.get(fail[t]));
+                queue.add(t);
+            }
+        }
+        outputs = new int[n][];
+        for (int s = 0; s < n; s++) {
+            outputs[s] = out.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public int states() {
+        return fail.length;
+    }
+
+    private int edge(int state, char c) {
+        int i = Arrays.binarySearch(edgeChars[state], c);
+        return i < 0 ? -1 : edgeTargets[state][i];
+    }
+
+    /**
+     * Lower-case, straight apostrophes/quotes, single spaces. Offsets passed to
+     * {@link MatchListener} refer to this form of the text.
+     */
+    public static String normalize(CharSequence text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && sb.length() > 0) sb.append(' ');
+            space = false;
+            if (c == '’' || c == '‘') c = '\'';
+            else if (c == '“' || c == '”') c = '"';
+            sb.append(c);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** Scans already-normalised text, reporting whole-word matches only. */
+    public void scan(String normalized, MatchListener listener) {
+        int state = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            int next;
+            while ((next = edge(state, c)) < 0 && state != 0) state = fail[state];
+            state = next < 0 ? 0 : next;
+            int[] hits = outputs[state];
+            if (hits.length == 0) continue;
+            int end = i + 1;
+            if (end < normalized.length() && isWordChar(normalized.charAt(end))) continue;
+            for (int p : hits) {
+                int start = end - patternLengths[p];
+                if (start > 0 && isWordChar(normalized.charAt(start - 1))) continue;
+                listener.onMatch(p, end);
+            }
+        }
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,241 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client for the Python encoder sidecar (books/api_server.py) that coalesces
+ * concurrent phrases into one POST /encode per batch, so the model runs one
+ * forward pass per batch instead of one per request. A dispatcher thread
+ * takes the first waiting phrase, then collects more until maxBatch phrases
+ * or the batch window has passed, and sends the batch asynchronously; at
+ * most maxInFlight batches are outstanding, over the HttpClient's pooled
+ * keep-alive connections.
+ *
+ * Failed batches feed a {@link CircuitBreaker}; while it is open, encode()
+ * fails immediately with {@link CircuitOpenException} so callers can fall back
+ * without waiting for timeouts.
+ */
+public final class BatchingEncoderClient implements AutoCloseable {
+
+    /** Thrown (via the returned future) while the sidecar is considered down. */
+    public static final class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException() {
+            super("Encoder circuit is open");
+        }
+    }
+
+    private static final class Pending {
+        final String phrase;
+        final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        Pending(String phrase) {
+            this.phrase = phrase;
+        }
+    }
+
+    private final URI encodeUri;
+    private final URI healthUri;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long windowNanos;
+    private final Duration timeout;
+    private final Semaphore inFlight;
+    private final CircuitBreaker breaker;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong phrases = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BatchingEncoderClient(String baseUrl, int maxBatch, long windowMillis, int maxInFlight,
+                                 int maxQueue, Duration timeout, CircuitBreaker breaker) {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.encodeUri = URI.create(base + "/encode");
+        this.healthUri = URI.create(base + "/health");
+        this.maxBatch = Math.max(1, maxBatch);
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.timeout = timeout;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, maxQueue));
+        this.breaker = breaker;
+        // HTTP/1.1 so uvicorn keeps connections open; the client pools them per host
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .build();
+        this.dispatcher = new Thread(this::dispatchLoop, "encoder-batcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    /** Unit-length embedding of phrase, computed in the next batch. */
+    public CompletableFuture<float[]> encode(String phrase) {
+        if (closed) return CompletableFuture.failedFuture(new RejectedExecutionException("Encoder client is closed"));
+        if (!breaker.allowRequest()) return CompletableFuture.failedFuture(new CircuitOpenException());
+        Pending p = new Pending(phrase);
+        if (!queue.offer(p)) {
+            // Hand back the trial slot if this was the half-open trial
+            breaker.onAbandoned();
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Encoder queue is full"));
+        }
+        // Raced with close(), which may already have drained the queue
+        if (closed && queue.remove(p)) {
+            breaker.onAbandoned();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Encoder client is closed"));
+        }
+        return p.future;
+    }
+
+    /** GET /health with the request timeout; false on any error. */
+    public boolean ping() {
+        try {
+            HttpRequest req = HttpRequest.newBuilder(healthUri).timeout(timeout).GET().build();
+            return http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return breaker.state();
+    }
+
+    public Map<String, Object> getStats() {
+        long b = batches.get();
+        long p = phrases.get();
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("circuit", breaker.state().name());
+        out.put("circuitOpens", breaker.opens());
+        out.put("batches", b);
+        out.put("phrases", p);
+        out.put("avgBatchSize", b == 0 ? 0.0 : Math.round(p * 100.0 / b) / 100.0);
+        out.put("failedBatches", failedBatches.get());
+        out.put("rejected", rejected.get());
+        out.put("queued", queue.size());
+        return out;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatcher.interrupt();
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        if (!left.isEmpty()) breaker.onAbandoned();
+        for (Pending p : left) p.future.completeExceptionally(new RejectedExecutionException("Encoder client is closed"));
+    }
+
+    private void dispatchLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long wait = deadline - System.nanoTime();
+                    if (wait <= 0) {
+                        queue.drainTo(batch, maxBatch - batch.size());
+                        break;
+                    }
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                // Phrases keep queueing (and batching up) while all slots are busy
+                inFlight.acquire();
+                send(new ArrayList<>(batch));
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            if (!batch.isEmpty()) breaker.onAbandoned();
+            for (Pending p : batch) p.future.completeExceptionally(new RejectedExecutionException("Encoder client is closed"));
+        }
+    }
+
+    private void send(List<Pending> batch) {
+        // Identical phrases in one batch (a popular query) are encoded once
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        for (Pending p : batch) slots.putIfAbsent(p.phrase, slots.size());
+        HttpRequest req;
+        try {
+            byte[] body = mapper.writeValueAsBytes(Map.of("phrases", slots.keySet()));
+            req = HttpRequest.newBuilder(encodeUri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        } catch (Exception e) {
+            inFlight.release();
+            breaker.onAbandoned();
+            fail(batch, e);
+            return;
+        }
+        batches.incrementAndGet();
+        phrases.addAndGet(batch.size());
+        http.sendAsync(req, HttpResponse.BodyHandlers.ofByteArray()).whenComplete((resp, err) -> {
+            inFlight.release();
+            try {
+                if (err != null) throw err;
+                if (resp.statusCode() != 200) throw new IOException("Encoder returned HTTP " + resp.statusCode());
+                float[][] vectors = parse(resp.body(), slots.size());
+                breaker.onSuccess();
+                for (Pending p : batch) p.future.complete(vectors[slots.get(p.phrase)]);
+            } catch (Throwable t) {
+                breaker.onFailure();
+                failedBatches.incrementAndGet();
+                fail(batch, t);
+            }
+        });
+    }
+
+    private float[][] parse(byte[] body, int expected) throws IOException {
+        JsonNode root = mapper.readTree(body);
+        int count = root.path("count").asInt(-1);
+        int dim = root.path("dim").asInt(-1);
+        if (count != expected || dim <= 0) {
+            throw new IOException("Encoder returned " + count + " vectors of dim " + dim + ", expected " + expected);
+        }
+        ByteBuffer data = ByteBuffer.wrap(Base64.getDecoder().decode(root.path("data").asText("")))
+            .order(ByteOrder.LITTLE_ENDIAN);
+        if (data.remaining() != count * dim * Float.BYTES) throw new IOException("Encoder payload has the wrong size");
+        FloatBuffer floats = data.asFloatBuffer();
+        float[][] out = new float[count][dim];
+        for (float[] v : out) floats.get(v);
+        return out;
+    }
+
+    private static void fail(List<Pending> batch, Throwable t) {
+        for (Pending p : batch) p.future.completeExceptionally(t);
+    }
+}
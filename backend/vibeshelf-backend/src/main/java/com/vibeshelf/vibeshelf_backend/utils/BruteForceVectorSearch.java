@@ -0,0 +1,80 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Exact top-K cosine search over a {@link VectorStore}: the row range is split
+ * fork/join style, each leaf bulk-copies blocks of rows into a heap scratch
+ * array and scores them with {@link VectorStore#dot}, and partial heaps are
+ * merged on the way back up.
+ */
+public final class BruteForceVectorSearch {
+
+    // Rows per leaf task; ~1.5 MB of 384-dim vectors, enough to amortise task overhead
+    private static final int LEAF_ROWS = 1024;
+    // Rows copied off-heap per block inside a leaf
+    private static final int BLOCK_ROWS = 64;
+
+    private final VectorStore store;
+    private final ForkJoinPool pool;
+
+    public BruteForceVectorSearch(VectorStore store, ForkJoinPool pool) {
+        this.store = store;
+        this.pool = pool;
+    }
+
+    /**
+     * @param query      unit-length query vector
+     * @param k          number of results
+     * @param excludeRow row to skip (e.g. the query book itself), or -1
+     */
+    public TopK search(float[] query, int k, int excludeRow) {
+        if (query.length != store.dim()) {
+            throw new IllegalArgumentException("Query has " + query.length + " dims, index has " + store.dim());
+        }
+        return pool.invoke(new Leaf(query, k, excludeRow, 0, store.count()));
+    }
+
+    private final class Leaf extends RecursiveTask<TopK> {
+        private final float[] query;
+        private final int k;
+        private final int excludeRow;
+        private final int from;
+        private final int to;
+
+        Leaf(float[] query, int k, int excludeRow, int from, int to) {
+            this.query = query;
+            this.k = k;
+            this.excludeRow = excludeRow;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from > LEAF_ROWS) {
+                int mid = (from + to) >>> 1;
+                Leaf left = new Leaf(query, k, excludeRow, from, mid);
+                left.fork();
+                TopK right = new Leaf(query, k, excludeRow, mid, to).compute();
+                right.addAll(left.join());
+                return right;
+            }
+            TopK top = new TopK(k);
+            int dim = store.dim();
+            float[] block = new float[BLOCK_ROWS * dim];
+            int row = from;
+            while (row < to) {
+                int n = store.copyRows(row, Math.min(BLOCK_ROWS, to - row), block);
+                for (int i = 0; i < n; i++) {
+                    int r = row + i;
+                    if (r == excludeRow) continue;
+                    top.offer(r, VectorStore.dot(query, 0, block, i * dim, dim));
+                }
+                row += n;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+/**
+ * Consecutive-failure circuit breaker. After failureThreshold failures in a
+ * row calls are refused for openMillis; then a single trial call is let
+ * through (half-open) and its outcome closes or re-opens the circuit.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private long opens;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold < 1) throw new IllegalArgumentException("failureThreshold must be >= 1");
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /** True if a call may proceed; moves OPEN to HALF_OPEN once the open period has passed. */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - openedAt < openMillis) return false;
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // Trial call already in flight
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || failures >= failureThreshold) {
+            if (state != State.OPEN) opens++;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The call let through by allowRequest was never made (e.g. it could not be
+     * queued). A half-open circuit goes back to open with its period already
+     * over, so the next call becomes the trial.
+     */
+    public synchronized void onAbandoned() {
+        if (state == State.HALF_OPEN) state = State.OPEN;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    /** Times the circuit has opened since creation. */
+    public synchronized long opens() {
+        return opens;
+    }
+}
@@ -0,0 +1,43 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The genre filter of /api/books and /api/books/search. The frontend sends
+ * multi-select genres as "Thriller,Mystery", "Thriller / Mystery" or a
+ * JSON-array-like ["Thriller","Mystery"]; these become lower-case tokens,
+ * and several tokens become the REGEXP alternation the repository matches
+ * ("thriller|mystery").
+ */
+public final class GenreQueryParser {
+
+    private GenreQueryParser() {
+    }
+
+    /** Lower-case genre tokens of a genre parameter, empty when there are none. */
+    public static List<String> tokens(String genre) {
+        List<String> tokens = new ArrayList<>();
+        if (genre == null) return tokens;
+        String genreStr = genre.trim();
+        // Handle JSON-array-like strings (e.g. ["Thriller","Mystery"]) by stripping [] and quotes
+        if ((genreStr.startsWith("[") && genreStr.endsWith("]")) || genreStr.contains("\"")) {
+            String cleaned = genreStr.replaceAll("^[\\[\\]\"]+|[\\[\\]\"]+$", "");
+            for (String s : cleaned.split(",")) {
+                String t = s.replaceAll("^\\\"|\\\"$", "").trim();
+                if (!t.isEmpty()) tokens.add(t.toLowerCase());
+            }
+        } else {
+            for (String s : genreStr.split("\\s*[,/\\\\;|]\\s*")) {
+                String t = s.trim();
+                if (!t.isEmpty()) tokens.add(t.toLowerCase());
+            }
+        }
+        return tokens;
+    }
+
+    /** REGEXP alternation of several tokens, matched against LOWER(genre); whitespace is removed. */
+    public static String regex(List<String> tokens) {
+        return String.join("|", tokens).replaceAll("\\s+", "");
+    }
+}
@@ -0,0 +1,484 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Hierarchical Navigable Small World graph (Malkov &amp; Yashunin) for approximate
+ * max-inner-product search over unit vectors, i.e. cosine similarity.
+ *
+ * Nodes 0..base.count()-1 are the rows of the backing {@link VectorStore};
+ * nodes added later via {@link #add} keep their vectors on-heap. Adjacency lists
+ * are primitive int arrays ({count, n1, n2, ...}) guarded by striped locks, so
+ * inserts can run in parallel with each other and with searches. Capacity is
+ * fixed at construction; once it is used up {@link #add} returns -1 and the
+ * index should be rebuilt.
+ */
+public final class HnswIndex {
+
+    private static final int LOCK_STRIPES = 1024;
+
+    private final VectorStore base;
+    private final int dim;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private volatile int efSearch;
+    private final double levelMult;
+    private final int capacity;
+
+    private final float[][] extraVectors;
+    private final AtomicInteger nextExtra = new AtomicInteger();
+    private final AtomicInteger inserted = new AtomicInteger();
+
+    private final int[] levels;
+    private final int[][] links0;
+    private final int[][][] upperLinks;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    /** Entry node and its level, published together so a search never pairs one node with another's level. */
+    private static final class Entry {
+        final int node;
+        final int level;
+
+        Entry(int node, int level) {
+            this.node = node;
+            this.level = level;
+        }
+    }
+
+    private final Object entryLock = new Object();
+    private volatile Entry entry;
+
+    // O(capacity) visited marks each, so keep a CPU's worth rather than one per request thread
+    private final ScratchPool<Scratch> scratch;
+
+    public HnswIndex(VectorStore base, int m, int efConstruction, int efSearch, int extraCapacity) {
+        if (m < 2) throw new IllegalArgumentException("M must be >= 2");
+        this.base = base;
+        this.dim = base.dim();
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = efSearch;
+        this.levelMult = 1.0 / Math.log(m);
+        this.capacity = base.count() + Math.max(0, extraCapacity);
+        this.extraVectors = new float[Math.max(0, extraCapacity)][];
+        this.levels = new int[capacity];
+        Arrays.fill(levels, -1);
+        this.links0 = new int[capacity][];
+        this.upperLinks = new int[capacity][][];
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+        this.scratch = new ScratchPool<>(ScratchPool.defaultMaxIdle(), () -> new Scratch(capacity, dim, maxM0));
+    }
+
+    /** Insert every row of the backing store, fanning out over the given pool. */
+    public void buildParallel(ForkJoinPool pool) {
+        int n = base.count();
+        if (n == 0) return;
+        float[] v = new float[dim];
+        base.get(0, v);
+        insert(0, v);
+        pool.submit(() -> IntStream.range(1, n).parallel().forEach(row -> {
+            float[] vec = new float[dim];
+            base.get(row, vec);
+            insert(row, vec);
+        })).join();
+    }
+
+    /**
+     * Add a vector that is not part of the backing store (e.g. a newly imported
+     * book). The vector should be unit length. Returns its node id, or -1 when
+     * the reserved extra capacity is exhausted.
+     */
+    public int add(float[] vector) {
+        if (vector.length != dim) throw new IllegalArgumentException("Expected " + dim + " dims");
+        int slot = nextExtra.getAndIncrement();
+        if (slot >= extraVectors.length) return -1;
+        extraVectors[slot] = vector.clone();
+        int node = base.count() + slot;
+        insert(node, extraVectors[slot]);
+        return node;
+    }
+
+    public int size() {
+        return inserted.get();
+    }
+
+    public int getEfSearch() {
+        return efSearch;
+    }
+
+    public void setEfSearch(int efSearch) {
+        this.efSearch = Math.max(1, efSearch);
+    }
+
+    public int m() {
+        return m;
+    }
+
+    public int efConstruction() {
+        return efConstruction;
+    }
+
+    /** Copy the vector of a node (store row or added node) into dst. */
+    public void vector(int node, float[] dst) {
+        if (node < base.count()) {
+            base.get(node, dst);
+        } else {
+            System.arraycopy(extraVectors[node - base.count()], 0, dst, 0, dim);
+        }
+    }
+
+    /** Approximate top-k using the configured efSearch. */
+    public TopK search(float[] query, int k, int excludeNode) {
+        return search(query, k, efSearch, excludeNode);
+    }
+
+    public TopK search(float[] query, int k, int ef, int excludeNode) {
+        TopK out = new TopK(k);
+        Entry ep = entry;
+        if (ep == null) return out;
+        Scratch s = scratch.acquire();
+        int curr = ep.node;
+        float currSim = similarity(query, curr, s.vec);
+        for (int lc = ep.level; lc > 0; lc--) {
+            long best = greedy(query, curr, currSim, lc, s);
+            curr = (int) (best >>> 32);
+            currSim = Float.intBitsToFloat((int) best);
+        }
+        TopK found = searchLayer(query, curr, currSim, Math.max(ef, k + 1), 0, s);
+        int[] rows = s.rowsBuf(found.size());
+        float[] scores = s.scoresBuf(found.size());
+        int n = found.drainSorted(rows, scores);
+        for (int i = 0; i < n; i++) {
+            if (rows[i] != excludeNode) out.offer(rows[i], scores[i]);
+        }
+        scratch.release(s);
+        return out;
+    }
+
+    private void insert(int node, float[] vec) {
+        int level = randomLevel();
+        links0[node] = new int[maxM0 + 1];
+        if (level > 0) {
+            int[][] up = new int[level][];
+            for (int i = 0; i < level; i++) up[i] = new int[m + 1];
+            upperLinks[node] = up;
+        }
+        levels[node] = level;
+
+        Entry ep;
+        synchronized (entryLock) {
+            if (entry == null) {
+                entry = new Entry(node, level);
+                inserted.incrementAndGet();
+                return;
+            }
+            ep = entry;
+        }
+        int topLevel = ep.level;
+
+        Scratch s = scratch.acquire();
+        int curr = ep.node;
+        float currSim = similarity(vec, curr, s.vec);
+        for (int lc = topLevel; lc > level; lc--) {
+            long best = greedy(vec, curr, currSim, lc, s);
+            curr = (int) (best >>> 32);
+            currSim = Float.intBitsToFloat((int) best);
+        }
+
+        for (int lc = Math.min(level, topLevel); lc >= 0; lc--) {
+            TopK found = searchLayer(vec, curr, currSim, efConstruction, lc, s);
+            int n = found.size();
+            int[] cand = new int[n];
+            float[] candSim = new float[n];
+            found.drainSorted(cand, candSim);
+            curr = cand[0];
+            currSim = candSim[0];
+
+            int[] selected = new int[m];
+            int count = selectNeighbors(vec, cand, candSim, n, m, selected, s);
+            int[] own = linksOf(node, lc);
+            synchronized (lockFor(node)) {
+                System.arraycopy(selected, 0, own, 1, count);
+                own[0] = count;
+            }
+            for (int i = 0; i < count; i++) {
+                connect(selected[i], lc, node, s);
+            }
+        }
+        scratch.release(s);
+
+        inserted.incrementAndGet();
+        if (level > topLevel) {
+            synchronized (entryLock) {
+                if (level > entry.level) entry = new Entry(node, level);
+            }
+        }
+    }
+
+    /** Add a back-link from `from` to `to` at level lc, pruning with the heuristic when full. */
+    private void connect(int from, int lc, int to, Scratch s) {
+        int max = lc == 0 ? maxM0 : m;
+        int[] links = linksOf(from, lc);
+        synchronized (lockFor(from)) {
+            int count = links[0];
+            for (int i = 1; i <= count; i++) {
+                if (links[i] == to) return;
+            }
+            if (count < max) {
+                links[count + 1] = to;
+                links[0] = count + 1;
+                return;
+            }
+            // Full: re-select among existing neighbours plus the new one, relative to `from`
+            float[] base = s.pivot;
+            vector(from, base);
+            int total = count + 1;
+            int[] cand = new int[total];
+            float[] candSim = new float[total];
+            for (int i = 0; i < count; i++) cand[i] = links[i + 1];
+            cand[count] = to;
+            TopK order = new TopK(total);
+            for (int i = 0; i < total; i++) order.offer(cand[i], similarity(base, cand[i], s.vec));
+            order.drainSorted(cand, candSim);
+            int[] selected = new int[max];
+            int kept = selectNeighbors(base, cand, candSim, total, max, selected, s);
+            System.arraycopy(selected, 0, links, 1, kept);
+            links[0] = kept;
+        }
+    }
+
+    /**
+     * Neighbour selection heuristic (HNSW paper, algorithm 4): walk candidates
+     * best-first and keep one only if it is closer to the query than to every
+     * neighbour kept so far; top up with the skipped ones to fill `max`.
+     */
+    private int selectNeighbors(float[] query, int[] cand, float[] candSim, int n, int max, int[] out, Scratch s) {
+        if (n <= max) {
+            System.arraycopy(cand, 0, out, 0, n);
+            return n;
+        }
+        float[][] keptVecs = s.keptVecs;
+        boolean[] taken = s.takenBuf(n);
+        int kept = 0;
+        for (int i = 0; i < n && kept < max; i++) {
+            float[] cv = s.cand;
+            vector(cand[i], cv);
+            boolean good = true;
+            for (int j = 0; j < kept; j++) {
+                if (VectorStore.dot(cv, 0, keptVecs[j], 0, dim) > candSim[i]) {
+                    good = false;
+                    break;
+                }
+            }
+            if (good) {
+                System.arraycopy(cv, 0, keptVecs[kept], 0, dim);
+                out[kept++] = cand[i];
+                taken[i] = true;
+            }
+        }
+        for (int i = 0; i < n && kept < max; i++) {
+            if (!taken[i]) out[kept++] = cand[i];
+        }
+        return kept;
+    }
+
+    /** Greedy walk at one level; returns (node << 32 | floatBits(sim)). */
+    private long greedy(float[] query, int start, float startSim, int lc, Scratch s) {
+        int curr = start;
+        float currSim = startSim;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            int n = copyLinks(curr, lc, s);
+            for (int i = 0; i < n; i++) {
+                int cand = s.neighbors[i];
+                float sim = similarity(query, cand, s.vec);
+                if (sim > currSim) {
+                    currSim = sim;
+                    curr = cand;
+                    changed = true;
+                }
+            }
+        }
+        return ((long) curr << 32) | (Float.floatToRawIntBits(currSim) & 0xffffffffL);
+    }
+
+    private TopK searchLayer(float[] query, int entry, float entrySim, int ef, int lc, Scratch s) {
+        int mark = s.nextMark();
+        int[] visited = s.visited;
+        TopK results = new TopK(ef);
+        CandidateQueue candidates = s.candidates;
+        candidates.clear();
+        visited[entry] = mark;
+        results.offer(entry, entrySim);
+        candidates.push(entry, entrySim);
+        while (!candidates.isEmpty()) {
+            float bestSim = candidates.peekScore();
+            if (results.isFull() && bestSim < results.threshold()) break;
+            int c = candidates.pop();
+            int n = copyLinks(c, lc, s);
+            for (int i = 0; i < n; i++) {
+                int e = s.neighbors[i];
+                if (visited[e] == mark) continue;
+                visited[e] = mark;
+                float sim = similarity(query, e, s.vec);
+                if (!results.isFull() || sim > results.threshold()) {
+                    candidates.push(e, sim);
+                    results.offer(e, sim);
+                }
+            }
+        }
+        return results;
+    }
+
+    private int copyLinks(int node, int lc, Scratch s) {
+        int[] links = linksOf(node, lc);
+        synchronized (lockFor(node)) {
+            int n = links[0];
+            System.arraycopy(links, 1, s.neighbors, 0, n);
+            return n;
+        }
+    }
+
+    private int[] linksOf(int node, int lc) {
+        return lc == 0 ? links0[node] : upperLinks[node][lc - 1];
+    }
+
+    private float similarity(float[] query, int node, float[] buf) {
+        vector(node, buf);
+        return VectorStore.dot(query, 0, buf, 0, dim);
+    }
+
+    private Object lockFor(int node) {
+        return locks[node & (LOCK_STRIPES - 1)];
+    }
+
+    private int randomLevel() {
+        double u = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) (-Math.log(u) * levelMult);
+    }
+
+    /** Approximate heap footprint of the graph in bytes (excludes base vectors). */
+    public long graphBytes() {
+        long bytes = (long) capacity * (4 + 16 + 16);
+        int n = base.count() + Math.min(nextExtra.get(), extraVectors.length);
+        for (int i = 0; i < n; i++) {
+            if (links0[i] != null) bytes += 16 + 4L * links0[i].length;
+            if (upperLinks[i] != null) bytes += 16 + upperLinks[i].length * (16 + 4L * (m + 1));
+        }
+        return bytes + (long) Math.min(nextExtra.get(), extraVectors.length) * (16 + 4L * dim);
+    }
+
+    /** Pooled buffers so searches do not allocate per visited node. */
+    private static final class Scratch {
+        final int[] visited;
+        int mark;
+        final float[] vec;
+        final float[] cand;
+        final float[] pivot;
+        final float[][] keptVecs;
+        final int[] neighbors;
+        final CandidateQueue candidates = new CandidateQueue();
+        int[] rows = new int[64];
+        float[] scores = new float[64];
+        boolean[] taken = new boolean[64];
+
+        Scratch(int capacity, int dim, int maxM0) {
+            visited = new int[capacity];
+            vec = new float[dim];
+            cand = new float[dim];
+            pivot = new float[dim];
+            keptVecs = new float[maxM0][dim];
+            neighbors = new int[maxM0];
+        }
+
+        int nextMark() {
+            if (++mark == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                mark = 1;
+            }
+            return mark;
+        }
+
+        int[] rowsBuf(int n) {
+            if (rows.length < n) rows = new int[n];
+            return rows;
+        }
+
+        float[] scoresBuf(int n) {
+            if (scores.length < n) scores = new float[n];
+            return scores;
+        }
+
+        boolean[] takenBuf(int n) {
+            if (taken.length < n) taken = new boolean[n];
+            else Arrays.fill(taken, 0, n, false);
+            return taken;
+        }
+    }
+
+    /** Growable max-heap of (node, score) in primitive arrays. */
+    private static final class CandidateQueue {
+        private int[] nodes = new int[64];
+        private float[] scores = new float[64];
+        private int size;
+
+        void clear() {
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (scores[parent] >= score) break;
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            size--;
+            if (size > 0) {
+                int node = nodes[size];
+                float score = scores[size];
+                int i = 0;
+                int half = size >>> 1;
+                while (i < half) {
+                    int child = 2 * i + 1;
+                    int right = child + 1;
+                    if (right < size && scores[right] > scores[child]) child = right;
+                    if (score >= scores[child]) break;
+                    nodes[i] = nodes[child];
+                    scores[i] = scores[child];
+                    i = child;
+                }
+                nodes[i] = node;
+                scores[i] = score;
+            }
+            return top;
+        }
+    }
+}
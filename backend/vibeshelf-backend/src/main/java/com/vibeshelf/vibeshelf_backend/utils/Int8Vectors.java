@@ -0,0 +1,92 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Scalar int8 quantisation with one scale per vector: component i of row r is
+ * stored as round(v[i] / scale[r]) with scale[r] = max|v| / 127, a 4x saving
+ * over float32. The query stays in float, so a score is one int8 x float dot
+ * product times the row scale.
+ */
+public final class Int8Vectors implements QuantizedVectors {
+
+    private final int dim;
+    private final int count;
+    private final int rowsPerSegment;
+    private final byte[][] segments;
+    private final float[] scales;
+
+    private Int8Vectors(int dim, int count, int rowsPerSegment, byte[][] segments, float[] scales) {
+        this.dim = dim;
+        this.count = count;
+        this.rowsPerSegment = rowsPerSegment;
+        this.segments = segments;
+        this.scales = scales;
+    }
+
+    public static Int8Vectors encode(VectorStore src, ForkJoinPool pool) {
+        int dim = src.dim();
+        int count = src.count();
+        int rowsPerSegment = Integer.MAX_VALUE / dim;
+        int segmentCount = Math.max(1, (count + rowsPerSegment - 1) / rowsPerSegment);
+        byte[][] segments = new byte[segmentCount][];
+        for (int s = 0; s < segmentCount; s++) {
+            segments[s] = new byte[Math.min(rowsPerSegment, count - s * rowsPerSegment) * dim];
+        }
+        float[] scales = new float[count];
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(row -> {
+            float[] v = new float[dim];
+            src.get(row, v);
+            float max = 0f;
+            for (int i = 0; i < dim; i++) max = Math.max(max, Math.abs(v[i]));
+            float scale = max == 0f ? 1f : max / 127f;
+            byte[] seg = segments[row / rowsPerSegment];
+            int off = (row % rowsPerSegment) * dim;
+            for (int i = 0; i < dim; i++) seg[off + i] = (byte) Math.round(v[i] / scale);
+            scales[row] = scale;
+        })).join();
+        return new Int8Vectors(dim, count, rowsPerSegment, segments, scales);
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int dim() {
+        return dim;
+    }
+
+    @Override
+    public long sizeBytes() {
+        return (long) count * dim + (long) count * Float.BYTES;
+    }
+
+    @Override
+    public String kind() {
+        return "int8";
+    }
+
+    @Override
+    public Scorer scorer(float[] query) {
+        return row -> {
+            byte[] seg = segments[row / rowsPerSegment];
+            int off = (row % rowsPerSegment) * dim;
+            float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+            int i = 0;
+            int upper = dim & ~3;
+            for (; i < upper; i += 4) {
+                s0 += query[i] * seg[off + i];
+                s1 += query[i + 1] * seg[off + i + 1];
+                s2 += query[i + 2] * seg[off + i + 2];
+                s3 += query[i + 3] * seg[off + i + 3];
+            }
+            for (; i < dim; i++) {
+                s0 += query[i] * seg[off + i];
+            }
+            return ((s0 + s1) + (s2 + s3)) * scales[row];
+        };
+    }
+}
@@ -0,0 +1,405 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Item-item collaborative filtering over explicit ratings, kept entirely in
+ * primitive arrays.
+ *
+ * The rating matrix is stored sparse in both directions (item -> users and
+ * user -> items, each a growable sorted int array plus a parallel byte array
+ * of ratings). Similarity is cosine over co-rating users, shrunk towards zero
+ * when few users co-rated the pair: sim = dot / (|i| |j|) * n / (n + shrink).
+ * Only the top-K neighbours of each item are kept, so memory is
+ * O(ratings + items * K) rather than O(items^2).
+ *
+ * {@link #rebuild} computes every neighbour list in parallel. {@link #rate}
+ * applies one new or changed rating incrementally: it recomputes the rated
+ * item's own list and re-offers the item to every other item the rater has
+ * rated. Lists of items that merely hold the rated item as a neighbour keep a
+ * slightly stale score until the next rebuild.
+ *
+ * Writers are serialised by a write lock; {@link #recommend} runs under the
+ * read lock.
+ */
+public final class ItemItemModel {
+
+    private final int k;
+    private final float shrink;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private LongIntHashMap itemIndex = new LongIntHashMap(1024);
+    private LongIntHashMap userIndex = new LongIntHashMap(1024);
+    private long[] itemIds = new long[0];
+    private long[] userIds = new long[0];
+    private int items;
+    private int users;
+
+    // item -> (sorted user idx, rating)
+    private int[][] itemUsers = new int[0][];
+    private byte[][] itemRatings = new byte[0][];
+    private int[] itemCounts = new int[0];
+    private double[] itemNormSq = new double[0];
+    // user -> (sorted item idx, rating)
+    private int[][] userItems = new int[0][];
+    private byte[][] userRatings = new byte[0][];
+    private int[] userCounts = new int[0];
+    // item -> top-K neighbours, best first
+    private int[][] neighbors = new int[0][];
+    private float[][] neighborSims = new float[0][];
+    private long ratings;
+    private Accumulator writerScratch;
+
+    public ItemItemModel(int k, float shrink) {
+        if (k < 1) throw new IllegalArgumentException("k must be >= 1");
+        this.k = k;
+        this.shrink = Math.max(0f, shrink);
+    }
+
+    public int items() {
+        return items;
+    }
+
+    public int users() {
+        return users;
+    }
+
+    public long ratings() {
+        return ratings;
+    }
+
+    /** Approximate heap footprint of the arrays, in bytes. */
+    public long sizeBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int i = 0; i < items; i++) {
+                bytes += itemUsers[i].length * 5L + 16 + (long) neighbors[i].length * 8;
+            }
+            for (int u = 0; u < users; u++) bytes += userItems[u].length * 5L;
+            return bytes + items * 24L + users * 12L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole model. Ratings are (userId, bookId, rating) triples;
+     * later triples for the same pair win. Neighbour lists are computed in
+     * parallel on the given pool.
+     */
+    public void rebuild(long[] userIdCol, long[] bookIdCol, byte[] ratingCol, int n, ForkJoinPool pool) {
+        ItemItemModel fresh = new ItemItemModel(k, shrink);
+        for (int r = 0; r < n; r++) fresh.put(userIdCol[r], bookIdCol[r], ratingCol[r]);
+        int itemCount = fresh.items;
+        // Same capacity as the other per-item arrays so later addItem calls line up
+        fresh.neighbors = new int[fresh.itemIds.length][];
+        fresh.neighborSims = new float[fresh.itemIds.length][];
+        // One O(items) accumulator per busy worker, borrowed per chunk and dropped with the pool after the build
+        ScratchPool<Accumulator> scratch = new ScratchPool<>(pool.getParallelism(), () -> new Accumulator(itemCount));
+        int chunk = Math.max(64, itemCount / (pool.getParallelism() * 8));
+        int chunks = (itemCount + chunk - 1) / chunk;
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(c -> {
+            Accumulator acc = scratch.acquire();
+            for (int i = c * chunk, end = Math.min(itemCount, i + chunk); i < end; i++) fresh.computeNeighbors(i, acc);
+            scratch.release(acc);
+        })).join();
+
+        lock.writeLock().lock();
+        try {
+            itemIndex = fresh.itemIndex;
+            userIndex = fresh.userIndex;
+            itemIds = fresh.itemIds;
+            userIds = fresh.userIds;
+            items = fresh.items;
+            users = fresh.users;
+            itemUsers = fresh.itemUsers;
+            itemRatings = fresh.itemRatings;
+            itemCounts = fresh.itemCounts;
+            itemNormSq = fresh.itemNormSq;
+            userItems = fresh.userItems;
+            userRatings = fresh.userRatings;
+            userCounts = fresh.userCounts;
+            neighbors = fresh.neighbors;
+            neighborSims = fresh.neighborSims;
+            ratings = fresh.ratings;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Applies one new or changed rating and refreshes the affected neighbour lists. */
+    public void rate(long userId, long bookId, int rating) {
+        lock.writeLock().lock();
+        try {
+            int i = put(userId, bookId, (byte) rating);
+            int u = userIndex.get(userId);
+            if (writerScratch == null || writerScratch.sums.length < items) {
+                writerScratch = new Accumulator(Math.max(items, itemIds.length));
+            }
+            computeNeighbors(i, writerScratch);
+            // Pairs this user co-rated changed; offer i to each of those items
+            int[] mine = userItems[u];
+            for (int x = 0; x < userCounts[u]; x++) {
+                int j = mine[x];
+                if (j == i) continue;
+                updateNeighbor(j, i, similarity(i, j));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top-n unrated items for a user, scoring each candidate by the
+     * similarity-weighted preference of the items the user rated. Ratings are
+     * centred on 3 so low ratings push similar books down. Returns bookIds
+     * (best first) and fills outScores / outBecause (the bookId that
+     * contributed most) when they are non-null.
+     */
+    public long[] recommend(long[] ratedBookIds, int[] ratedValues, int n, float[] outScores, long[] outBecause) {
+        lock.readLock().lock();
+        try {
+            if (items == 0 || n <= 0) return new long[0];
+            LongIntHashMap seen = new LongIntHashMap(ratedBookIds.length);
+            for (long id : ratedBookIds) seen.put(id, 0);
+            // Candidates are bounded by rated x K, so size the scratch by that rather than by items
+            int maxCandidates = Math.max(1, ratedBookIds.length * k);
+            LongIntHashMap slots = new LongIntHashMap(maxCandidates);
+            int[] candidates = new int[maxCandidates];
+            float[] sums = new float[maxCandidates];
+            float[] best = new float[maxCandidates];
+            int[] because = new int[maxCandidates];
+            int used = 0;
+            for (int r = 0; r < ratedBookIds.length; r++) {
+                int i = itemIndex.get(ratedBookIds[r]);
+                if (i < 0) continue;
+                float weight = ratedValues[r] - 3f;
+                if (weight == 0f) weight = 0.25f;
+                int[] nb = neighbors[i];
+                float[] sims = neighborSims[i];
+                for (int x = 0; x < nb.length; x++) {
+                    int j = nb[x];
+                    if (seen.get(itemIds[j]) >= 0) continue;
+                    int slot = slots.get(j);
+                    if (slot < 0) {
+                        slot = used++;
+                        slots.put(j, slot);
+                        candidates[slot] = j;
+                        because[slot] = i;
+                    }
+                    float contribution = sims[x] * weight;
+                    sums[slot] += contribution;
+                    if (contribution > best[slot]) {
+                        best[slot] = contribution;
+                        because[slot] = i;
+                    }
+                }
+            }
+            TopK top = new TopK(n);
+            for (int slot = 0; slot < used; slot++) {
+                if (sums[slot] > 0f) top.offer(slot, sums[slot]);
+            }
+            int[] picked = new int[top.size()];
+            float[] scores = new float[top.size()];
+            int count = top.drainSorted(picked, scores);
+            long[] out = new long[count];
+            for (int x = 0; x < count; x++) {
+                out[x] = itemIds[candidates[picked[x]]];
+                if (outScores != null && x < outScores.length) outScores[x] = scores[x];
+                if (outBecause != null && x < outBecause.length) outBecause[x] = itemIds[because[picked[x]]];
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Precomputed neighbours of one book (bookIds, best first). */
+    public long[] neighborsOf(long bookId) {
+        lock.readLock().lock();
+        try {
+            int i = itemIndex.get(bookId);
+            if (i < 0) return new long[0];
+            int[] nb = neighbors[i];
+            long[] out = new long[nb.length];
+            for (int x = 0; x < nb.length; x++) out[x] = itemIds[nb[x]];
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --- internals (callers hold the write lock, or own a private instance) ---
+
+    private int put(long userId, long bookId, byte rating) {
+        int i = itemIndex.get(bookId);
+        if (i < 0) i = addItem(bookId);
+        int u = userIndex.get(userId);
+        if (u < 0) u = addUser(userId);
+        int old = upsert(itemUsers, itemRatings, itemCounts, i, u, rating);
+        upsert(userItems, userRatings, userCounts, u, i, rating);
+        if (old < 0) ratings++;
+        else itemNormSq[i] -= (double) old * old;
+        itemNormSq[i] += (double) rating * rating;
+        return i;
+    }
+
+    private int addItem(long bookId) {
+        int i = items++;
+        if (i == itemIds.length) {
+            int cap = Math.max(16, i * 2);
+            itemIds = Arrays.copyOf(itemIds, cap);
+            itemUsers = Arrays.copyOf(itemUsers, cap);
+            itemRatings = Arrays.copyOf(itemRatings, cap);
+            itemCounts = Arrays.copyOf(itemCounts, cap);
+            itemNormSq = Arrays.copyOf(itemNormSq, cap);
+            neighbors = Arrays.copyOf(neighbors, cap);
+            neighborSims = Arrays.copyOf(neighborSims, cap);
+        }
+        itemIds[i] = bookId;
+        itemUsers[i] = new int[4];
+        itemRatings[i] = new byte[4];
+        neighbors[i] = new int[0];
+        neighborSims[i] = new float[0];
+        itemIndex.put(bookId, i);
+        return i;
+    }
+
+    private int addUser(long userId) {
+        int u = users++;
+        if (u == userIds.length) {
+            int cap = Math.max(16, u * 2);
+            userIds = Arrays.copyOf(userIds, cap);
+            userItems = Arrays.copyOf(userItems, cap);
+            userRatings = Arrays.copyOf(userRatings, cap);
+            userCounts = Arrays.copyOf(userCounts, cap);
+        }
+        userIds[u] = userId;
+        userItems[u] = new int[4];
+        userRatings[u] = new byte[4];
+        userIndex.put(userId, u);
+        return u;
+    }
+
+    // Inserts/overwrites key in row's sorted list; returns the previous rating or -1
+    private static int upsert(int[][] keys, byte[][] vals, int[] counts, int row, int key, byte rating) {
+        int n = counts[row];
+        int pos = Arrays.binarySearch(keys[row], 0, n, key);
+        if (pos >= 0) {
+            int old = vals[row][pos];
+            vals[row][pos] = rating;
+            return old;
+        }
+        pos = -pos - 1;
+        if (n == keys[row].length) {
+            keys[row] = Arrays.copyOf(keys[row], n * 2);
+            vals[row] = Arrays.copyOf(vals[row], n * 2);
+        }
+        System.arraycopy(keys[row], pos, keys[row], pos + 1, n - pos);
+        System.arraycopy(vals[row], pos, vals[row], pos + 1, n - pos);
+        keys[row][pos] = key;
+        vals[row][pos] = rating;
+        counts[row] = n + 1;
+        return -1;
+    }
+
+    /** Exact shrunk cosine of two items by merging their sorted user lists. */
+    private float similarity(int i, int j) {
+        int[] a = itemUsers[i], b = itemUsers[j];
+        byte[] ra = itemRatings[i], rb = itemRatings[j];
+        int na = itemCounts[i], nb = itemCounts[j];
+        double dot = 0;
+        int common = 0;
+        for (int x = 0, y = 0; x < na && y < nb; ) {
+            if (a[x] < b[y]) x++;
+            else if (a[x] > b[y]) y++;
+            else {
+                dot += ra[x++] * rb[y++];
+                common++;
+            }
+        }
+        return score(dot, common, i, j);
+    }
+
+    private float score(double dot, int common, int i, int j) {
+        if (common == 0 || itemNormSq[i] == 0 || itemNormSq[j] == 0) return 0f;
+        double cos = dot / Math.sqrt(itemNormSq[i] * itemNormSq[j]);
+        return (float) (cos * common / (common + shrink));
+    }
+
+    // Scatter: every user of i contributes to every other item they rated
+    private void computeNeighbors(int i, Accumulator acc) {
+        acc.reset();
+        int[] us = itemUsers[i];
+        byte[] rs = itemRatings[i];
+        for (int x = 0; x < itemCounts[i]; x++) {
+            int u = us[x];
+            int[] its = userItems[u];
+            byte[] urs = userRatings[u];
+            for (int y = 0; y < userCounts[u]; y++) {
+                int j = its[y];
+                if (j != i) acc.addCommon(j, rs[x] * urs[y]);
+            }
+        }
+        TopK top = new TopK(k);
+        for (int t = 0; t < acc.touched; t++) {
+            int j = acc.touchedItems[t];
+            float s = score(acc.sums[j], acc.counts[j], i, j);
+            if (s > 0f) top.offer(j, s);
+        }
+        int[] nb = new int[top.size()];
+        float[] sims = new float[top.size()];
+        top.drainSorted(nb, sims);
+        neighbors[i] = nb;
+        neighborSims[i] = sims;
+    }
+
+    // Re-inserts candidate into item's sorted top-K list with a fresh score
+    private void updateNeighbor(int item, int candidate, float sim) {
+        int[] nb = neighbors[item];
+        float[] sims = neighborSims[item];
+        TopK top = new TopK(k);
+        for (int x = 0; x < nb.length; x++) {
+            if (nb[x] != candidate) top.offer(nb[x], sims[x]);
+        }
+        if (sim > 0f) top.offer(candidate, sim);
+        int[] outNb = new int[top.size()];
+        float[] outSims = new float[top.size()];
+        top.drainSorted(outNb, outSims);
+        neighbors[item] = outNb;
+        neighborSims[item] = outSims;
+    }
+
+    /** Dense scatter buffer with a touched list so reset costs O(touched). */
+    private static final class Accumulator {
+        final double[] sums;
+        final int[] counts;
+        final int[] touchedItems;
+        int touched;
+
+        Accumulator(int n) {
+            sums = new double[n];
+            counts = new int[n];
+            touchedItems = new int[n];
+        }
+
+        void reset() {
+            for (int t = 0; t < touched; t++) {
+                int j = touchedItems[t];
+                sums[j] = 0;
+                counts[j] = 0;
+            }
+            touched = 0;
+        }
+
+        void addCommon(int j, double v) {
+            if (counts[j] == 0) touchedItems[touched++] = j;
+            sums[j] += v;
+            counts[j]++;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long -> int map with linear probing over two primitive
+ * arrays, for id -> row lookups on indexes with millions of rows where a
+ * HashMap&lt;Long, Integer&gt; would cost ~50 bytes and two objects per entry.
+ * Values must be non-negative; {@link #get} returns -1 for absent keys. Not
+ * thread-safe for writers; safe to share once fully built.
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    public LongIntHashMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new int[cap];
+        Arrays.fill(keys, EMPTY);
+        mask = cap - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Associates value with key, replacing any previous value. */
+    public void put(long key, int value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Reserved key");
+        if (value < 0) throw new IllegalArgumentException("Values must be >= 0");
+        if ((size + 1) * 2 > keys.length) grow();
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /** Keeps the first value stored for key; returns false if key was present. */
+    public boolean putIfAbsent(long key, int value) {
+        if (get(key) >= 0) return false;
+        put(key, value);
+        return true;
+    }
+
+    public int get(long key) {
+        int slot = slot(key);
+        while (true) {
+            long k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == EMPTY) return -1;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int slot(long key) {
+        // Murmur3 finaliser so sequential ids spread across the table
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
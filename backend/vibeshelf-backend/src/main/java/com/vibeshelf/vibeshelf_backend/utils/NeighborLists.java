@@ -0,0 +1,217 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed top-k "more like this" rows for every row of a vibe index,
+ * stored as a flat int32 matrix (k entries per row, -1 padded) in a mapped
+ * file so a lookup is a single slice read.
+ *
+ * <pre>
+ * offset  size  field
+ *      0     8  magic "VIBENBR\0"
+ *      8     4  format version (1)
+ *     12     4  k
+ *     16     8  count
+ *     24     8  fingerprint of the vibe index the lists were computed from
+ *     32    32  reserved, zero
+ *     64        int32[count][k]
+ * </pre>
+ */
+public final class NeighborLists {
+
+    public static final byte[] MAGIC = "VIBENBR\0".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+
+    // Query rows scored together against each block of candidate rows
+    private static final int QUERY_BLOCK = 32;
+    // Candidate rows copied off-heap per block
+    private static final int CANDIDATE_BLOCK = 256;
+
+    private final int k;
+    private final int count;
+    private final long fingerprint;
+    private final IntBuffer rows;
+
+    private NeighborLists(int k, int count, long fingerprint, IntBuffer rows) {
+        this.k = k;
+        this.count = count;
+        this.fingerprint = fingerprint;
+        this.rows = rows;
+    }
+
+    public int k() {
+        return k;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public long fingerprint() {
+        return fingerprint;
+    }
+
+    /** Copies up to k neighbour rows of row into dst, best first; returns how many. */
+    public int neighbors(int row, int[] dst) {
+        int n = Math.min(k, dst.length);
+        rows.get(row * k, dst, 0, n);
+        for (int i = 0; i < n; i++) {
+            if (dst[i] < 0) return i;
+        }
+        return n;
+    }
+
+    public static NeighborLists open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) throw new IOException("Truncated neighbour file: " + file);
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC) || header.getInt(8) != VERSION) {
+                throw new IOException("Not a version " + VERSION + " neighbour file: " + file);
+            }
+            int k = header.getInt(12);
+            long count = header.getLong(16);
+            long fingerprint = header.getLong(24);
+            long bytes = count * k * Integer.BYTES;
+            if (k <= 0 || count < 0 || count * k > Integer.MAX_VALUE || HEADER_BYTES + bytes > ch.size()) {
+                throw new IOException("Corrupt neighbour file header: " + file);
+            }
+            IntBuffer rows = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, bytes)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+            return new NeighborLists(k, (int) count, fingerprint, rows);
+        }
+    }
+
+    /** Writes to a temp file and renames it over file so readers never map a partial file. */
+    public static void write(Path file, int k, long fingerprint, int[] neighbors) throws IOException {
+        int count = neighbors.length / k;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).putInt(VERSION).putInt(k).putLong(count).putLong(fingerprint);
+            header.clear();
+            while (header.hasRemaining()) ch.write(header);
+            ByteBuffer body = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < neighbors.length; i++) {
+                if (!body.hasRemaining()) {
+                    body.flip();
+                    while (body.hasRemaining()) ch.write(body);
+                    body.clear();
+                }
+                body.putInt(neighbors[i]);
+            }
+            body.flip();
+            while (body.hasRemaining()) ch.write(body);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Exact top-k neighbours of every row (excluding itself). Query rows are
+     * split fork/join style; each leaf scores a block of queries against one
+     * block of candidates at a time so every candidate row copied off-heap is
+     * reused QUERY_BLOCK times. O(n^2 * dim): meant for catalogues up to a few
+     * hundred thousand books.
+     */
+    public static int[] computeExact(VectorStore store, int k, ForkJoinPool pool) {
+        int[] out = new int[store.count() * k];
+        Arrays.fill(out, -1);
+        pool.invoke(new ExactTask(store, k, out, 0, store.count()));
+        return out;
+    }
+
+    /** Top-k neighbours of every row via an HNSW graph, one row per parallel task. */
+    public static int[] computeApproximate(VectorStore store, HnswIndex graph, int k, ForkJoinPool pool) {
+        int count = store.count();
+        int[] out = new int[count * k];
+        Arrays.fill(out, -1);
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(row -> {
+            float[] q = new float[store.dim()];
+            store.get(row, q);
+            TopK top = graph.search(q, k, Math.max(graph.getEfSearch(), 2 * k), row);
+            drain(top, out, row, k, count);
+        })).join();
+        return out;
+    }
+
+    // Copies a heap into row's slot, dropping nodes past count (books added to the graph later)
+    private static void drain(TopK top, int[] out, int row, int k, int count) {
+        int[] r = new int[top.size()];
+        float[] s = new float[top.size()];
+        int n = top.drainSorted(r, s);
+        int j = 0;
+        for (int i = 0; i < n && j < k; i++) {
+            if (r[i] < count) out[row * k + j++] = r[i];
+        }
+    }
+
+    private static final class ExactTask extends RecursiveAction {
+        private final VectorStore store;
+        private final int k;
+        private final int[] out;
+        private final int from;
+        private final int to;
+
+        ExactTask(VectorStore store, int k, int[] out, int from, int to) {
+            this.store = store;
+            this.k = k;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > QUERY_BLOCK) {
+                // Split on a block boundary so leaves stay QUERY_BLOCK rows wide
+                int mid = from + ((to - from) / 2 + QUERY_BLOCK - 1) / QUERY_BLOCK * QUERY_BLOCK;
+                invokeAll(new ExactTask(store, k, out, from, mid), new ExactTask(store, k, out, mid, to));
+                return;
+            }
+            int dim = store.dim();
+            int count = store.count();
+            int nq = to - from;
+            float[] queries = new float[nq * dim];
+            float[] v = new float[dim];
+            for (int i = 0; i < nq; i++) {
+                store.get(from + i, v);
+                System.arraycopy(v, 0, queries, i * dim, dim);
+            }
+            TopK[] tops = new TopK[nq];
+            for (int i = 0; i < nq; i++) tops[i] = new TopK(k);
+            float[] block = new float[CANDIDATE_BLOCK * dim];
+            int row = 0;
+            while (row < count) {
+                int n = store.copyRows(row, Math.min(CANDIDATE_BLOCK, count - row), block);
+                for (int q = 0; q < nq; q++) {
+                    int self = from + q;
+                    TopK top = tops[q];
+                    for (int c = 0; c < n; c++) {
+                        int r = row + c;
+                        if (r == self) continue;
+                        top.offer(r, VectorStore.dot(queries, q * dim, block, c * dim, dim));
+                    }
+                }
+                row += n;
+            }
+            for (int q = 0; q < nq; q++) drain(tops[q], out, from + q, k, count);
+        }
+    }
+}
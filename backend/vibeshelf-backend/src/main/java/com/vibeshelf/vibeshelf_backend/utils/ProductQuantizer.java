@@ -0,0 +1,184 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Product quantisation: each vector is split into {@code subspaces} equal
+ * slices and every slice is replaced by the index of its nearest centroid in
+ * a per-subspace codebook of up to 256 entries trained with k-means, so a row
+ * costs one byte per subspace (384 dims / 96 subspaces = 16x smaller than
+ * float32). Queries are scored through a lookup table holding the dot product
+ * of each query slice with every centroid, i.e. one table read per subspace.
+ */
+public final class ProductQuantizer implements QuantizedVectors {
+
+    private static final int MAX_CENTROIDS = 256;
+
+    private final int dim;
+    private final int count;
+    private final int subspaces;
+    private final int subDim;
+    private final int centroids;
+    // codebooks[s] holds centroids x subDim floats for subspace s
+    private final float[][] codebooks;
+    private final int rowsPerSegment;
+    private final byte[][] codes;
+
+    private ProductQuantizer(int dim, int count, int subspaces, int centroids, float[][] codebooks,
+                             int rowsPerSegment, byte[][] codes) {
+        this.dim = dim;
+        this.count = count;
+        this.subspaces = subspaces;
+        this.subDim = dim / subspaces;
+        this.centroids = centroids;
+        this.codebooks = codebooks;
+        this.rowsPerSegment = rowsPerSegment;
+        this.codes = codes;
+    }
+
+    /**
+     * Train codebooks on a random sample of rows (one k-means per subspace, run
+     * in parallel) and encode every row.
+     */
+    public static ProductQuantizer train(VectorStore src, int subspaces, int sampleSize, int iterations,
+                                         ForkJoinPool pool, long seed) {
+        int dim = src.dim();
+        int count = src.count();
+        if (subspaces < 1 || dim % subspaces != 0) {
+            throw new IllegalArgumentException(dim + " dims cannot be split into " + subspaces + " subspaces");
+        }
+        if (count == 0) throw new IllegalArgumentException("Nothing to train on");
+        int subDim = dim / subspaces;
+
+        int samples = Math.min(count, Math.max(sampleSize, 1));
+        float[] sample = new float[samples * dim];
+        Random rnd = new Random(seed);
+        float[] v = new float[dim];
+        for (int i = 0; i < samples; i++) {
+            src.get(samples == count ? i : rnd.nextInt(count), v);
+            System.arraycopy(v, 0, sample, i * dim, dim);
+        }
+        int k = Math.min(MAX_CENTROIDS, samples);
+        float[][] codebooks = new float[subspaces][];
+        pool.submit(() -> IntStream.range(0, subspaces).parallel().forEach(s ->
+            codebooks[s] = kMeans(sample, samples, dim, s * subDim, subDim, k, iterations, new Random(seed + s))
+        )).join();
+
+        int rowsPerSegment = Integer.MAX_VALUE / subspaces;
+        int segmentCount = Math.max(1, (count + rowsPerSegment - 1) / rowsPerSegment);
+        byte[][] codes = new byte[segmentCount][];
+        for (int s = 0; s < segmentCount; s++) {
+            codes[s] = new byte[Math.min(rowsPerSegment, count - s * rowsPerSegment) * subspaces];
+        }
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(row -> {
+            float[] vec = new float[dim];
+            src.get(row, vec);
+            byte[] seg = codes[row / rowsPerSegment];
+            int off = (row % rowsPerSegment) * subspaces;
+            for (int s = 0; s < subspaces; s++) {
+                seg[off + s] = (byte) nearest(codebooks[s], k, subDim, vec, s * subDim);
+            }
+        })).join();
+        return new ProductQuantizer(dim, count, subspaces, k, codebooks, rowsPerSegment, codes);
+    }
+
+    // Lloyd's k-means on one slice of the sample; empty clusters are re-seeded from a random point
+    private static float[] kMeans(float[] sample, int n, int dim, int offset, int subDim, int k,
+                                  int iterations, Random rnd) {
+        float[] centers = new float[k * subDim];
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = 0; i < k; i++) {
+            int j = i + rnd.nextInt(n - i);
+            int t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+            System.arraycopy(sample, perm[i] * dim + offset, centers, i * subDim, subDim);
+        }
+        int[] assign = new int[n];
+        float[] sums = new float[k * subDim];
+        int[] sizes = new int[k];
+        for (int it = 0; it < iterations; it++) {
+            for (int i = 0; i < n; i++) {
+                assign[i] = nearest(centers, k, subDim, sample, i * dim + offset);
+            }
+            Arrays.fill(sums, 0f);
+            Arrays.fill(sizes, 0);
+            for (int i = 0; i < n; i++) {
+                int c = assign[i];
+                sizes[c]++;
+                for (int d = 0; d < subDim; d++) sums[c * subDim + d] += sample[i * dim + offset + d];
+            }
+            for (int c = 0; c < k; c++) {
+                if (sizes[c] == 0) {
+                    System.arraycopy(sample, rnd.nextInt(n) * dim + offset, centers, c * subDim, subDim);
+                    continue;
+                }
+                for (int d = 0; d < subDim; d++) centers[c * subDim + d] = sums[c * subDim + d] / sizes[c];
+            }
+        }
+        return centers;
+    }
+
+    // Index of the centroid with the smallest squared L2 distance to v[off..off+subDim)
+    private static int nearest(float[] centers, int k, int subDim, float[] v, int off) {
+        int best = 0;
+        float bestDist = Float.POSITIVE_INFINITY;
+        for (int c = 0; c < k; c++) {
+            float dist = 0f;
+            int base = c * subDim;
+            for (int d = 0; d < subDim; d++) {
+                float diff = v[off + d] - centers[base + d];
+                dist += diff * diff;
+            }
+            if (dist < bestDist) {
+                bestDist = dist;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Override
+    public int dim() {
+        return dim;
+    }
+
+    @Override
+    public long sizeBytes() {
+        return (long) count * subspaces + (long) subspaces * centroids * subDim * Float.BYTES;
+    }
+
+    @Override
+    public String kind() {
+        return "pq" + subspaces + "x" + centroids;
+    }
+
+    @Override
+    public Scorer scorer(float[] query) {
+        float[] lut = new float[subspaces * MAX_CENTROIDS];
+        for (int s = 0; s < subspaces; s++) {
+            float[] book = codebooks[s];
+            for (int c = 0; c < centroids; c++) {
+                lut[s * MAX_CENTROIDS + c] = VectorStore.dot(query, s * subDim, book, c * subDim, subDim);
+            }
+        }
+        return row -> {
+            byte[] seg = codes[row / rowsPerSegment];
+            int off = (row % rowsPerSegment) * subspaces;
+            float score = 0f;
+            for (int s = 0; s < subspaces; s++) {
+                score += lut[s * MAX_CENTROIDS + (seg[off + s] & 0xFF)];
+            }
+            return score;
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Two-phase top-K search: a fork/join scan over {@link QuantizedVectors}
+ * keeps the best {@code k * rerankFactor} approximate candidates, which are
+ * then rescored against the full-precision {@link VectorStore}. Only the
+ * rerank step touches float32 rows, so those can stay memory-mapped.
+ */
+public final class QuantizedVectorSearch {
+
+    private static final int LEAF_ROWS = 4096;
+
+    private final QuantizedVectors codes;
+    private final VectorStore full;
+    private final ForkJoinPool pool;
+    private final int rerankFactor;
+
+    public QuantizedVectorSearch(QuantizedVectors codes, VectorStore full, ForkJoinPool pool, int rerankFactor) {
+        if (codes.count() != full.count() || codes.dim() != full.dim()) {
+            throw new IllegalArgumentException("Quantized codes do not match the vector store");
+        }
+        this.codes = codes;
+        this.full = full;
+        this.pool = pool;
+        this.rerankFactor = Math.max(1, rerankFactor);
+    }
+
+    public QuantizedVectors codes() {
+        return codes;
+    }
+
+    /** Approximate scores only, without the rerank (used to report recall loss). */
+    public TopK searchApproximate(float[] query, int k, int excludeRow) {
+        checkQuery(query);
+        return pool.invoke(new Leaf(codes.scorer(query), k, excludeRow, 0, codes.count()));
+    }
+
+    /**
+     * @param query      unit-length query vector
+     * @param k          number of results
+     * @param excludeRow row to skip, or -1
+     */
+    public TopK search(float[] query, int k, int excludeRow) {
+        TopK candidates = searchApproximate(query, k * rerankFactor, excludeRow);
+        int n = candidates.size();
+        int[] rows = new int[n];
+        float[] ignored = new float[n];
+        candidates.drainSorted(rows, ignored);
+        TopK top = new TopK(k);
+        float[] v = new float[full.dim()];
+        for (int i = 0; i < n; i++) {
+            full.get(rows[i], v);
+            top.offer(rows[i], VectorStore.dot(query, 0, v, 0, v.length));
+        }
+        return top;
+    }
+
+    private void checkQuery(float[] query) {
+        if (query.length != codes.dim()) {
+            throw new IllegalArgumentException("Query has " + query.length + " dims, index has " + codes.dim());
+        }
+    }
+
+    private static final class Leaf extends RecursiveTask<TopK> {
+        private final QuantizedVectors.Scorer scorer;
+        private final int k;
+        private final int excludeRow;
+        private final int from;
+        private final int to;
+
+        Leaf(QuantizedVectors.Scorer scorer, int k, int excludeRow, int from, int to) {
+            this.scorer = scorer;
+            this.k = k;
+            this.excludeRow = excludeRow;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TopK compute() {
+            if (to - from > LEAF_ROWS) {
+                int mid = (from + to) >>> 1;
+                Leaf left = new Leaf(scorer, k, excludeRow, from, mid);
+                left.fork();
+                TopK right = new Leaf(scorer, k, excludeRow, mid, to).compute();
+                right.addAll(left.join());
+                return right;
+            }
+            TopK top = new TopK(k);
+            for (int r = from; r < to; r++) {
+                if (r == excludeRow) continue;
+                top.offer(r, scorer.score(r));
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+/**
+ * Compressed copy of a {@link VectorStore} that can score a full-precision
+ * query against every row without decompressing it (asymmetric distance
+ * computation). Scores approximate the cosine similarity, so callers are
+ * expected to rerank the best candidates against the original vectors.
+ */
+public interface QuantizedVectors {
+
+    int count();
+
+    int dim();
+
+    /** Heap footprint of the codes plus any codebooks, in bytes. */
+    long sizeBytes();
+
+    /** Short name for status output ("int8", "pq96x256", ...). */
+    String kind();
+
+    /**
+     * Prepare a scorer for one query. The scorer is immutable, so a single
+     * instance can be shared by every worker scanning that query.
+     */
+    Scorer scorer(float[] query);
+
+    @FunctionalInterface
+    interface Scorer {
+        float score(int row);
+    }
+}
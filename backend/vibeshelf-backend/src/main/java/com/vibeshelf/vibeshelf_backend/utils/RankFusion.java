@@ -0,0 +1,51 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reciprocal-rank fusion: an item at 0-based rank r in ranking i scores
+ * weights[i] / (k + r + 1), summed over the rankings it appears in. Only
+ * ranks are used, so rankings whose scores are not comparable (LIKE matches
+ * have none, cosine scores cluster near each other) can be merged without
+ * calibration; k damps the advantage of the very top ranks (60 is the usual
+ * choice).
+ */
+public final class RankFusion {
+
+    private RankFusion() {
+    }
+
+    /**
+     * Fused order of the keys in rankings (each best first, duplicates within
+     * one ranking ignored after the first). Returns keys best first; fused
+     * scores are written to outScores when it is non-null.
+     */
+    public static List<String> reciprocalRank(List<List<String>> rankings, double[] weights, int k,
+                                              Map<String, Double> outScores) {
+        if (weights.length != rankings.size()) throw new IllegalArgumentException("One weight per ranking");
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, Integer> firstSeen = new HashMap<>();
+        for (int i = 0; i < rankings.size(); i++) {
+            List<String> ranking = rankings.get(i);
+            if (ranking == null) continue;
+            Map<String, Boolean> seen = new HashMap<>();
+            for (int r = 0; r < ranking.size(); r++) {
+                String key = ranking.get(r);
+                if (key == null || seen.put(key, Boolean.TRUE) != null) continue;
+                scores.merge(key, weights[i] / (k + r + 1), Double::sum);
+                firstSeen.putIfAbsent(key, firstSeen.size());
+            }
+        }
+        List<String> out = new ArrayList<>(scores.keySet());
+        // Ties (same ranks in mirrored legs) keep the order keys were first seen
+        out.sort((a, b) -> {
+            int c = Double.compare(scores.get(b), scores.get(a));
+            return c != 0 ? c : Integer.compare(firstSeen.get(a), firstSeen.get(b));
+        });
+        if (outScores != null) outScores.putAll(scores);
+        return out;
+    }
+}
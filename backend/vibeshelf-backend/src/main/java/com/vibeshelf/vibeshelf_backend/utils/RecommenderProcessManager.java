@@ -0,0 +1,140 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Supervises the Python recommender sidecar as a child process. Call
+ * {@link #supervise()} periodically: it starts the process if it is not
+ * running (with exponential backoff between attempts so a crash loop does not
+ * spin), and restarts it after maxFailures health checks fail in a row. Health
+ * checks are skipped during the startup grace period while the model loads.
+ */
+public class RecommenderProcessManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommenderProcessManager.class);
+
+    private static final long MIN_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final List<String> command;
+    private final File workDir;
+    private final File logFile;
+    private final BooleanSupplier healthCheck;
+    private final int maxFailures;
+    private final long startupGraceMs;
+
+    private Process process;
+    private long startedAt;
+    private long nextStartAt;
+    private long backoffMs = MIN_BACKOFF_MS;
+    private int consecutiveFailures;
+    private int starts;
+    private boolean healthy;
+
+    public RecommenderProcessManager(List<String> command, File workDir, File logFile, BooleanSupplier healthCheck,
+                                     int maxFailures, long startupGraceMs) {
+        this.command = List.copyOf(command);
+        this.workDir = workDir;
+        this.logFile = logFile;
+        this.healthCheck = healthCheck;
+        this.maxFailures = Math.max(1, maxFailures);
+        this.startupGraceMs = startupGraceMs;
+    }
+
+    public synchronized void start() {
+        if (isRunning()) return;
+        try {
+            ProcessBuilder pb = new ProcessBuilder(command).directory(workDir).redirectErrorStream(true);
+            if (logFile != null) pb.redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+            else pb.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+            process = pb.start();
+            starts++;
+            startedAt = System.currentTimeMillis();
+            consecutiveFailures = 0;
+            healthy = false;
+            logger.info("Started recommender sidecar (pid {}): {}", process.pid(), String.join(" ", command));
+        } catch (IOException e) {
+            logger.warn("Could not start recommender sidecar: {}", e.getMessage());
+            scheduleRetry();
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return process != null && process.isAlive();
+    }
+
+    /** Last health check result (false until the first check passes). */
+    public synchronized boolean isHealthy() {
+        return healthy && isRunning();
+    }
+
+    public synchronized void stop() {
+        if (process == null) return;
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Stopped recommender sidecar");
+        process = null;
+        healthy = false;
+    }
+
+    /** One supervision step: (re)start when down, health-check when up. */
+    public synchronized void supervise() {
+        long now = System.currentTimeMillis();
+        if (!isRunning()) {
+            if (process != null) {
+                logger.warn("Recommender sidecar exited with code {}", process.exitValue());
+                process = null;
+                healthy = false;
+                scheduleRetry();
+            }
+            if (now >= nextStartAt) {
+                if (starts > 0) logger.info("Restarting recommender sidecar");
+                start();
+            }
+            return;
+        }
+        if (healthCheck.getAsBoolean()) {
+            if (!healthy) logger.info("Recommender sidecar is healthy");
+            healthy = true;
+            consecutiveFailures = 0;
+            backoffMs = MIN_BACKOFF_MS;
+            return;
+        }
+        healthy = false;
+        if (now - startedAt < startupGraceMs) return;
+        if (++consecutiveFailures >= maxFailures) {
+            logger.warn("Recommender sidecar failed {} health checks; restarting", consecutiveFailures);
+            stop();
+            scheduleRetry();
+        }
+    }
+
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("running", isRunning());
+        out.put("healthy", isHealthy());
+        out.put("pid", isRunning() ? process.pid() : null);
+        out.put("restarts", Math.max(0, starts - 1));
+        out.put("consecutiveFailures", consecutiveFailures);
+        return out;
+    }
+
+    private void scheduleRetry() {
+        nextStartAt = System.currentTimeMillis() + backoffMs;
+        backoffMs = Math.min(MAX_BACKOFF_MS, backoffMs * 2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded multi-producer, single-consumer ring buffer without locks. Each
+ * slot carries a sequence number: a producer claims a slot with one CAS on the
+ * tail and publishes by advancing the slot's sequence, and the consumer takes
+ * slots in order as they are published. offer never blocks; a full buffer
+ * makes it return false so the caller can drop or count the element.
+ */
+public final class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> items;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer thread moves head
+    private volatile long head;
+
+    /** capacity is rounded up to a power of two. */
+    public RingBuffer(int capacity) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Add e if there is room; safe from any number of threads. */
+    public boolean offer(E e) {
+        long t = tail.get();
+        while (true) {
+            int slot = (int) t & mask;
+            long seq = sequences.get(slot);
+            if (seq == t) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    items.lazySet(slot, e);
+                    sequences.set(slot, t + 1);
+                    return true;
+                }
+                t = tail.get();
+            } else if (seq < t) {
+                return false; // consumer has not freed this slot yet: full
+            } else {
+                t = tail.get(); // another producer took it
+            }
+        }
+    }
+
+    /** Next published element, or null; consumer thread only. */
+    public E poll() {
+        long h = head;
+        int slot = (int) h & mask;
+        if (sequences.get(slot) != h + 1) return null;
+        E e = items.get(slot);
+        items.lazySet(slot, null);
+        sequences.set(slot, h + mask + 1);
+        head = h + 1;
+        return e;
+    }
+
+    /** Hand up to max published elements to sink; consumer thread only. */
+    public int drain(Consumer<? super E> sink, int max) {
+        int n = 0;
+        E e;
+        while (n < max && (e = poll()) != null) {
+            sink.accept(e);
+            n++;
+        }
+        return n;
+    }
+
+    /** Approximate number of elements waiting. */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head));
+    }
+}
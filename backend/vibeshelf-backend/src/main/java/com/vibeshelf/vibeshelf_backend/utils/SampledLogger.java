@@ -0,0 +1,133 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-category logger for hot paths. debug/info lines are sampled (a rate
+ * of 0.01 keeps about one in a hundred), warn/error lines are rate-limited
+ * per second with a count of what was suppressed, and nothing is allocated
+ * when the level is off or the line is not sampled: methods have fixed
+ * arities (no varargs array) and check the level before touching the
+ * arguments. Callers formatting primitives should guard with
+ * {@link #shouldLogInfo()} / {@link #shouldLogDebug()} to avoid boxing.
+ *
+ * One instance per category, shared; rates can be changed at runtime.
+ */
+public final class SampledLogger {
+
+    private static final Map<String, SampledLogger> CATEGORIES = new ConcurrentHashMap<>();
+
+    private final Logger logger;
+    private volatile double sampleRate = 1.0;
+    private volatile int errorsPerSecond = 10;
+
+    // Error rate limiting: count within the current one-second window
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger windowCount = new AtomicInteger();
+    private final AtomicLong suppressed = new AtomicLong();
+
+    private SampledLogger(String category) {
+        this.logger = LoggerFactory.getLogger("vibeshelf." + category);
+    }
+
+    /** Shared logger for a category (logged under "vibeshelf.&lt;category&gt;"). */
+    public static SampledLogger forCategory(String category) {
+        return CATEGORIES.computeIfAbsent(category, SampledLogger::new);
+    }
+
+    /** Apply a sample rate to a category, creating it if needed. */
+    public static void configure(String category, double sampleRate, int errorsPerSecond) {
+        SampledLogger l = forCategory(category);
+        l.sampleRate = sampleRate;
+        l.errorsPerSecond = errorsPerSecond;
+    }
+
+    public static Map<String, SampledLogger> categories() {
+        return CATEGORIES;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.get();
+    }
+
+    private boolean sampled() {
+        double rate = sampleRate;
+        return rate >= 1.0 || (rate > 0.0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    public boolean shouldLogDebug() {
+        return logger.isDebugEnabled() && sampled();
+    }
+
+    public boolean shouldLogInfo() {
+        return logger.isInfoEnabled() && sampled();
+    }
+
+    public void debug(String format, Object a) {
+        if (shouldLogDebug()) logger.debug(format, a);
+    }
+
+    public void debug(String format, Object a, Object b) {
+        if (shouldLogDebug()) logger.debug(format, a, b);
+    }
+
+    public void info(String format, Object a, Object b) {
+        if (shouldLogInfo()) logger.info(format, a, b);
+    }
+
+    public void info(String format, Object a, Object b, Object c, Object d) {
+        if (shouldLogInfo()) logger.info(format, a, b, c, d);
+    }
+
+    /** Unsampled info, for lines that must not be lost (slow requests); the caller bounds their volume. */
+    public void infoAlways(String format, Object a, Object b, Object c, Object d) {
+        if (logger.isInfoEnabled()) logger.info(format, a, b, c, d);
+    }
+
+    /** Unsampled, rate-limited warning. */
+    public void warn(String format, Object a, Object b) {
+        if (!logger.isWarnEnabled() || !permitError()) return;
+        reportSuppressed();
+        logger.warn(format, a, b);
+    }
+
+    public void warn(String format, Object a, Object b, Object c, Object d) {
+        if (!logger.isWarnEnabled() || !permitError()) return;
+        reportSuppressed();
+        logger.warn(format, a, b, c, d);
+    }
+
+    /** Unsampled, rate-limited error with stack trace. */
+    public void error(String message, Throwable t) {
+        if (!logger.isErrorEnabled() || !permitError()) return;
+        reportSuppressed();
+        logger.error(message, t);
+    }
+
+    private void reportSuppressed() {
+        long dropped = suppressed.getAndSet(0);
+        if (dropped > 0) logger.warn("{} similar messages suppressed", dropped);
+    }
+
+    private boolean permitError() {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+        if (now - start >= 1000 && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        if (windowCount.incrementAndGet() <= errorsPerSecond) return true;
+        suppressed.incrementAndGet();
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded pool of reusable scratch buffers. Unlike a ThreadLocal, the
+ * number of buffers kept alive is fixed by maxIdle rather than by how many
+ * threads ever touched the owner: acquire hands out an idle buffer or makes a
+ * new one, and release keeps it only while the pool has room. A buffer that
+ * is not released (say the caller threw) is simply left to the GC.
+ */
+public final class ScratchPool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ScratchPool(int maxIdle, Supplier<T> factory) {
+        if (maxIdle < 1) throw new IllegalArgumentException("maxIdle must be >= 1");
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+        this.factory = factory;
+    }
+
+    /** Idle buffers kept per CPU when the owner has no better bound. */
+    public static int defaultMaxIdle() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public T acquire() {
+        T scratch = idle.poll();
+        return scratch != null ? scratch : factory.get();
+    }
+
+    /** Return a buffer the next caller can reuse as is; dropped when the pool is full. */
+    public void release(T scratch) {
+        idle.offer(scratch);
+    }
+
+    public int idle() {
+        return idle.size();
+    }
+}
@@ -0,0 +1,317 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Sparse TF-IDF vectors over hashed terms, for similarity without the
+ * embedding model. Terms are hashed into 2^hashBits features (no vocabulary
+ * to store), weighted (1 + log tf) * idf and L2-normalised, so cosine is a
+ * sparse dot product. Documents are stored row-wise in CSR arrays and the same
+ * weights are stored term-wise as postings, so a query only touches the
+ * documents that share a term with it.
+ *
+ * The index itself is immutable. Callers that follow catalog edits
+ * {@link #vectorize} changed texts with the built idf, score them next to the
+ * index with {@link SparseVector#dot}, and pass the superseded rows as the
+ * skip set of {@link #search}.
+ */
+public final class TfIdfIndex {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "been", "but", "by", "for", "from", "had", "has", "have",
+        "he", "her", "his", "in", "into", "is", "it", "its", "of", "on", "or", "she", "that", "the", "their",
+        "them", "they", "this", "to", "was", "were", "which", "who", "will", "with", "you", "your", "not",
+        "one", "all", "can", "more", "when", "what", "there", "about", "out", "up", "so", "if", "him", "we");
+
+    private static final int MAX_TOKEN_LENGTH = 30;
+
+    private final int mask;
+    private final int count;
+    private final float[] idf;
+    // Row r: terms docTerms[docStart[r]..docStart[r+1]) ascending, with docWeights
+    private final int[] docStart;
+    private final int[] docTerms;
+    private final float[] docWeights;
+    // Term t: postDocs[postStart[t]..postStart[t+1]) ascending, with postWeights
+    private final int[] postStart;
+    private final int[] postDocs;
+    private final float[] postWeights;
+    // Dense per-document accumulators, zeroed again after each query
+    private final ScratchPool<float[]> scratch;
+
+    private TfIdfIndex(int mask, int count, float[] idf, int[] docStart, int[] docTerms, float[] docWeights,
+                       int[] postStart, int[] postDocs, float[] postWeights) {
+        this.mask = mask;
+        this.count = count;
+        this.idf = idf;
+        this.docStart = docStart;
+        this.docTerms = docTerms;
+        this.docWeights = docWeights;
+        this.postStart = postStart;
+        this.postDocs = postDocs;
+        this.postWeights = postWeights;
+        this.scratch = new ScratchPool<>(ScratchPool.defaultMaxIdle(), () -> new float[count]);
+    }
+
+    /**
+     * Index texts[i] as row i. Tokenising and weighting run in parallel on
+     * pool; texts may contain nulls (empty rows).
+     */
+    public static TfIdfIndex build(String[] texts, int hashBits, ForkJoinPool pool) {
+        if (hashBits < 8 || hashBits > 24) throw new IllegalArgumentException("hashBits must be in [8, 24]");
+        int features = 1 << hashBits;
+        int mask = features - 1;
+        int n = texts.length;
+
+        // Per row: distinct terms ascending, with sublinear tf
+        int[][] rowTerms = new int[n][];
+        float[][] rowWeights = new float[n][];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(r -> {
+            int[] hashed = hashTerms(texts[r], mask);
+            Arrays.sort(hashed);
+            int distinct = 0;
+            float[] tf = new float[hashed.length];
+            for (int i = 0; i < hashed.length; ) {
+                int j = i;
+                while (j < hashed.length && hashed[j] == hashed[i]) j++;
+                hashed[distinct] = hashed[i];
+                tf[distinct++] = 1f + (float) Math.log(j - i);
+                i = j;
+            }
+            rowTerms[r] = Arrays.copyOf(hashed, distinct);
+            rowWeights[r] = Arrays.copyOf(tf, distinct);
+        })).join();
+
+        int[] df = new int[features];
+        long nnz = 0;
+        for (int[] terms : rowTerms) {
+            for (int t : terms) df[t]++;
+            nnz += terms.length;
+        }
+        if (nnz > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many terms to index");
+        float[] idf = new float[features];
+        for (int t = 0; t < features; t++) {
+            idf[t] = (float) Math.log((n + 1.0) / (df[t] + 1.0)) + 1f;
+        }
+
+        int[] docStart = new int[n + 1];
+        for (int r = 0; r < n; r++) docStart[r + 1] = docStart[r] + rowTerms[r].length;
+        int[] docTerms = new int[(int) nnz];
+        float[] docWeights = new float[(int) nnz];
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(r -> {
+            int[] terms = rowTerms[r];
+            float[] w = rowWeights[r];
+            double norm = 0;
+            for (int i = 0; i < terms.length; i++) {
+                w[i] *= idf[terms[i]];
+                norm += (double) w[i] * w[i];
+            }
+            float inv = norm == 0 ? 0f : (float) (1.0 / Math.sqrt(norm));
+            int off = docStart[r];
+            for (int i = 0; i < terms.length; i++) {
+                docTerms[off + i] = terms[i];
+                docWeights[off + i] = w[i] * inv;
+            }
+            rowTerms[r] = null;
+            rowWeights[r] = null;
+        })).join();
+
+        int[] postStart = new int[features + 1];
+        for (int t = 0; t < features; t++) postStart[t + 1] = postStart[t] + df[t];
+        int[] fill = Arrays.copyOf(postStart, features);
+        int[] postDocs = new int[(int) nnz];
+        float[] postWeights = new float[(int) nnz];
+        for (int r = 0; r < n; r++) {
+            for (int i = docStart[r]; i < docStart[r + 1]; i++) {
+                int slot = fill[docTerms[i]]++;
+                postDocs[slot] = r;
+                postWeights[slot] = docWeights[i];
+            }
+        }
+        return new TfIdfIndex(mask, n, idf, docStart, docTerms, docWeights, postStart, postDocs, postWeights);
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** Non-zero (row, term) weights stored. */
+    public int nonZeros() {
+        return docTerms.length;
+    }
+
+    public long sizeBytes() {
+        return (long) idf.length * Float.BYTES + (long) (docStart.length + postStart.length) * Integer.BYTES
+            + 2L * docTerms.length * (Integer.BYTES + Float.BYTES);
+    }
+
+    /** Rows most similar to free text. */
+    public TopK query(String text, int k) {
+        return search(queryVector(text), k, -1, null);
+    }
+
+    /**
+     * Rows most similar to row, excluding itself. Only the row's maxTerms
+     * heaviest terms are used as the query, which bounds the postings walked.
+     */
+    public TopK moreLikeThis(int row, int k, int maxTerms) {
+        return search(rowVector(row, maxTerms), k, row, null);
+    }
+
+    /** Rows scored against q, leaving out excludeRow and any row set in skip (may be null). */
+    public TopK search(SparseVector q, int k, int excludeRow, BitSet skip) {
+        return score(q.terms, q.weights, q.terms.length, k, excludeRow, skip);
+    }
+
+    /** Free text weighted (1 + log tf) * idf; the query norm only scales every score equally, so it is skipped. */
+    public SparseVector queryVector(String text) {
+        int[] hashed = hashTerms(text, mask);
+        Arrays.sort(hashed);
+        int distinct = 0;
+        float[] w = new float[hashed.length];
+        for (int i = 0; i < hashed.length; ) {
+            int j = i;
+            while (j < hashed.length && hashed[j] == hashed[i]) j++;
+            hashed[distinct] = hashed[i];
+            w[distinct++] = (1f + (float) Math.log(j - i)) * idf[hashed[i]];
+            i = j;
+        }
+        return new SparseVector(Arrays.copyOf(hashed, distinct), Arrays.copyOf(w, distinct));
+    }
+
+    /** A text not in the index, weighted with the built idf and L2-normalised like the rows. */
+    public SparseVector vectorize(String text) {
+        SparseVector v = queryVector(text);
+        double norm = 0;
+        for (float w : v.weights) norm += (double) w * w;
+        float inv = norm == 0 ? 0f : (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < v.weights.length; i++) v.weights[i] *= inv;
+        return v;
+    }
+
+    /** The row's maxTerms heaviest terms, in term order. */
+    public SparseVector rowVector(int row, int maxTerms) {
+        int from = docStart[row];
+        int len = docStart[row + 1] - from;
+        int[] terms = Arrays.copyOfRange(docTerms, from, from + len);
+        float[] w = Arrays.copyOfRange(docWeights, from, from + len);
+        return SparseVector.heaviest(terms, w, len, maxTerms);
+    }
+
+    /** Sparse weights over hashed terms, ascending by term. */
+    public static final class SparseVector {
+        final int[] terms;
+        final float[] weights;
+
+        SparseVector(int[] terms, float[] weights) {
+            this.terms = terms;
+            this.weights = weights;
+        }
+
+        /** The maxTerms heaviest terms of this vector, for use as a "more like this" query. */
+        public SparseVector heaviest(int maxTerms) {
+            return heaviest(terms.clone(), weights.clone(), terms.length, maxTerms);
+        }
+
+        private static SparseVector heaviest(int[] terms, float[] w, int len, int maxTerms) {
+            if (len > maxTerms) {
+                float[] sorted = w.clone();
+                Arrays.sort(sorted);
+                float cutoff = sorted[len - maxTerms];
+                int kept = 0;
+                for (int i = 0; i < len && kept < maxTerms; i++) {
+                    if (w[i] >= cutoff) {
+                        terms[kept] = terms[i];
+                        w[kept++] = w[i];
+                    }
+                }
+                len = kept;
+            }
+            return new SparseVector(Arrays.copyOf(terms, len), Arrays.copyOf(w, len));
+        }
+
+        public float dot(SparseVector other) {
+            float sum = 0f;
+            for (int x = 0, y = 0; x < terms.length && y < other.terms.length; ) {
+                if (terms[x] < other.terms[y]) x++;
+                else if (terms[x] > other.terms[y]) y++;
+                else sum += weights[x++] * other.weights[y++];
+            }
+            return sum;
+        }
+
+        public int size() {
+            return terms.length;
+        }
+    }
+
+    private TopK score(int[] terms, float[] weights, int n, int k, int excludeRow, BitSet skip) {
+        float[] acc = scratch.acquire();
+        int[] touched = new int[64];
+        int touchedCount = 0;
+        for (int i = 0; i < n; i++) {
+            int t = terms[i];
+            float qw = weights[i];
+            for (int p = postStart[t]; p < postStart[t + 1]; p++) {
+                int doc = postDocs[p];
+                if (acc[doc] == 0f) {
+                    if (touchedCount == touched.length) touched = Arrays.copyOf(touched, touchedCount * 2);
+                    touched[touchedCount++] = doc;
+                }
+                acc[doc] += qw * postWeights[p];
+            }
+        }
+        TopK top = new TopK(Math.max(1, k));
+        for (int i = 0; i < touchedCount; i++) {
+            int doc = touched[i];
+            if (doc != excludeRow && acc[doc] > 0f && (skip == null || !skip.get(doc))) top.offer(doc, acc[doc]);
+            acc[doc] = 0f;
+        }
+        scratch.release(acc);
+        return top;
+    }
+
+    /** Hashed feature of every kept token in text, in order (with repeats). */
+    static int[] hashTerms(String text, int mask) {
+        if (text == null || text.isEmpty()) return new int[0];
+        int[][] out = {new int[32]};
+        int[] size = {0};
+        tokenize(text, h -> {
+            if (size[0] == out[0].length) out[0] = Arrays.copyOf(out[0], size[0] * 2);
+            out[0][size[0]++] = h & mask;
+        });
+        return Arrays.copyOf(out[0], size[0]);
+    }
+
+    /** Lower-cased letter/digit runs, minus stop words, as mixed 32-bit hashes. */
+    static void tokenize(String text, IntConsumer sink) {
+        StringBuilder token = new StringBuilder(16);
+        for (int i = 0, len = text.length(); i <= len; i++) {
+            char c = i < len ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (token.length() < MAX_TOKEN_LENGTH) token.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (token.length() >= 2) {
+                String t = token.toString();
+                if (!STOP_WORDS.contains(t)) sink.accept(mix(t.hashCode()));
+            }
+            token.setLength(0);
+        }
+    }
+
+    // MurmurHash3 finaliser: spreads String.hashCode bits before masking
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: deadlines are dropped into one of a fixed number of
+ * slots by tick, so scheduling is O(1) and each advance only looks at the
+ * slots for the ticks that passed, not at every pending key. Deadlines more
+ * than one revolution away stay in their slot until their round comes.
+ * Any number of threads may schedule; one thread advances.
+ *
+ * The wheel only reports that a key's deadline passed. Callers that can
+ * reschedule a key should check that the expiry is still current.
+ */
+public final class TimerWheel<K> {
+
+    private static final class Timeout<K> {
+        final K key;
+        final long deadlineTick;
+
+        Timeout(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    private final long tickMillis;
+    private final List<ConcurrentLinkedQueue<Timeout<K>>> slots;
+    private long lastTick;
+
+    public TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        if (tickMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("tickMillis and slotCount must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) slots.add(new ConcurrentLinkedQueue<>());
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    /** Report key once deadlineMillis has passed (rounded up to the next tick). */
+    public void schedule(K key, long deadlineMillis) {
+        long tick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        slot(tick).add(new Timeout<>(key, tick));
+    }
+
+    /** Hand every key whose deadline is at or before nowMillis to expired; returns how many. */
+    public int advance(long nowMillis, Consumer<K> expired) {
+        long nowTick = nowMillis / tickMillis;
+        if (nowTick <= lastTick) return 0;
+        // After a long pause one pass over every slot covers all the missed ticks
+        long ticks = Math.min(nowTick - lastTick, slots.size());
+        int[] count = new int[1];
+        for (long t = nowTick - ticks + 1; t <= nowTick; t++) {
+            slot(t).removeIf(timeout -> {
+                if (timeout.deadlineTick > nowTick) return false;
+                expired.accept(timeout.key);
+                count[0]++;
+                return true;
+            });
+        }
+        lastTick = nowTick;
+        return count[0];
+    }
+
+    private ConcurrentLinkedQueue<Timeout<K>> slot(long tick) {
+        return slots.get((int) Math.floorMod(tick, (long) slots.size()));
+    }
+
+    /** Scheduled timeouts not yet reported (walks every slot). */
+    public int size() {
+        int n = 0;
+        for (ConcurrentLinkedQueue<Timeout<K>> slot : slots) n += slot.size();
+        return n;
+    }
+}
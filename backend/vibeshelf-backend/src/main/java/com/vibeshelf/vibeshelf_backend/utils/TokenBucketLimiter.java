@@ -0,0 +1,78 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets keyed by string, in the GCRA form: each bucket is a single
+ * "theoretical arrival time" (TAT) updated with one CAS, so refill is lazy
+ * (computed from the clock on access, no timer) and there is no lock. A
+ * request is allowed when it would not push the TAT more than burst
+ * intervals past now. A bucket whose TAT is in the past is full, which is
+ * exactly what a missing bucket means, so idle buckets can be evicted
+ * without changing any decision.
+ */
+public final class TokenBucketLimiter {
+
+    /** Outcome of one acquire. */
+    public static final class Decision {
+        private final boolean allowed;
+        private final int remaining;
+        private final long retryAfterNanos;
+
+        public Decision(boolean allowed, int remaining, long retryAfterNanos) {
+            this.allowed = allowed;
+            this.remaining = remaining;
+            this.retryAfterNanos = retryAfterNanos;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /** Requests still allowed immediately after this one. */
+        public int getRemaining() {
+            return remaining;
+        }
+
+        /** When denied, how long until one request would be allowed. */
+        public long getRetryAfterNanos() {
+            return retryAfterNanos;
+        }
+    }
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Take one token from key's bucket, which refills one token every
+     * intervalNanos up to burst tokens.
+     */
+    public Decision tryAcquire(String key, long intervalNanos, int burst, long nowNanos) {
+        long tolerance = intervalNanos * burst;
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) tat = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = tat.get();
+            long base = current - nowNanos < 0 ? nowNanos : current;
+            long next = base + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > tolerance) {
+                return new Decision(false, 0, ahead - tolerance);
+            }
+            if (tat.compareAndSet(current, next)) {
+                return new Decision(true, (int) ((tolerance - ahead) / intervalNanos), 0);
+            }
+        }
+    }
+
+    /** Drop buckets that have refilled completely; returns how many were removed. */
+    public int evictIdle(long nowNanos) {
+        int before = buckets.size();
+        buckets.values().removeIf(tat -> tat.get() - nowNanos <= 0);
+        return Math.max(0, before - buckets.size());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+}
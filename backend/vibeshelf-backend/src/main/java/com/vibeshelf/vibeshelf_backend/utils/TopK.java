@@ -0,0 +1,99 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+/**
+ * Fixed-capacity min-heap of (row, score) pairs kept in primitive arrays.
+ * Retains the k highest scores offered; the weakest retained score sits at
+ * the root so {@link #offer} rejects most candidates with one comparison.
+ */
+public final class TopK {
+
+    private final int k;
+    private final int[] rows;
+    private final float[] scores;
+    private int size;
+
+    public TopK(int k) {
+        if (k < 1) throw new IllegalArgumentException("k must be >= 1");
+        this.k = k;
+        this.rows = new int[k];
+        this.scores = new float[k];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == k;
+    }
+
+    /** Lowest retained score, or -Infinity while the heap is not yet full. */
+    public float threshold() {
+        return size < k ? Float.NEGATIVE_INFINITY : scores[0];
+    }
+
+    public boolean offer(int row, float score) {
+        if (size < k) {
+            rows[size] = row;
+            scores[size] = score;
+            siftUp(size++);
+            return true;
+        }
+        if (score <= scores[0]) return false;
+        rows[0] = row;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    public void addAll(TopK other) {
+        for (int i = 0; i < other.size; i++) {
+            offer(other.rows[i], other.scores[i]);
+        }
+    }
+
+    /** Drains the heap into rows/scores ordered best-first; returns the count. */
+    public int drainSorted(int[] outRows, float[] outScores) {
+        int n = size;
+        for (int i = n - 1; i >= 0; i--) {
+            outRows[i] = rows[0];
+            outScores[i] = scores[0];
+            size--;
+            rows[0] = rows[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return n;
+    }
+
+    private void siftUp(int i) {
+        int row = rows[i];
+        float score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (scores[parent] <= score) break;
+            rows[i] = rows[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        rows[i] = row;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        int row = rows[i];
+        float score = scores[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && scores[right] < scores[child]) child = right;
+            if (score <= scores[child]) break;
+            rows[i] = rows[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        rows[i] = row;
+        scores[i] = score;
+    }
+}
@@ -0,0 +1,198 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Row-major float32 vectors held off-heap, either copied into direct buffers
+ * or mapped read-only from the export file. A single buffer is capped at 2 GB,
+ * so rows are split across segments of whole rows; with 384 dims one segment
+ * holds ~1.4M vectors.
+ */
+public final class VectorStore {
+
+    private final int dim;
+    private final int count;
+    private final int rowsPerSegment;
+    private final FloatBuffer[] segments;
+    private final boolean mapped;
+
+    private VectorStore(int dim, int count, FloatBuffer[] segments, int rowsPerSegment, boolean mapped) {
+        this.dim = dim;
+        this.count = count;
+        this.segments = segments;
+        this.rowsPerSegment = rowsPerSegment;
+        this.mapped = mapped;
+    }
+
+    public int dim() {
+        return dim;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    /** True when rows are a read-only file mapping rather than a copy. */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /** Size of the vectors in bytes (off-heap copy or file mapping). */
+    public long sizeBytes() {
+        return (long) count * dim * Float.BYTES;
+    }
+
+    /**
+     * Load a headerless little-endian float32 matrix (count = fileSize / (dim * 4))
+     * and L2-normalise each row so cosine similarity is a plain dot product.
+     */
+    public static VectorStore loadRawFloat32(Path file, int dim) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long rowBytes = (long) dim * Float.BYTES;
+            if (ch.size() % rowBytes != 0) {
+                throw new IOException("File size " + ch.size() + " is not a multiple of " + dim + " float32 values: " + file);
+            }
+            long rows = ch.size() / rowBytes;
+            if (rows > Integer.MAX_VALUE) throw new IOException("Too many vectors in " + file);
+            int count = (int) rows;
+            int rowsPerSegment = rowsPerSegment(dim);
+            int segmentCount = Math.max(1, (count + rowsPerSegment - 1) / rowsPerSegment);
+            FloatBuffer[] segments = new FloatBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                int segRows = Math.min(rowsPerSegment, count - s * rowsPerSegment);
+                ByteBuffer buf = ByteBuffer.allocateDirect((int) (segRows * rowBytes)).order(ByteOrder.LITTLE_ENDIAN);
+                while (buf.hasRemaining()) {
+                    if (ch.read(buf) < 0) throw new IOException("Unexpected end of file: " + file);
+                }
+                buf.flip();
+                segments[s] = buf.asFloatBuffer();
+            }
+            VectorStore store = new VectorStore(dim, count, segments, rowsPerSegment, false);
+            store.normalizeRows();
+            return store;
+        }
+    }
+
+    /**
+     * Memory-map the same headerless float32 file read-only instead of copying
+     * it, so pages are only resident while they are being read. Rows cannot be
+     * normalised in place, so the file must already hold unit vectors (as
+     * create_vibe_index.py writes them); a sample of rows is checked.
+     */
+    public static VectorStore mapRawFloat32(Path file, int dim) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long rowBytes = (long) dim * Float.BYTES;
+            if (ch.size() % rowBytes != 0) {
+                throw new IOException("File size " + ch.size() + " is not a multiple of " + dim + " float32 values: " + file);
+            }
+            long rows = ch.size() / rowBytes;
+            if (rows > Integer.MAX_VALUE) throw new IOException("Too many vectors in " + file);
+            int count = (int) rows;
+            VectorStore store = map(ch, 0, count, dim);
+            float[] v = new float[dim];
+            for (int r = 0; r < count; r += Math.max(1, count / 64)) {
+                store.get(r, v);
+                float norm = (float) Math.sqrt(dot(v, 0, v, 0, dim));
+                if (norm != 0f && Math.abs(norm - 1f) > 1e-3f) {
+                    throw new IOException("Row " + r + " of " + file + " is not unit length (" + norm + "); re-export it");
+                }
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Map count rows of dim float32 values starting at offset, one read-only
+     * mapping per segment. Mappings stay valid after the channel is closed.
+     */
+    static VectorStore map(FileChannel ch, long offset, int count, int dim) throws IOException {
+        long rowBytes = (long) dim * Float.BYTES;
+        int rowsPerSegment = rowsPerSegment(dim);
+        int segmentCount = Math.max(1, (count + rowsPerSegment - 1) / rowsPerSegment);
+        FloatBuffer[] segments = new FloatBuffer[segmentCount];
+        for (int s = 0; s < segmentCount; s++) {
+            int segRows = Math.max(0, Math.min(rowsPerSegment, count - s * rowsPerSegment));
+            segments[s] = ch.map(FileChannel.MapMode.READ_ONLY, offset + (long) s * rowsPerSegment * rowBytes, segRows * rowBytes)
+                .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        }
+        return new VectorStore(dim, count, segments, rowsPerSegment, true);
+    }
+
+    /** Copy an in-memory row-major matrix off-heap (normalising rows). */
+    public static VectorStore fromArray(float[] data, int dim) {
+        if (data.length % dim != 0) throw new IllegalArgumentException("Length is not a multiple of " + dim);
+        int count = data.length / dim;
+        int rowsPerSegment = rowsPerSegment(dim);
+        int segmentCount = Math.max(1, (count + rowsPerSegment - 1) / rowsPerSegment);
+        FloatBuffer[] segments = new FloatBuffer[segmentCount];
+        for (int s = 0; s < segmentCount; s++) {
+            int segRows = Math.min(rowsPerSegment, count - s * rowsPerSegment);
+            FloatBuffer buf = ByteBuffer.allocateDirect(segRows * dim * Float.BYTES).order(ByteOrder.nativeOrder()).asFloatBuffer();
+            buf.put(data, s * rowsPerSegment * dim, segRows * dim);
+            buf.flip();
+            segments[s] = buf;
+        }
+        VectorStore store = new VectorStore(dim, count, segments, rowsPerSegment, false);
+        store.normalizeRows();
+        return store;
+    }
+
+    static int rowsPerSegment(int dim) {
+        return Integer.MAX_VALUE / (dim * Float.BYTES);
+    }
+
+    /** Copy row into dst[0..dim). */
+    public void get(int row, float[] dst) {
+        segments[row / rowsPerSegment].get((row % rowsPerSegment) * dim, dst, 0, dim);
+    }
+
+    /**
+     * Bulk-copy up to n consecutive rows starting at row into dst (row-major).
+     * Stops at a segment boundary; returns the number of rows copied.
+     */
+    public int copyRows(int row, int n, float[] dst) {
+        int seg = row / rowsPerSegment;
+        int local = row % rowsPerSegment;
+        int rows = Math.min(n, Math.min(rowsPerSegment - local, count - row));
+        segments[seg].get(local * dim, dst, 0, rows * dim);
+        return rows;
+    }
+
+    private void normalizeRows() {
+        float[] v = new float[dim];
+        for (int r = 0; r < count; r++) {
+            get(r, v);
+            float norm = (float) Math.sqrt(dot(v, 0, v, 0, dim));
+            if (norm == 0f || Math.abs(norm - 1f) < 1e-4f) continue;
+            for (int i = 0; i < dim; i++) v[i] /= norm;
+            segments[r / rowsPerSegment].put((r % rowsPerSegment) * dim, v, 0, dim);
+        }
+    }
+
+    /**
+     * Dot product of a[aOff..aOff+len) and b[bOff..bOff+len). Four independent
+     * accumulators break the add dependency chain so the JIT can keep several
+     * multiply-adds in flight per cycle.
+     */
+    public static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        float s0 = 0f, s1 = 0f, s2 = 0f, s3 = 0f;
+        int i = 0;
+        int upper = len & ~3;
+        for (; i < upper; i += 4) {
+            s0 += a[aOff + i] * b[bOff + i];
+            s1 += a[aOff + i + 1] * b[bOff + i + 1];
+            s2 += a[aOff + i + 2] * b[bOff + i + 2];
+            s3 += a[aOff + i + 3] * b[bOff + i + 3];
+        }
+        for (; i < len; i++) {
+            s0 += a[aOff + i] * b[bOff + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -0,0 +1,80 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the exported vibe index: the embedding matrix plus the
+ * per-row display metadata written by books/create_vibe_index.py. Row r of
+ * {@link #vectors()} describes bookIds[r] / titles[r] / ...
+ */
+public final class VibeIndex {
+
+    private final VectorStore vectors;
+    private final long[] bookIds;   // books_canonical.id, or -1 when unknown
+    private final String[] titles;
+    private final String[] authors;
+    private final String[] covers;
+    private final Map<String, Integer> rowByTitle;
+    private final LongIntHashMap rowByBookId;
+
+    public VibeIndex(VectorStore vectors, long[] bookIds, String[] titles, String[] authors, String[] covers) {
+        if (bookIds.length != vectors.count()) {
+            throw new IllegalArgumentException("Row metadata has " + bookIds.length + " entries but index has " + vectors.count() + " vectors");
+        }
+        this.vectors = vectors;
+        this.bookIds = bookIds;
+        this.titles = titles;
+        this.authors = authors;
+        this.covers = covers;
+        this.rowByTitle = new HashMap<>(titles.length * 2);
+        for (int r = 0; r < titles.length; r++) {
+            if (titles[r] != null) rowByTitle.putIfAbsent(normalizeTitle(titles[r]), r);
+        }
+        this.rowByBookId = new LongIntHashMap(bookIds.length);
+        for (int r = 0; r < bookIds.length; r++) {
+            if (bookIds[r] >= 0) rowByBookId.putIfAbsent(bookIds[r], r);
+        }
+    }
+
+    public VectorStore vectors() {
+        return vectors;
+    }
+
+    public int size() {
+        return vectors.count();
+    }
+
+    public long bookId(int row) {
+        return bookIds[row];
+    }
+
+    public String title(int row) {
+        return titles[row];
+    }
+
+    public String author(int row) {
+        return authors[row];
+    }
+
+    public String cover(int row) {
+        return covers[row];
+    }
+
+    /** Row of the first book with this title (case/whitespace-insensitive), or -1. */
+    public int findRowByTitle(String title) {
+        if (title == null) return -1;
+        Integer row = rowByTitle.get(normalizeTitle(title));
+        return row == null ? -1 : row;
+    }
+
+    /** Row holding books_canonical.id bookId, or -1 if it is not indexed. */
+    public int findRowByBookId(long bookId) {
+        return rowByBookId.get(bookId);
+    }
+
+    public static String normalizeTitle(String title) {
+        return title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,105 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reader for the versioned binary vibe index written by
+ * books/create_vibe_index.py. All fields are little-endian:
+ *
+ * <pre>
+ * offset  size  field
+ *      0     8  magic "VIBEIDX\0"
+ *      8     4  format version (1)
+ *     12     4  dim
+ *     16     8  count
+ *     24     4  flags (bit 0: rows are L2-normalised)
+ *     28     4  reserved
+ *     32     8  offset of the row -&gt; books_canonical.id table (int64[count], -1 = unknown)
+ *     40     8  offset of the vectors (float32[count][dim], 64-byte aligned)
+ *     48    16  reserved, zero
+ * </pre>
+ *
+ * Opening only reads the header and id table; the vectors are mapped
+ * read-only, so startup does not depend on the index size, pages are faulted
+ * in from the OS page cache on first use, and every process on the host that
+ * maps the file shares the same physical pages.
+ */
+public final class VibeIndexFile {
+
+    public static final byte[] MAGIC = "VIBEIDX\0".getBytes(StandardCharsets.US_ASCII);
+    public static final int VERSION = 1;
+    public static final int HEADER_BYTES = 64;
+    public static final int VECTOR_ALIGNMENT = 64;
+    public static final int FLAG_NORMALIZED = 1;
+
+    private final int version;
+    private final VectorStore vectors;
+    private final long[] bookIds;
+
+    private VibeIndexFile(int version, VectorStore vectors, long[] bookIds) {
+        this.version = version;
+        this.vectors = vectors;
+        this.bookIds = bookIds;
+    }
+
+    public int version() {
+        return version;
+    }
+
+    public VectorStore vectors() {
+        return vectors;
+    }
+
+    /** books_canonical.id per row, -1 where the export did not know it. */
+    public long[] bookIds() {
+        return bookIds;
+    }
+
+    public static VibeIndexFile open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_BYTES) throw new IOException("Truncated vibe index header: " + file);
+            ByteBuffer header = ch.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a vibe index file: " + file);
+            int version = header.getInt(8);
+            if (version != VERSION) {
+                throw new IOException("Unsupported vibe index version " + version + " (expected " + VERSION + "): " + file);
+            }
+            int dim = header.getInt(12);
+            long count = header.getLong(16);
+            int flags = header.getInt(24);
+            long idsOffset = header.getLong(32);
+            long vectorsOffset = header.getLong(40);
+            if (dim <= 0 || count < 0 || count > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt vibe index header (dim=" + dim + ", count=" + count + "): " + file);
+            }
+            if ((flags & FLAG_NORMALIZED) == 0) {
+                throw new IOException("Vibe index rows are not normalised; re-export " + file);
+            }
+            if (vectorsOffset % VECTOR_ALIGNMENT != 0) {
+                throw new IOException("Vector block is not " + VECTOR_ALIGNMENT + "-byte aligned: " + file);
+            }
+            int n = (int) count;
+            long vectorBytes = (long) n * dim * Float.BYTES;
+            if (idsOffset + (long) n * Long.BYTES > ch.size() || vectorsOffset + vectorBytes > ch.size()) {
+                throw new IOException("Vibe index is truncated (" + ch.size() + " bytes): " + file);
+            }
+
+            long[] ids = new long[n];
+            if (n > 0) {
+                ch.map(FileChannel.MapMode.READ_ONLY, idsOffset, (long) n * Long.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer().get(ids);
+            }
+            VectorStore vectors = VectorStore.map(ch, vectorsOffset, n, dim);
+            return new VibeIndexFile(version, vectors, ids);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+-- Append-only change log for books_canonical.
+-- Every insert/update/delete on the catalog appends a row here; the
+-- AUTO_INCREMENT `version` doubles as the monotonic catalog version that
+-- clients pass back as `changes?since=`. Rows are written by triggers so the
+-- Python importers under tools/ are covered without code changes.
+-- NOTE: TRUNCATE does not fire triggers; bump catalog_sync_state.purged_through
+-- to the current version after a truncate so clients are told to resync.
+
+CREATE TABLE IF NOT EXISTS catalog_change_log (
+  version BIGINT AUTO_INCREMENT PRIMARY KEY,
+  book_id BIGINT NOT NULL,
+  op CHAR(1) NOT NULL,                 -- 'U' = upsert, 'D' = delete
+  changed_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  INDEX idx_catalog_change_book (book_id, version)
+);
+
+-- Single-row bookkeeping for compaction.
+--   compacted_through: versions <= this keep only the latest row per book
+--   purged_through:    tombstones <= this were dropped; older cursors must resync
+CREATE TABLE IF NOT EXISTS catalog_sync_state (
+  id TINYINT PRIMARY KEY,
+  compacted_through BIGINT NOT NULL DEFAULT 0,
+  purged_through BIGINT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+INSERT IGNORE INTO catalog_sync_state (id, compacted_through, purged_through) VALUES (1, 0, 0);
+
+DROP TRIGGER IF EXISTS trg_books_canonical_ai;
+DROP TRIGGER IF EXISTS trg_books_canonical_au;
+DROP TRIGGER IF EXISTS trg_books_canonical_ad;
+
+CREATE TRIGGER trg_books_canonical_ai AFTER INSERT ON books_canonical
+  FOR EACH ROW INSERT INTO catalog_change_log (book_id, op) VALUES (NEW.id, 'U');
+
+CREATE TRIGGER trg_books_canonical_au AFTER UPDATE ON books_canonical
+  FOR EACH ROW INSERT INTO catalog_change_log (book_id, op) VALUES (NEW.id, 'U');
+
+CREATE TRIGGER trg_books_canonical_ad AFTER DELETE ON books_canonical
+  FOR EACH ROW INSERT INTO catalog_change_log (book_id, op) VALUES (OLD.id, 'D');
+
+-- Seed the log with the current catalog so `since=0` is a full snapshot.
+INSERT INTO catalog_change_log (book_id, op)
+  SELECT id, 'U' FROM books_canonical ORDER BY id;
@@ -0,0 +1,2 @@
+-- Per-user review lookups (collaborative-filtering recommendations)
+CREATE INDEX idx_reviews_user_id ON reviews (user_id);
@@ -0,0 +1,15 @@
+-- Revoked JWTs (logout). Tokens are identified by their jti claim, or by
+-- "sha256:<hash>" for tokens issued before jti was added. Each node mirrors
+-- this table into an in-memory Bloom filter and polls it by id for
+-- revocations made on other nodes; rows past expires_at can be purged since
+-- the token would be rejected anyway.
+
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  token_id VARCHAR(64) NOT NULL,
+  user_email VARCHAR(255),
+  expires_at DATETIME NOT NULL,
+  revoked_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  UNIQUE KEY uk_revoked_tokens_token_id (token_id),
+  INDEX idx_revoked_tokens_expires (expires_at)
+);
@@ -0,0 +1,21 @@
+-- Outgoing email (signup OTP, password reset). Rows are written in the same
+-- transaction as the user change that triggers them and delivered in batches
+-- by EmailDispatcher. A dispatcher claims due rows by pushing next_attempt_at
+-- past a send lease, so a node that dies mid-send leaves them to be retried.
+-- Failed sends back off exponentially; after max attempts a row stays FAILED
+-- for inspection. SENT rows are purged after a retention period.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  recipient VARCHAR(255) NOT NULL,
+  subject VARCHAR(255) NOT NULL,
+  body TEXT NOT NULL,
+  status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  last_error VARCHAR(500),
+  created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+  sent_at TIMESTAMP(3) NULL,
+  INDEX idx_email_outbox_due (status, next_attempt_at),
+  INDEX idx_email_outbox_sent (status, sent_at)
+);
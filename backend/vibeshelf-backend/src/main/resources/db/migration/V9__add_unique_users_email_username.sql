@@ -0,0 +1,10 @@
+-- Every login, profile and review request looks users up by email, and the
+-- table had no index on it. Both columns are unique by intent (signup
+-- rejects a taken email or username), so declare them UNIQUE: lookups
+-- become single index probes and a racing duplicate signup fails in MySQL.
+-- Existing duplicates must be merged first; find them with
+--   SELECT email, COUNT(*) FROM users GROUP BY email HAVING COUNT(*) > 1;
+--   SELECT username, COUNT(*) FROM users GROUP BY username HAVING COUNT(*) > 1;
+
+CREATE UNIQUE INDEX ux_users_email ON users (email);
+CREATE UNIQUE INDEX ux_users_username ON users (username);
@@ -0,0 +1,25 @@
+-- GCRA token bucket, same algorithm as TokenBucketLimiter, shared by all nodes.
+-- KEYS[1]  bucket key (holds the theoretical arrival time, microseconds)
+-- ARGV[1]  emission interval in microseconds (one token per interval)
+-- ARGV[2]  burst (bucket capacity in tokens)
+-- Returns {allowed (1/0), remaining tokens, retry-after microseconds}.
+-- The Redis clock is used so nodes with skewed clocks agree.
+
+local t = redis.call('TIME')
+local now = tonumber(t[1]) * 1000000 + tonumber(t[2])
+local interval = tonumber(ARGV[1])
+local tolerance = interval * tonumber(ARGV[2])
+
+local tat = tonumber(redis.call('GET', KEYS[1]))
+if tat == nil or tat < now then
+  tat = now
+end
+local next_tat = tat + interval
+local ahead = next_tat - now
+if ahead > tolerance then
+  return {0, 0, ahead - tolerance}
+end
+
+-- The key expires once the bucket is full again, so idle clients cost nothing
+redis.call('SET', KEYS[1], string.format('%.0f', next_tat), 'PX', math.ceil(ahead / 1000))
+return {1, math.floor((tolerance - ahead) / interval), 0}
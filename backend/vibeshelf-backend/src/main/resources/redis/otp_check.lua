@@ -0,0 +1,22 @@
+-- Check an OTP and count wrong guesses. The entry keeps its TTL either way;
+-- once failures reach the limit it refuses every code until it expires.
+-- KEYS[1]  otp key
+-- ARGV[1]  submitted code
+-- ARGV[2]  max attempts
+-- Returns 0 missing/expired, 1 match, 2 mismatch, 3 locked.
+
+local entry = redis.call('HMGET', KEYS[1], 'code', 'failures')
+if not entry[1] then
+  return 0
+end
+local limit = tonumber(ARGV[2])
+if tonumber(entry[2]) >= limit then
+  return 3
+end
+if entry[1] == ARGV[1] then
+  return 1
+end
+if redis.call('HINCRBY', KEYS[1], 'failures', 1) >= limit then
+  return 3
+end
+return 2
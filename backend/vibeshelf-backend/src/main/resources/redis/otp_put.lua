@@ -0,0 +1,9 @@
+-- Issue an OTP, replacing any earlier code and its failure count.
+-- KEYS[1]  otp key
+-- ARGV[1]  code
+-- ARGV[2]  TTL in milliseconds
+
+redis.call('DEL', KEYS[1])
+redis.call('HSET', KEYS[1], 'code', ARGV[1], 'failures', 0)
+redis.call('PEXPIRE', KEYS[1], ARGV[2])
+return 1
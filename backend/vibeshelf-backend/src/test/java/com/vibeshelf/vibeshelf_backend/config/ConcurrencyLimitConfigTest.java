@@ -0,0 +1,38 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimitConfigTest {
+
+	@Test
+	void ownNotReadyResponsesAreNotDatabaseFailures() {
+		assertFalse(ConcurrencyLimitConfig.countsAsFailure(503, null));
+		assertFalse(ConcurrencyLimitConfig.countsAsFailure(200, null));
+		assertFalse(ConcurrencyLimitConfig.countsAsFailure(404, null));
+		assertTrue(ConcurrencyLimitConfig.countsAsFailure(500, null));
+		assertTrue(ConcurrencyLimitConfig.countsAsFailure(504, null));
+		assertTrue(ConcurrencyLimitConfig.countsAsFailure(200, new IllegalStateException("pool timeout")));
+	}
+
+	@Test
+	void classifiesDetailSearchAndDeepPages() {
+		ConcurrencyLimitConfig config = new ConcurrencyLimitConfig();
+		ReflectionTestUtils.setField(config, "deepPageOffset", 2400L);
+
+		assertEquals(ConcurrencyLimitConfig.Priority.DETAIL, config.classify(new MockHttpServletRequest("GET", "/api/v2/books/42")));
+		MockHttpServletRequest search = new MockHttpServletRequest("GET", "/api/books");
+		search.setParameter("page", "2");
+		assertEquals(ConcurrencyLimitConfig.Priority.SEARCH, config.classify(search));
+		MockHttpServletRequest deep = new MockHttpServletRequest("GET", "/api/books");
+		deep.setParameter("page", "100");
+		assertEquals(ConcurrencyLimitConfig.Priority.DEEP_PAGE, config.classify(deep));
+		deep.setParameter("cursor", "abc");
+		assertEquals(ConcurrencyLimitConfig.Priority.SEARCH, config.classify(deep));
+	}
+}
@@ -0,0 +1,146 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Listing and search requests at high concurrency while the search REGEXP
+ * queries are slow: Tomcat's 200 platform threads versus a virtual thread
+ * per request, with the database behind the same LimitedDataSource (10
+ * connections) in both. Listing is mostly served from cache, so on a
+ * fixed pool it waits for threads held by blocked searches; with virtual
+ * threads it only waits when it actually needs a connection. Reports
+ * p50/p99 and throughput per endpoint. The virtual leg needs Java 21
+ * (mvn test -Pbenchmark,jdk21); on 17 only the platform numbers print.
+ */
+@Tag("benchmark")
+class ExecutionModeBenchmarkTest {
+
+	private static final int TOMCAT_THREADS = 200;
+	private static final int DB_CONNECTIONS = 10;
+	private static final int SEARCH_CLIENTS = 800;
+	private static final int LISTING_CLIENTS = 200;
+	private static final long RUN_MILLIS = 5000;
+	private static final long SEARCH_QUERY_MILLIS = 200;
+	private static final long LISTING_QUERY_MILLIS = 5;
+	private static final double LISTING_CACHE_HIT_RATE = 0.9;
+
+	@Test
+	void virtualThreadsKeepListingLatencyBoundedDuringSlowSearches() throws Exception {
+		Result platform = run(Executors.newFixedThreadPool(TOMCAT_THREADS));
+		print("platform (" + TOMCAT_THREADS + " threads)", platform);
+
+		ExecutorService virtual = virtualThreadPerTask();
+		Assumptions.assumeTrue(virtual != null, "virtual threads need Java 21");
+		Result virtualResult = run(virtual);
+		print("virtual", virtualResult);
+		assertTrue(virtualResult.listingP99 < platform.listingP99);
+	}
+
+	private static ExecutorService virtualThreadPerTask() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	private static void print(String mode, Result r) {
+		System.out.printf("%-26s listing p50 %.1f ms, p99 %.1f ms, %.0f req/s | search p50 %.1f ms, p99 %.1f ms, %.0f req/s, %d timed out%n",
+			mode + ":", r.listingP50, r.listingP99, r.listingRate, r.searchP50, r.searchP99, r.searchRate, r.timedOut);
+	}
+
+	private Result run(ExecutorService requestThreads) throws Exception {
+		LimitedDataSource db = new LimitedDataSource(slowDatabase(), DB_CONNECTIONS, 2000);
+		AtomicBoolean stop = new AtomicBoolean();
+		List<Long> listing = Collections.synchronizedList(new ArrayList<>());
+		List<Long> search = Collections.synchronizedList(new ArrayList<>());
+		LongAdder listingDone = new LongAdder();
+		LongAdder searchDone = new LongAdder();
+		LongAdder timedOut = new LongAdder();
+		List<Thread> clients = new ArrayList<>();
+
+		for (int i = 0; i < SEARCH_CLIENTS + LISTING_CLIENTS; i++) {
+			boolean isSearch = i < SEARCH_CLIENTS;
+			clients.add(new Thread(() -> {
+				while (!stop.get()) {
+					long start = System.nanoTime();
+					try {
+						requestThreads.submit(() -> {
+							if (isSearch) {
+								query(db, SEARCH_QUERY_MILLIS);
+							} else if (ThreadLocalRandom.current().nextDouble() >= LISTING_CACHE_HIT_RATE) {
+								query(db, LISTING_QUERY_MILLIS);
+							}
+							return null;
+						}).get();
+						// Latency counts requests that were queued when the run ended; rates do not
+						(isSearch ? search : listing).add(System.nanoTime() - start);
+						if (!stop.get()) (isSearch ? searchDone : listingDone).increment();
+					} catch (Exception e) {
+						timedOut.increment();
+					}
+				}
+			}));
+		}
+
+		clients.forEach(Thread::start);
+		Thread.sleep(RUN_MILLIS);
+		stop.set(true);
+		for (Thread t : clients) t.join();
+		requestThreads.shutdownNow();
+
+		Result r = new Result();
+		r.listingP50 = percentile(listing, 0.5);
+		r.listingP99 = percentile(listing, 0.99);
+		r.listingRate = listingDone.sum() * 1000.0 / RUN_MILLIS;
+		r.searchP50 = percentile(search, 0.5);
+		r.searchP99 = percentile(search, 0.99);
+		r.searchRate = searchDone.sum() * 1000.0 / RUN_MILLIS;
+		r.timedOut = timedOut.sum();
+		return r;
+	}
+
+	private static void query(DataSource db, long millis) throws Exception {
+		try (Connection c = db.getConnection()) {
+			Thread.sleep(millis);
+		}
+	}
+
+	private static double percentile(List<Long> samples, double p) {
+		if (samples.isEmpty()) return Double.NaN;
+		List<Long> sorted = new ArrayList<>(samples);
+		Collections.sort(sorted);
+		return sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * p))) / 1e6;
+	}
+
+	// Stub-only mocks: millions of calls, none of them recorded
+	private static DataSource slowDatabase() throws Exception {
+		Connection connection = mock(Connection.class, withSettings().stubOnly());
+		DataSource pool = mock(DataSource.class, withSettings().stubOnly());
+		when(pool.getConnection()).thenReturn(connection);
+		return pool;
+	}
+
+	private static final class Result {
+		double listingP50, listingP99, listingRate, searchP50, searchP99, searchRate;
+		long timedOut;
+	}
+}
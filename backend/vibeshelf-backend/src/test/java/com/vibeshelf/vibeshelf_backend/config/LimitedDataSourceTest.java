@@ -0,0 +1,49 @@
+package com.vibeshelf.vibeshelf_backend.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LimitedDataSourceTest {
+
+	@Test
+	void callersBeyondThePermitsTimeOutUntilAConnectionIsClosed() throws Exception {
+		AtomicInteger closed = new AtomicInteger();
+		LimitedDataSource dataSource = new LimitedDataSource(fakePool(closed), 2, 50);
+
+		Connection first = dataSource.getConnection();
+		Connection second = dataSource.getConnection();
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+		first.close();
+		first.close();
+		// A second close must not hand out an extra permit
+		assertEquals(1, dataSource.getStats().get("inUse"));
+		Connection third = dataSource.getConnection();
+		assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+		second.close();
+		third.close();
+		assertEquals(0, dataSource.getStats().get("inUse"));
+		assertEquals(3L, dataSource.getStats().get("acquired"));
+		assertEquals(2L, dataSource.getStats().get("timedOut"));
+		assertEquals(4, closed.get());
+	}
+
+	static DataSource fakePool(AtomicInteger closed) throws Exception {
+		Connection connection = mock(Connection.class);
+		doAnswer(inv -> closed.incrementAndGet()).when(connection).close();
+		DataSource pool = mock(DataSource.class);
+		when(pool.getConnection()).thenReturn(connection);
+		return pool;
+	}
+}
@@ -0,0 +1,176 @@
+package com.vibeshelf.vibeshelf_backend.controller;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.CatalogChange;
+import com.vibeshelf.vibeshelf_backend.model.CatalogSyncState;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.repository.CatalogChangeRepository;
+import com.vibeshelf.vibeshelf_backend.repository.CatalogSyncStateRepository;
+import com.vibeshelf.vibeshelf_backend.service.CatalogChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CatalogSyncControllerTest {
+
+	private final List<CatalogChange> log = new CopyOnWriteArrayList<>();
+	private final Map<Long, Book> books = new ConcurrentHashMap<>();
+	private CatalogSyncState syncState;
+	private final List<List<CatalogChange>> dispatched = new ArrayList<>();
+
+	private final CatalogChangeRepository changeRepository = changeRepository();
+	private final CatalogChangeService service = new CatalogChangeService(changeRepository, syncStateRepository(),
+		bookRepository(), List.of(dispatched::add));
+	private final MockMvc mvc = MockMvcBuilders.standaloneSetup(new CatalogSyncController(service)).build();
+
+	@Test
+	void versionIsTheHighestLoggedChange() throws Exception {
+		mvc.perform(get("/api/v2/books/version"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.version").value(0));
+
+		append(1L, CatalogChange.OP_UPSERT);
+		append(2L, CatalogChange.OP_UPSERT);
+		mvc.perform(get("/api/v2/books/version"))
+			.andExpect(jsonPath("$.data.version").value(2));
+	}
+
+	@Test
+	void changesCollapseToTheLatestOpPerBook() throws Exception {
+		books.put(2L, book(2L, "Second"));
+		append(1L, CatalogChange.OP_UPSERT);
+		append(2L, CatalogChange.OP_UPSERT);
+		append(1L, CatalogChange.OP_DELETE);
+		// Upserted, then deleted before the page was read
+		append(3L, CatalogChange.OP_UPSERT);
+
+		mvc.perform(get("/api/v2/books/changes").param("since", "0"))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.data.toVersion").value(4))
+			.andExpect(jsonPath("$.data.hasMore").value(false))
+			.andExpect(jsonPath("$.data.changes", hasSize(3)))
+			.andExpect(jsonPath("$.data.changes[0].bookId").value(2))
+			.andExpect(jsonPath("$.data.changes[0].op").value("upsert"))
+			.andExpect(jsonPath("$.data.changes[0].book.title").value("Second"))
+			.andExpect(jsonPath("$.data.changes[1].bookId").value(1))
+			.andExpect(jsonPath("$.data.changes[1].op").value("delete"))
+			.andExpect(jsonPath("$.data.changes[2].bookId").value(3))
+			.andExpect(jsonPath("$.data.changes[2].op").value("delete"))
+			.andExpect(jsonPath("$.pagination.cursor").value("4"));
+	}
+
+	@Test
+	void pagesFollowTheCursor() throws Exception {
+		for (long id = 1; id <= 3; id++) {
+			books.put(id, book(id, "Book " + id));
+			append(id, CatalogChange.OP_UPSERT);
+		}
+
+		mvc.perform(get("/api/v2/books/changes").param("since", "0").param("limit", "2"))
+			.andExpect(jsonPath("$.data.changes", hasSize(2)))
+			.andExpect(jsonPath("$.data.hasMore").value(true))
+			.andExpect(jsonPath("$.pagination.hasNext").value(true))
+			.andExpect(jsonPath("$.pagination.cursor").value("2"));
+
+		mvc.perform(get("/api/v2/books/changes").param("since", "2").param("limit", "2"))
+			.andExpect(jsonPath("$.data.changes", hasSize(1)))
+			.andExpect(jsonPath("$.data.changes[0].bookId").value(3))
+			.andExpect(jsonPath("$.data.hasMore").value(false))
+			.andExpect(jsonPath("$.data.currentVersion").value(3));
+
+		mvc.perform(get("/api/v2/books/changes").param("since", "3"))
+			.andExpect(jsonPath("$.data.changes", hasSize(0)))
+			.andExpect(jsonPath("$.data.toVersion").value(3));
+	}
+
+	@Test
+	void cursorOlderThanPurgedTombstonesMustResync() throws Exception {
+		for (long id = 1; id <= 5; id++) append(id, CatalogChange.OP_DELETE);
+		syncState = new CatalogSyncState(CatalogSyncState.SINGLETON_ID, 4L, 4L);
+
+		mvc.perform(get("/api/v2/books/changes").param("since", "2"))
+			.andExpect(jsonPath("$.data.resetRequired").value(true))
+			.andExpect(jsonPath("$.data.changes", hasSize(0)));
+		mvc.perform(get("/api/v2/books/changes").param("since", "4"))
+			.andExpect(jsonPath("$.data.resetRequired").value(false))
+			.andExpect(jsonPath("$.data.changes", hasSize(1)));
+	}
+
+	@Test
+	void repositoryFailureIsA500() throws Exception {
+		when(changeRepository.findCurrentVersion()).thenThrow(new IllegalStateException("connection refused"));
+		mvc.perform(get("/api/v2/books/version"))
+			.andExpect(status().isInternalServerError())
+			.andExpect(jsonPath("$.error").value("Failed to fetch catalog version"));
+	}
+
+	@Test
+	void listenersOnlyReceiveChangesAfterTheFirstPoll() {
+		append(1L, CatalogChange.OP_UPSERT);
+		service.pollAndDispatch();
+		assertTrue(dispatched.isEmpty());
+
+		append(2L, CatalogChange.OP_UPSERT);
+		append(3L, CatalogChange.OP_DELETE);
+		service.pollAndDispatch();
+		service.pollAndDispatch();
+		assertEquals(1, dispatched.size());
+		assertEquals(List.of(2L, 3L), dispatched.get(0).stream().map(CatalogChange::getBookId).toList());
+	}
+
+	private void append(long bookId, String op) {
+		log.add(CatalogChange.builder().version((long) log.size() + 1).bookId(bookId).op(op).build());
+	}
+
+	private static Book book(long id, String title) {
+		return Book.builder().id(id).title(title).author("Author").genre("fiction").build();
+	}
+
+	// The native queries, minus the settle window (the service's settleMs is 0 outside Spring)
+	private CatalogChangeRepository changeRepository() {
+		CatalogChangeRepository repository = mock(CatalogChangeRepository.class);
+		when(repository.findCurrentVersion())
+			.thenAnswer(inv -> log.stream().mapToLong(CatalogChange::getVersion).max().orElse(0L));
+		when(repository.findChangesSince(anyLong(), anyLong(), anyInt()))
+			.thenAnswer(inv -> log.stream().filter(c -> c.getVersion() > inv.<Long>getArgument(0))
+				.limit(inv.<Integer>getArgument(2)).toList());
+		return repository;
+	}
+
+	private CatalogSyncStateRepository syncStateRepository() {
+		CatalogSyncStateRepository repository = mock(CatalogSyncStateRepository.class);
+		when(repository.findById(any())).thenAnswer(inv -> Optional.ofNullable(syncState));
+		return repository;
+	}
+
+	private BookRepository bookRepository() {
+		BookRepository repository = mock(BookRepository.class);
+		when(repository.findAllById(any())).thenAnswer(inv -> {
+			List<Book> found = new ArrayList<>();
+			for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+				if (books.containsKey(id)) found.add(books.get(id));
+			}
+			return found;
+		});
+		return repository;
+	}
+}
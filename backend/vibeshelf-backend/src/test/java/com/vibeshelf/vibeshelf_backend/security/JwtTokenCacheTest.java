@@ -0,0 +1,93 @@
+package com.vibeshelf.vibeshelf_backend.security;
+
+import com.vibeshelf.vibeshelf_backend.service.TokenRevocationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtTokenCacheTest {
+
+	private final AtomicInteger userLookups = new AtomicInteger();
+
+	@AfterEach
+	void clearContext() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void repeatedTokenIsAHit() {
+		JwtTokenCache cache = new JwtTokenCache(300, 100);
+		JwtTokenCache.VerifiedToken verified = verified(System.currentTimeMillis() + 60_000);
+
+		assertNull(cache.get("token-a"));
+		cache.put("token-a", verified);
+		assertSame(verified, cache.get("token-a"));
+		assertNull(cache.get("token-b"));
+		assertEquals(1L, cache.getStats().get("hits"));
+		assertEquals(2L, cache.getStats().get("misses"));
+	}
+
+	@Test
+	void entriesNeverOutliveTheTokenOrTheTtl() {
+		JwtTokenCache cache = new JwtTokenCache(300, 100);
+		cache.put("expired", verified(System.currentTimeMillis() - 1));
+		assertNull(cache.get("expired"));
+		assertEquals(0L, cache.getStats().get("entries"));
+
+		JwtTokenCache noTtl = new JwtTokenCache(0, 100);
+		noTtl.put("token", verified(System.currentTimeMillis() + 60_000));
+		assertNull(noTtl.get("token"));
+	}
+
+	@Test
+	void filterVerifiesEachTokenOnceAndNeverLoadsTheUser() throws Exception {
+		JwtTokenCache cache = new JwtTokenCache(300, 100);
+		JwtAuthFilter filter = new JwtAuthFilter(userDetailsService(), cache, new TokenRevocationService(null, 1000, 0.01));
+		String token = JwtUtil.generateToken("reader@example.com", "7", List.of("USER"), true);
+
+		for (int i = 0; i < 3; i++) {
+			Authentication auth = authenticate(filter, token);
+			assertNotNull(auth);
+			assertEquals("reader@example.com", ((UserDetails) auth.getPrincipal()).getUsername());
+			assertEquals("USER", auth.getAuthorities().iterator().next().getAuthority());
+		}
+		assertEquals(2L, cache.getStats().get("hits"));
+		assertEquals(0, userLookups.get());
+		assertNull(authenticate(filter, token + "x"));
+	}
+
+	private Authentication authenticate(JwtAuthFilter filter, String token) throws Exception {
+		SecurityContextHolder.clearContext();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reviews/mine");
+		request.addHeader("Authorization", "Bearer " + token);
+		filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+		return SecurityContextHolder.getContext().getAuthentication();
+	}
+
+	private static JwtTokenCache.VerifiedToken verified(long expiresAtMillis) {
+		UserDetails principal = User.withUsername("reader@example.com").password("").authorities("USER").build();
+		return new JwtTokenCache.VerifiedToken(principal, "jti", expiresAtMillis);
+	}
+
+	private UserDetailsService userDetailsService() {
+		return username -> {
+			userLookups.incrementAndGet();
+			return User.withUsername(username).password("").authorities("USER").build();
+		};
+	}
+}
@@ -0,0 +1,141 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class EmailServiceTest {
+
+	@Test
+	void batchGoesOutOverOneConnectionAndReportsRejectedRecipients() throws Exception {
+		try (FakeSmtpServer smtp = new FakeSmtpServer()) {
+			EmailService service = new EmailService(sender(smtp.port()));
+			Map<Integer, String> failures = service.sendBatch(List.of(
+				message("a@example.com"), message("bounce@example.com"), message("c@example.com")));
+
+			assertEquals(Set.of(1), failures.keySet());
+			assertEquals(List.of("a@example.com", "c@example.com"), smtp.delivered);
+			assertEquals(1, smtp.connections.get());
+		}
+	}
+
+	@Test
+	void unreachableServerFailsTheWholeBatch() throws Exception {
+		int port;
+		try (ServerSocket closed = new ServerSocket(0)) {
+			port = closed.getLocalPort();
+		}
+		EmailService service = new EmailService(sender(port));
+		Map<Integer, String> failures = service.sendBatch(List.of(message("a@example.com"), message("b@example.com")));
+		assertEquals(Set.of(0, 1), failures.keySet());
+	}
+
+	@Test
+	void withoutASenderNothingCountsAsSent() {
+		EmailService service = new EmailService(null);
+		assertFalse(service.isConfigured());
+		assertEquals(Set.of(0, 1), service.sendBatch(List.of(message("a@example.com"), message("b@example.com"))).keySet());
+	}
+
+	private static JavaMailSenderImpl sender(int port) {
+		JavaMailSenderImpl sender = new JavaMailSenderImpl();
+		sender.setHost("127.0.0.1");
+		sender.setPort(port);
+		sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+		sender.getJavaMailProperties().put("mail.smtp.timeout", "2000");
+		return sender;
+	}
+
+	private static SimpleMailMessage message(String to) {
+		SimpleMailMessage message = new SimpleMailMessage();
+		message.setFrom("noreply@vibeshelf.test");
+		message.setTo(to);
+		message.setSubject("Your VibeShelf OTP Code");
+		message.setText("Your OTP is: 123456");
+		return message;
+	}
+
+	// Just enough SMTP for JavaMail: accepts everything except recipients named bounce@
+	private static final class FakeSmtpServer implements AutoCloseable {
+		final ServerSocket socket = new ServerSocket(0);
+		final List<String> delivered = new CopyOnWriteArrayList<>();
+		final AtomicInteger connections = new AtomicInteger();
+		private final Thread acceptor;
+
+		FakeSmtpServer() throws IOException {
+			acceptor = new Thread(() -> {
+				while (!socket.isClosed()) {
+					try (Socket client = socket.accept()) {
+						connections.incrementAndGet();
+						serve(client);
+					} catch (IOException e) {
+						// closed
+					}
+				}
+			});
+			acceptor.setDaemon(true);
+			acceptor.start();
+		}
+
+		int port() {
+			return socket.getLocalPort();
+		}
+
+		private void serve(Socket client) throws IOException {
+			BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+			PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.US_ASCII);
+			reply(out, "220 fake smtp");
+			String recipient = null;
+			String line;
+			while ((line = in.readLine()) != null) {
+				String command = line.toUpperCase();
+				if (command.startsWith("RCPT TO:")) {
+					if (line.contains("bounce@")) {
+						reply(out, "550 no such user");
+					} else {
+						recipient = line.substring(line.indexOf('<') + 1, line.indexOf('>'));
+						reply(out, "250 ok");
+					}
+				} else if (command.equals("DATA")) {
+					reply(out, "354 go ahead");
+					while (!".".equals(in.readLine())) {
+						// message body
+					}
+					delivered.add(recipient);
+					reply(out, "250 queued");
+				} else if (command.equals("QUIT")) {
+					reply(out, "221 bye");
+					return;
+				} else {
+					reply(out, "250 ok");
+				}
+			}
+		}
+
+		private static void reply(PrintWriter out, String line) {
+			out.print(line + "\r\n");
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			socket.close();
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HybridSearchServiceTest {
+
+	private final HybridSearchService service = new HybridSearchService(bookRepository(), new FakeQuery(), null, 2);
+
+	HybridSearchServiceTest() {
+		ReflectionTestUtils.setField(service, "lexicalTimeoutMs", 2000L);
+		ReflectionTestUtils.setField(service, "vectorTimeoutMs", 2000L);
+		ReflectionTestUtils.setField(service, "budgetMs", 2000L);
+		ReflectionTestUtils.setField(service, "depth", 50);
+		ReflectionTestUtils.setField(service, "rrfK", 60);
+		ReflectionTestUtils.setField(service, "lexicalWeight", 1.0);
+		ReflectionTestUtils.setField(service, "vectorWeight", 1.0);
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void fusesBothLegsIntoPages() {
+		HybridSearchService.HybridPage first = service.search(" rain ", 0, 10);
+		assertEquals(10, first.getItems().size());
+		assertEquals(60, first.getTotal());
+		assertEquals("Title/author match · vibe", first.getItems().get(0).getReason());
+	}
+
+	@Test
+	void pagesPastTheEndAreEmptyInsteadOfOverflowing() {
+		assertTrue(service.search("rain", 1000, 100).getItems().isEmpty());
+		assertTrue(service.search("rain", Integer.MAX_VALUE, 100).getItems().isEmpty());
+		assertTrue(service.search("rain", Integer.MAX_VALUE / 2, 4).getItems().isEmpty());
+	}
+
+	// Lexical hits are books 1..n, vector hits books 11..60, so 1..10 only match lexically
+	private static BookRepository bookRepository() {
+		BookRepository repository = mock(BookRepository.class);
+		when(repository.findByTitleOrAuthorLike(any(), any())).thenAnswer(inv -> {
+			int n = Math.min(20, inv.<Pageable>getArgument(1).getPageSize());
+			List<Book> books = new ArrayList<>();
+			for (long id = 1; id <= n; id++) books.add(Book.builder().id(id).title("Rain " + id).author("A").build());
+			return new PageImpl<>(books);
+		});
+		return repository;
+	}
+
+	private static final class FakeQuery extends VibeQueryService {
+		FakeQuery() {
+			super(null, null, 10, 1 << 20, 60);
+		}
+
+		@Override
+		public List<BookSuggestion> byPhrase(String phrase, int start, int limit) {
+			List<BookSuggestion> out = new ArrayList<>();
+			for (long id = 11; id <= 60 && out.size() < limit; id++) {
+				BookSuggestion s = new BookSuggestion("Rain " + id, "A", "vibe", null);
+				s.setId(id);
+				out.add(s);
+			}
+			return out;
+		}
+	}
+}
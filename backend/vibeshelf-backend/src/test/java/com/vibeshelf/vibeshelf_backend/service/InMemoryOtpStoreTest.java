@@ -0,0 +1,50 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Purpose.PASSWORD_RESET;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Purpose.SIGNUP;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.LOCKED;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MATCH;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MISMATCH;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MISSING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InMemoryOtpStoreTest {
+
+	private final AtomicLong now = new AtomicLong(1_000_000);
+	private final InMemoryOtpStore store = new InMemoryOtpStore(3, now::get);
+
+	@Test
+	void wrongCodesLockTheEntryUntilANewCodeIsIssued() {
+		store.put(SIGNUP, "Reader@Example.com", "123456", Duration.ofMinutes(5));
+		assertEquals(MISSING, store.check(PASSWORD_RESET, "reader@example.com", "123456"));
+		assertEquals(MISMATCH, store.check(SIGNUP, "reader@example.com", "000000"));
+		assertEquals(MISMATCH, store.check(SIGNUP, "reader@example.com", "000001"));
+		assertEquals(LOCKED, store.check(SIGNUP, "reader@example.com", "000002"));
+		// Even the right code is refused once locked
+		assertEquals(LOCKED, store.check(SIGNUP, "reader@example.com", "123456"));
+
+		store.put(SIGNUP, "reader@example.com", "654321", Duration.ofMinutes(5));
+		assertEquals(MATCH, store.check(SIGNUP, "reader@example.com", "654321"));
+		store.remove(SIGNUP, "reader@example.com");
+		assertEquals(MISSING, store.check(SIGNUP, "reader@example.com", "654321"));
+	}
+
+	@Test
+	void codesExpireAndAreSweptButReissuedCodesSurvive() {
+		store.put(SIGNUP, "a@example.com", "111111", Duration.ofMinutes(5));
+		store.put(SIGNUP, "b@example.com", "222222", Duration.ofMinutes(5));
+		now.addAndGet(Duration.ofMinutes(4).toMillis());
+		store.put(SIGNUP, "b@example.com", "333333", Duration.ofMinutes(5));
+
+		now.addAndGet(Duration.ofMinutes(2).toMillis());
+		assertEquals(MISSING, store.check(SIGNUP, "a@example.com", "111111"));
+		store.sweep();
+		assertEquals(1, store.size());
+		assertEquals(MATCH, store.check(SIGNUP, "b@example.com", "333333"));
+	}
+}
@@ -0,0 +1,113 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logins mixed with book listing requests on a Tomcat-sized request pool.
+ * Each login takes an attempt from PasswordHashingService on a request
+ * thread and then either checks the password there (as UserService used to)
+ * or returns the service's future, as UserController does. Reports listing
+ * p50/p99 latency and logins per second for both, and checks that listings
+ * stay fast while the hashing pool is saturated. Run with
+ * mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class LoginIsolationBenchmarkTest {
+
+	private static final int REQUEST_THREADS = 16;
+	private static final int LOGIN_CLIENTS = 8;
+	private static final int BROWSE_CLIENTS = 4;
+	private static final long RUN_MILLIS = 5000;
+	private static final long LISTING_WORK_NANOS = 1_000_000;
+	// Listing p99 allowed while logins run, against 1 ms of work
+	private static final double MAX_LISTING_P99_MILLIS = 50;
+	private static final String PASSWORD = "correct horse battery staple";
+
+	private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+	private final String hash = encoder.encode(PASSWORD);
+
+	@Test
+	void hashingPoolKeepsListingLatencyBounded() throws Exception {
+		double[] inline = run(false);
+		double[] offloaded = run(true);
+		System.out.printf("hashing on request threads: listing p50 %.1f ms, p99 %.1f ms, %.1f logins/s%n",
+			inline[0], inline[1], inline[2]);
+		System.out.printf("PasswordHashingService:     listing p50 %.1f ms, p99 %.1f ms, %.1f logins/s%n",
+			offloaded[0], offloaded[1], offloaded[2]);
+		assertTrue(offloaded[2] > 0, "no logins completed through the hashing pool");
+		assertTrue(offloaded[1] < inline[1], "listing p99 " + offloaded[1] + " ms vs " + inline[1] + " ms inline");
+		assertTrue(offloaded[1] < MAX_LISTING_P99_MILLIS, "listing p99 " + offloaded[1] + " ms");
+	}
+
+	// Returns {listing p50 ms, listing p99 ms, logins per second}
+	private double[] run(boolean offload) throws Exception {
+		// Default pool size and queue; an allowance large enough that no login is throttled
+		PasswordHashingService hashing = new PasswordHashingService(encoder, 0, 64, 1_000_000, 1_000_000);
+		ExecutorService requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+		AtomicBoolean stop = new AtomicBoolean();
+		LongAdder logins = new LongAdder();
+		LongAdder failedLogins = new LongAdder();
+		List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+		List<Thread> clients = new ArrayList<>();
+
+		for (int i = 0; i < LOGIN_CLIENTS; i++) {
+			String account = "reader" + i + "@example.com";
+			clients.add(new Thread(() -> {
+				while (!stop.get()) {
+					CompletableFuture<Boolean> login = CompletableFuture.supplyAsync(() -> {
+						if (!hashing.tryAttempt(account).isAllowed()) {
+							return CompletableFuture.completedFuture(false);
+						}
+						return offload
+							? hashing.matches(PASSWORD, hash)
+							: CompletableFuture.completedFuture(encoder.matches(PASSWORD, hash));
+					}, requestThreads).thenCompose(result -> result);
+					if (login.exceptionally(t -> false).join()) logins.increment();
+					else failedLogins.increment();
+				}
+			}));
+		}
+		for (int i = 0; i < BROWSE_CLIENTS; i++) {
+			clients.add(new Thread(() -> {
+				while (!stop.get()) {
+					long start = System.nanoTime();
+					CompletableFuture.runAsync(() -> {
+						long until = System.nanoTime() + LISTING_WORK_NANOS;
+						while (System.nanoTime() < until) Thread.onSpinWait();
+					}, requestThreads).join();
+					latencies.add(System.nanoTime() - start);
+				}
+			}));
+		}
+
+		clients.forEach(Thread::start);
+		Thread.sleep(RUN_MILLIS);
+		stop.set(true);
+		for (Thread t : clients) t.join();
+		requestThreads.shutdown();
+		Object hashed = hashing.getStats().get("hashed");
+		hashing.shutdown();
+
+		assertEquals(0L, failedLogins.sum());
+		if (offload) assertEquals(logins.sum(), hashed);
+		List<Long> sorted = new ArrayList<>(latencies);
+		Collections.sort(sorted);
+		double p50 = sorted.get(sorted.size() / 2) / 1e6;
+		double p99 = sorted.get((int) (sorted.size() * 0.99)) / 1e6;
+		return new double[] { p50, p99, logins.sum() * 1000.0 / RUN_MILLIS };
+	}
+}
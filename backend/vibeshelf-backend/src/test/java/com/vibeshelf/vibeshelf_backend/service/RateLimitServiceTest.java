@@ -0,0 +1,24 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RateLimitServiceTest {
+
+	@Test
+	void clientIsTheEntryAddedByTheOutermostTrustedProxy() {
+		// The client sent "1.1.1.1" itself; our one proxy appended the real peer
+		assertEquals("203.0.113.7", RateLimitService.forwardedClient("1.1.1.1, 203.0.113.7", 1));
+		assertEquals("198.51.100.2", RateLimitService.forwardedClient("9.9.9.9, 198.51.100.2, 10.0.0.5", 2));
+		assertEquals("203.0.113.7", RateLimitService.forwardedClient("203.0.113.7", 2));
+	}
+
+	@Test
+	void blankHeadersFallBackToThePeerAddress() {
+		assertNull(RateLimitService.forwardedClient(null, 1));
+		assertNull(RateLimitService.forwardedClient("  ", 1));
+		assertNull(RateLimitService.forwardedClient("1.1.1.1, ", 1));
+	}
+}
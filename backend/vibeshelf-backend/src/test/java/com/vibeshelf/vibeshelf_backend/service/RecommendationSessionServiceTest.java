@@ -0,0 +1,126 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecommendationSessionServiceTest {
+
+	private List<BookSuggestion> vibeRanking = new ArrayList<>();
+	private final AtomicInteger vibeSearches = new AtomicInteger();
+	private final RecommendationSessionService service = new RecommendationSessionService(new FakeQuery(),
+		new NoIndex(), new FakeText(), bookRepository(), 200, 1 << 20, 30);
+
+	@Test
+	void cursorsWalkOneRankingWithoutRepeats() {
+		for (long id = 1; id <= 12; id++) vibeRanking.add(suggestion(id, "Book " + id, "Author", 1f - id / 100f));
+		// Same id again, and another edition of book 3
+		vibeRanking.add(suggestion(5L, "Book 5", "Author", 0.5f));
+		vibeRanking.add(suggestion(99L, "book  3", "author", 0.4f));
+
+		RecommendationSessionService.SessionPage page = service.start(null, "rainy days", Set.of(2L), 5);
+		assertEquals("vibe-index", page.getSource());
+		assertEquals(11, page.getTotal());
+		List<Long> seen = new ArrayList<>(ids(page));
+		while (page.getNextCursor() != null) {
+			page = service.next(page.getNextCursor(), 5);
+			seen.addAll(ids(page));
+		}
+
+		assertEquals(List.of(1L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L, 11L, 12L), seen);
+		assertEquals(1, vibeSearches.get());
+		assertEquals("99% vibe match", service.start(null, "rainy days", Set.of(), 1).getItems().get(0).getReason());
+	}
+
+	@Test
+	void unknownSessionIsExpiredAndGarbageIsRejected() {
+		assertNull(service.next("nosuchsession.5", 5));
+		assertEquals(1L, service.getStats().get("expiredCursors"));
+		assertThrows(IllegalArgumentException.class, () -> service.next("nodot", 5));
+		assertThrows(IllegalArgumentException.class, () -> service.next("abc.x", 5));
+		assertThrows(IllegalArgumentException.class, () -> service.next("abc.-1", 5));
+	}
+
+	@Test
+	void fallsBackToTheTextIndexWhenTheVibeIndexIsDown() {
+		vibeRanking = null;
+		RecommendationSessionService.SessionPage page = service.start("Some Title", null, null, 10);
+		assertEquals("tfidf", page.getSource());
+		assertEquals(List.of(40L, 41L), ids(page));
+		assertNull(page.getNextCursor());
+	}
+
+	private static List<Long> ids(RecommendationSessionService.SessionPage page) {
+		return page.getItems().stream().map(BookSuggestion::getId).toList();
+	}
+
+	private static BookSuggestion suggestion(Long id, String title, String author, float score) {
+		BookSuggestion s = new BookSuggestion(title, author, null, null);
+		s.setId(id);
+		s.setScore((double) score);
+		return s;
+	}
+
+	private final class FakeQuery extends VibeQueryService {
+		FakeQuery() {
+			super(null, null, 10, 1 << 20, 60);
+		}
+
+		@Override
+		public List<BookSuggestion> byPhrase(String phrase, int start, int limit) {
+			vibeSearches.incrementAndGet();
+			return vibeRanking;
+		}
+
+		@Override
+		public List<BookSuggestion> byTitle(String title, int start, int limit) {
+			vibeSearches.incrementAndGet();
+			return vibeRanking;
+		}
+	}
+
+	private static final class FakeText extends TextSimilarityService {
+		FakeText() {
+			super(null);
+		}
+
+		@Override
+		public List<BookSuggestion> similarToTitle(String title, int limit) {
+			return List.of(suggestion(40L, "Forty", "A", 0.9f), suggestion(41L, "Forty-one", "B", 0.8f));
+		}
+	}
+
+	// Display fields then come from books_canonical
+	private static final class NoIndex extends VibeSearchService {
+		@Override
+		public VibeIndex getIndex() {
+			return null;
+		}
+	}
+
+	private static BookRepository bookRepository() {
+		BookRepository repository = mock(BookRepository.class);
+		when(repository.findAllById(any())).thenAnswer(inv -> {
+			List<Book> found = new ArrayList<>();
+			for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+				found.add(Book.builder().id(id).title("Book " + id).author("Author").build());
+			}
+			return found;
+		});
+		return repository;
+	}
+}
@@ -0,0 +1,62 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Purpose.SIGNUP;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.LOCKED;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MATCH;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MISMATCH;
+import static com.vibeshelf.vibeshelf_backend.service.OtpStore.Result.MISSING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The OTP scripts against a real Redis on localhost:6379.
+ * Run with mvn test -Predis.
+ */
+@Tag("redis")
+class RedisOtpStoreTest {
+
+	private static LettuceConnectionFactory factory;
+	private static StringRedisTemplate redis;
+
+	@BeforeAll
+	static void connect() {
+		factory = new LettuceConnectionFactory("localhost", 6379);
+		factory.afterPropertiesSet();
+		redis = new StringRedisTemplate(factory);
+	}
+
+	@AfterAll
+	static void close() {
+		factory.destroy();
+	}
+
+	@Test
+	void codesExpireWithTheirTtlAndLockAfterWrongGuesses() {
+		RedisOtpStore store = new RedisOtpStore(redis);
+		ReflectionTestUtils.setField(store, "maxAttempts", 2);
+		ReflectionTestUtils.setField(store, "keyPrefix", "otp:test:");
+		String email = UUID.randomUUID() + "@example.com";
+
+		store.put(SIGNUP, email, "123456", Duration.ofMinutes(5));
+		Long ttl = redis.getExpire("otp:test:" + OtpStore.key(SIGNUP, email));
+		assertTrue(ttl != null && ttl > 240 && ttl <= 300);
+		assertEquals(MATCH, store.check(SIGNUP, email, "123456"));
+		assertEquals(MISMATCH, store.check(SIGNUP, email, "000000"));
+		assertEquals(LOCKED, store.check(SIGNUP, email, "000001"));
+		assertEquals(LOCKED, store.check(SIGNUP, email, "123456"));
+
+		store.remove(SIGNUP, email);
+		assertEquals(MISSING, store.check(SIGNUP, email, "123456"));
+	}
+}
@@ -0,0 +1,85 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TextSimilarityServiceTest {
+
+	private final BookRepository repository = mock(BookRepository.class);
+	private final TextSimilarityService service = new TextSimilarityService(repository);
+
+	TextSimilarityServiceTest() {
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "hashBits", 16);
+		ReflectionTestUtils.setField(service, "pageSize", 100);
+		ReflectionTestUtils.setField(service, "maxDescriptionChars", 4000);
+		ReflectionTestUtils.setField(service, "rebuildFraction", 0.05);
+		ReflectionTestUtils.setField(service, "minRebuildIntervalMs", 600000L);
+		List<Object[]> books = new ArrayList<>();
+		books.add(row(1, "Dragon War", "Fantasy", "Dragons and wizards in a magical kingdom at war"));
+		books.add(row(2, "Wizard School", "Fantasy", "A young wizard discovers magic at a hidden school"));
+		books.add(row(3, "Paris Summer", "Romance", "Two rivals fall in love during a summer in Paris"));
+		when(repository.findTextColumnsAfter(eq(0L), any(Pageable.class))).thenReturn(books);
+		service.rebuild();
+	}
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	@Test
+	void changedBooksArePatchedInWithoutAFullReload() {
+		// Book 4 added, book 2 deleted, book 3 rewritten as a wizard story
+		when(repository.findTextColumnsByIds(any())).thenReturn(List.of(
+			row(4, "Wizard Academy", "Fantasy", "Wizards learn magic at a school for dragons"),
+			row(3, "Paris Wizards", "Fantasy", "Wizards of Paris hide a magical school")));
+		service.applyChanges(Set.of(2L, 3L, 4L));
+
+		List<Long> hits = ids(service.search("wizards magic school", 10));
+		assertTrue(hits.contains(4L));
+		assertTrue(hits.contains(3L));
+		assertFalse(hits.contains(2L));
+		assertEquals(List.of(), service.similarTo(2L, 10));
+		assertTrue(ids(service.similarTo(4L, 10)).contains(3L));
+		assertFalse(ids(service.similarTo(4L, 10)).contains(4L));
+		assertEquals("Wizard Academy", titleOf(service.similarToTitle("Paris Wizards", 10), 4L));
+		assertNull(service.similarToTitle("Wizard School", 10));
+		verify(repository, times(1)).findTextColumnsAfter(anyLong(), any(Pageable.class));
+	}
+
+	private static String titleOf(List<BookSuggestion> books, long id) {
+		for (BookSuggestion b : books) if (b.getId() == id) return b.getTitle();
+		return null;
+	}
+
+	private static List<Long> ids(List<BookSuggestion> books) {
+		List<Long> ids = new ArrayList<>();
+		for (BookSuggestion b : books) ids.add(b.getId());
+		return ids;
+	}
+
+	private static Object[] row(long id, String title, String genre, String description) {
+		return new Object[] { id, title, "Author " + id, null, genre, description };
+	}
+}
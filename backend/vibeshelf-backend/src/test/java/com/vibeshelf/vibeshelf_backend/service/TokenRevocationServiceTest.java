@@ -0,0 +1,43 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.RevokedToken;
+import com.vibeshelf.vibeshelf_backend.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+	private static final long SETTLE_MS = 2000;
+
+	@Test
+	void rebuildLeavesUnsettledRowsForSyncToRepoll() {
+		RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+		when(repository.countUnexpired()).thenReturn(2L);
+		when(repository.findRevokedSince(0L, SETTLE_MS, 5000)).thenReturn(List.of(row(10L, "settled")));
+		when(repository.findRevokedSince(10L, 0L, 5000)).thenReturn(List.of(row(12L, "fresh")));
+		TokenRevocationService service = new TokenRevocationService(repository, 1000, 0.01);
+		ReflectionTestUtils.setField(service, "settleMs", SETTLE_MS);
+
+		service.init();
+		assertTrue(service.isRevoked("settled"));
+		assertTrue(service.isRevoked("fresh"));
+		assertEquals(10L, service.getStats().get("syncedThroughId"));
+
+		// Another node's revocation committed id 11 after the rebuild read 12
+		when(repository.findRevokedSince(10L, SETTLE_MS, 5000)).thenReturn(List.of(row(11L, "late"), row(12L, "fresh")));
+		service.sync();
+		assertTrue(service.isRevoked("late"));
+		assertEquals(12L, service.getStats().get("syncedThroughId"));
+	}
+
+	private static RevokedToken row(long id, String tokenId) {
+		return RevokedToken.builder().id(id).tokenId(tokenId).build();
+	}
+}
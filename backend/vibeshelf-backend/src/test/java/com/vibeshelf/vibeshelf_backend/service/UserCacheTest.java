@@ -0,0 +1,84 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.User;
+import com.vibeshelf.vibeshelf_backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserCacheTest {
+
+	private final Map<String, User> rows = new ConcurrentHashMap<>();
+	private final AtomicInteger queries = new AtomicInteger();
+	private final UserCache cache = new UserCache(repository(), 300, 100);
+
+	@Test
+	void warmUserCostsNoQueryByEmailOrId() {
+		rows.put("reader@example.com", user(7L, "reader", "reader@example.com"));
+
+		assertEquals("reader", cache.findByEmail("reader@example.com").orElseThrow().getUsername());
+		assertEquals("reader", cache.findByEmail("Reader@Example.com ").orElseThrow().getUsername());
+		assertEquals("reader@example.com", cache.findById(7L).orElseThrow().getEmail());
+		assertEquals(1, queries.get());
+	}
+
+	@Test
+	void missesAreNotCached() {
+		assertFalse(cache.findByEmail("new@example.com").isPresent());
+		rows.put("new@example.com", user(8L, "new", "new@example.com"));
+		assertTrue(cache.findByEmail("new@example.com").isPresent());
+	}
+
+	@Test
+	void evictAfterSaveServesTheNewRow() {
+		rows.put("reader@example.com", user(7L, "reader", "reader@example.com"));
+		cache.findByEmail("reader@example.com");
+
+		User renamed = user(7L, "renamed", "reader@example.com");
+		rows.put("reader@example.com", renamed);
+		assertEquals("reader", cache.findById(7L).orElseThrow().getUsername());
+
+		cache.evict(renamed);
+		assertEquals("renamed", cache.findByEmail("reader@example.com").orElseThrow().getUsername());
+		assertEquals("renamed", cache.findById(7L).orElseThrow().getUsername());
+	}
+
+	@Test
+	void callersCannotChangeTheCachedUser() {
+		rows.put("reader@example.com", user(7L, "reader", "reader@example.com"));
+		cache.findByEmail("reader@example.com").orElseThrow().setVerified(false);
+		assertTrue(cache.findByEmail("reader@example.com").orElseThrow().isVerified());
+	}
+
+	private static User user(Long id, String username, String email) {
+		User user = new User(username, email, "hash");
+		user.setId(id);
+		user.setVerified(true);
+		return user;
+	}
+
+	// Only the two lookups UserCache uses; rows are matched case-insensitively like MySQL
+	private UserRepository repository() {
+		UserRepository repository = mock(UserRepository.class);
+		when(repository.findByEmail(anyString())).thenAnswer(inv -> {
+			queries.incrementAndGet();
+			return Optional.ofNullable(rows.get(inv.<String>getArgument(0).trim().toLowerCase()));
+		});
+		when(repository.findById(anyLong())).thenAnswer(inv -> {
+			queries.incrementAndGet();
+			return rows.values().stream().filter(u -> u.getId().equals(inv.getArgument(0))).findFirst();
+		});
+		return repository;
+	}
+}
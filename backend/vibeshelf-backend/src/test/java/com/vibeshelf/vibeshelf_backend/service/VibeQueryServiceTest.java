@@ -0,0 +1,152 @@
+package com.vibeshelf.vibeshelf_backend.service;
+
+import com.vibeshelf.vibeshelf_backend.model.BookSuggestion;
+import com.vibeshelf.vibeshelf_backend.utils.BruteForceVectorSearch;
+import com.vibeshelf.vibeshelf_backend.utils.VectorStore;
+import com.vibeshelf.vibeshelf_backend.utils.VibeIndex;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VibeQueryServiceTest {
+
+	private static final int DIM = 8;
+	private static final int BOOKS = 2000;
+
+	private final FakeSearch search = new FakeSearch();
+	private final FakeEncoder encoder = new FakeEncoder();
+	private final VibeQueryService service = new VibeQueryService(search, encoder, 10, 1 << 20, 60);
+
+	@Test
+	void pagesAreSlicesOfOneRanking() {
+		List<String> first = titles(service.byPhrase("Rain on the window", 0, 5));
+		List<String> second = titles(service.byPhrase("rain on the  window", 5, 5));
+
+		assertEquals(1, encoder.calls.get());
+		assertEquals(List.of(10), search.searchedK);
+		List<String> whole = new ArrayList<>(first);
+		whole.addAll(second);
+		assertEquals(titles(new VibeQueryService(search, encoder, 10, 1 << 20, 60).byPhrase("rain on the window", 0, 10)), whole);
+		assertEquals(1L, service.getStats().get("hits"));
+	}
+
+	@Test
+	void pagingPastTheRankingSearchesDeeperWithTheCachedEmbedding() {
+		service.byPhrase("rain on the window", 0, 10);
+		List<String> deeper = titles(service.byPhrase("rain on the window", 10, 5));
+
+		assertEquals(5, deeper.size());
+		assertEquals(1, encoder.calls.get());
+		// Doubles the previous depth so the next few pages are hits again
+		assertEquals(List.of(10, 20), search.searchedK);
+		assertEquals(1L, service.getStats().get("deeperSearches"));
+
+		service.byPhrase("rain on the window", 15, 5);
+		assertEquals(List.of(10, 20), search.searchedK);
+	}
+
+	@Test
+	void booksAddedToTheGraphInvalidateRankings() {
+		service.byPhrase("rain on the window", 0, 5);
+		search.graphVersion++;
+		service.byPhrase("rain on the window", 0, 5);
+
+		// Re-ranked at the original depth with the cached embedding
+		assertEquals(1, encoder.calls.get());
+		assertEquals(List.of(10, 10), search.searchedK);
+		assertEquals(2L, service.getStats().get("misses"));
+	}
+
+	@Test
+	void byTitleLeavesOutTheBookItself() {
+		List<String> titles = titles(service.byTitle("book 7", 0, 20));
+		assertEquals(20, titles.size());
+		assertFalse(titles.contains("Book 7"));
+		assertEquals(0, encoder.calls.get());
+	}
+
+	@Test
+	void rankingsStopAtMaxDepth() {
+		List<BookSuggestion> page = service.byPhrase("rain on the window", VibeQueryService.MAX_DEPTH - 3, Integer.MAX_VALUE);
+		assertEquals(3, page.size());
+		assertTrue(service.byPhrase("rain on the window", Integer.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+		assertEquals(5, service.byPhrase("rain", -5, 5).size());
+		assertTrue(search.searchedK.stream().allMatch(k -> k <= VibeQueryService.MAX_DEPTH), search.searchedK.toString());
+	}
+
+	private static List<String> titles(List<BookSuggestion> page) {
+		return page.stream().map(BookSuggestion::getTitle).toList();
+	}
+
+	/** Brute-force ranking over a small random index, recording each search depth. */
+	private static final class FakeSearch extends VibeSearchService {
+		final VibeIndex index;
+		final BruteForceVectorSearch brute;
+		final List<Integer> searchedK = new ArrayList<>();
+		long graphVersion;
+
+		FakeSearch() {
+			Random random = new Random(7);
+			float[] data = new float[BOOKS * DIM];
+			for (int i = 0; i < data.length; i++) data[i] = (float) random.nextGaussian();
+			VectorStore store = VectorStore.fromArray(data, DIM);
+			long[] ids = new long[BOOKS];
+			String[] titles = new String[BOOKS];
+			for (int r = 0; r < BOOKS; r++) {
+				ids[r] = r + 1;
+				titles[r] = "Book " + r;
+			}
+			index = new VibeIndex(store, ids, titles, new String[BOOKS], new String[BOOKS]);
+			brute = new BruteForceVectorSearch(store, ForkJoinPool.commonPool());
+		}
+
+		@Override
+		public VibeIndex getIndex() {
+			return index;
+		}
+
+		@Override
+		public long getIndexFingerprint() {
+			return 1L;
+		}
+
+		@Override
+		public long getGraphVersion() {
+			return graphVersion;
+		}
+
+		@Override
+		public int rankRows(float[] query, int k, int excludeRow, int[] outRows, float[] outScores) {
+			searchedK.add(k);
+			return brute.search(query, k, excludeRow).drainSorted(outRows, outScores);
+		}
+
+		@Override
+		public List<BookSuggestion> suggestionsFor(int[] rows, float[] scores, int from, int to) {
+			List<BookSuggestion> out = new ArrayList<>();
+			for (int i = from; i < to; i++) out.add(toSuggestion(index, rows[i], scores[i]));
+			return out;
+		}
+	}
+
+	private static final class FakeEncoder extends VibeEncoderService {
+		final AtomicInteger calls = new AtomicInteger();
+
+		@Override
+		public float[] encode(String phrase) {
+			calls.incrementAndGet();
+			float[] v = new float[DIM];
+			for (int i = 0; i < DIM; i++) v[i] = (phrase.hashCode() >> i) & 3;
+			v[0] += 1;
+			return v;
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyLimiterTest {
+
+	private static final long MS = 1_000_000L;
+
+	@Test
+	void lowerPriorityIsShedFirst() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 100);
+		for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire(0.5));
+		assertFalse(limiter.tryAcquire(0.5));
+		for (int i = 0; i < 5; i++) assertTrue(limiter.tryAcquire(1.0));
+		assertFalse(limiter.tryAcquire(1.0));
+		assertEquals(10, limiter.getInFlight());
+		assertEquals(2, limiter.getShed());
+
+		limiter.release(5 * MS, false);
+		assertTrue(limiter.tryAcquire(1.0));
+	}
+
+	@Test
+	void limitSettlesNearCapacityAndFollowsItDown() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 200);
+		// A database that serves 40 queries at once in 5 ms; more than that queue
+		for (int i = 0; i < 300; i++) cycleAtLimit(limiter, 5 * MS, 40);
+		int healthy = limiter.getLimit();
+		assertTrue(healthy >= 20 && healthy <= 100, "limit " + healthy);
+
+		// It slows down to 10 at once in 20 ms: the limit follows within a few rounds
+		for (int i = 0; i < 5; i++) cycleAtLimit(limiter, 20 * MS, 10);
+		int degraded = limiter.getLimit();
+		assertTrue(degraded < healthy / 2, "limit " + degraded + " from " + healthy);
+		for (int i = 0; i < 300; i++) cycleAtLimit(limiter, 20 * MS, 10);
+		assertTrue(limiter.getLimit() <= 30, "limit " + limiter.getLimit());
+	}
+
+	@Test
+	void lightLoadDoesNotInflateTheLimit() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 2, 100);
+		for (int i = 0; i < 200; i++) {
+			assertTrue(limiter.tryAcquire(1.0));
+			limiter.release(5 * MS, false);
+		}
+		assertEquals(10, limiter.getLimit());
+	}
+
+	@Test
+	void failuresBackOff() {
+		AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100);
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire(1.0));
+			limiter.release(5 * MS, true);
+		}
+		assertEquals(6, limiter.getLimit());
+		assertEquals(10, limiter.getFailed());
+	}
+
+	// Fill the limit, then complete everything; latency grows once more than capacity run at once
+	private static void cycleAtLimit(AdaptiveConcurrencyLimiter limiter, long serviceNanos, int capacity) {
+		int n = 0;
+		while (limiter.tryAcquire(1.0)) n++;
+		long rtt = serviceNanos * Math.max(1, (n + capacity - 1) / capacity);
+		for (int i = 0; i < n; i++) limiter.release(rtt, false);
+	}
+}
@@ -0,0 +1,37 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AhoCorasickTest {
+
+	private static List<String> matches(AhoCorasick ac, List<String> patterns, String text) {
+		List<String> found = new ArrayList<>();
+		ac.scan(AhoCorasick.normalize(text), (p, end) -> found.add(patterns.get(p)));
+		return found;
+	}
+
+	@Test
+	void findsOverlappingPhrasesInOnePass() {
+		List<String> patterns = List.of("love", "crush", "crush on her", "on her", "lost you", "it’s over");
+		AhoCorasick ac = new AhoCorasick(patterns);
+
+		assertEquals(List.of("crush", "crush on her", "on her", "love"),
+			matches(ac, patterns, "I had a CRUSH  on her,\nit was love"));
+		assertEquals(List.of("it’s over", "lost you"),
+			matches(ac, patterns, "It's over... I lost you"));
+	}
+
+	@Test
+	void onlyReportsWholeWords() {
+		List<String> patterns = List.of("love", "queen");
+		AhoCorasick ac = new AhoCorasick(patterns);
+
+		assertEquals(List.of(), matches(ac, patterns, "lovely gloves, queenie"));
+		assertEquals(List.of("love", "queen"), matches(ac, patterns, "love! (queen)"));
+	}
+}
@@ -0,0 +1,136 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchingEncoderClientTest {
+
+	private static final int DIM = 4;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+	private final AtomicInteger requests = new AtomicInteger();
+	private volatile int status = 200;
+	private final CountDownLatch release = new CountDownLatch(1);
+	private volatile boolean hold;
+	private HttpServer server;
+
+	@AfterEach
+	void stop() {
+		if (server != null) server.stop(0);
+	}
+
+	// Stub sidecar: encodes each phrase as [length, 1, 0, 0]
+	private String startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/encode", exchange -> {
+			requests.incrementAndGet();
+			if (hold) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			JsonNode phrases = mapper.readTree(exchange.getRequestBody()).path("phrases");
+			byte[] body;
+			if (status == 200) {
+				ByteBuffer data = ByteBuffer.allocate(phrases.size() * DIM * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+				for (JsonNode p : phrases) data.putFloat(p.asText().length()).putFloat(1f).putFloat(0f).putFloat(0f);
+				body = ("{\"count\":" + phrases.size() + ",\"dim\":" + DIM + ",\"data\":\""
+					+ Base64.getEncoder().encodeToString(data.array()) + "\"}").getBytes(StandardCharsets.UTF_8);
+			} else {
+				body = "{}".getBytes(StandardCharsets.UTF_8);
+			}
+			exchange.sendResponseHeaders(status, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+		return "http://127.0.0.1:" + server.getAddress().getPort();
+	}
+
+	@Test
+	void concurrentPhrasesShareBatches() throws Exception {
+		String url = startStub();
+		try (BatchingEncoderClient client = new BatchingEncoderClient(url, 16, 50, 2, 100,
+				Duration.ofSeconds(5), new CircuitBreaker(3, 60_000))) {
+			List<CompletableFuture<float[]>> futures = new ArrayList<>();
+			for (int i = 0; i < 40; i++) {
+				futures.add(client.encode("x".repeat(1 + i % 10)));
+			}
+			for (int i = 0; i < 40; i++) {
+				float[] v = futures.get(i).get(5, TimeUnit.SECONDS);
+				assertEquals(1 + i % 10, v[0], 0f, "vector for phrase " + i);
+			}
+			// 40 phrases at up to 16 per batch; far fewer requests than phrases
+			assertTrue(requests.get() <= 6, "requests: " + requests.get());
+			assertEquals(40L, client.getStats().get("phrases"));
+		}
+	}
+
+	@Test
+	void circuitOpensAfterRepeatedFailures() throws Exception {
+		String url = startStub();
+		status = 500;
+		try (BatchingEncoderClient client = new BatchingEncoderClient(url, 8, 0, 1, 100,
+				Duration.ofSeconds(5), new CircuitBreaker(2, 60_000))) {
+			for (int i = 0; i < 2; i++) {
+				CompletableFuture<float[]> f = client.encode("phrase " + i);
+				assertThrows(ExecutionException.class, () -> f.get(5, TimeUnit.SECONDS));
+			}
+			assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+
+			int before = requests.get();
+			ExecutionException e = assertThrows(ExecutionException.class,
+				() -> client.encode("phrase 3").get(1, TimeUnit.SECONDS));
+			assertInstanceOf(BatchingEncoderClient.CircuitOpenException.class, e.getCause());
+			assertEquals(before, requests.get());
+		}
+	}
+
+	@Test
+	void trialThatCannotBeQueuedLeavesTheCircuitOpen() throws Exception {
+		String url = startStub();
+		hold = true;
+		CircuitBreaker breaker = new CircuitBreaker(1, 0);
+		try (BatchingEncoderClient client = new BatchingEncoderClient(url, 1, 0, 1, 1,
+				Duration.ofSeconds(5), breaker)) {
+			// One batch in flight, one waiting for the slot, one filling the queue
+			CompletableFuture<float[]> sent = client.encode("a");
+			client.encode("b");
+			while (!client.getStats().get("queued").equals(0)) Thread.sleep(5);
+			client.encode("c");
+
+			breaker.onFailure();
+			ExecutionException e = assertThrows(ExecutionException.class, () -> client.encode("d").get(1, TimeUnit.SECONDS));
+			assertInstanceOf(RejectedExecutionException.class, e.getCause());
+			assertEquals(CircuitBreaker.State.OPEN, client.circuitState());
+
+			release.countDown();
+			assertEquals(DIM, sent.get(5, TimeUnit.SECONDS).length);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+	@Test
+	void addedKeysAreAlwaysFound() {
+		BloomFilter filter = new BloomFilter(10_000, 0.001);
+		for (int i = 0; i < 10_000; i++) filter.put("jti-" + i);
+		for (int i = 0; i < 10_000; i++) assertTrue(filter.mightContain("jti-" + i));
+	}
+
+	@Test
+	void falsePositiveRateIsNearTheTarget() {
+		BloomFilter filter = new BloomFilter(10_000, 0.01);
+		for (int i = 0; i < 10_000; i++) filter.put("revoked-" + i);
+
+		int falsePositives = 0;
+		int probes = 100_000;
+		for (int i = 0; i < probes; i++) {
+			if (filter.mightContain("live-" + i)) falsePositives++;
+		}
+		// Target 1%; allow slack for hashing variance
+		assertTrue(falsePositives < probes * 0.02, "false positives: " + falsePositives);
+	}
+}
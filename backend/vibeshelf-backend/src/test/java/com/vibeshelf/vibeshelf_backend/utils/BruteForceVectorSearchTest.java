@@ -0,0 +1,70 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BruteForceVectorSearchTest {
+
+	@Test
+	void matchesAnExactScanAcrossLeaves() {
+		int dim = 16;
+		int count = 5000;
+		Random random = new Random(42);
+		float[] data = new float[count * dim];
+		for (int i = 0; i < data.length; i++) data[i] = (float) random.nextGaussian();
+		VectorStore store = VectorStore.fromArray(data, dim);
+
+		float[] query = new float[dim];
+		store.get(17, query);
+		TopK top = new BruteForceVectorSearch(store, ForkJoinPool.commonPool()).search(query, 10, 17);
+
+		float[] row = new float[dim];
+		float[] expectedScores = new float[count];
+		for (int r = 0; r < count; r++) {
+			store.get(r, row);
+			expectedScores[r] = VectorStore.dot(query, 0, row, 0, dim);
+		}
+		int[] expected = IntStream.range(0, count).filter(r -> r != 17).boxed()
+			.sorted(Comparator.comparingDouble(r -> -expectedScores[r]))
+			.limit(10).mapToInt(Integer::intValue).toArray();
+
+		int[] rows = new int[10];
+		float[] scores = new float[10];
+		assertEquals(10, top.drainSorted(rows, scores));
+		assertArrayEquals(expected, rows);
+		for (int i = 1; i < scores.length; i++) {
+			assertTrue(scores[i - 1] >= scores[i], Arrays.toString(scores));
+		}
+	}
+
+	@Test
+	void rowsAreNormalisedSoScoresAreCosines() {
+		VectorStore store = VectorStore.fromArray(new float[] { 3, 0, 0, 5, 1, 1 }, 2);
+		TopK top = new BruteForceVectorSearch(store, ForkJoinPool.commonPool()).search(new float[] { 1, 0 }, 3, -1);
+
+		int[] rows = new int[3];
+		float[] scores = new float[3];
+		top.drainSorted(rows, scores);
+		assertArrayEquals(new int[] { 0, 2, 1 }, rows);
+		assertEquals(1f, scores[0], 1e-6f);
+		assertEquals((float) Math.sqrt(0.5), scores[1], 1e-6f);
+		assertEquals(0f, scores[2], 1e-6f);
+	}
+
+	@Test
+	void rejectsAQueryOfTheWrongDimension() {
+		VectorStore store = VectorStore.fromArray(new float[] { 1, 0, 0, 1 }, 2);
+		assertThrows(IllegalArgumentException.class,
+			() -> new BruteForceVectorSearch(store, ForkJoinPool.commonPool()).search(new float[3], 1, -1));
+	}
+}
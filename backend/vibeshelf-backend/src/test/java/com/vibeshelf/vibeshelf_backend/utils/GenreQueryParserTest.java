@@ -0,0 +1,27 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GenreQueryParserTest {
+
+	@Test
+	void separatorsAndJsonArraysGiveTheSameTokens() {
+		List<String> expected = List.of("thriller", "mystery", "science fiction");
+		assertEquals(expected, GenreQueryParser.tokens("Thriller,Mystery,Science Fiction"));
+		assertEquals(expected, GenreQueryParser.tokens(" Thriller / Mystery ; Science Fiction "));
+		assertEquals(expected, GenreQueryParser.tokens("[\"Thriller\",\"Mystery\",\"Science Fiction\"]"));
+		assertEquals("thriller|mystery|sciencefiction", GenreQueryParser.regex(expected));
+	}
+
+	@Test
+	void blankInputHasNoTokens() {
+		assertTrue(GenreQueryParser.tokens(null).isEmpty());
+		assertTrue(GenreQueryParser.tokens(" , ; ").isEmpty());
+		assertTrue(GenreQueryParser.tokens("[]").isEmpty());
+	}
+}
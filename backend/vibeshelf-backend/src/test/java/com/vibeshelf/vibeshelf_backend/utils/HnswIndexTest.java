@@ -0,0 +1,118 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HnswIndexTest {
+
+	private static final int DIM = 32;
+
+	// Clustered data so neighbourhoods are meaningful, like sentence embeddings
+	private static float[] clusteredVectors(int n, Random rnd) {
+		int clusters = 40;
+		float[][] centers = new float[clusters][DIM];
+		for (float[] c : centers) {
+			for (int i = 0; i < DIM; i++) c[i] = (float) rnd.nextGaussian();
+		}
+		float[] data = new float[n * DIM];
+		for (int r = 0; r < n; r++) {
+			float[] c = centers[rnd.nextInt(clusters)];
+			for (int i = 0; i < DIM; i++) data[r * DIM + i] = c[i] + 0.4f * (float) rnd.nextGaussian();
+		}
+		return data;
+	}
+
+	@Test
+	void parallelBuildMatchesBruteForce() {
+		Random rnd = new Random(7);
+		VectorStore store = VectorStore.fromArray(clusteredVectors(4000, rnd), DIM);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		HnswIndex hnsw = new HnswIndex(store, 16, 100, 64, 10);
+		hnsw.buildParallel(pool);
+		assertEquals(4000, hnsw.size());
+
+		BruteForceVectorSearch exact = new BruteForceVectorSearch(store, pool);
+		int k = 10;
+		int[] exactRows = new int[k];
+		int[] approxRows = new int[k];
+		float[] scores = new float[k];
+		float[] q = new float[DIM];
+		int hits = 0;
+		int queries = 100;
+		for (int i = 0; i < queries; i++) {
+			int row = rnd.nextInt(store.count());
+			store.get(row, q);
+			exact.search(q, k, row).drainSorted(exactRows, scores);
+			int n = hnsw.search(q, k, row).drainSorted(approxRows, scores);
+			for (int a = 0; a < n; a++) {
+				for (int e = 0; e < k; e++) {
+					if (approxRows[a] == exactRows[e]) hits++;
+				}
+			}
+		}
+		double recall = hits / (double) (queries * k);
+		assertTrue(recall > 0.95, "recall@10 was " + recall);
+	}
+
+	@Test
+	void addedVectorIsFoundAsItsOwnNearestNeighbour() {
+		Random rnd = new Random(11);
+		VectorStore store = VectorStore.fromArray(clusteredVectors(1000, rnd), DIM);
+		HnswIndex hnsw = new HnswIndex(store, 8, 64, 32, 5);
+		hnsw.buildParallel(new ForkJoinPool(2));
+
+		float[] v = new float[DIM];
+		for (int i = 0; i < DIM; i++) v[i] = (float) rnd.nextGaussian();
+		float norm = (float) Math.sqrt(VectorStore.dot(v, 0, v, 0, DIM));
+		for (int i = 0; i < DIM; i++) v[i] /= norm;
+
+		int node = hnsw.add(v);
+		assertEquals(1000, node);
+		int[] rows = new int[1];
+		float[] scores = new float[1];
+		hnsw.search(v, 1, -1).drainSorted(rows, scores);
+		assertEquals(node, rows[0]);
+	}
+
+	@Test
+	void searchesDuringABuildSeeAConsistentEntryPoint() throws Exception {
+		Random rnd = new Random(13);
+		VectorStore store = VectorStore.fromArray(clusteredVectors(3000, rnd), DIM);
+		HnswIndex hnsw = new HnswIndex(store, 8, 32, 16, 0);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		AtomicBoolean building = new AtomicBoolean(true);
+		Thread[] readers = new Thread[4];
+		for (int t = 0; t < readers.length; t++) {
+			long seed = t;
+			readers[t] = new Thread(() -> {
+				Random r = new Random(seed);
+				float[] q = new float[DIM];
+				try {
+					while (building.get()) {
+						store.get(r.nextInt(store.count()), q);
+						hnsw.search(q, 5, -1);
+					}
+				} catch (Throwable e) {
+					failure.compareAndSet(null, e);
+				}
+			});
+			readers[t].start();
+		}
+		hnsw.buildParallel(pool);
+		building.set(false);
+		for (Thread reader : readers) reader.join();
+
+		assertNull(failure.get());
+		assertEquals(3000, hnsw.size());
+	}
+}
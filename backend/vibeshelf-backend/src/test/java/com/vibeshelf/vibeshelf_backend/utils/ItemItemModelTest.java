@@ -0,0 +1,65 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ItemItemModelTest {
+
+	// Users 1-3 like books 10 and 11 together; users 4-5 like 20 and 21 together
+	private static final long[] USERS = {1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 5};
+	private static final long[] BOOKS = {10, 11, 10, 11, 10, 11, 20, 21, 20, 21, 10};
+	private static final byte[] RATINGS = {5, 5, 4, 5, 5, 4, 5, 5, 4, 4, 1};
+
+	@Test
+	void recommendsCoRatedBooks() {
+		ItemItemModel model = new ItemItemModel(5, 0f);
+		model.rebuild(USERS, BOOKS, RATINGS, USERS.length, ForkJoinPool.commonPool());
+		assertEquals(4, model.items());
+		assertEquals(5, model.users());
+		assertEquals(11, model.ratings());
+
+		assertEquals(11L, model.neighborsOf(10)[0]);
+		long[] because = new long[3];
+		long[] recs = model.recommend(new long[]{10}, new int[]{5}, 3, new float[3], because);
+		assertEquals(11L, recs[0]);
+		assertEquals(10L, because[0]);
+	}
+
+	@Test
+	void incrementalRatingsMatchRebuild() {
+		ItemItemModel incremental = new ItemItemModel(5, 2f);
+		for (int i = 0; i < USERS.length; i++) incremental.rate(USERS[i], BOOKS[i], RATINGS[i]);
+		incremental.rate(6, 21, 5);
+		incremental.rate(6, 11, 5);
+
+		ItemItemModel rebuilt = new ItemItemModel(5, 2f);
+		long[] users = Arrays.copyOf(USERS, USERS.length + 2);
+		long[] books = Arrays.copyOf(BOOKS, BOOKS.length + 2);
+		byte[] ratings = Arrays.copyOf(RATINGS, RATINGS.length + 2);
+		users[11] = 6; books[11] = 21; ratings[11] = 5;
+		users[12] = 6; books[12] = 11; ratings[12] = 5;
+		rebuilt.rebuild(users, books, ratings, users.length, ForkJoinPool.commonPool());
+
+		// Lists of the books user 6 rated are recomputed exactly
+		for (long book : new long[]{11, 21}) {
+			assertArrayEquals(rebuilt.neighborsOf(book), incremental.neighborsOf(book), "neighbours of " + book);
+		}
+		// Others hold the same neighbours, possibly ordered by slightly stale scores until a rebuild
+		for (long book : new long[]{10, 20}) {
+			long[] expected = rebuilt.neighborsOf(book);
+			long[] actual = incremental.neighborsOf(book);
+			Arrays.sort(expected);
+			Arrays.sort(actual);
+			assertArrayEquals(expected, actual, "neighbours of " + book);
+		}
+		long[] recs = incremental.recommend(new long[]{21}, new int[]{5}, 5, null, null);
+		assertTrue(recs.length > 0);
+		assertEquals(20L, recs[0]);
+	}
+}
@@ -0,0 +1,92 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Simulated requests (a few microseconds of work each) that log a line per
+ * request straight to a shared PrintStream, as System.out.println did,
+ * versus the new path: 1% sampling with sampled lines handed to the ring
+ * buffer and written by one background thread. Reports requests per second
+ * for both. Run with mvn test -Pbenchmark.
+ */
+@Tag("benchmark")
+class LoggingThroughputBenchmarkTest {
+
+	private static final int THREADS = 8;
+	private static final long RUN_MILLIS = 2000;
+	private static final long REQUEST_WORK_NANOS = 10_000;
+
+	// Simulates a slow terminal: each write costs a little, under the stream's lock
+	private static final class SlowSink extends OutputStream {
+		@Override
+		public void write(int b) {
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			long until = System.nanoTime() + 2_000;
+			while (System.nanoTime() < until) Thread.onSpinWait();
+		}
+	}
+
+	@Test
+	void ringBufferBeatsSynchronizedStdout() throws Exception {
+		PrintStream direct = new PrintStream(new SlowSink(), false);
+		double directOps = run(() -> direct.println("DEBUG: JwtAuthFilter - Processing request for URI: /api/books"));
+		LongAdder written = new LongAdder();
+
+		PrintStream sink = new PrintStream(new SlowSink(), false);
+		RingBuffer<String> buffer = new RingBuffer<>(8192);
+		LongAdder dropped = new LongAdder();
+		AtomicBoolean running = new AtomicBoolean(true);
+		Thread writer = new Thread(() -> {
+			while (running.get()) {
+				int n = buffer.drain(sink::println, 256);
+				if (n == 0) Thread.onSpinWait();
+				written.add(n);
+			}
+		});
+		writer.start();
+		double bufferedOps = run(() -> {
+			if (ThreadLocalRandom.current().nextDouble() >= 0.01) return;
+			if (!buffer.offer("request method=GET path=/api/books status=200")) dropped.increment();
+		});
+		running.set(false);
+		writer.join();
+
+		System.out.printf("direct: %.0f req/s, sampled + ring buffer: %.0f req/s (%d lines written, %d dropped)%n",
+			directOps, bufferedOps, written.sum(), dropped.sum());
+		assertTrue(bufferedOps > directOps);
+	}
+
+	private static double run(Runnable logLine) throws InterruptedException {
+		LongAdder ops = new LongAdder();
+		AtomicBoolean stop = new AtomicBoolean();
+		CountDownLatch done = new CountDownLatch(THREADS);
+		for (int i = 0; i < THREADS; i++) {
+			new Thread(() -> {
+				while (!stop.get()) {
+					long until = System.nanoTime() + REQUEST_WORK_NANOS;
+					while (System.nanoTime() < until) Thread.onSpinWait();
+					logLine.run();
+					ops.increment();
+				}
+				done.countDown();
+			}).start();
+		}
+		Thread.sleep(RUN_MILLIS);
+		stop.set(true);
+		done.await();
+		return ops.sum() * 1000.0 / RUN_MILLIS;
+	}
+}
@@ -0,0 +1,46 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NeighborListsTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void exactListsMatchBruteForceAndSurviveRoundTrip() throws Exception {
+		int dim = 16, n = 700, k = 5;
+		Random rnd = new Random(5);
+		float[] data = new float[n * dim];
+		for (int i = 0; i < data.length; i++) data[i] = (float) rnd.nextGaussian();
+		VectorStore store = VectorStore.fromArray(data, dim);
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		int[] lists = NeighborLists.computeExact(store, k, pool);
+		Path file = dir.resolve("neighbors.bin");
+		NeighborLists.write(file, k, 1234L, lists);
+		NeighborLists mapped = NeighborLists.open(file);
+		assertEquals(n, mapped.count());
+		assertEquals(1234L, mapped.fingerprint());
+
+		BruteForceVectorSearch exact = new BruteForceVectorSearch(store, pool);
+		int[] expected = new int[k];
+		int[] actual = new int[k];
+		float[] scores = new float[k];
+		float[] q = new float[dim];
+		for (int row : new int[]{0, 31, 32, 350, n - 1}) {
+			store.get(row, q);
+			exact.search(q, k, row).drainSorted(expected, scores);
+			assertEquals(k, mapped.neighbors(row, actual));
+			assertArrayEquals(expected, actual);
+		}
+	}
+}
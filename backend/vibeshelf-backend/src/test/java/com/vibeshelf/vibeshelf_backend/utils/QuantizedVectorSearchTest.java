@@ -0,0 +1,80 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QuantizedVectorSearchTest {
+
+	private static final int DIM = 64;
+	private static final int K = 10;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	private static VectorStore clusteredStore(int n, long seed) {
+		Random rnd = new Random(seed);
+		float[][] centers = new float[50][DIM];
+		for (float[] c : centers) {
+			for (int i = 0; i < DIM; i++) c[i] = (float) rnd.nextGaussian();
+		}
+		float[] data = new float[n * DIM];
+		for (int r = 0; r < n; r++) {
+			float[] c = centers[rnd.nextInt(centers.length)];
+			for (int i = 0; i < DIM; i++) data[r * DIM + i] = c[i] + 0.5f * (float) rnd.nextGaussian();
+		}
+		return VectorStore.fromArray(data, DIM);
+	}
+
+	private double recall(VectorStore store, QuantizedVectorSearch search, boolean rerank) {
+		BruteForceVectorSearch exact = new BruteForceVectorSearch(store, pool);
+		Random rnd = new Random(3);
+		int[] exactRows = new int[K];
+		int[] rows = new int[K];
+		float[] scores = new float[K];
+		float[] q = new float[DIM];
+		int hits = 0;
+		int queries = 100;
+		for (int i = 0; i < queries; i++) {
+			int row = rnd.nextInt(store.count());
+			store.get(row, q);
+			exact.search(q, K, row).drainSorted(exactRows, scores);
+			TopK approx = rerank ? search.search(q, K, row) : search.searchApproximate(q, K, row);
+			int n = approx.drainSorted(rows, scores);
+			for (int a = 0; a < n; a++) {
+				for (int e = 0; e < K; e++) {
+					if (rows[a] == exactRows[e]) hits++;
+				}
+			}
+		}
+		return hits / (double) (queries * K);
+	}
+
+	@Test
+	void int8RerankedSearchMatchesExactScan() {
+		VectorStore store = clusteredStore(5000, 1);
+		Int8Vectors codes = Int8Vectors.encode(store, pool);
+		assertTrue(store.sizeBytes() / (double) codes.sizeBytes() > 3.5);
+
+		QuantizedVectorSearch search = new QuantizedVectorSearch(codes, store, pool, 4);
+		assertTrue(recall(store, search, false) > 0.9);
+		assertTrue(recall(store, search, true) > 0.98);
+	}
+
+	@Test
+	void productQuantizedRerankRecoversRecall() {
+		VectorStore store = clusteredStore(5000, 2);
+		ProductQuantizer codes = ProductQuantizer.train(store, 16, 5000, 8, pool, 42);
+		assertEquals("pq16x256", codes.kind());
+		assertTrue(store.sizeBytes() / (double) codes.sizeBytes() > 3.0);
+
+		QuantizedVectorSearch search = new QuantizedVectorSearch(codes, store, pool, 10);
+		double approximate = recall(store, search, false);
+		double reranked = recall(store, search, true);
+		assertTrue(reranked > 0.9, "reranked recall@10 was " + reranked);
+		assertTrue(reranked >= approximate);
+	}
+}
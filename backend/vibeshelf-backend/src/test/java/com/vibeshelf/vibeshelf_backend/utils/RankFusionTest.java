@@ -0,0 +1,41 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RankFusionTest {
+
+	@Test
+	void itemsInBothRankingsRiseToTheTop() {
+		List<String> lexical = List.of("exact-title", "a", "b", "shared");
+		List<String> vector = List.of("x", "shared", "y", "z");
+		Map<String, Double> scores = new HashMap<>();
+
+		List<String> fused = RankFusion.reciprocalRank(List.of(lexical, vector), new double[]{1, 1}, 60, scores);
+
+		assertEquals("shared", fused.get(0));
+		// Rank 1 in one list ties with rank 1 in the other; first-seen order breaks the tie
+		assertEquals("exact-title", fused.get(1));
+		assertEquals("x", fused.get(2));
+		assertEquals(7, fused.size());
+		assertEquals(1.0 / 64 + 1.0 / 62, scores.get("shared"), 1e-12);
+	}
+
+	@Test
+	void missingLegAndDuplicatesAreIgnored() {
+		List<String> vector = List.of("a", "b", "a");
+		List<String> fused = RankFusion.reciprocalRank(Arrays.asList(null, vector), new double[]{1, 2}, 60, null);
+		assertEquals(List.of("a", "b"), fused);
+
+		Map<String, Double> scores = new HashMap<>();
+		RankFusion.reciprocalRank(List.of(List.of("a"), List.of("b")), new double[]{1, 2}, 60, scores);
+		assertTrue(scores.get("b") > scores.get("a"));
+	}
+}
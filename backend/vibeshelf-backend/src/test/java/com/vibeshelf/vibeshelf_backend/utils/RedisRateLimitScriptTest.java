@@ -0,0 +1,62 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import com.vibeshelf.vibeshelf_backend.service.RateLimitService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The distributed GCRA script against a real Redis on localhost:6379.
+ * Run with mvn test -Predis.
+ */
+@Tag("redis")
+class RedisRateLimitScriptTest {
+
+	private static LettuceConnectionFactory factory;
+	private static StringRedisTemplate redis;
+	private static DefaultRedisScript<List<Long>> script;
+
+	@BeforeAll
+	static void connect() {
+		factory = new LettuceConnectionFactory("localhost", 6379);
+		factory.afterPropertiesSet();
+		redis = new StringRedisTemplate(factory);
+		script = RateLimitService.gcraScript();
+	}
+
+	@AfterAll
+	static void close() {
+		factory.destroy();
+	}
+
+	@Test
+	void sharedBucketAllowsBurstThenDeniesWithRetryAfter() {
+		String key = "rl:test:" + UUID.randomUUID();
+		// One token a minute, so nothing refills during the test
+		String intervalMicros = Long.toString(60_000_000L);
+		for (int i = 0; i < 3; i++) {
+			List<Long> reply = redis.execute(script, List.of(key), intervalMicros, "3");
+			assertEquals(1L, reply.get(0));
+			assertEquals((long) (2 - i), reply.get(1));
+		}
+		List<Long> denied = redis.execute(script, List.of(key), intervalMicros, "3");
+		assertEquals(0L, denied.get(0));
+		long retryAfterMicros = denied.get(2);
+		assertTrue(retryAfterMicros > 59_000_000L && retryAfterMicros <= 60_000_000L);
+
+		// The key only lives until the bucket would be full again
+		Long ttl = redis.getExpire(key);
+		assertTrue(ttl != null && ttl > 0 && ttl <= 180);
+		redis.delete(key);
+	}
+}
@@ -0,0 +1,63 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferTest {
+
+	@Test
+	void fullBufferRejectsAndFreesSlotsAsItDrains() {
+		RingBuffer<Integer> buffer = new RingBuffer<>(3);
+		assertEquals(4, buffer.capacity());
+		for (int i = 0; i < 4; i++) assertTrue(buffer.offer(i));
+		assertFalse(buffer.offer(99));
+
+		assertEquals(0, buffer.poll());
+		assertTrue(buffer.offer(4));
+		List<Integer> drained = new ArrayList<>();
+		buffer.drain(drained::add, 10);
+		assertEquals(List.of(1, 2, 3, 4), drained);
+		assertNull(buffer.poll());
+	}
+
+	@Test
+	void concurrentProducersLoseNothingThatWasAccepted() throws Exception {
+		RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+		int producers = 4;
+		int perProducer = 50_000;
+		AtomicInteger accepted = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(producers);
+		for (int p = 0; p < producers; p++) {
+			Thread t = new Thread(() -> {
+				for (int i = 0; i < perProducer; i++) {
+					while (!buffer.offer(i)) Thread.onSpinWait();
+					accepted.incrementAndGet();
+				}
+				done.countDown();
+			});
+			t.start();
+		}
+
+		long sum = 0;
+		int received = 0;
+		while (received < producers * perProducer) {
+			Integer v = buffer.poll();
+			if (v == null) continue;
+			sum += v;
+			received++;
+		}
+		done.await();
+		assertEquals(producers * perProducer, accepted.get());
+		assertEquals((long) producers * perProducer * (perProducer - 1) / 2, sum);
+		assertNull(buffer.poll());
+	}
+}
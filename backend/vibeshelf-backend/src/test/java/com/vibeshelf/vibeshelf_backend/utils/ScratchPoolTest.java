@@ -0,0 +1,46 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScratchPoolTest {
+
+	@Test
+	void releasedBuffersAreReused() {
+		AtomicInteger made = new AtomicInteger();
+		ScratchPool<int[]> pool = new ScratchPool<>(2, () -> {
+			made.incrementAndGet();
+			return new int[8];
+		});
+
+		int[] a = pool.acquire();
+		pool.release(a);
+		assertSame(a, pool.acquire());
+		assertEquals(1, made.get());
+	}
+
+	@Test
+	void keepsAtMostMaxIdleBuffers() {
+		ScratchPool<int[]> pool = new ScratchPool<>(2, () -> new int[8]);
+		int[] a = pool.acquire();
+		int[] b = pool.acquire();
+		int[] c = pool.acquire();
+		assertNotSame(a, b);
+
+		pool.release(a);
+		pool.release(b);
+		pool.release(c);
+		assertEquals(2, pool.idle());
+	}
+
+	@Test
+	void rejectsAnEmptyPool() {
+		assertThrows(IllegalArgumentException.class, () -> new ScratchPool<>(0, () -> new int[1]));
+	}
+}
@@ -0,0 +1,87 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TfIdfIndexTest {
+
+	private static final String[] TEXTS = {
+		"Fantasy Dragons and wizards in a magical kingdom at war",
+		"Fantasy A young wizard discovers magic at a hidden school of wizards",
+		"Romance Two rivals fall in love during a summer in Paris",
+		"Thriller A detective hunts a serial killer through the rain-soaked city",
+		null,
+	};
+
+	private static TfIdfIndex build() {
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			return TfIdfIndex.build(TEXTS, 16, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static int[] rows(TopK top) {
+		int[] rows = new int[top.size()];
+		top.drainSorted(rows, new float[top.size()]);
+		return rows;
+	}
+
+	@Test
+	void phraseQueryRanksSharedRareTermsFirst() {
+		TfIdfIndex index = build();
+		assertEquals(5, index.count());
+
+		int[] rows = rows(index.query("wizards at magic school", 3));
+		assertEquals(1, rows[0]);
+		assertEquals(0, rows[1]);
+		assertEquals(2, rows.length);
+
+		assertEquals(0, index.query("the of and", 3).size());
+	}
+
+	@Test
+	void moreLikeThisExcludesTheSourceRow() {
+		TfIdfIndex index = build();
+		int[] rows = rows(index.moreLikeThis(0, 4, 8));
+		assertEquals(1, rows[0]);
+		for (int r : rows) assertTrue(r != 0);
+
+		// Empty rows have no terms and so no neighbours
+		assertEquals(0, index.moreLikeThis(4, 4, 8).size());
+	}
+
+	@Test
+	void skippedRowsAreNotReturned() {
+		TfIdfIndex index = build();
+		BitSet skip = new BitSet();
+		skip.set(1);
+		int[] rows = rows(index.search(index.queryVector("wizards at magic school"), 3, -1, skip));
+		assertEquals(1, rows.length);
+		assertEquals(0, rows[0]);
+	}
+
+	@Test
+	void vectorizedTextScoresLikeAnIndexedRow() {
+		TfIdfIndex index = build();
+		TfIdfIndex.SparseVector q = index.queryVector("wizards at magic school");
+		TfIdfIndex.SparseVector added = index.vectorize(TEXTS[1]);
+		TopK top = index.search(q, 1, -1, null);
+		float[] scores = new float[1];
+		top.drainSorted(new int[1], scores);
+		assertEquals(scores[0], q.dot(added), 1e-4f);
+		assertEquals(0f, q.dot(index.vectorize("Romance in Paris")), 0f);
+	}
+
+	@Test
+	void stopWordsAndSingleLettersAreDropped() {
+		assertEquals(2, TfIdfIndex.hashTerms("The cat and a HAT!", 0xFFFF).length);
+		assertEquals(0, TfIdfIndex.hashTerms(null, 0xFFFF).length);
+	}
+}
@@ -0,0 +1,40 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimerWheelTest {
+
+	@Test
+	void reportsKeysOnceTheirDeadlinePasses() {
+		TimerWheel<String> wheel = new TimerWheel<>(1000, 8, 0);
+		wheel.schedule("a", 2500);
+		wheel.schedule("b", 5000);
+		// Beyond one revolution (8 s): shares a slot with earlier ticks until its round comes
+		wheel.schedule("c", 11_000);
+
+		List<String> expired = new ArrayList<>();
+		assertEquals(0, wheel.advance(2000, expired::add));
+		assertEquals(1, wheel.advance(3000, expired::add));
+		assertEquals(List.of("a"), expired);
+		wheel.advance(9000, expired::add);
+		assertEquals(List.of("a", "b"), expired);
+		wheel.advance(11_000, expired::add);
+		assertEquals(List.of("a", "b", "c"), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void longPauseCatchesUpInOnePass() {
+		TimerWheel<Integer> wheel = new TimerWheel<>(10, 16, 0);
+		for (int i = 0; i < 1000; i++) wheel.schedule(i, i * 7L);
+		List<Integer> expired = new ArrayList<>();
+		wheel.advance(100_000, expired::add);
+		assertEquals(1000, expired.size());
+		assertEquals(0, wheel.size());
+	}
+}
@@ -0,0 +1,69 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void burstThenDenyWithRetryAfterThenRefill() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter();
+		long now = 10 * SECOND;
+		for (int i = 0; i < 5; i++) {
+			TokenBucketLimiter.Decision d = limiter.tryAcquire("a", SECOND, 5, now);
+			assertTrue(d.isAllowed());
+			assertEquals(4 - i, d.getRemaining());
+		}
+		TokenBucketLimiter.Decision denied = limiter.tryAcquire("a", SECOND, 5, now);
+		assertFalse(denied.isAllowed());
+		assertEquals(SECOND, denied.getRetryAfterNanos());
+
+		// Other keys have their own bucket
+		assertTrue(limiter.tryAcquire("b", SECOND, 5, now).isAllowed());
+
+		// One interval later exactly one more request fits
+		assertTrue(limiter.tryAcquire("a", SECOND, 5, now + SECOND).isAllowed());
+		assertFalse(limiter.tryAcquire("a", SECOND, 5, now + SECOND).isAllowed());
+	}
+
+	@Test
+	void onlyFullBucketsAreEvicted() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter();
+		long now = 10 * SECOND;
+		limiter.tryAcquire("busy", SECOND, 2, now);
+		limiter.tryAcquire("busy", SECOND, 2, now);
+		limiter.tryAcquire("idle", SECOND, 2, now);
+
+		assertEquals(0, limiter.evictIdle(now));
+		assertEquals(1, limiter.evictIdle(now + SECOND));
+		assertEquals(1, limiter.size());
+		assertEquals(1, limiter.evictIdle(now + 2 * SECOND));
+	}
+
+	@Test
+	void concurrentCallersNeverExceedTheBurst() throws Exception {
+		TokenBucketLimiter limiter = new TokenBucketLimiter();
+		long now = 10 * SECOND;
+		int threads = 8;
+		AtomicInteger allowed = new AtomicInteger();
+		CountDownLatch done = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread(() -> {
+				for (int i = 0; i < 1000; i++) {
+					if (limiter.tryAcquire("shared", SECOND, 100, now).isAllowed()) allowed.incrementAndGet();
+				}
+				done.countDown();
+			}).start();
+		}
+		done.await();
+		assertEquals(100, allowed.get());
+	}
+}
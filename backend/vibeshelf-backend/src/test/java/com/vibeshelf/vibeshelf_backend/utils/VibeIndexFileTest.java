@@ -0,0 +1,64 @@
+package com.vibeshelf.vibeshelf_backend.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VibeIndexFileTest {
+
+	@TempDir
+	Path dir;
+
+	// Same layout create_vibe_index.py writes
+	private static byte[] indexBytes(int version, long[] ids, float[][] rows) {
+		int dim = rows[0].length;
+		long idsOffset = VibeIndexFile.HEADER_BYTES;
+		long vectorsOffset = (idsOffset + 8L * ids.length + 63) / 64 * 64;
+		ByteBuffer buf = ByteBuffer.allocate((int) (vectorsOffset + 4L * dim * rows.length)).order(ByteOrder.LITTLE_ENDIAN);
+		buf.put(VibeIndexFile.MAGIC).putInt(version).putInt(dim).putLong(rows.length)
+			.putInt(VibeIndexFile.FLAG_NORMALIZED).putInt(0).putLong(idsOffset).putLong(vectorsOffset);
+		buf.position((int) idsOffset);
+		for (long id : ids) buf.putLong(id);
+		buf.position((int) vectorsOffset);
+		for (float[] row : rows) for (float v : row) buf.putFloat(v);
+		return buf.array();
+	}
+
+	@Test
+	void mapsVectorsAndIdTable() throws IOException {
+		float[][] rows = {{1f, 0f, 0f}, {0f, 0.6f, 0.8f}, {0f, 0f, 1f}};
+		long[] ids = {42L, -1L, 7L};
+		Path file = dir.resolve("index.bin");
+		Files.write(file, indexBytes(VibeIndexFile.VERSION, ids, rows));
+
+		VibeIndexFile index = VibeIndexFile.open(file);
+		assertTrue(index.vectors().isMapped());
+		assertEquals(3, index.vectors().count());
+		assertArrayEquals(ids, index.bookIds());
+		float[] v = new float[3];
+		index.vectors().get(1, v);
+		assertArrayEquals(rows[1], v);
+
+		VibeIndex vibe = new VibeIndex(index.vectors(), index.bookIds(), new String[3], new String[3], new String[3]);
+		assertEquals(2, vibe.findRowByBookId(7L));
+		assertEquals(-1, vibe.findRowByBookId(-1L));
+		assertEquals(-1, vibe.findRowByBookId(99L));
+	}
+
+	@Test
+	void rejectsUnknownVersion() throws IOException {
+		Path file = dir.resolve("future.bin");
+		Files.write(file, indexBytes(VibeIndexFile.VERSION + 1, new long[]{1L}, new float[][]{{1f, 0f}}));
+		assertThrows(IOException.class, () -> VibeIndexFile.open(file));
+	}
+}
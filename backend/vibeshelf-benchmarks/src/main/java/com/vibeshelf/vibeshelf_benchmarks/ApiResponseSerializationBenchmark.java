@@ -0,0 +1,71 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.vibeshelf.vibeshelf_backend.dto.ApiResponse;
+import com.vibeshelf.vibeshelf_backend.dto.PaginationInfo;
+import com.vibeshelf.vibeshelf_backend.model.BookDetailed;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a /api/v2/books response: ApiResponse with a
+ * 24-book page, pagination and meta, through a shared ObjectMapper and
+ * through a pre-built ObjectWriter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private ObjectWriter writer;
+    private ApiResponse<List<BookDetailed>> response;
+
+    @Setup
+    public void setUp() {
+        List<BookDetailed> books = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            books.add(BookDetailed.builder()
+                    .id((long) i)
+                    .title("The Night Circus " + i)
+                    .author("Erin Morgenstern")
+                    .description("The circus arrives without warning. No announcements precede it. It is simply there, when yesterday it was not.")
+                    .imageUrl("https://images.example.com/books/" + i + ".jpg")
+                    .genre("Fantasy, Fiction, Romance, Magic, Historical Fiction")
+                    .build());
+        }
+        response = ApiResponse.<List<BookDetailed>>builder()
+                .data(books)
+                .pagination(PaginationInfo.builder().page(1).limit(24).total(52478L).totalPages(2187).hasNext(true).hasPrev(false).build())
+                .meta(ApiResponse.Meta.builder().cached(true).cacheAge(42L).source("cache").processingTime(3L).build())
+                .build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructParametricType(ApiResponse.class,
+                mapper.getTypeFactory().constructCollectionType(List.class, BookDetailed.class)));
+    }
+
+    @Benchmark
+    public byte[] objectMapper() throws Exception {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] objectWriter() throws Exception {
+        return writer.writeValueAsBytes(response);
+    }
+}
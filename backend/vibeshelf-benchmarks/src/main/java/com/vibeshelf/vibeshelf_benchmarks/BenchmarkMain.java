@@ -0,0 +1,38 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH options and always
+ * adds the GC profiler, so every run reports gc.alloc.rate.norm (bytes
+ * allocated per operation) next to the timings and allocation regressions
+ * show up as clearly as slowdowns.
+ *
+ *   java -jar target/benchmarks.jar                 all suites
+ *   java -jar target/benchmarks.jar Jwt -f 1        one suite, one fork
+ *   java -jar target/benchmarks.jar -l              list, help etc. go straight to JMH
+ */
+public final class BenchmarkMain {
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        if (cli.shouldHelp() || cli.shouldList() || cli.shouldListWithParams() || cli.shouldListProfilers()
+                || cli.shouldListResultFormats()) {
+            Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .parent(cli)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
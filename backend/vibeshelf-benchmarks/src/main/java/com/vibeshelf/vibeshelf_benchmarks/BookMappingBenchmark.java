@@ -0,0 +1,59 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import com.vibeshelf.vibeshelf_backend.model.Book;
+import com.vibeshelf.vibeshelf_backend.model.BookDetailed;
+import com.vibeshelf.vibeshelf_backend.service.OptimizedBookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OptimizedBookService.toDetailedSafe over a 24-book page (the default
+ * listing size), as done for every /api/v2/books page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BookMappingBenchmark {
+
+    private OptimizedBookService service;
+    private List<Book> page;
+
+    @Setup
+    public void setUp() {
+        // Mapping never touches the repository
+        service = new OptimizedBookService(null);
+        page = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            page.add(Book.builder()
+                    .id((long) i)
+                    .title("The Night Circus " + i)
+                    .author("Erin Morgenstern")
+                    .description("The circus arrives without warning. No announcements precede it. It is simply there, when yesterday it was not.")
+                    .image("https://images.example.com/books/" + i + ".jpg")
+                    .genre("Fantasy, Fiction, Romance, Magic, Historical Fiction")
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public List<BookDetailed> mapPage() {
+        List<BookDetailed> out = new ArrayList<>(page.size());
+        for (Book b : page) out.add(service.toDetailedSafe(b));
+        return out;
+    }
+}
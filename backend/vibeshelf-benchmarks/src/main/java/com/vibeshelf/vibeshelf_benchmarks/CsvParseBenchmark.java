@@ -0,0 +1,47 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import com.vibeshelf.vibeshelf_backend.config.DataLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataLoader.parseCsvLineComma on rows shaped like the Best Books Ever
+ * dataset: a plain row, and one with quoted fields, embedded commas and
+ * escaped quotes in a long description.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvParseBenchmark {
+
+    @Param({ "plain", "quoted" })
+    public String row;
+
+    private static final String PLAIN =
+        "2767052-the-hunger-games,The Hunger Games,The Hunger Games #1,Suzanne Collins,4.33,9780439023481,English,374,2008,6376780";
+
+    private static final String QUOTED =
+        "2767052-the-hunger-games,The Hunger Games,\"The Hunger Games #1\",Suzanne Collins,4.33,"
+        + "\"WINNING MEANS FAME AND FORTUNE. LOSING MEANS CERTAIN DEATH. In the ruins of a place once known as North America "
+        + "lies the nation of Panem, a shining Capitol surrounded by twelve outlying districts. The Capitol is harsh and cruel "
+        + "and keeps the districts in line by forcing them all to send one boy and one girl, the \"\"tributes\"\", to fight.\","
+        + "\"['Young Adult', 'Fiction', 'Dystopia', 'Fantasy', 'Science Fiction']\",9780439023481,English,374,2008,6376780";
+
+    @Benchmark
+    public String[] parse() {
+        return DataLoader.parseCsvLineComma("plain".equals(row) ? PLAIN : QUOTED);
+    }
+}
@@ -0,0 +1,53 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import com.vibeshelf.vibeshelf_backend.service.GenreNormalizationService;
+import com.vibeshelf.vibeshelf_backend.utils.GenreQueryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Genre handling on the listing path: turning the genre parameter of
+ * /api/books into tokens and a REGEXP (GenreQueryParser, as BookController
+ * does per request), and GenreNormalizationService.normalize on mapped
+ * names, plural variants and unknown names.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenreBenchmark {
+
+    /** Genre parameters in the three shapes the frontend sends. */
+    @State(Scope.Benchmark)
+    public static class Query {
+        @Param({ "Thriller,Mystery,Science Fiction", "[\"Thriller\",\"Mystery\",\"Science Fiction\"]", "Fantasy" })
+        public String genre;
+    }
+
+    private final String[] names = { "Sci-Fi", "Young Adult", "mysteries", "Dark Academia" };
+
+    @Benchmark
+    public String parseAndBuildRegex(Query query) {
+        List<String> tokens = GenreQueryParser.tokens(query.genre);
+        return tokens.size() > 1 ? GenreQueryParser.regex(tokens) : tokens.get(0);
+    }
+
+    @Benchmark
+    public void normalize(Blackhole bh) {
+        for (String name : names) bh.consume(GenreNormalizationService.normalize(name));
+    }
+}
@@ -0,0 +1,57 @@
+package com.vibeshelf.vibeshelf_benchmarks;
+
+import com.vibeshelf.vibeshelf_backend.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks as the profile endpoints do them (validateToken then
+ * extractEmail, two parses) against the single parseClaims the auth filter
+ * uses on a token-cache miss.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken("reader@example.com", "42", List.of("USER"), true);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return JwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return JwtUtil.extractEmail(token);
+    }
+
+    @Benchmark
+    public String validateThenExtract() {
+        return JwtUtil.validateToken(token) ? JwtUtil.extractEmail(token) : null;
+    }
+
+    @Benchmark
+    public String parseClaimsOnce() {
+        return JwtUtil.parseClaims(token).getSubject();
+    }
+}